@@ -8,25 +8,49 @@ import Kinkin.aeternum.hud.HudService;
 import Kinkin.aeternum.items.SeasonClockService;
 import Kinkin.aeternum.lang.LanguageManager;
 import Kinkin.aeternum.command.SeasonCommand;
+import Kinkin.aeternum.config.ConfigSnapshot;
 import Kinkin.aeternum.util.Configs;
+import Kinkin.aeternum.util.LifecycleRegistry;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.PlayerSnapshotService;
 import Kinkin.aeternum.weather.SeasonalWeatherService;
 import Kinkin.aeternum.world.*;
 import org.bukkit.*;
+import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.generator.ChunkGenerator;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
 import net.md_5.bungee.api.ChatColor;
+import java.io.File;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public final class AeternumSeasonsPlugin extends JavaPlugin {
 
     public Configs cfg;
+    public final LifecycleRegistry lifecycle = new LifecycleRegistry(this);
+    // foto de jugadores por tick (posiciones/chunk/mirada en primitivos + rejilla por mundo)
+    public final PlayerSnapshotService players = new PlayerSnapshotService(this);
     private SeasonService seasons;
     private HudService hud;
     public LanguageManager lang;
     private WinterWorldPainter winterPainter;
+    private RevertJournal revertJournal;
+    private SectionProbe sectionProbe;
+    private SurfaceCatalog surfaceCatalog;
+    private BlockMutationBatcher mutations;
+    private ChunkSeasonStamp seasonStamp;
+    private SeasonOverlay overlay;
+    private BlockMarks blockMarks;
+    private TreeRegistry trees;
+    private BiomeTraits biomeTraits;
+    private SeasonTransitionOrchestrator transitions;
     private BiomeSpoofAdapter biomeSpoof;
     private SeasonalWeatherService seasonalWeather;
+    private ClimateFieldService climateField;
     private SeasonalCropGrowthListener cropGrowth;
     private AutumnSoilPainter autumnSoilPainter;
     private CanopySnowPainter canopySnowPainter;
@@ -34,16 +58,23 @@ public final class AeternumSeasonsPlugin extends JavaPlugin {
     private SeasonalFloraController flora;
     private SeasonClockService seasonClock;
     private FastLeafDecayService fastLeafDecay;
+    private VirtualFoliage virtualFoliage;
+    private SeasonalPopulator seasonalPopulator;
     private VillagerTypeOverrides villagerTypes;
-    private java.util.List<String> disabledWorlds = new java.util.ArrayList<>();
+    private volatile java.util.List<String> disabledWorlds = new java.util.ArrayList<>();
     private BiomeSpoofSpawnGuard biomeSpoofSpawnGuard;
 
+    public AeternumSeasonsPlugin() {
+    }
+
+    /** Solo tests: instancia el plugin fuera de Paper (el constructor de MockBukkit). */
+    AeternumSeasonsPlugin(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
+
     private void loadWorldExclusionList() {
-        // Obtenemos la lista de la nueva sección 'worlds.disabled_season_fx'
-        this.disabledWorlds = getConfig().getStringList("worlds.disabled_season_fx");
-        if (this.disabledWorlds == null) {
-            this.disabledWorlds = java.util.Collections.emptyList();
-        }
+        // Obtenemos la lista de la nueva sección 'worlds.disabled_season_fx' (desde la foto vigente)
+        this.disabledWorlds = cfg.snapshot().disabledWorlds();
         getLogger().info("[SeasonsCore] FX deshabilitados en " + this.disabledWorlds.size() + " mundos: " + this.disabledWorlds);
     }
 
@@ -55,6 +86,17 @@ public final class AeternumSeasonsPlugin extends JavaPlugin {
     }
 
 
+    /** config.yml de la foto vigente; antes de la primera foto, el de Bukkit. */
+    @Override public FileConfiguration getConfig() {
+        return (cfg != null && cfg.main != null) ? cfg.main : super.getConfig();
+    }
+
+    /** Quien llame a reloadConfig() a mano ve lo releído en getConfig() (hasta la próxima foto). */
+    @Override public void reloadConfig() {
+        super.reloadConfig();
+        if (cfg != null) cfg.main = super.getConfig();
+    }
+
     @Override public void onEnable() {
         saveDefaultConfig();
         this.cfg = new Configs(this);
@@ -68,21 +110,50 @@ public final class AeternumSeasonsPlugin extends JavaPlugin {
         boolean frostEnabled = getConfig().getBoolean("features.portals.frost.enabled", true);
         boolean heatEnabled  = getConfig().getBoolean("features.portals.heat.enabled", true);
 
+        // rasgos de bioma por ordinal (se rehacen al recargar datapacks)
+        this.biomeTraits = new BiomeTraits(this);
+        biomeTraits.register();
+
+        // antes que painter/spoof: aplica los reverts que quedaron del apagado anterior
+        this.revertJournal = new RevertJournal(this);
+        revertJournal.register();
+
+        // antes que los escáneres (flora la usa ya en su constructor)
+        this.sectionProbe = new SectionProbe(this);
+        sectionProbe.register();
+        this.surfaceCatalog = new SurfaceCatalog(this);
+        surfaceCatalog.register();
+        this.mutations = new BlockMutationBatcher(this);
+        mutations.register();
+        this.overlay = new SeasonOverlay(this);
+        overlay.register();
+        this.blockMarks = new BlockMarks(this);
+        blockMarks.register();
+        this.trees = new TreeRegistry(this);
+        trees.register();
+
         this.seasons = new SeasonService(this);
+        this.seasonStamp = new ChunkSeasonStamp(this, seasons);
         this.hud     = new HudService(this, seasons);
         this.winterPainter = new WinterWorldPainter(this, seasons);
         this.biomeSpoof = new BiomeSpoofAdapter(this, seasons);
         this.biomeSpoofSpawnGuard = new BiomeSpoofSpawnGuard(this, biomeSpoof);
-        this.biomeSpoofSpawnGuard.setEnabled(cfg.climate.getBoolean("biome_spoof.spawn_guard.enabled", true));
+        this.biomeSpoofSpawnGuard.setEnabled(cfg.snapshot().biomeSpoof().spawnGuardEnabled());
         this.seasonalWeather = new SeasonalWeatherService(this, seasons);
+        this.climateField = new ClimateFieldService(this, seasons, biomeSpoof, seasonalWeather);
         this.cropGrowth = new SeasonalCropGrowthListener(this, seasons);
         this.autumnSoilPainter = new AutumnSoilPainter(this, seasons);
         this.migration = new AnimalMigrationService(this, seasons);
         this.canopySnowPainter = new CanopySnowPainter(this, seasons);
         this.flora = new SeasonalFloraController(this, seasons);
+        // después de los participantes del cambio de estación (spoof, painters, flora)
+        this.transitions = new SeasonTransitionOrchestrator(this, seasons, biomeSpoof,
+                winterPainter, autumnSoilPainter, flora);
+        this.seasonalPopulator = new SeasonalPopulator(this, seasons);
         this.fastLeafDecay = new FastLeafDecayService(this);
+        this.virtualFoliage = new VirtualFoliage(this, seasons);
         this.villagerTypes = new VillagerTypeOverrides(this, this.lang);
-        getServer().getPluginManager().registerEvents(villagerTypes, this);
+        villagerTypes.register();
 
         //CRAFTEOS
         this.seasonClock = new SeasonClockService(this, seasons);
@@ -101,16 +172,21 @@ public final class AeternumSeasonsPlugin extends JavaPlugin {
             getCommand("seasonguide").setTabCompleter(guideCmd);
         }
         seasons.register();
+        seasonStamp.register();
         hud.register();
         winterPainter.register();
         biomeSpoof.register();
+        transitions.register();
         migration.register();
         autumnSoilPainter.register();
         cropGrowth.register();
         seasonalWeather.register();
+        climateField.register();
         canopySnowPainter.register();
         flora.register();
+        seasonalPopulator.register();
         fastLeafDecay.register();
+        virtualFoliage.register();
         biomeSpoofSpawnGuard.register();
 
         //CRAFTEOS
@@ -130,14 +206,37 @@ public final class AeternumSeasonsPlugin extends JavaPlugin {
     @Override public void onDisable() {
         if (hud != null) hud.unregister();
         if (seasons != null) seasons.persistNow();
+        // cambios de bloque aún en cola: aplicarlos y dejar el overlay escrito en los chunks
+        // antes de que el servidor los guarde
+        if (mutations != null) mutations.flush();
         if (winterPainter != null) winterPainter.unregister();
-        if (biomeSpoof != null) biomeSpoof.unregister();
+        if (overlay != null) overlay.unregister();
+        if (blockMarks != null) blockMarks.unregister();
+        // apagado rápido: en vez de revertir los biomas aquí, se anota en el diario y se
+        // revierten chunk a chunk en el próximo arranque
+        boolean journal = revertJournal != null && revertJournal.isEnabled();
+        if (biomeSpoof != null) {
+            if (journal) biomeSpoof.journalAndClose(revertJournal);
+            else biomeSpoof.unregister();
+        }
+        if (revertJournal != null) {
+            revertJournal.unregister();
+            revertJournal.flush();
+        }
+        if (transitions != null) transitions.unregister();
         if (biomeSpoofSpawnGuard != null) biomeSpoofSpawnGuard.unregister();
         if (seasonalWeather != null) seasonalWeather.unregister();
+        if (climateField != null) climateField.unregister();
         if (cropGrowth != null) cropGrowth.unregister();
         if (autumnSoilPainter  != null) autumnSoilPainter.unregister();
         if (migration != null) migration.unregister();
         if (flora != null) flora.unregister();
+        if (seasonalPopulator != null) seasonalPopulator.unregister();
+        if (sectionProbe != null) sectionProbe.unregister();
+        if (mutations != null) mutations.unregister();
+        if (seasonStamp != null) seasonStamp.unregister();
+        if (surfaceCatalog != null) surfaceCatalog.unregister();
+        if (biomeTraits != null) biomeTraits.unregister();
 
         if (canopySnowPainter != null) {
             canopySnowPainter.unregister();
@@ -149,90 +248,157 @@ public final class AeternumSeasonsPlugin extends JavaPlugin {
         if (fastLeafDecay != null) {
             fastLeafDecay.unregister();
         }
+        // antes que trees: reenvía a los clientes las hojas reales
+        if (virtualFoliage != null) virtualFoliage.unregister();
+        if (trees != null) trees.unregister();
         if (villagerTypes != null) {
-            org.bukkit.event.HandlerList.unregisterAll(villagerTypes);
+            villagerTypes.unregister();
         }
 
+        // lo que quede (lang, guía, executors de IO...) se cierra aquí, y se reporta cualquier fuga
+        lifecycle.closeAll();
+        lifecycle.report("disable");
     }
 
     /* ===================== RELOAD ===================== */
 
-    public synchronized void reloadEverything() {
+    // evita dos reloads solapados (el parseo corre async)
+    private final AtomicBoolean reloadInFlight = new AtomicBoolean(false);
+
+    /**
+     * Hot-reload SIN revertir el mundo:
+     * 1) copia los YAML que falten aquí y los lee y valida fuera del hilo principal (ConfigSnapshot),
+     * 2) si hay errores, aborta y se queda con la foto anterior,
+     * 3) si no, en el hilo principal intercambia la foto de golpe y cada servicio
+     *    reconcilia solo lo que cambió (nada de unregister/register global).
+     */
+    public void reloadEverything(CommandSender requester) {
+        if (!reloadInFlight.compareAndSet(false, true)) {
+            if (requester != null) requester.sendMessage(trFor(requester, "cmd.season.reload.busy"));
+            return;
+        }
         getLogger().info("[SeasonsCore] Reload start...");
 
-        // 1) Persistir y desmontar
-        if (hud != null) hud.unregister();
-        if (winterPainter != null) winterPainter.unregister();
-        if (biomeSpoof != null) biomeSpoof.unregister();
-        if (biomeSpoofSpawnGuard != null) biomeSpoofSpawnGuard.unregister();
-        if (seasons != null) seasons.persistNow();
-        if (seasonalWeather != null) seasonalWeather.unregister();
-        if (cropGrowth != null) cropGrowth.unregister();
-        if (autumnSoilPainter  != null) autumnSoilPainter.unregister();
-        if (migration != null) migration.unregister();
-        if (flora != null) flora.unregister();
-        if (canopySnowPainter != null) canopySnowPainter.unregister();
-        if (seasonClock != null) seasonClock.unregister();
-        if (fastLeafDecay != null) {
-            fastLeafDecay.unregister();
+        LifecycleScope core = lifecycle.scope("Core");
+        // saveResource/getResource tocan el jar y la carpeta del plugin: en el hilo principal
+        Map<String, String> defaults = ConfigSnapshot.materialize(this);
+        File dataFolder = getDataFolder();
+        core.async(() -> {
+            ConfigSnapshot next = ConfigSnapshot.load(dataFolder, defaults);
+            core.now(() -> {
+                try {
+                    applySnapshot(next, requester);
+                } finally {
+                    reloadInFlight.set(false);
+                }
+            });
+        });
+    }
+
+    private void applySnapshot(ConfigSnapshot next, CommandSender requester) {
+        if (!next.isValid()) {
+            for (String err : next.errors()) {
+                getLogger().severe("[SeasonsCore] Reload aborted: " + err);
+            }
+            if (requester != null) {
+                requester.sendMessage(trFor(requester, "cmd.season.reload.failed")
+                        .replace("{errors}", String.join("; ", next.errors())));
+            }
+            return;
         }
-        if (villagerTypes != null) {
-            org.bukkit.event.HandlerList.unregisterAll(villagerTypes);
+        for (String w : next.warnings()) {
+            getLogger().warning(w);
         }
 
-        // 2) Recargar configs e idiomas
-
-
-        // flags frescos (si los usas en otro lado)
-        boolean frostEnabled = getConfig().getBoolean("features.portals.frost.enabled", true);
-        boolean heatEnabled  = getConfig().getBoolean("features.portals.heat.enabled", true);
-
-        // Reinstanciar LanguageManager
-        this.lang = new LanguageManager(this);
-        lang.register();
-
-        // 3) Reinstanciar servicios con la config nueva
-        this.seasons = new SeasonService(this);
-        this.hud     = new HudService(this, seasons);
-        this.winterPainter = new WinterWorldPainter(this, seasons);
-        this.biomeSpoof = new BiomeSpoofAdapter(this, seasons);
-        this.biomeSpoofSpawnGuard = new BiomeSpoofSpawnGuard(this, biomeSpoof);
-        this.biomeSpoofSpawnGuard.setEnabled(cfg.climate.getBoolean("biome_spoof.spawn_guard.enabled", true));
-        this.seasonalWeather = new SeasonalWeatherService(this, seasons);
-        this.cropGrowth = new SeasonalCropGrowthListener(this, seasons);
-        this.autumnSoilPainter = new AutumnSoilPainter(this, seasons);
-        this.migration = new AnimalMigrationService(this, seasons);
-        this.canopySnowPainter = new CanopySnowPainter(this, seasons);
-        this.flora = new SeasonalFloraController(this, seasons);
-        this.seasonClock = new SeasonClockService(this, seasons);
-        this.fastLeafDecay = new FastLeafDecayService(this);
-
-        // 4) Registrar todo de nuevo
-        seasons.register();
-        hud.register();
-        winterPainter.register();
-        biomeSpoof.register();
-        migration.register();
-        autumnSoilPainter.register();
+        // 1) Intercambio atómico de la foto (calendar/hud/climate + config.yml).
+        //    config.yml ya viene parseado en la foto: sin reloadConfig() (IO) en el hilo principal.
+        cfg.apply(next);
+        this.disabledWorlds = next.disabledWorlds();
+        lang.reload();
+        WinterWorldGuardHelper.reload(this);
+
+        // 2) Reconciliar cada servicio con los ajustes nuevos
+        seasons.applySettings(next.calendarSettings());
+        hud.applySettings(next.hudSettings());
+        biomeSpoof.applySettings(next.biomeSpoof());
+        transitions.applySettings(next.transitions());
+        biomeSpoofSpawnGuard.setEnabled(next.biomeSpoof().spawnGuardEnabled());
+
+        winterPainter.applySettings(next.realSnow(), next.autumnFoliage(), next.disabledWorlds());
+        revertJournal.reloadFromConfig();
+        seasonalWeather.applySettings(next.weather());
+        climateField.reload();
+        migration.applySettings(next.migration());
+        autumnSoilPainter.applySettings(next.autumnSoil(), next.autumnFoliage());
+        virtualFoliage.applySettings(next.autumnFoliage());
+        flora.applySettings(next.flora());
+        seasonalPopulator.reload();
+        villagerTypes.reloadFromConfig();
+        canopySnowPainter.applySettings(next.canopySnow());
+
+        cropGrowth.unregister();
+        cropGrowth.reloadFromConfig();
         cropGrowth.register();
-        seasonalWeather.register();
-        canopySnowPainter.register();
-        flora.register();
-        fastLeafDecay.register();
-        biomeSpoofSpawnGuard.register();
 
         // CRAFTEOS: limpiar receta vieja y registrar de nuevo
         if (seasonClock != null) {
+            seasonClock.unregister();
             Bukkit.removeRecipe(new NamespacedKey(this, "season_clock"));
             seasonClock.register();
         }
 
-        Bukkit.getLogger().info("[SeasonsCore] Reload done.");
+        getLogger().info("[SeasonsCore] Reload done.");
+        lifecycle.report("reload");
+        if (requester != null) requester.sendMessage(trFor(requester, "cmd.season.reload.done"));
+    }
+
+    private String trFor(CommandSender s, String key) {
+        return lang.tr((s instanceof org.bukkit.entity.Player p) ? p : null, key);
     }
 
     public SeasonService getSeasons() {
         return seasons;
     }
 
+    public SeasonTransitionOrchestrator getTransitions() {
+        return transitions;
+    }
+
+    public RevertJournal getRevertJournal() {
+        return revertJournal;
+    }
+
+    public SectionProbe getSectionProbe() {
+        return sectionProbe;
+    }
+
+    public SurfaceCatalog getSurfaceCatalog() {
+        return surfaceCatalog;
+    }
+
+    public ChunkSeasonStamp getSeasonStamp() {
+        return seasonStamp;
+    }
+
+    public BlockMutationBatcher getMutations() {
+        return mutations;
+    }
+
+    public SeasonOverlay getOverlay() {
+        return overlay;
+    }
+
+    public BlockMarks getBlockMarks() {
+        return blockMarks;
+    }
+
+    public TreeRegistry getTrees() {
+        return trees;
+    }
+
+    public ClimateFieldService getClimateField() {
+        return climateField;
+    }
+
 }
 
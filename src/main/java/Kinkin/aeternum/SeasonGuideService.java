@@ -1,11 +1,10 @@
 package Kinkin.aeternum;
 
-import org.bukkit.Bukkit;
+import Kinkin.aeternum.util.LifecycleScope;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.*;
 import org.bukkit.event.player.PlayerJoinEvent;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import java.io.File;
 import java.io.IOException;
@@ -16,9 +15,11 @@ public final class SeasonGuideService implements Listener {
     private final AeternumSeasonsPlugin plugin;
     private final File file;
     private final YamlConfiguration data;
+    private final LifecycleScope life;
 
     public SeasonGuideService(AeternumSeasonsPlugin plugin) {
         this.plugin = plugin;
+        this.life = plugin.lifecycle.scope("SeasonGuideJoin");
         this.file = new File(plugin.getDataFolder(), "data/players.yml");
         if (!file.getParentFile().exists()) file.getParentFile().mkdirs();
         if (!file.exists()) {
@@ -30,11 +31,11 @@ public final class SeasonGuideService implements Listener {
     }
 
     public void register() {
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        life.listen(this);
     }
 
     public void unregister() {
-        HandlerList.unregisterAll(this);
+        life.close();
         save();
     }
 
@@ -63,12 +64,9 @@ public final class SeasonGuideService implements Listener {
         // Lo marcamos ya para que no se repita aunque se desconecte
         markSeenGuide(p.getUniqueId());
 
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (!p.isOnline()) return;
-                SeasonGuide.sendGuide(p, plugin);
-            }
-        }.runTaskLater(plugin, 60L); // ~3 segundos
+        life.later(() -> {
+            if (!p.isOnline()) return;
+            SeasonGuide.sendGuide(p, plugin);
+        }, 60L); // ~3 segundos
     }
 }
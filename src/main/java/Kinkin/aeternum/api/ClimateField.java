@@ -0,0 +1,36 @@
+package Kinkin.aeternum.api;
+
+import org.bukkit.World;
+
+/**
+ * Campo de clima estacional (temperatura + precipitación) a resolución de chunk.
+ *
+ * Combina el bioma ORIGINAL (el de antes del spoof), la altura, la estación actual
+ * (mezclada con la siguiente en los últimos días) y la lluvia programada para hoy.
+ * Los valores usan la escala vanilla de temperatura: por debajo de {@link #FREEZING} nieva.
+ *
+ * Otros plugins lo obtienen con:
+ * <pre>
+ *   ClimateField field = Bukkit.getServicesManager().load(ClimateField.class);
+ * </pre>
+ * Solo hilo principal. No carga chunks: fuera de chunks cargados devuelve NaN.
+ */
+public interface ClimateField {
+
+    /** Umbral vanilla de nieve/hielo. */
+    float FREEZING = 0.15f;
+
+    /** Temperatura en (x, y, z), o NaN si el chunk no está cargado. */
+    float temperature(World w, int x, int y, int z);
+
+    /** Precipitación 0..1 en la columna (x, z), o NaN si el chunk no está cargado. */
+    float precipitation(World w, int x, int z);
+
+    /** ¿Hace frío suficiente para nieve/hielo en (x, y, z)? false si el chunk no está cargado. */
+    default boolean isFreezing(World w, int x, int y, int z) {
+        return temperature(w, x, y, z) < FREEZING;
+    }
+
+    /** Cambia cada vez que el campo se invalida (nuevo día/estación o recarga). */
+    long epoch();
+}
@@ -1,12 +1,13 @@
 package Kinkin.aeternum.calendar;
 
 import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.config.CalendarSettings;
+import Kinkin.aeternum.util.LifecycleScope;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerBedLeaveEvent;
 import org.bukkit.event.world.TimeSkipEvent;
@@ -26,20 +27,25 @@ public final class SeasonService implements Listener, Runnable {
     // ya no es final (se recarga)
     private int daysPerSeason = 28;
 
-    private final boolean advanceOnSleep;          // solo si no seguimos reloj
-    private final int realTimeMinutesPerDay;       // modo “tiempo real”
-    private final boolean followOverworldTime;     // seguir reloj MC
-    private final boolean requirePlayersOnServer;  // congelar si no hay nadie
+    private boolean advanceOnSleep;          // solo si no seguimos reloj
+    private int realTimeMinutesPerDay;       // modo “tiempo real”
+    private boolean followOverworldTime;     // seguir reloj MC
+    private boolean requirePlayersOnServer;  // congelar si no hay nadie
 
     // ✅ NUEVO: mundo ancla para el reloj (evita EliteMobs/instancias)
-    private final String timeAnchorWorldName;
+    private String timeAnchorWorldName;
 
     // ✅ NUEVO: límite anti-salto (si de pronto brinca 5000 días, NO lo aplicamos)
-    private final int maxCatchupDays;
+    private int maxCatchupDays;
+
+    // ajustes vigentes (para comparar en hot-reload)
+    private CalendarSettings settings;
 
     private CalendarState state;
 
     // tareas
+    private final LifecycleScope life;
+
     private BukkitTask rtTask;       // tiempo real
     private BukkitTask worldClock;   // seguidor de reloj overworld
 
@@ -54,105 +60,75 @@ public final class SeasonService implements Listener, Runnable {
 
     public SeasonService(AeternumSeasonsPlugin plugin) {
         this.plugin = plugin;
+        this.life = plugin.lifecycle.scope("SeasonService");
 
         // leemos primero los flags (con rutas compatibles)
-        this.advanceOnSleep        = readBool("advance.on_sleep", "calendar.advance.on_sleep", true);
-        this.realTimeMinutesPerDay = readInt("advance.real_time_minutes_per_day", "calendar.advance.real_time_minutes_per_day", 0);
-        this.followOverworldTime   = readBool("advance.follow_overworld_time", "calendar.advance.follow_overworld_time", true);
-
-        this.requirePlayersOnServer = readBool(
-                "advance.require_players_on_server",
-                "calendar.advance.require_players_on_server",
-                false
-        );
-
-        // ✅ NUEVO config
-        this.timeAnchorWorldName = readString(
-                "advance.time_anchor_world",
-                "calendar.advance.time_anchor_world",
-                "world"
-        );
-
-        this.maxCatchupDays = Math.max(0, readInt(
-                "advance.max_catchup_days",
-                "calendar.advance.max_catchup_days",
-                2
-        ));
+        copySettings(plugin.cfg.snapshot().calendarSettings());
 
         this.state = loadState();
         reloadCalendarSettings(); // carga days_per_season correcto
     }
 
-    /**
-     * Intenta leer primero sin prefijo; si no existe, usa "calendar.<path>".
-     */
-    private int readInt(String plainPath, String calendarPath, int def) {
-        int v = plugin.cfg.calendar.getInt(plainPath, Integer.MIN_VALUE);
-        if (v == Integer.MIN_VALUE) {
-            v = plugin.cfg.calendar.getInt(calendarPath, def);
-        }
-        return v;
+    private void copySettings(CalendarSettings cs) {
+        this.settings               = cs;
+        this.advanceOnSleep         = cs.advanceOnSleep();
+        this.realTimeMinutesPerDay  = cs.realTimeMinutesPerDay();
+        this.followOverworldTime    = cs.followOverworldTime();
+        this.requirePlayersOnServer = cs.requirePlayersOnServer();
+        this.timeAnchorWorldName    = cs.timeAnchorWorldName();
+        this.maxCatchupDays         = cs.maxCatchupDays();
     }
 
-    private boolean readBool(String plainPath, String calendarPath, boolean def) {
-        if (plugin.cfg.calendar.contains(plainPath)) {
-            return plugin.cfg.calendar.getBoolean(plainPath, def);
-        }
-        if (plugin.cfg.calendar.contains(calendarPath)) {
-            return plugin.cfg.calendar.getBoolean(calendarPath, def);
-        }
-        return def;
-    }
-
-    private String readString(String plainPath, String calendarPath, String def) {
-        if (plugin.cfg.calendar.contains(plainPath)) {
-            return plugin.cfg.calendar.getString(plainPath, def);
-        }
-        if (plugin.cfg.calendar.contains(calendarPath)) {
-            return plugin.cfg.calendar.getString(calendarPath, def);
+    /**
+     * Hot-reload: aplica los ajustes nuevos sin perder el estado del calendario.
+     * Solo se reprograman las tareas si cambió el modo de reloj.
+     */
+    public void applySettings(CalendarSettings next) {
+        boolean reschedule = next.clockDiffers(settings);
+        copySettings(next);
+        reloadCalendarSettings();
+        if (reschedule) {
+            scheduleClock();
         }
-        return def;
     }
 
     public void register() {
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        life.listen(this);
+        scheduleClock();
+    }
 
+    private void scheduleClock() {
         // cancelar por seguridad (evita dobles tareas)
-        if (rtTask != null) rtTask.cancel();
-        if (worldClock != null) worldClock.cancel();
-        rtTask = null;
-        worldClock = null;
+        rtTask = life.cancel(rtTask);
+        worldClock = life.cancel(worldClock);
 
         // PRIORIDAD: real-time gana, NO corremos worldClock
         if (realTimeMinutesPerDay > 0) {
             long period = 20L * 60L * realTimeMinutesPerDay;
-            this.rtTask = Bukkit.getScheduler().runTaskTimer(plugin, this, period, period);
+            this.rtTask = life.timer(this, period, period);
             return;
         }
 
         // seguir reloj del mundo
         if (followOverworldTime) {
             lastWorldDayIdx = Long.MIN_VALUE; // reset tracking
-            this.worldClock = Bukkit.getScheduler().runTaskTimer(plugin, this::tickWorldClock, 40L, 10L);
+            this.worldClock = life.timer(this::tickWorldClock, 40L, 10L);
         }
     }
 
     public void unregister() {
-        if (rtTask != null) rtTask.cancel();
-        if (worldClock != null) worldClock.cancel();
         rtTask = null;
         worldClock = null;
 
-        HandlerList.unregisterAll(this);
+        life.close();
     }
 
     /**
-     * Vuelve a leer calendar.days_per_season desde config.
+     * Vuelve a aplicar calendar.days_per_season desde los ajustes vigentes.
      * Llamar después de recargar la config.
      */
     public void reloadCalendarSettings() {
-        int v = readInt("days_per_season", "calendar.days_per_season", 28);
-        int newValue = Math.max(4, v);
+        int newValue = settings.daysPerSeason();
 
         if (newValue != this.daysPerSeason) {
             this.daysPerSeason = newValue;
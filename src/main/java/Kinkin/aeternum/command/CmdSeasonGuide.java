@@ -36,7 +36,7 @@ public final class CmdSeasonGuide implements CommandExecutor, TabCompleter, List
         this.seasonService = seasonService;
 
         // Para que podamos escuchar el join y dar el libro a nuevos jugadores
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        plugin.lifecycle.scope("SeasonGuide").listen(this);
     }
 
     // --------- COMANDO /season guide ---------
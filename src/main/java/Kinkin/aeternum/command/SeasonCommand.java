@@ -148,8 +148,8 @@ public final class SeasonCommand implements CommandExecutor, TabCompleter {
 
             case "reload" -> {
                 if (!s.hasPermission("aeternum.command.reload")) return deny(s);
-                plugin.cfg.loadAll(); // recarga calendar.yml, hud.yml, climate.yml, survival.yml
-                s.sendMessage(tr(s, "cmd.season.reload.done"));
+                // hot-reload: parseo async + intercambio atómico; el mensaje "done" llega al terminar
+                plugin.reloadEverything(s);
                 return true;
             }
 
@@ -0,0 +1,36 @@
+package Kinkin.aeternum.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Locale;
+
+/**
+ * Ajustes tipados de climate.yml → autumn_foliage.* (inmutables).
+ * clientMode = autumn_foliage.mode "client": lo pinta VirtualFoliage en cada
+ * cliente y los painters no tocan el mundo.
+ */
+public record AutumnFoliageSettings(
+        boolean enabled,
+        boolean clientMode,
+        int clientChunksPerTick,
+        int radiusBlocks,
+        int paintBudgetPerTick,
+        int revertBudgetPerTick,
+        boolean revertOnNonAutumn
+) {
+
+    public static AutumnFoliageSettings from(ConfigurationSection y) {
+        boolean enabled = y.getBoolean("autumn_foliage.enabled", true);
+        String mode = y.getString("autumn_foliage.mode", "world").trim().toLowerCase(Locale.ROOT);
+        return new AutumnFoliageSettings(
+                enabled,
+                enabled && "client".equals(mode),
+                Math.max(1, Math.min(64, y.getInt("autumn_foliage.client_chunks_per_tick", 8))),
+                y.getInt("autumn_foliage.radius_blocks", 48),
+                // límites duros
+                Math.min(40, y.getInt("autumn_foliage.paint_budget_per_tick", 220)),
+                Math.min(80, y.getInt("autumn_foliage.revert_budget_per_tick", 400)),
+                y.getBoolean("autumn_foliage.revert_on_non_autumn", true)
+        );
+    }
+}
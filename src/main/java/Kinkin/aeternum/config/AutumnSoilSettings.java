@@ -0,0 +1,23 @@
+package Kinkin.aeternum.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Ajustes tipados de climate.yml → autumn_soil.* (inmutables).
+ */
+public record AutumnSoilSettings(
+        boolean enabled,
+        int chunksPerTick,
+        int radiusChunks,
+        double leafChancePerBlock
+) {
+
+    public static AutumnSoilSettings from(ConfigurationSection y) {
+        return new AutumnSoilSettings(
+                y.getBoolean("autumn_soil.enabled", false),
+                Math.max(2, y.getInt("autumn_soil.attempts_per_tick", 4)),
+                Math.max(2, y.getInt("autumn_soil.radius_chunks", 4)),
+                Math.max(0.0, Math.min(1.0, y.getDouble("autumn_soil.leaf_chance_per_block", 1.0)))
+        );
+    }
+}
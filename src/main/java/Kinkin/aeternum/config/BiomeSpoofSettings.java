@@ -0,0 +1,90 @@
+package Kinkin.aeternum.config;
+
+import Kinkin.aeternum.calendar.Season;
+import org.bukkit.block.Biome;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Ajustes tipados de climate.yml → biome_spoof.* (inmutables).
+ * equals() es por valor, así el adaptador puede comparar snapshot viejo vs nuevo
+ * y repintar solo las familias (tierra/océano/río) que cambiaron.
+ */
+public record BiomeSpoofSettings(
+        boolean enabled,
+        int radiusChunks,
+        int budgetPerTick,
+        boolean revertOnNonWinter,
+        Map<Season, Biome> landTargets,
+        boolean oceansEnabled,
+        boolean oceansAffectRivers,
+        boolean oceansAffectShores,
+        boolean oceansKeepDeepVariants,
+        Map<Season, Biome> oceanTargets,
+        boolean riversEnabled,
+        Map<Season, Biome> riverTargets,
+        boolean spawnGuardEnabled
+) {
+
+    public static BiomeSpoofSettings from(ConfigurationSection y, List<String> warnings) {
+        String m = y.getString("biome_spoof.mode", "GLOBAL_RING");
+
+        EnumMap<Season, Biome> land = new EnumMap<>(Season.class);
+        land.put(Season.SPRING, readBiome(y, "biome_spoof.seasons.SPRING", Biome.FLOWER_FOREST, warnings));
+        land.put(Season.SUMMER, readBiome(y, "biome_spoof.seasons.SUMMER", Biome.PLAINS, warnings));
+        land.put(Season.AUTUMN, readBiome(y, "biome_spoof.seasons.AUTUMN", Biome.WINDSWEPT_SAVANNA, warnings));
+        land.put(Season.WINTER, readBiome(y, "biome_spoof.seasons.WINTER", Biome.SNOWY_PLAINS, warnings));
+
+        EnumMap<Season, Biome> ocean = new EnumMap<>(Season.class);
+        ocean.put(Season.SPRING, readBiome(y, "biome_spoof.oceans.seasons.SPRING", Biome.LUKEWARM_OCEAN, warnings));
+        ocean.put(Season.SUMMER, readBiome(y, "biome_spoof.oceans.seasons.SUMMER", Biome.WARM_OCEAN, warnings));
+        ocean.put(Season.AUTUMN, readBiome(y, "biome_spoof.oceans.seasons.AUTUMN", Biome.OCEAN, warnings));
+        ocean.put(Season.WINTER, readBiome(y, "biome_spoof.oceans.seasons.WINTER", Biome.FROZEN_OCEAN, warnings));
+
+        EnumMap<Season, Biome> river = new EnumMap<>(Season.class);
+        river.put(Season.SPRING, readBiome(y, "biome_spoof.rivers.seasons.SPRING", Biome.RIVER, warnings));
+        river.put(Season.SUMMER, readBiome(y, "biome_spoof.rivers.seasons.SUMMER", Biome.RIVER, warnings));
+        river.put(Season.AUTUMN, readBiome(y, "biome_spoof.rivers.seasons.AUTUMN", Biome.RIVER, warnings));
+        river.put(Season.WINTER, readBiome(y, "biome_spoof.rivers.seasons.WINTER", Biome.FROZEN_RIVER, warnings));
+
+        boolean affectRivers = y.getBoolean("biome_spoof.oceans.affect_rivers", true);
+
+        return new BiomeSpoofSettings(
+                !"OFF".equalsIgnoreCase(m),
+                Math.max(1, y.getInt("biome_spoof.radius_chunks", 8)),
+                Math.max(2, y.getInt("biome_spoof.budget_chunks_per_tick", 16)),
+                y.getBoolean("biome_spoof.revert_on_non_winter", true),
+                Collections.unmodifiableMap(land),
+                y.getBoolean("biome_spoof.oceans.enabled", true),
+                affectRivers,
+                y.getBoolean("biome_spoof.oceans.affect_shores", true),
+                y.getBoolean("biome_spoof.oceans.keep_deep_variants", true),
+                Collections.unmodifiableMap(ocean),
+                y.getBoolean("biome_spoof.rivers.enabled", affectRivers),
+                Collections.unmodifiableMap(river),
+                y.getBoolean("biome_spoof.spawn_guard.enabled", true)
+        );
+    }
+
+    /** true si cambian los flags que deciden a qué familia pertenece un chunk. */
+    public boolean classificationDiffers(BiomeSpoofSettings o) {
+        return oceansEnabled != o.oceansEnabled
+                || oceansAffectShores != o.oceansAffectShores
+                || riversEnabled != o.riversEnabled;
+    }
+
+    private static Biome readBiome(ConfigurationSection y, String path, Biome def, List<String> warnings) {
+        String s = y.getString(path, def.name());
+        try {
+            return Biome.valueOf(s.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            warnings.add("[BiomeSpoof] Invalid biome '" + s + "' at " + path + ", using " + def);
+            return def;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package Kinkin.aeternum.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Ajustes tipados de calendar.yml (inmutables).
+ * Acepta rutas sin prefijo y con prefijo "calendar." igual que antes.
+ */
+public record CalendarSettings(
+        int daysPerSeason,
+        boolean advanceOnSleep,
+        int realTimeMinutesPerDay,
+        boolean followOverworldTime,
+        boolean requirePlayersOnServer,
+        String timeAnchorWorldName,
+        int maxCatchupDays
+) {
+
+    public static CalendarSettings from(ConfigurationSection y) {
+        return new CalendarSettings(
+                Math.max(4, readInt(y, "days_per_season", 28)),
+                readBool(y, "advance.on_sleep", true),
+                readInt(y, "advance.real_time_minutes_per_day", 0),
+                readBool(y, "advance.follow_overworld_time", true),
+                readBool(y, "advance.require_players_on_server", false),
+                readString(y, "advance.time_anchor_world", "world"),
+                Math.max(0, readInt(y, "advance.max_catchup_days", 2))
+        );
+    }
+
+    /** true si cambian los ajustes que deciden qué tarea de reloj corre. */
+    public boolean clockDiffers(CalendarSettings o) {
+        return o == null
+                || realTimeMinutesPerDay != o.realTimeMinutesPerDay
+                || followOverworldTime != o.followOverworldTime;
+    }
+
+    /* ===== lectura compatible: primero sin prefijo, luego "calendar.<path>" ===== */
+
+    private static int readInt(ConfigurationSection y, String plainPath, int def) {
+        int v = y.getInt(plainPath, Integer.MIN_VALUE);
+        if (v == Integer.MIN_VALUE) {
+            v = y.getInt("calendar." + plainPath, def);
+        }
+        return v;
+    }
+
+    private static boolean readBool(ConfigurationSection y, String plainPath, boolean def) {
+        if (y.contains(plainPath)) return y.getBoolean(plainPath, def);
+        String calendarPath = "calendar." + plainPath;
+        if (y.contains(calendarPath)) return y.getBoolean(calendarPath, def);
+        return def;
+    }
+
+    private static String readString(ConfigurationSection y, String plainPath, String def) {
+        if (y.contains(plainPath)) return y.getString(plainPath, def);
+        String calendarPath = "calendar." + plainPath;
+        if (y.contains(calendarPath)) return y.getString(calendarPath, def);
+        return def;
+    }
+}
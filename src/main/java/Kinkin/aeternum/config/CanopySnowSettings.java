@@ -0,0 +1,28 @@
+package Kinkin.aeternum.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Ajustes tipados de climate.yml → real_snow.canopy.* (inmutables).
+ * Sin la sección, el pintor de copas queda apagado.
+ */
+public record CanopySnowSettings(
+        boolean enabled,
+        int attemptsPerTick,
+        int radiusBlocks,
+        int maxLeafScanHeight,
+        boolean onlyInColdBiomes
+) {
+
+    public static CanopySnowSettings from(ConfigurationSection root) {
+        ConfigurationSection y = root.getConfigurationSection("real_snow.canopy");
+        if (y == null) return new CanopySnowSettings(false, 40, 32, 6, true);
+        return new CanopySnowSettings(
+                y.getBoolean("enabled", true),
+                Math.max(1, y.getInt("attempts_per_tick", 40)),
+                Math.max(4, y.getInt("radius_blocks", 32)),
+                Math.max(2, y.getInt("max_leaf_scan_height", 6)),
+                y.getBoolean("only_in_cold_biomes", true)
+        );
+    }
+}
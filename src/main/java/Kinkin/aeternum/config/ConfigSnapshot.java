@@ -0,0 +1,169 @@
+package Kinkin.aeternum.config;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Foto inmutable de toda la configuración del plugin.
+ *
+ * - {@link #materialize(Plugin)} (hilo principal) copia a disco los YAML que falten
+ *   y lee los del jar; {@link #load(File, Map)} SOLO lee la carpeta y parsea, así
+ *   que puede correr fuera del hilo principal.
+ * - Si algún YAML no parsea, se anota en {@link #errors()}: el reload se aborta y
+ *   los servicios siguen con la foto anterior.
+ * - En el hilo principal se intercambia de golpe (Configs.apply) y cada servicio
+ *   compara los ajustes tipados viejos vs nuevos para reconciliar solo lo que cambió.
+ *
+ * Los FileConfiguration de dentro se tratan como solo-lectura una vez publicados.
+ */
+public final class ConfigSnapshot {
+
+    private final FileConfiguration main;
+    private final FileConfiguration calendar;
+    private final FileConfiguration hud;
+    private final FileConfiguration climate;
+
+    private final CalendarSettings calendarSettings;
+    private final HudSettings hudSettings;
+    private final BiomeSpoofSettings biomeSpoof;
+    private final WeatherSettings weather;
+    private final TransitionSettings transitions;
+    private final RealSnowSettings realSnow;
+    private final CanopySnowSettings canopySnow;
+    private final AutumnFoliageSettings autumnFoliage;
+    private final AutumnSoilSettings autumnSoil;
+    private final FloraSettings flora;
+    private final MigrationSettings migration;
+    private final List<String> disabledWorlds;
+
+    private final List<String> warnings;
+    private final List<String> errors;
+
+    private ConfigSnapshot(FileConfiguration main,
+                           FileConfiguration calendar,
+                           FileConfiguration hud,
+                           FileConfiguration climate,
+                           List<String> warnings,
+                           List<String> errors) {
+        this.main = main;
+        this.calendar = calendar;
+        this.hud = hud;
+        this.climate = climate;
+
+        this.calendarSettings = CalendarSettings.from(calendar);
+        this.hudSettings = HudSettings.from(hud, warnings);
+        this.biomeSpoof = BiomeSpoofSettings.from(climate, warnings);
+        this.weather = WeatherSettings.from(climate);
+        this.transitions = TransitionSettings.from(climate);
+        this.realSnow = RealSnowSettings.from(climate);
+        this.canopySnow = CanopySnowSettings.from(climate);
+        this.autumnFoliage = AutumnFoliageSettings.from(climate);
+        this.autumnSoil = AutumnSoilSettings.from(climate);
+        this.flora = FloraSettings.from(climate);
+        this.migration = MigrationSettings.from(climate);
+        this.disabledWorlds = List.copyOf(main.getStringList("worlds.disabled_season_fx"));
+
+        this.warnings = Collections.unmodifiableList(warnings);
+        this.errors = Collections.unmodifiableList(errors);
+    }
+
+    private static final List<String> FILES = List.of("config.yml", "calendar.yml", "hud.yml", "climate.yml");
+
+    /** Arranque: materializa y lee seguido. Hilo principal. */
+    public static ConfigSnapshot load(Plugin plugin) {
+        return load(plugin.getDataFolder(), materialize(plugin));
+    }
+
+    /**
+     * Hilo principal: copia a la carpeta los YAML que falten (saveResource) y
+     * devuelve el texto de los del jar (nombre → YAML) para usarlos de defaults.
+     */
+    public static Map<String, String> materialize(Plugin plugin) {
+        Map<String, String> defaults = new LinkedHashMap<>();
+        for (String name : FILES) {
+            if (!new File(plugin.getDataFolder(), name).exists()) {
+                plugin.saveResource(name, false);
+            }
+            InputStream in = plugin.getResource(name);
+            if (in == null) continue;
+            try (in) {
+                defaults.put(name, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            } catch (IOException ignored) {
+            }
+        }
+        return defaults;
+    }
+
+    /** Lee y valida todos los YAML de la carpeta. Seguro para llamar desde un hilo async. */
+    public static ConfigSnapshot load(File dataFolder, Map<String, String> defaults) {
+        List<String> warnings = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+
+        FileConfiguration main     = read(dataFolder, "config.yml", defaults, errors);
+        FileConfiguration calendar = read(dataFolder, "calendar.yml", defaults, errors);
+        FileConfiguration hud      = read(dataFolder, "hud.yml", defaults, errors);
+        FileConfiguration climate  = read(dataFolder, "climate.yml", defaults, errors);
+
+        return new ConfigSnapshot(main, calendar, hud, climate, warnings, errors);
+    }
+
+    private static FileConfiguration read(File dataFolder, String name, Map<String, String> defaults, List<String> errors) {
+        File f = new File(dataFolder, name);
+
+        YamlConfiguration cfg = new YamlConfiguration();
+        try {
+            cfg.load(f);
+        } catch (InvalidConfigurationException | IOException ex) {
+            // a diferencia de loadConfiguration(), NO tragamos el error: invalida el reload
+            errors.add(name + ": " + ex.getMessage());
+        }
+
+        // Esto intenta copiar los comentarios del archivo que tienes dentro del JAR (resource)
+        // hacia el archivo que está en la carpeta del plugin si faltan llaves.
+        String jar = defaults.get(name);
+        if (jar != null) {
+            cfg.setDefaults(YamlConfiguration.loadConfiguration(new StringReader(jar)));
+            cfg.options().copyDefaults(true);
+        }
+        return cfg;
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    /** config.yml ya parseado (lo publica el plugin en vez de reloadConfig()). */
+    public FileConfiguration main() { return main; }
+    public FileConfiguration calendar() { return calendar; }
+    public FileConfiguration hud() { return hud; }
+    public FileConfiguration climate() { return climate; }
+
+    public CalendarSettings calendarSettings() { return calendarSettings; }
+    public HudSettings hudSettings() { return hudSettings; }
+    public BiomeSpoofSettings biomeSpoof() { return biomeSpoof; }
+    public WeatherSettings weather() { return weather; }
+    public TransitionSettings transitions() { return transitions; }
+    public RealSnowSettings realSnow() { return realSnow; }
+    public CanopySnowSettings canopySnow() { return canopySnow; }
+    public AutumnFoliageSettings autumnFoliage() { return autumnFoliage; }
+    public AutumnSoilSettings autumnSoil() { return autumnSoil; }
+    public FloraSettings flora() { return flora; }
+    public MigrationSettings migration() { return migration; }
+    public List<String> disabledWorlds() { return disabledWorlds; }
+
+    public List<String> warnings() { return warnings; }
+    public List<String> errors() { return errors; }
+}
@@ -0,0 +1,70 @@
+package Kinkin.aeternum.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ajustes tipados de climate.yml → seasonal_flora.* (inmutables).
+ *
+ * Las reglas se guardan como valores planos por regla (ruta → valor) en el
+ * orden del YAML: comparan por valor, así el controlador solo recompila las
+ * reglas (y reinicia el índice de ocupación) si cambió alguna.
+ */
+public record FloraSettings(
+        boolean enabled,
+        int tickPeriod,
+        int innerRadiusChunks,
+        int outerRadiusChunks,
+        int budgetPerTick,
+        int maxChunksPerTick,
+        boolean protectPlayerPlaced,
+        boolean allowInView,
+        int surfaceScanDepth,
+        Map<String, Map<String, Object>> rules
+) {
+
+    public static FloraSettings from(ConfigurationSection y) {
+        Map<String, Map<String, Object>> rules = new LinkedHashMap<>();
+        ConfigurationSection sec = y.getConfigurationSection("seasonal_flora.rules");
+        if (sec != null) {
+            for (String id : sec.getKeys(false)) {
+                ConfigurationSection rsec = sec.getConfigurationSection(id);
+                if (rsec == null) continue;
+                Map<String, Object> flat = new LinkedHashMap<>();
+                rsec.getValues(true).forEach((k, v) -> {
+                    if (!(v instanceof ConfigurationSection)) flat.put(k, v);
+                });
+                rules.put(id, Collections.unmodifiableMap(flat));
+            }
+        }
+
+        return new FloraSettings(
+                y.getBoolean("seasonal_flora.enabled", true),
+                Math.max(1, y.getInt("seasonal_flora.tick_period_ticks", 10)),
+                Math.max(0, y.getInt("seasonal_flora.inner_radius_chunks", 0)),
+                Math.max(1, y.getInt("seasonal_flora.outer_radius_chunks", 8)),
+                Math.max(1, y.getInt("seasonal_flora.budget_blocks_per_tick", 120)),
+                Math.max(1, y.getInt("seasonal_flora.max_chunks_per_tick", 8)),
+                y.getBoolean("seasonal_flora.protect_player_placed", true),
+                y.getBoolean("seasonal_flora.allow_in_view", true),
+                Math.max(1, y.getInt("seasonal_flora.surface_scan_depth", 8)),
+                Collections.unmodifiableMap(rules)
+        );
+    }
+
+    /** Una regla como sección de config de nuevo (para parsearla igual que del YAML). */
+    public static ConfigurationSection ruleSection(Map<String, Object> values) {
+        MemoryConfiguration m = new MemoryConfiguration();
+        values.forEach(m::set);
+        return m;
+    }
+
+    /** true si cambia lo que decide si corre la tarea y cada cuánto. */
+    public boolean scheduleDiffers(FloraSettings o) {
+        return o == null || enabled != o.enabled || tickPeriod != o.tickPeriod;
+    }
+}
@@ -0,0 +1,51 @@
+package Kinkin.aeternum.config;
+
+import Kinkin.aeternum.hud.HudService.HudMode;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Ajustes tipados de hud.yml (inmutables).
+ * Las listas de jugadores (variable/off) NO van aquí: son estado vivo del HudService.
+ */
+public record HudSettings(
+        boolean bossbarEnabled,
+        boolean actionbarEnabled,
+        boolean actionbarClearOnHide,
+        boolean colorBySeason,
+        long updateTicks,
+        HudMode defaultMode
+) {
+
+    public static HudSettings from(ConfigurationSection y, List<String> warnings) {
+        String rawDefault = y.getString("bossbar.default_mode", "FIXED");
+        HudMode dm;
+        try {
+            dm = HudMode.valueOf(rawDefault.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            warnings.add("hud.yml: invalid bossbar.default_mode '" + rawDefault + "', using FIXED");
+            dm = HudMode.FIXED;
+        }
+
+        long ticks = y.getLong("bossbar.update_ticks", 40L);
+        if (ticks < 1L) {
+            warnings.add("hud.yml: bossbar.update_ticks must be >= 1, using 1");
+            ticks = 1L;
+        }
+
+        return new HudSettings(
+                y.getBoolean("bossbar.enabled", true),
+                y.getBoolean("actionbar.enabled", false),
+                y.getBoolean("actionbar.clear_on_hide", false),
+                y.getBoolean("bossbar.color_by_season", true),
+                ticks,
+                dm
+        );
+    }
+
+    public boolean anyEnabled() {
+        return bossbarEnabled || actionbarEnabled;
+    }
+}
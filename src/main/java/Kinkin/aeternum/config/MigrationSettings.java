@@ -0,0 +1,53 @@
+package Kinkin.aeternum.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Ajustes tipados de climate.yml → migration.* (inmutables).
+ * Las listas de especies por estación/clima siguen fijas en el servicio.
+ */
+public record MigrationSettings(
+        boolean enabled,
+        long tickPeriod,
+        int animalsPerTick,
+        int searchRadiusBlocks,
+        boolean showParticles,
+        double springSpawnBoostChance,
+        double summerSpawnBoostChance,
+        double autumnSpawnBoostChance,
+        double winterSpawnBoostChance,
+        double winterWarmAnimalCullChance,
+        boolean winterCleanupEnabled,
+        int winterCleanupMaxDays,
+        int winterCleanupBaseRadius,
+        int winterCleanupRadiusStep,
+        int winterCleanupPerTick
+) {
+
+    public static MigrationSettings from(ConfigurationSection y) {
+        int animalsPerTick = y.getInt("migration.animals_per_tick", 40);
+        return new MigrationSettings(
+                y.getBoolean("migration.enabled", true),
+                y.getLong("migration.tick_period", 200L),
+                animalsPerTick,
+                y.getInt("migration.search_radius_blocks", 160),
+                y.getBoolean("migration.particles", true),
+                y.getDouble("migration.spawn.spring_boost_chance", 0.25),
+                y.getDouble("migration.spawn.summer_boost_chance", 0.25),
+                y.getDouble("migration.spawn.autumn_boost_chance", 0.20),
+                y.getDouble("migration.spawn.winter_boost_chance", 0.18),
+                y.getDouble("migration.soft_despawn.warm_in_winter_chance", 0.25),
+                // Limpieza de fauna cálida al inicio de invierno
+                y.getBoolean("migration.winter_cleanup.enabled", true),
+                Math.max(1, y.getInt("migration.winter_cleanup.days", 3)),
+                y.getInt("migration.winter_cleanup.base_radius_blocks", 64),
+                y.getInt("migration.winter_cleanup.radius_step_blocks", 64),
+                y.getInt("migration.winter_cleanup.max_per_tick", animalsPerTick)
+        );
+    }
+
+    /** true si cambia lo que decide si corre la tarea y cada cuánto. */
+    public boolean scheduleDiffers(MigrationSettings o) {
+        return o == null || enabled != o.enabled || tickPeriod != o.tickPeriod;
+    }
+}
@@ -0,0 +1,59 @@
+package Kinkin.aeternum.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Ajustes tipados de climate.yml → real_snow.* (inmutables), sin la copa
+ * ({@link CanopySnowSettings}). Los presupuestos ya vienen con sus límites duros.
+ */
+public record RealSnowSettings(
+        boolean enabled,
+        long periodTicks,
+        int columnsPerTick,
+        int radiusBlocks,
+        int maxSnowLayers,
+        boolean freezeWater,
+        double iceSpreadChance,
+        int iceBlocksPerTick,
+        boolean stormBoostEnabled,
+        double stormBudgetMultiplier,
+        int stormRadiusBonus,
+        boolean meltEnabled,
+        long meltPeriodTicks,
+        int meltBudgetPerTick,
+        boolean meltAlsoIce,
+        boolean startupMeltEnabled,
+        int startupMeltChunksPerTick
+) {
+
+    public static RealSnowSettings from(ConfigurationSection y) {
+        return new RealSnowSettings(
+                y.getBoolean("real_snow.enabled", true),
+                y.getLong("real_snow.tick_period_ticks", 10L),
+                Math.min(40, y.getInt("real_snow.max_columns_per_tick", 24)),
+                y.getInt("real_snow.radius_blocks", 40),
+                Math.max(1, Math.min(8, y.getInt("real_snow.depth.max_layers", 3))),
+                y.getBoolean("real_snow.freeze_water", true),
+                clamp(y.getDouble("real_snow.ice.spread_chance", 0.10), 0.0, 1.0),
+                Math.max(0, Math.min(200, y.getInt("real_snow.ice.blocks_per_tick", 32))),
+                y.getBoolean("real_snow.storm_boost.enabled", true),
+                clamp(y.getDouble("real_snow.storm_boost.budget_multiplier", 2.0), 1.0, 20.0),
+                Math.max(0, y.getInt("real_snow.storm_boost.radius_bonus_blocks", 8)),
+                y.getBoolean("real_snow.melt.enabled", true),
+                y.getLong("real_snow.melt.tick_period_ticks", 0L), // 0 = usar periodTicks
+                Math.min(400, y.getInt("real_snow.melt.budget_blocks_per_tick", 300)),
+                y.getBoolean("real_snow.melt.also_ice", true),
+                y.getBoolean("real_snow.startup_melt.enabled", true),
+                Math.max(1, y.getInt("real_snow.startup_melt.chunks_per_tick", 2))
+        );
+    }
+
+    /** true si cambia lo que decide si corre la tarea del pintor y cada cuánto. */
+    public boolean scheduleDiffers(RealSnowSettings o) {
+        return o == null || enabled != o.enabled || periodTicks != o.periodTicks;
+    }
+
+    private static double clamp(double v, double lo, double hi) {
+        return Math.max(lo, Math.min(hi, v));
+    }
+}
@@ -0,0 +1,23 @@
+package Kinkin.aeternum.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Ajustes tipados de climate.yml → transition.* (inmutables).
+ */
+public record TransitionSettings(
+        boolean enabled,
+        int leadDays,
+        int stageChunksPerTick,
+        int rolloutTicks
+) {
+
+    public static TransitionSettings from(ConfigurationSection y) {
+        return new TransitionSettings(
+                y.getBoolean("transition.enabled", true),
+                Math.max(1, y.getInt("transition.lead_days", 1)),
+                Math.max(1, y.getInt("transition.stage_chunks_per_tick", 8)),
+                Math.max(20, y.getInt("transition.rollout_seconds", 120) * 20)
+        );
+    }
+}
@@ -0,0 +1,58 @@
+package Kinkin.aeternum.config;
+
+import Kinkin.aeternum.calendar.Season;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ajustes tipados de climate.yml → seasonal_weather.* (inmutables).
+ * El calendario de lluvias ya sembrado NO va aquí: es estado del servicio.
+ */
+public record WeatherSettings(
+        boolean enabled,
+        List<String> worlds,
+        int rainyDaysPerSeason,
+        Map<Season, Integer> rainyDays,
+        double thunderChance,
+        int stormMin,
+        int stormMax,
+        int clearMin,
+        int clearMax,
+        boolean reseedEachSeason,
+        boolean respectManual
+) {
+
+    public static WeatherSettings from(ConfigurationSection y) {
+        List<String> worlds = y.getStringList("seasonal_weather.worlds");
+        if (worlds.isEmpty()) worlds = List.of("world");
+
+        // Global fallback
+        int perSeason = Math.max(0, y.getInt("seasonal_weather.rainy_days_per_season", 10));
+
+        // Overrides por estación: seasonal_weather.rainy_days.SPRING / SUMMER / AUTUMN / WINTER
+        EnumMap<Season, Integer> rainy = new EnumMap<>(Season.class);
+        ConfigurationSection sec = y.getConfigurationSection("seasonal_weather.rainy_days");
+        for (Season s : Season.values()) {
+            // si no está en config (o no hay sección), usa el global
+            rainy.put(s, sec == null ? perSeason : Math.max(0, sec.getInt(s.name(), perSeason)));
+        }
+
+        return new WeatherSettings(
+                y.getBoolean("seasonal_weather.enabled", true),
+                List.copyOf(worlds),
+                perSeason,
+                Collections.unmodifiableMap(rainy),
+                Math.max(0.0, Math.min(1.0, y.getDouble("seasonal_weather.thunder_chance", 0.20))),
+                y.getInt("seasonal_weather.storm_duration_ticks.min", 6000),
+                y.getInt("seasonal_weather.storm_duration_ticks.max", 18000),
+                y.getInt("seasonal_weather.clear_duration_ticks.min", 6000),
+                y.getInt("seasonal_weather.clear_duration_ticks.max", 24000),
+                y.getBoolean("seasonal_weather.reseed_each_season", true),
+                y.getBoolean("seasonal_weather.respect_manual_commands", true)
+        );
+    }
+}
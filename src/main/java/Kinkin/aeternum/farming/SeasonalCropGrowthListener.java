@@ -3,7 +3,7 @@ package Kinkin.aeternum.farming;
 import Kinkin.aeternum.AeternumSeasonsPlugin;
 import Kinkin.aeternum.calendar.CalendarState;
 import Kinkin.aeternum.calendar.SeasonService;
-import org.bukkit.Bukkit;
+import Kinkin.aeternum.util.LifecycleScope;
 import org.bukkit.ChatColor;
 import org.bukkit.block.Block;
 import org.bukkit.block.data.Ageable;
@@ -24,10 +24,12 @@ public final class SeasonalCropGrowthListener implements Listener {
     private final GreenhouseService greenhouse;
     private final CropGrowthService cropGrowth;
     private final SeasonalCropLoreListener loreListener;
+    private final LifecycleScope life;
 
     public SeasonalCropGrowthListener(AeternumSeasonsPlugin plugin, SeasonService seasons) {
         this.plugin = plugin;
         this.seasons = seasons;
+        this.life = plugin.lifecycle.scope("CropGrowth");
 
         this.config = new SeasonalCropConfig(plugin);
         this.greenhouse = new GreenhouseService(config);
@@ -37,13 +39,12 @@ public final class SeasonalCropGrowthListener implements Listener {
 
     public void register() {
         if (!config.isEnabled()) return;
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        life.listen(this);
         loreListener.register();
     }
 
     public void unregister() {
-        BlockGrowEvent.getHandlerList().unregister(this);
-        PlayerInteractEvent.getHandlerList().unregister(this);
+        life.close();
         loreListener.unregister();
     }
 
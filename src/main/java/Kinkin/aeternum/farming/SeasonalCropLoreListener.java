@@ -1,7 +1,7 @@
 package Kinkin.aeternum.farming;
 
 import Kinkin.aeternum.AeternumSeasonsPlugin;
-import org.bukkit.Bukkit;
+import Kinkin.aeternum.util.LifecycleScope;
 import org.bukkit.entity.Item;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -18,24 +18,22 @@ public final class SeasonalCropLoreListener implements Listener {
     private final AeternumSeasonsPlugin plugin;
     private final SeasonalCropConfig config;
     private final CropLoreService lore;
+    private final LifecycleScope life;
 
     public SeasonalCropLoreListener(AeternumSeasonsPlugin plugin, SeasonalCropConfig config) {
         this.plugin = plugin;
         this.config = config;
+        this.life = plugin.lifecycle.scope("CropLore");
         this.lore = new CropLoreService(plugin, config);
     }
 
     public void register() {
         if (!config.isEnabled()) return;
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        life.listen(this);
     }
 
     public void unregister() {
-        ItemSpawnEvent.getHandlerList().unregister(this);
-        EntityPickupItemEvent.getHandlerList().unregister(this);
-        CraftItemEvent.getHandlerList().unregister(this);
-        LootGenerateEvent.getHandlerList().unregister(this);
-        PlayerJoinEvent.getHandlerList().unregister(this);
+        life.close();
     }
 
     // Cuando aparece un item en el mundo (drops, etc.)
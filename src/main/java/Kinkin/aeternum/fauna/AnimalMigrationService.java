@@ -4,11 +4,14 @@ import Kinkin.aeternum.AeternumSeasonsPlugin;
 import Kinkin.aeternum.calendar.CalendarState;
 import Kinkin.aeternum.calendar.Season;
 import Kinkin.aeternum.calendar.SeasonService;
+import Kinkin.aeternum.config.MigrationSettings;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.PlayerSnapshotService;
+import Kinkin.aeternum.world.BiomeTraits;
 import org.bukkit.*;
 import org.bukkit.block.Biome;
 import org.bukkit.entity.*;
 import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.CreatureSpawnEvent;
 import org.bukkit.scheduler.BukkitTask;
@@ -27,9 +30,11 @@ public final class AnimalMigrationService implements Listener, Runnable {
 
     private final AeternumSeasonsPlugin plugin;
     private final SeasonService seasons;
+    private final LifecycleScope life;
     private BukkitTask task;
     private final Random random = new Random();
 
+    private MigrationSettings settings;
     private boolean enabled;
     private long tickPeriod;
     private int animalsPerTick;
@@ -64,8 +69,9 @@ public final class AnimalMigrationService implements Listener, Runnable {
     public AnimalMigrationService(AeternumSeasonsPlugin plugin, SeasonService seasons) {
         this.plugin = plugin;
         this.seasons = seasons;
+        this.life = plugin.lifecycle.scope("AnimalMigration");
         initSets();
-        reloadFromConfig();
+        copySettings(plugin.cfg.snapshot().migration());
     }
 
     /* =================== CONFIG / REGISTRO =================== */
@@ -146,42 +152,53 @@ public final class AnimalMigrationService implements Listener, Runnable {
         ));
     }
 
-    private void reloadFromConfig() {
-        var y = plugin.cfg.climate;
+    private void copySettings(MigrationSettings ms) {
+        settings = ms;
 
-        enabled            = y.getBoolean("migration.enabled", true);
-        tickPeriod         = y.getLong("migration.tick_period", 200L);
-        animalsPerTick     = y.getInt("migration.animals_per_tick", 40);
-        searchRadiusBlocks = y.getInt("migration.search_radius_blocks", 160);
-        showParticles      = y.getBoolean("migration.particles", true);
+        enabled            = ms.enabled();
+        tickPeriod         = ms.tickPeriod();
+        animalsPerTick     = ms.animalsPerTick();
+        searchRadiusBlocks = ms.searchRadiusBlocks();
+        showParticles      = ms.showParticles();
 
-        springSpawnBoostChance = y.getDouble("migration.spawn.spring_boost_chance", 0.25);
-        summerSpawnBoostChance = y.getDouble("migration.spawn.summer_boost_chance", 0.25);
-        autumnSpawnBoostChance = y.getDouble("migration.spawn.autumn_boost_chance", 0.20);
-        winterSpawnBoostChance = y.getDouble("migration.spawn.winter_boost_chance", 0.18);
+        springSpawnBoostChance = ms.springSpawnBoostChance();
+        summerSpawnBoostChance = ms.summerSpawnBoostChance();
+        autumnSpawnBoostChance = ms.autumnSpawnBoostChance();
+        winterSpawnBoostChance = ms.winterSpawnBoostChance();
 
-        winterWarmAnimalCullChance = y.getDouble("migration.soft_despawn.warm_in_winter_chance", 0.25);
+        winterWarmAnimalCullChance = ms.winterWarmAnimalCullChance();
 
         // Limpieza de fauna cálida al inicio de invierno
-        winterCleanupEnabled    = y.getBoolean("migration.winter_cleanup.enabled", true);
-        winterCleanupMaxDays    = y.getInt("migration.winter_cleanup.days", 3);
-        if (winterCleanupMaxDays < 1) winterCleanupMaxDays = 1;
-
-        winterCleanupBaseRadius = y.getInt("migration.winter_cleanup.base_radius_blocks", 64);
-        winterCleanupRadiusStep = y.getInt("migration.winter_cleanup.radius_step_blocks", 64);
-        winterCleanupPerTick    = y.getInt("migration.winter_cleanup.max_per_tick", animalsPerTick);
+        winterCleanupEnabled    = ms.winterCleanupEnabled();
+        winterCleanupMaxDays    = ms.winterCleanupMaxDays();
+        winterCleanupBaseRadius = ms.winterCleanupBaseRadius();
+        winterCleanupRadiusStep = ms.winterCleanupRadiusStep();
+        winterCleanupPerTick    = ms.winterCleanupPerTick();
     }
 
     public void register() {
-        Bukkit.getPluginManager().registerEvents(this, plugin);
-        if (task != null) task.cancel();
+        life.listen(this);
+        task = life.cancel(task);
         if (!enabled) return;
-        task = Bukkit.getScheduler().runTaskTimer(plugin, this, 80L, tickPeriod);
+        task = life.timer(this, 80L, tickPeriod);
     }
 
     public void unregister() {
-        if (task != null) task.cancel();
-        HandlerList.unregisterAll(this);
+        life.close();
+        task = null;
+    }
+
+    /** Hot-reload: aplica migration.* y solo reprograma si cambió enabled o tick_period. */
+    public void applySettings(MigrationSettings next) {
+        MigrationSettings prev = this.settings;
+        if (next.equals(prev)) return;
+
+        copySettings(next);
+        if (!next.scheduleDiffers(prev)) return;
+
+        task = life.cancel(task);
+        if (!enabled) return;
+        task = life.timer(this, 80L, tickPeriod);
     }
 
     /* =================== AJUSTE DE SPAWNS =================== */
@@ -298,43 +315,53 @@ public final class AnimalMigrationService implements Listener, Runnable {
         int budget = winterCleanupPerTick;
         if (budget <= 0) return;
 
-        // Para no procesar el mismo mob varias veces si hay varios jugadores
-        Set<UUID> visited = new HashSet<>();
+        double maxDistSq = radius * (double) radius;
+        int radiusChunks = (radius + 15) >> 4;
 
-        for (World w : Bukkit.getWorlds()) {
+        PlayerSnapshotService.Frame frame = plugin.players.frame();
+        Location scratch = new Location(null, 0, 0, 0);
+
+        // ✅ Una sola pasada por entidad (antes: jugadores × entidades) y los
+        // jugadores cercanos salen de la rejilla de la foto del tick.
+        for (World w : frame.worlds()) {
             if (budget <= 0) break;
             if (w.getEnvironment() != World.Environment.NORMAL) continue;
+            if (frame.inWorld(w).length == 0) continue;
 
-            for (Player p : w.getPlayers()) {
+            for (LivingEntity le : w.getLivingEntities()) {
                 if (budget <= 0) break;
 
-                Location center = p.getLocation();
-                double maxDistSq = radius * (double) radius;
-
-                for (LivingEntity le : w.getLivingEntities()) {
-                    if (budget <= 0) break;
-                    if (!isInterestingAnimal(le)) continue;
-                    if (!le.isValid() || le.isDead()) continue;
-
-                    // evitar duplicados si varios jugadores comparten radio
-                    if (!visited.add(le.getUniqueId())) continue;
-
-                    EntityType type = le.getType();
+                EntityType type = le.getType();
 
-                    // Sólo fauna de clima cálido "plantada" que queremos limpiar
-                    if (!warmClimateAnimals.contains(type)) continue;
-                    // Nunca tocamos fauna fría
-                    if (coldClimateAnimals.contains(type)) continue;
-
-                    if (le.getLocation().distanceSquared(center) > maxDistSq) continue;
+                // Sólo fauna de clima cálido "plantada" que queremos limpiar
+                if (!warmClimateAnimals.contains(type)) continue;
+                // Nunca tocamos fauna fría
+                if (coldClimateAnimals.contains(type)) continue;
+                if (!isInterestingAnimal(le)) continue;
+                if (!le.isValid() || le.isDead()) continue;
 
-                    softRemove(le);
-                    budget--;
+                le.getLocation(scratch);
+                if (!anyPlayerWithin(frame, w, scratch.getX(), scratch.getY(), scratch.getZ(), radiusChunks, maxDistSq)) {
+                    continue;
                 }
+
+                softRemove(le);
+                budget--;
             }
         }
     }
 
+    // ¿Algún jugador del mundo a ≤ sqrt(maxDistSq) bloques de (x, y, z)?
+    private static boolean anyPlayerWithin(PlayerSnapshotService.Frame frame, World w,
+                                           double x, double y, double z,
+                                           int radiusChunks, double maxDistSq) {
+        boolean[] found = {false};
+        frame.forEachNear(w, ((int) Math.floor(x)) >> 4, ((int) Math.floor(z)) >> 4, radiusChunks, pv -> {
+            if (!found[0] && pv.distanceSquared(x, y, z) <= maxDistSq) found[0] = true;
+        });
+        return found[0];
+    }
+
     private boolean isInterestingAnimal(LivingEntity le) {
         EntityType t = le.getType();
         if (t == EntityType.PLAYER || t == EntityType.IRON_GOLEM) return false;
@@ -425,56 +452,35 @@ public final class AnimalMigrationService implements Listener, Runnable {
 
     /* ===== helpers clima / biomas ===== */
 
-    private String biomeKey(Biome b) {
-        // En versiones nuevas puede ser nombre "minecraft:plains", en otras "PLAINS"
-        String s = b.toString().toUpperCase(Locale.ROOT);
-        return s;
-    }
-
-    private boolean containsAny(Biome b, String... tokens) {
-        String key = biomeKey(b);
-        for (String t : tokens) {
-            if (key.contains(t)) return true;
-        }
-        return false;
-    }
+    // rasgos precalculados por ordinal (antes: toString().toUpperCase() + contains por llamada)
 
     private boolean isWarmBiome(Biome b) {
-        return containsAny(b,
-                "DESERT", "SAVANNA", "BADLANDS",
-                "JUNGLE", "BAMBOO_JUNGLE");
+        return BiomeTraits.has(b, BiomeTraits.WARM);
     }
 
     private boolean isTemperateBiome(Biome b) {
-        return containsAny(b,
-                "PLAINS", "FOREST", "BIRCH_FOREST", "DARK_FOREST",
-                "FLOWER_FOREST", "MEADOW");
+        return BiomeTraits.has(b, BiomeTraits.TEMPERATE);
     }
 
     private boolean isTemperateOrWarmBiome(Biome b) {
-        return isTemperateBiome(b) || isWarmBiome(b);
+        return BiomeTraits.has(b, BiomeTraits.TEMPERATE | BiomeTraits.WARM);
     }
 
     private boolean isColdBiome(Biome b) {
-        return containsAny(b,
-                "SNOW", "FROZEN", "COLD", "ICE", "PEAKS", "SLOPES", "GROVE");
+        return BiomeTraits.has(b, BiomeTraits.FAUNA_COLD);
     }
 
     private boolean isTaigaOrMountainBiome(Biome b) {
-        return containsAny(b,
-                "TAIGA", "WINDSWEPT_HILLS", "WINDSWEPT_FOREST",
-                "JAGGED_PEAKS", "MOUNTAIN", "GROVE", "SLOPES", "PEAKS");
+        return BiomeTraits.has(b, BiomeTraits.HIGHLAND);
     }
 
     private boolean isWarmOceanBiome(Biome b) {
-        return containsAny(b,
-                "WARM_OCEAN", "LUKEWARM_OCEAN");
+        return BiomeTraits.has(b, BiomeTraits.WARM_OCEAN);
     }
 
     // destinos "bonitos" para primavera
     private boolean isSpringDestinationBiome(Biome b) {
-        return containsAny(b,
-                "PLAINS", "SUNFLOWER_PLAINS", "FLOWER_FOREST", "MEADOW");
+        return BiomeTraits.has(b, BiomeTraits.SPRING);
     }
 
     /* ===== búsqueda de biomas destino ===== */
@@ -4,6 +4,9 @@ import Kinkin.aeternum.AeternumSeasonsPlugin;
 import Kinkin.aeternum.calendar.CalendarState;
 import Kinkin.aeternum.calendar.Season;
 import Kinkin.aeternum.calendar.SeasonService;
+import Kinkin.aeternum.config.HudSettings;
+import Kinkin.aeternum.util.PlayerSnapshotService.PlayerView;
+import Kinkin.aeternum.util.LifecycleScope;
 import net.md_5.bungee.api.ChatMessageType;
 import net.md_5.bungee.api.chat.TextComponent;
 import org.bukkit.Bukkit;
@@ -12,7 +15,6 @@ import org.bukkit.boss.BarColor;
 import org.bukkit.boss.BarStyle;
 import org.bukkit.boss.BossBar;
 import org.bukkit.entity.Player;
-import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
@@ -40,17 +42,21 @@ public final class HudService implements Listener, Runnable {
     private final Set<UUID> variablePlayers = new HashSet<>();
     private final Set<UUID> offPlayers = new HashSet<>();
 
+    private final LifecycleScope life;
     private BukkitTask task;
 
-    private final boolean bossbarEnabled;
-    private final boolean actionbarEnabled;
+    private boolean bossbarEnabled;
+    private boolean actionbarEnabled;
 
     // NUEVO: si quieres limpiar tu actionbar al ocultar (por defecto NO, para no pisar otros plugins)
-    private final boolean actionbarClearOnHide;
+    private boolean actionbarClearOnHide;
 
-    private final boolean colorBySeason;
-    private final long updateTicks;
-    private final HudMode defaultMode;
+    private boolean colorBySeason;
+    private long updateTicks;
+    private HudMode defaultMode;
+
+    // ajustes vigentes (para comparar en hot-reload)
+    private HudSettings settings;
 
     // NUEVO: cache para NO spamear actionbar y reducir conflictos
     private final Map<UUID, String> lastActionbarText = new HashMap<>();
@@ -59,51 +65,88 @@ public final class HudService implements Listener, Runnable {
     public HudService(AeternumSeasonsPlugin plugin, SeasonService seasons) {
         this.plugin = plugin;
         this.seasons = seasons;
+        this.life = plugin.lifecycle.scope("HudService");
+
+        copySettings(plugin.cfg.snapshot().hudSettings());
+
+        for (String s : plugin.cfg.hud.getStringList("bossbar.variable_players")) {
+            try { variablePlayers.add(UUID.fromString(s)); } catch (IllegalArgumentException ignored) {}
+        }
+
+        for (String s : plugin.cfg.hud.getStringList("bossbar.off_players")) {
+            try { offPlayers.add(UUID.fromString(s)); } catch (IllegalArgumentException ignored) {}
+        }
+    }
 
-        this.bossbarEnabled   = plugin.cfg.hud.getBoolean("bossbar.enabled", true);
-        this.actionbarEnabled = plugin.cfg.hud.getBoolean("actionbar.enabled", false);
+    private void copySettings(HudSettings hs) {
+        this.settings             = hs;
+        this.bossbarEnabled       = hs.bossbarEnabled();
+        this.actionbarEnabled     = hs.actionbarEnabled();
 
         // NUEVO (default false): NO borrar actionbar al ocultar
-        this.actionbarClearOnHide = plugin.cfg.hud.getBoolean("actionbar.clear_on_hide", false);
+        this.actionbarClearOnHide = hs.actionbarClearOnHide();
 
-        this.colorBySeason = plugin.cfg.hud.getBoolean("bossbar.color_by_season", true);
-        this.updateTicks   = plugin.cfg.hud.getLong("bossbar.update_ticks", 40L);
+        this.colorBySeason        = hs.colorBySeason();
+        this.updateTicks          = hs.updateTicks();
+        this.defaultMode          = hs.defaultMode();
+    }
 
-        String rawDefault = plugin.cfg.hud.getString("bossbar.default_mode", "FIXED");
-        HudMode dm;
-        try {
-            dm = HudMode.valueOf(rawDefault.toUpperCase(Locale.ROOT));
-        } catch (IllegalArgumentException ex) {
-            dm = HudMode.FIXED;
+    /**
+     * Hot-reload: aplica los ajustes nuevos conservando barras, modos y listas de jugadores.
+     * Solo se reprograma la tarea si cambió el intervalo o se (des)activó el HUD entero.
+     */
+    public void applySettings(HudSettings next) {
+        HudSettings prev = this.settings;
+        if (next.equals(prev)) return;
+
+        copySettings(next);
+
+        if (!next.anyEnabled()) {
+            task = life.cancel(task);
+            life.unlisten(this);
+            bars.values().forEach(BossBar::removeAll);
+            bars.clear();
+            return;
         }
-        this.defaultMode = dm;
 
-        for (String s : plugin.cfg.hud.getStringList("bossbar.variable_players")) {
-            try { variablePlayers.add(UUID.fromString(s)); } catch (IllegalArgumentException ignored) {}
+        if (!prev.anyEnabled()) {
+            register();
+            return;
         }
 
-        for (String s : plugin.cfg.hud.getStringList("bossbar.off_players")) {
-            try { offPlayers.add(UUID.fromString(s)); } catch (IllegalArgumentException ignored) {}
+        if (prev.bossbarEnabled() && !bossbarEnabled) {
+            bars.values().forEach(BossBar::removeAll);
+            bars.clear();
+        } else if (bossbarEnabled) {
+            for (PlayerView pv : plugin.players.frame().players()) {
+                ensureBar(pv.player);
+            }
+        }
+
+        if (prev.updateTicks() != updateTicks) {
+            life.cancel(task);
+            this.task = life.timer(this, 1L, updateTicks);
         }
     }
 
     public void register() {
         if (!bossbarEnabled && !actionbarEnabled) return;
 
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        life.listen(this);
 
         if (bossbarEnabled) {
-            for (Player p : Bukkit.getOnlinePlayers()) {
-                ensureBar(p);
+            for (PlayerView pv : plugin.players.frame().players()) {
+                ensureBar(pv.player);
             }
         }
 
-        this.task = Bukkit.getScheduler().runTaskTimer(plugin, this, 1L, updateTicks);
+        life.cancel(task);
+        this.task = life.timer(this, 1L, updateTicks);
     }
 
     public void unregister() {
-        if (task != null) task.cancel();
-        HandlerList.unregisterAll(this);
+        life.close();
+        task = null;
 
         bars.values().forEach(BossBar::removeAll);
         bars.clear();
@@ -125,7 +168,7 @@ public final class HudService implements Listener, Runnable {
     @org.bukkit.event.EventHandler
     public void onRespawn(PlayerRespawnEvent e) {
         if (!bossbarEnabled) return;
-        Bukkit.getScheduler().runTask(plugin, () -> ensureBar(e.getPlayer()));
+        life.now(() -> ensureBar(e.getPlayer()));
     }
 
     @org.bukkit.event.EventHandler
@@ -230,12 +273,13 @@ public final class HudService implements Listener, Runnable {
         World overworld = primaryOverworld();
         long time = (overworld != null ? overworld.getTime() : 0L);
 
-        for (Player p : Bukkit.getOnlinePlayers()) {
+        for (PlayerView pv : plugin.players.frame().players()) {
 
-            World pw = p.getWorld();
+            Player p = pv.player;
+            World pw = pv.world;
             UUID pid = p.getUniqueId();
 
-            if (plugin.isWorldDisabled(pw)) {
+            if (pv.fxDisabled) {
                 BossBar bar = bars.remove(pid);
                 if (bar != null) bar.removeAll();
 
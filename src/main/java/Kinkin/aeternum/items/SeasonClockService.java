@@ -3,11 +3,11 @@ package Kinkin.aeternum.items;
 import Kinkin.aeternum.AeternumSeasonsPlugin;
 import Kinkin.aeternum.calendar.CalendarState;
 import Kinkin.aeternum.calendar.SeasonService;
+import Kinkin.aeternum.util.LifecycleScope;
 
 import org.bukkit.*;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.inventory.CraftItemEvent;
@@ -24,6 +24,7 @@ public final class SeasonClockService implements Listener {
 
     private final AeternumSeasonsPlugin plugin;
     private final SeasonService seasons;
+    private final LifecycleScope life;
 
 
     private final NamespacedKey KEY_CLOCK;
@@ -35,6 +36,7 @@ public final class SeasonClockService implements Listener {
                               SeasonService seasons) {
         this.plugin = plugin;
         this.seasons = seasons;
+        this.life = plugin.lifecycle.scope("SeasonClock");
         this.KEY_CLOCK = new NamespacedKey(plugin, "season_clock");
         this.RECIPE_KEY = new NamespacedKey(plugin, "season_clock");
     }
@@ -42,12 +44,12 @@ public final class SeasonClockService implements Listener {
     public void register() {
         buildPrototype();
         registerRecipe();
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        life.listen(this);
     }
 
 
     public void unregister() {
-        HandlerList.unregisterAll(this);
+        life.close();
     }
 
     private void buildPrototype() {
@@ -2,7 +2,6 @@ package Kinkin.aeternum.lang;
 
 import Kinkin.aeternum.AeternumSeasonsPlugin;
 import net.md_5.bungee.api.ChatColor;
-import org.bukkit.Bukkit;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
@@ -29,7 +28,7 @@ public final class LanguageManager implements Listener {
 
     public void register() {
         loadIndex();
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        plugin.lifecycle.scope("Language").listen(this);
     }
 
     private void loadIndex() {
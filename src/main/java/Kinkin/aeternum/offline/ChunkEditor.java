@@ -0,0 +1,309 @@
+package Kinkin.aeternum.offline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Edita bloques y biomas de un chunk en formato NBT (1.18+).
+ *
+ * Cada sección (16³) guarda:
+ *   block_states { palette: [ {Name, Properties} ], data: long[] }  → 4096 índices
+ *   biomes       { palette: [ "minecraft:..." ],   data: long[] }  → 64 índices (4×4×4)
+ * data empaqueta 64/bits índices por long, sin partir valores entre longs.
+ * bits: bloques max(4, ceil(log2 n)), biomas ceil(log2 n); con paleta de 1 no hay data.
+ *
+ * Las secciones se desempaquetan solo si se tocan y se vuelven a empaquetar en
+ * {@link #finish()}, compactando la paleta. Coordenadas x/z locales (0-15), y de mundo.
+ */
+final class ChunkEditor {
+
+    private static final class Section {
+        final Map<String, Object> tag;
+        List<Object> blockPalette;      // compounds {Name, Properties}
+        int[] blocks;                   // 4096, (y<<8)|(z<<4)|x
+        List<Object> biomePalette;      // strings
+        int[] biomes;                   // 64, (y<<4)|(z<<2)|x
+        boolean blocksDirty, biomesDirty;
+
+        Section(Map<String, Object> tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Map<String, Object> root;
+    private final Map<Integer, Section> sections = new HashMap<>();
+    private boolean blocksChanged, biomesChanged, pdcChanged;
+
+    ChunkEditor(Map<String, Object> root) {
+        this.root = root;
+        Nbt.ListTag list = Nbt.list(root, "sections");
+        if (list == null) return;
+        for (Object o : list.items) {
+            if (!(o instanceof Map<?, ?>)) continue;
+            @SuppressWarnings("unchecked")
+            Map<String, Object> tag = (Map<String, Object>) o;
+            if (tag.get("Y") instanceof Byte y) sections.put((int) y, new Section(tag));
+        }
+    }
+
+    /** Solo se editan chunks terminados: los demás aún no tienen nada nuestro. */
+    boolean isFull() {
+        Object status = root.get("Status");
+        return status instanceof String s && (s.equals("minecraft:full") || s.equals("full"));
+    }
+
+    /* ========================= BLOQUES ========================= */
+
+    /** Nombre (minecraft:...) del bloque, o null si la sección no existe. */
+    String blockName(int x, int y, int z) {
+        Map<String, Object> st = blockState(x, y, z);
+        return st == null ? null : (String) st.get("Name");
+    }
+
+    /** Estado {Name, Properties} del bloque, o null si la sección no existe. */
+    Map<String, Object> blockState(int x, int y, int z) {
+        Section s = blocks(y >> 4);
+        if (s == null) return null;
+        return asCompound(s.blockPalette.get(s.blocks[blockIndex(x, y, z)]));
+    }
+
+    private void setBlockState(int x, int y, int z, Map<String, Object> state) {
+        Section s = blocks(y >> 4);
+        if (s == null) return;
+        int id = s.blockPalette.indexOf(state);
+        if (id < 0) {
+            id = s.blockPalette.size();
+            s.blockPalette.add(state);
+        }
+        s.blocks[blockIndex(x, y, z)] = id;
+        s.blocksDirty = true;
+        blocksChanged = true;
+    }
+
+    /** Nieve pintada → aire, y el bloque de debajo deja de estar "snowy". */
+    boolean removeSnow(int x, int y, int z) {
+        String name = blockName(x, y, z);
+        if (!"minecraft:snow".equals(name) && !"minecraft:snow_block".equals(name)) return false;
+        setBlockState(x, y, z, state("minecraft:air", null));
+
+        Map<String, Object> below = blockState(x, y - 1, z);
+        Map<String, Object> props = below == null ? null : Nbt.compound(below, "Properties");
+        if (props != null && "true".equals(props.get("snowy"))) {
+            Map<String, Object> p = new LinkedHashMap<>(props);
+            p.put("snowy", "false");
+            setBlockState(x, y - 1, z, state((String) below.get("Name"), p));
+        }
+        return true;
+    }
+
+    /** Hielo pintado → agua quieta. */
+    boolean meltIce(int x, int y, int z) {
+        String name = blockName(x, y, z);
+        if (!"minecraft:ice".equals(name) && !"minecraft:frosted_ice".equals(name)) return false;
+        Map<String, Object> p = new LinkedHashMap<>();
+        p.put("level", "0");
+        setBlockState(x, y, z, state("minecraft:water", p));
+        return true;
+    }
+
+    /** Hoja de otoño (acacia) → hoja original, conservando distance/persistent/waterlogged. */
+    boolean restoreLeaf(int x, int y, int z, String original) {
+        Map<String, Object> cur = blockState(x, y, z);
+        if (cur == null || !"minecraft:acacia_leaves".equals(cur.get("Name"))) return false;
+        Map<String, Object> props = Nbt.compound(cur, "Properties");
+        setBlockState(x, y, z, state(original, props == null ? null : new LinkedHashMap<>(props)));
+        return true;
+    }
+
+    /**
+     * Entrada del overlay (SeasonOverlay): si el bloque sigue siendo placed
+     * (minecraft:...), vuelve al estado original ("minecraft:x[a=b,...]").
+     */
+    boolean restore(int x, int y, int z, String placed, String originalState) {
+        if (!placed.equals(blockName(x, y, z))) return false;
+        Map<String, Object> original = parseState(originalState);
+        setBlockState(x, y, z, original);
+
+        if ("minecraft:snow".equals(placed) && "minecraft:air".equals(original.get("Name"))) {
+            Map<String, Object> below = blockState(x, y - 1, z);
+            Map<String, Object> props = below == null ? null : Nbt.compound(below, "Properties");
+            if (props != null && "true".equals(props.get("snowy"))) {
+                Map<String, Object> p = new LinkedHashMap<>(props);
+                p.put("snowy", "false");
+                setBlockState(x, y - 1, z, state((String) below.get("Name"), p));
+            }
+        }
+        return true;
+    }
+
+    /** Saca (y borra) un byte[] del PersistentDataContainer del chunk ("BukkitValues"). */
+    byte[] takePersistent(String key) {
+        Map<String, Object> values = Nbt.compound(root, "BukkitValues");
+        if (values == null || !(values.get(key) instanceof byte[] raw)) return null;
+        values.remove(key);
+        if (values.isEmpty()) root.remove("BukkitValues");
+        pdcChanged = true;
+        return raw;
+    }
+
+    /* ========================= BIOMAS ========================= */
+
+    /** Bioma de la celda 4×4×4 que contiene (x, y, z). */
+    boolean setBiome(int x, int y, int z, String name) {
+        Section s = biomes(y >> 4);
+        if (s == null) return false;
+        int idx = ((y & 15) >> 2) << 4 | (z >> 2) << 2 | (x >> 2);
+        int id = s.biomePalette.indexOf(name);
+        if (id < 0) {
+            id = s.biomePalette.size();
+            s.biomePalette.add(name);
+        }
+        if (s.biomes[idx] == id) return false;
+        s.biomes[idx] = id;
+        s.biomesDirty = true;
+        biomesChanged = true;
+        return true;
+    }
+
+    /* ========================= GUARDAR ========================= */
+
+    /**
+     * Reempaqueta las secciones tocadas. Si cambiaron bloques, se borran los
+     * heightmaps (el servidor los recalcula al cargar) y se pide re-iluminar.
+     * @return true si el chunk cambió
+     */
+    boolean finish() {
+        for (Section s : sections.values()) {
+            if (s.blocksDirty) pack(s.tag, "block_states", s.blockPalette, s.blocks, true);
+            if (s.biomesDirty) pack(s.tag, "biomes", s.biomePalette, s.biomes, false);
+        }
+        if (blocksChanged) {
+            root.remove("Heightmaps");
+            root.put("isLightOn", (byte) 0);
+        }
+        return blocksChanged || biomesChanged || pdcChanged;
+    }
+
+    /* ========================= PALETAS ========================= */
+
+    private Section blocks(int sy) {
+        Section s = sections.get(sy);
+        if (s == null) return null;
+        if (s.blocks == null) {
+            Map<String, Object> c = Nbt.compound(s.tag, "block_states");
+            if (c == null) return null;
+            s.blockPalette = paletteOf(c);
+            if (s.blockPalette.isEmpty()) return null;
+            s.blocks = unpack(c, s.blockPalette.size(), 4096, true);
+        }
+        return s;
+    }
+
+    private Section biomes(int sy) {
+        Section s = sections.get(sy);
+        if (s == null) return null;
+        if (s.biomes == null) {
+            Map<String, Object> c = Nbt.compound(s.tag, "biomes");
+            if (c == null) return null;
+            s.biomePalette = paletteOf(c);
+            if (s.biomePalette.isEmpty()) return null;
+            s.biomes = unpack(c, s.biomePalette.size(), 64, false);
+        }
+        return s;
+    }
+
+    private static List<Object> paletteOf(Map<String, Object> container) {
+        Nbt.ListTag p = Nbt.list(container, "palette");
+        return p == null ? new ArrayList<>() : new ArrayList<>(p.items);
+    }
+
+    private static int[] unpack(Map<String, Object> container, int paletteSize, int count, boolean blocks) {
+        int[] out = new int[count];
+        if (paletteSize <= 1 || !(container.get("data") instanceof long[] data)) return out;
+
+        int bits = bitsFor(paletteSize, blocks);
+        int perLong = 64 / bits;
+        long mask = (1L << bits) - 1;
+        for (int i = 0; i < count; i++) {
+            int li = i / perLong;
+            if (li >= data.length) break;
+            int v = (int) ((data[li] >>> ((i % perLong) * bits)) & mask);
+            out[i] = v < paletteSize ? v : 0;
+        }
+        return out;
+    }
+
+    private static void pack(Map<String, Object> section, String key, List<Object> palette, int[] values, boolean blocks) {
+        // compactar: solo las entradas usadas, en orden de primera aparición
+        int[] remap = new int[palette.size()];
+        Arrays.fill(remap, -1);
+        List<Object> used = new ArrayList<>();
+        int[] packed = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            int v = values[i];
+            if (remap[v] < 0) {
+                remap[v] = used.size();
+                used.add(palette.get(v));
+            }
+            packed[i] = remap[v];
+        }
+
+        Map<String, Object> c = new LinkedHashMap<>();
+        c.put("palette", new Nbt.ListTag(blocks ? Nbt.COMPOUND : Nbt.STRING, used));
+        if (used.size() > 1) {
+            int bits = bitsFor(used.size(), blocks);
+            int perLong = 64 / bits;
+            long[] data = new long[(values.length + perLong - 1) / perLong];
+            for (int i = 0; i < packed.length; i++) {
+                data[i / perLong] |= (long) packed[i] << ((i % perLong) * bits);
+            }
+            c.put("data", data);
+        }
+        section.put(key, c);
+    }
+
+    private static int bitsFor(int paletteSize, boolean blocks) {
+        int bits = 32 - Integer.numberOfLeadingZeros(paletteSize - 1); // ceil(log2 n)
+        return blocks ? Math.max(4, bits) : bits;
+    }
+
+    private static int blockIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    private static Map<String, Object> state(String name, Map<String, Object> props) {
+        Map<String, Object> st = new LinkedHashMap<>();
+        st.put("Name", name);
+        if (props != null && !props.isEmpty()) st.put("Properties", props);
+        return st;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asCompound(Object o) {
+        return (Map<String, Object>) o;
+    }
+
+    /** "minecraft:oak_leaves[distance=3,persistent=false]" → {Name, Properties}. */
+    static Map<String, Object> parseState(String s) {
+        int open = s.indexOf('[');
+        if (open < 0) return state(s, null);
+        Map<String, Object> props = new LinkedHashMap<>();
+        String body = s.substring(open + 1, s.endsWith("]") ? s.length() - 1 : s.length());
+        for (String kv : body.split(",")) {
+            int eq = kv.indexOf('=');
+            if (eq > 0) props.put(kv.substring(0, eq).trim(), kv.substring(eq + 1).trim());
+        }
+        return state(s.substring(0, open), props);
+    }
+
+    /** "OAK_LEAVES" / "PLAINS" (nombre de enum de Bukkit) → "minecraft:oak_leaves". */
+    static String key(String enumName) {
+        return enumName.indexOf(':') >= 0 ? enumName.toLowerCase(Locale.ROOT)
+                : "minecraft:" + enumName.toLowerCase(Locale.ROOT);
+    }
+}
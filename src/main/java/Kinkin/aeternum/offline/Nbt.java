@@ -0,0 +1,177 @@
+package Kinkin.aeternum.offline;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NBT mínimo para la herramienta offline (sin Bukkit en el classpath).
+ *
+ * Representación:
+ *   compound → LinkedHashMap&lt;String, Object&gt; (conserva el orden)
+ *   list     → {@link ListTag}
+ *   byte/short/int/long/float/double → Byte/Short/Integer/Long/Float/Double
+ *   byte[]/int[]/long[] → arrays, string → String
+ */
+final class Nbt {
+
+    static final byte END = 0, BYTE = 1, SHORT = 2, INT = 3, LONG = 4, FLOAT = 5, DOUBLE = 6,
+            BYTE_ARRAY = 7, STRING = 8, LIST = 9, COMPOUND = 10, INT_ARRAY = 11, LONG_ARRAY = 12;
+
+    /** Lista con su tipo de elemento (una lista vacía también lo lleva). */
+    static final class ListTag {
+        byte type;
+        final List<Object> items;
+
+        ListTag(byte type, List<Object> items) {
+            this.type = type;
+            this.items = items;
+        }
+    }
+
+    private Nbt() {
+    }
+
+    /* ========================= LEER ========================= */
+
+    /** Lee el compound raíz (tipo + nombre vacío + payload). */
+    static Map<String, Object> readRoot(DataInput in) throws IOException {
+        byte type = in.readByte();
+        if (type != COMPOUND) throw new IOException("Root is not a compound: " + type);
+        in.readUTF();
+        return readCompound(in);
+    }
+
+    private static Map<String, Object> readCompound(DataInput in) throws IOException {
+        Map<String, Object> out = new LinkedHashMap<>();
+        while (true) {
+            byte type = in.readByte();
+            if (type == END) return out;
+            String name = in.readUTF();
+            out.put(name, readPayload(in, type));
+        }
+    }
+
+    private static Object readPayload(DataInput in, byte type) throws IOException {
+        return switch (type) {
+            case BYTE -> in.readByte();
+            case SHORT -> in.readShort();
+            case INT -> in.readInt();
+            case LONG -> in.readLong();
+            case FLOAT -> in.readFloat();
+            case DOUBLE -> in.readDouble();
+            case BYTE_ARRAY -> {
+                byte[] a = new byte[in.readInt()];
+                in.readFully(a);
+                yield a;
+            }
+            case STRING -> in.readUTF();
+            case LIST -> {
+                byte et = in.readByte();
+                int n = in.readInt();
+                List<Object> items = new ArrayList<>(Math.max(0, n));
+                for (int i = 0; i < n; i++) items.add(readPayload(in, et));
+                yield new ListTag(et, items);
+            }
+            case COMPOUND -> readCompound(in);
+            case INT_ARRAY -> {
+                int[] a = new int[in.readInt()];
+                for (int i = 0; i < a.length; i++) a[i] = in.readInt();
+                yield a;
+            }
+            case LONG_ARRAY -> {
+                long[] a = new long[in.readInt()];
+                for (int i = 0; i < a.length; i++) a[i] = in.readLong();
+                yield a;
+            }
+            default -> throw new IOException("Unknown NBT tag type " + type);
+        };
+    }
+
+    /* ======================== ESCRIBIR ======================== */
+
+    static void writeRoot(DataOutput out, Map<String, Object> root) throws IOException {
+        out.writeByte(COMPOUND);
+        out.writeUTF("");
+        writeCompound(out, root);
+    }
+
+    private static void writeCompound(DataOutput out, Map<String, Object> c) throws IOException {
+        for (Map.Entry<String, Object> e : c.entrySet()) {
+            byte type = typeOf(e.getValue());
+            out.writeByte(type);
+            out.writeUTF(e.getKey());
+            writePayload(out, type, e.getValue());
+        }
+        out.writeByte(END);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writePayload(DataOutput out, byte type, Object v) throws IOException {
+        switch (type) {
+            case BYTE -> out.writeByte((Byte) v);
+            case SHORT -> out.writeShort((Short) v);
+            case INT -> out.writeInt((Integer) v);
+            case LONG -> out.writeLong((Long) v);
+            case FLOAT -> out.writeFloat((Float) v);
+            case DOUBLE -> out.writeDouble((Double) v);
+            case BYTE_ARRAY -> {
+                byte[] a = (byte[]) v;
+                out.writeInt(a.length);
+                out.write(a);
+            }
+            case STRING -> out.writeUTF((String) v);
+            case LIST -> {
+                ListTag l = (ListTag) v;
+                out.writeByte(l.items.isEmpty() ? END : l.type);
+                out.writeInt(l.items.size());
+                for (Object o : l.items) writePayload(out, l.type, o);
+            }
+            case COMPOUND -> writeCompound(out, (Map<String, Object>) v);
+            case INT_ARRAY -> {
+                int[] a = (int[]) v;
+                out.writeInt(a.length);
+                for (int x : a) out.writeInt(x);
+            }
+            case LONG_ARRAY -> {
+                long[] a = (long[]) v;
+                out.writeInt(a.length);
+                for (long x : a) out.writeLong(x);
+            }
+            default -> throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    private static byte typeOf(Object v) throws IOException {
+        if (v instanceof Byte) return BYTE;
+        if (v instanceof Short) return SHORT;
+        if (v instanceof Integer) return INT;
+        if (v instanceof Long) return LONG;
+        if (v instanceof Float) return FLOAT;
+        if (v instanceof Double) return DOUBLE;
+        if (v instanceof byte[]) return BYTE_ARRAY;
+        if (v instanceof String) return STRING;
+        if (v instanceof ListTag) return LIST;
+        if (v instanceof Map) return COMPOUND;
+        if (v instanceof int[]) return INT_ARRAY;
+        if (v instanceof long[]) return LONG_ARRAY;
+        throw new IOException("Unsupported NBT value " + v.getClass());
+    }
+
+    /* ======================== ACCESO ======================== */
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> compound(Map<String, Object> c, String key) {
+        Object v = c.get(key);
+        return v instanceof Map ? (Map<String, Object>) v : null;
+    }
+
+    static ListTag list(Map<String, Object> c, String key) {
+        Object v = c.get(key);
+        return v instanceof ListTag l ? l : null;
+    }
+}
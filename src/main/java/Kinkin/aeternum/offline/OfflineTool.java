@@ -0,0 +1,518 @@
+package Kinkin.aeternum.offline;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Mantenimiento offline del estado de estación de un mundo (servidor APAGADO).
+ *
+ *   java -jar SeasonsCore.jar &lt;carpeta del mundo&gt; [--data plugins/SeasonsCore] [--threads N] [--overlay] [--dry-run]
+ *
+ * Aplica directamente sobre los .mca, sin arrancar el servidor:
+ * - los backups de biomas (biome_backups/&lt;uuid&gt;/cx_cz.bin) → biomas originales,
+ * - el diario de reverts (data/journal/&lt;uuid&gt;.bin) → quita nieve/hielo pintados,
+ *   devuelve las hojas de otoño a su tipo original y restaura biomas spoofeados,
+ * - con --overlay, el overlay de cada chunk (SeasonOverlay, en su PDC) → revierte
+ *   todo lo pintado que siga en el mundo. Recorre TODOS los chunks de la región.
+ *
+ * Un worker por archivo de región, en paralelo. Cada región se reescribe de forma
+ * atómica; lo aplicado se borra (backups por chunk, y el diario solo si se aplicó
+ * entero: las ediciones comprueban el tipo actual, así que repetirlas no hace daño).
+ *
+ * Solo la dimensión normal (carpeta region/); sin protecciones de WorldGuard,
+ * que necesitan el servidor. Los chunks en LZ4 o externos (.mcc) se saltan.
+ */
+public final class OfflineTool {
+
+    // mismos formatos que RevertJournal / BiomeBackupStore
+    private static final int JOURNAL_MAGIC = 0xAE5EDA7A;
+    private static final byte JOURNAL_VERSION = 1;
+    private static final int BACKUP_MAGIC = 0xAEB10B10;
+    private static final byte BACKUP_VERSION = 1;
+
+    private static final byte KIND_SNOW = 0;
+    private static final byte KIND_ICE  = 1;
+    private static final byte KIND_LEAF = 2;
+
+    // grilla del diario: paso 4 en x/z/y desde minY
+    private static final int JOURNAL_STEP = 4;
+
+    // SeasonOverlay: clave del PDC (namespace = nombre del plugin en minúsculas)
+    private static final String OVERLAY_KEY = "seasonscore:season_overlay";
+    private static final byte OVERLAY_VERSION = 1;
+
+    /** Trabajo pendiente de un chunk (diario y/o backup de biomas). */
+    private static final class ChunkWork {
+        final int cx, cz;
+        // diario
+        int minY;
+        int[] pos;
+        byte[] kind;
+        String[] original;
+        String[] journalBiomes;
+        // backup de biomas
+        Path backupFile;
+        int stepXZ, stepY, backupMinY, backupMaxY;
+        String[] backupPalette;
+        int[] backupIndices;
+
+        ChunkWork(int cx, int cz) {
+            this.cx = cx;
+            this.cz = cz;
+        }
+    }
+
+    private static final class Stats {
+        final AtomicInteger chunks = new AtomicInteger();
+        final AtomicInteger blocks = new AtomicInteger();
+        final AtomicInteger biomes = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+    }
+
+    private final Path world;
+    private final Path data;
+    private final int threads;
+    private final boolean dryRun;
+    private final boolean overlay;
+    private final Stats stats = new Stats();
+
+    OfflineTool(Path world, Path data, int threads, boolean dryRun, boolean overlay) {
+        this.world = world;
+        this.data = data;
+        this.threads = threads;
+        this.dryRun = dryRun;
+        this.overlay = overlay;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            usage();
+            System.exit(2);
+            return;
+        }
+
+        Path world = null;
+        Path data = Paths.get("plugins", "SeasonsCore");
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean dryRun = false;
+        boolean overlay = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--data" -> data = Paths.get(args[++i]);
+                    case "--threads" -> threads = Math.max(1, Integer.parseInt(args[++i]));
+                    case "--dry-run" -> dryRun = true;
+                    case "--overlay" -> overlay = true;
+                    default -> {
+                        if (world != null || args[i].startsWith("--")) {
+                            usage();
+                            System.exit(2);
+                            return;
+                        }
+                        world = Paths.get(args[i]);
+                    }
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            usage();
+            System.exit(2);
+            return;
+        }
+        if (world == null) {
+            usage();
+            System.exit(2);
+            return;
+        }
+
+        int code;
+        try {
+            code = new OfflineTool(world, data, threads, dryRun, overlay).run();
+        } catch (Exception e) {
+            log("ERROR: " + e.getMessage());
+            code = 1;
+        }
+        System.exit(code);
+    }
+
+    private static void usage() {
+        log("Usage: java -jar SeasonsCore.jar <worldFolder> [--data plugins/SeasonsCore] [--threads N] [--overlay] [--dry-run]");
+    }
+
+    private static void log(String msg) {
+        System.out.println("[Offline] " + msg);
+    }
+
+    /* ============================ FLUJO ============================ */
+
+    int run() throws Exception {
+        if (!Files.isDirectory(world.resolve("region"))) {
+            throw new IOException("Not a world folder (no region/): " + world);
+        }
+        UUID id = readUid(world.resolve("uid.dat"));
+
+        // el servidor mantiene session.lock bloqueado mientras el mundo está abierto
+        try (FileChannel ch = FileChannel.open(world.resolve("session.lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock;
+            try {
+                lock = ch.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) throw new IOException("World is in use (session.lock held). Stop the server first.");
+            try {
+                return process(id);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    private int process(UUID id) throws Exception {
+        Map<Long, ChunkWork> work = new HashMap<>();
+        Path journal = data.resolve("data").resolve("journal").resolve(id + ".bin");
+        int journalChunks = readJournal(journal, work);
+        int backups = readBackups(data.resolve("biome_backups").resolve(id.toString()), work);
+
+        if (work.isEmpty() && !overlay) {
+            log("Nothing to do for world " + id + ".");
+            return 0;
+        }
+        log("World " + id + ": " + journalChunks + " journal chunks, " + backups + " biome backups"
+                + (overlay ? ", scanning every chunk for overlays" : "")
+                + (dryRun ? " (dry run)" : "") + ".");
+
+        // agrupar por archivo de región
+        Map<Long, List<ChunkWork>> byRegion = new HashMap<>();
+        for (ChunkWork cw : work.values()) {
+            byRegion.computeIfAbsent(key(cw.cx >> 5, cw.cz >> 5), k -> new ArrayList<>()).add(cw);
+        }
+        if (overlay) {
+            // el overlay está dentro de cada chunk: hay que visitar todas las regiones
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(world.resolve("region"), "r.*.*.mca")) {
+                for (Path file : ds) {
+                    String[] parts = file.getFileName().toString().split("\\.");
+                    try {
+                        byRegion.computeIfAbsent(key(Integer.parseInt(parts[1]), Integer.parseInt(parts[2])),
+                                k -> new ArrayList<>());
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+        }
+        if (byRegion.isEmpty()) {
+            log("Nothing to do for world " + id + ".");
+            return 0;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, byRegion.size()));
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (Map.Entry<Long, List<ChunkWork>> e : byRegion.entrySet()) {
+                int rx = (int) (e.getKey() >> 32), rz = (int) (long) e.getKey();
+                results.add(pool.submit(() -> processRegion(rx, rz, e.getValue())));
+            }
+            boolean allOk = true;
+            for (Future<Boolean> f : results) allOk &= f.get();
+
+            if (!dryRun && allOk && journalChunks > 0) Files.deleteIfExists(journal);
+
+            log("Done: " + stats.chunks.get() + " chunks rewritten, " + stats.blocks.get() + " blocks, "
+                    + stats.biomes.get() + " biome cells, " + stats.failed.get() + " failed"
+                    + (dryRun ? " (dry run, nothing written)" : "") + ".");
+            return allOk ? 0 : 1;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** @return true si todos los chunks de la región se aplicaron */
+    private boolean processRegion(int rx, int rz, List<ChunkWork> chunks) {
+        Path file = world.resolve("region").resolve("r." + rx + "." + rz + ".mca");
+        if (!Files.exists(file)) {
+            // nada generado ahí: no hay nada que revertir
+            deleteBackups(chunks);
+            return true;
+        }
+
+        RegionFile region;
+        try {
+            region = new RegionFile(file);
+        } catch (IOException e) {
+            log("Could not read " + file.getFileName() + ": " + e.getMessage());
+            stats.failed.addAndGet(chunks.size());
+            return false;
+        }
+
+        if (overlay) {
+            // todos los chunks presentes, no solo los que tienen diario/backup
+            boolean[] listed = new boolean[1024];
+            for (ChunkWork cw : chunks) listed[(cw.cx & 31) + (cw.cz & 31) * 32] = true;
+            chunks = new ArrayList<>(chunks);
+            for (int i = 0; i < 1024; i++) {
+                int cx = (rx << 5) + (i & 31), cz = (rz << 5) + (i >> 5);
+                if (!listed[i] && region.hasChunk(cx, cz)) chunks.add(new ChunkWork(cx, cz));
+            }
+        }
+
+        boolean ok = true;
+        List<ChunkWork> applied = new ArrayList<>();
+        for (ChunkWork cw : chunks) {
+            try {
+                Map<String, Object> root = region.read(cw.cx, cw.cz);
+                if (root == null) {
+                    applied.add(cw);
+                    continue;
+                }
+                ChunkEditor ed = new ChunkEditor(root);
+                if (!ed.isFull()) {
+                    applied.add(cw);
+                    continue;
+                }
+                applyBackup(ed, cw);
+                applyJournal(ed, cw);
+                if (overlay) applyOverlay(ed);
+                if (ed.finish()) {
+                    region.write(cw.cx, cw.cz, root);
+                    stats.chunks.incrementAndGet();
+                }
+                applied.add(cw);
+            } catch (IOException | RuntimeException e) {
+                log("Chunk " + cw.cx + "," + cw.cz + " in " + file.getFileName() + " skipped: " + e.getMessage());
+                stats.failed.incrementAndGet();
+                ok = false;
+            }
+        }
+
+        if (dryRun) return ok;
+        try {
+            region.save();
+        } catch (IOException e) {
+            log("Could not write " + file.getFileName() + ": " + e.getMessage());
+            stats.failed.addAndGet(applied.size());
+            return false;
+        }
+        deleteBackups(applied);
+        return ok;
+    }
+
+    /* ============================ APLICAR ============================ */
+
+    private void applyBackup(ChunkEditor ed, ChunkWork cw) {
+        if (cw.backupIndices == null) return;
+        int i = 0, changed = 0;
+        for (int x = 0; x < 16; x += cw.stepXZ) {
+            for (int z = 0; z < 16; z += cw.stepXZ) {
+                for (int y = cw.backupMinY; y < cw.backupMaxY; y += cw.stepY) {
+                    if (i >= cw.backupIndices.length) break;
+                    int pi = cw.backupIndices[i++];
+                    if (pi < 0 || pi >= cw.backupPalette.length) continue;
+                    if (ed.setBiome(x, y, z, ChunkEditor.key(cw.backupPalette[pi]))) changed++;
+                }
+            }
+        }
+        stats.biomes.addAndGet(changed);
+    }
+
+    private void applyJournal(ChunkEditor ed, ChunkWork cw) {
+        int changed = 0;
+        if (cw.pos != null) {
+            for (int i = 0; i < cw.pos.length; i++) {
+                int p = cw.pos[i];
+                int x = (p >> 4) & 15, y = (p >>> 8) + cw.minY, z = p & 15;
+                boolean done = switch (cw.kind[i]) {
+                    case KIND_SNOW -> ed.removeSnow(x, y, z);
+                    case KIND_ICE -> ed.meltIce(x, y, z);
+                    case KIND_LEAF -> cw.original[i] != null && ed.restoreLeaf(x, y, z, ChunkEditor.key(cw.original[i]));
+                    default -> false;
+                };
+                if (done) changed++;
+            }
+        }
+        stats.blocks.addAndGet(changed);
+
+        if (cw.journalBiomes == null) return;
+        int perColumn = cw.journalBiomes.length / 16;
+        int i = 0, biomes = 0;
+        for (int x = 0; x < 16; x += JOURNAL_STEP) {
+            for (int z = 0; z < 16; z += JOURNAL_STEP) {
+                for (int k = 0; k < perColumn; k++) {
+                    String b = cw.journalBiomes[i++];
+                    if (b != null && ed.setBiome(x, cw.minY + k * JOURNAL_STEP, z, ChunkEditor.key(b))) biomes++;
+                }
+            }
+        }
+        stats.biomes.addAndGet(biomes);
+    }
+
+    private void applyOverlay(ChunkEditor ed) throws IOException {
+        byte[] raw = ed.takePersistent(OVERLAY_KEY);
+        if (raw == null) return;
+        int changed = 0;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            byte ver = in.readByte();
+            if (ver != OVERLAY_VERSION) throw new IOException("Unknown overlay version " + ver);
+            String[] palette = new String[in.readUnsignedShort()];
+            for (int i = 0; i < palette.length; i++) palette[i] = in.readUTF();
+
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                int p = in.readInt();
+                in.readByte(); // kind: aquí da igual, se restaura todo
+                String original = palette[in.readUnsignedShort()];
+                String placed = palette[in.readUnsignedShort()];
+                if (ed.restore((p >> 4) & 15, p >> 8, p & 15, ChunkEditor.key(placed), original)) changed++;
+            }
+        }
+        stats.blocks.addAndGet(changed);
+    }
+
+    private void deleteBackups(List<ChunkWork> chunks) {
+        if (dryRun) return;
+        for (ChunkWork cw : chunks) {
+            if (cw.backupFile == null) continue;
+            try {
+                Files.deleteIfExists(cw.backupFile);
+            } catch (IOException e) {
+                log("Could not delete " + cw.backupFile + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /* ============================== IO ============================== */
+
+    private static UUID readUid(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            return new UUID(in.readLong(), in.readLong());
+        }
+    }
+
+    private static int readJournal(Path file, Map<Long, ChunkWork> work) throws IOException {
+        if (!Files.exists(file)) return 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != JOURNAL_MAGIC || in.readByte() != JOURNAL_VERSION) {
+                throw new IOException("Unknown journal format: " + file);
+            }
+            int minY = in.readInt();
+
+            String[] palette = new String[in.readInt()];
+            for (int i = 0; i < palette.length; i++) palette[i] = in.readUTF();
+
+            int chunks = in.readInt();
+            for (int c = 0; c < chunks; c++) {
+                int cx = in.readInt(), cz = in.readInt();
+                ChunkWork cw = work.computeIfAbsent(key(cx, cz), k -> new ChunkWork(cx, cz));
+                cw.minY = minY;
+
+                int n = in.readInt();
+                cw.pos = new int[n];
+                cw.kind = new byte[n];
+                cw.original = new String[n];
+                for (int i = 0; i < n; i++) {
+                    cw.pos[i] = in.readInt();
+                    cw.kind[i] = in.readByte();
+                    short idx = in.readShort();
+                    cw.original[i] = idx < 0 ? null : palette[idx];
+                }
+
+                int nb = in.readInt();
+                if (nb > 0) {
+                    cw.journalBiomes = new String[nb];
+                    for (int i = 0; i < nb; i++) {
+                        short bi = in.readShort();
+                        cw.journalBiomes[i] = bi < 0 ? null : palette[bi];   // -1 = no tocar
+                    }
+                }
+            }
+            return chunks;
+        }
+    }
+
+    private static int readBackups(Path dir, Map<Long, ChunkWork> work) throws IOException {
+        if (!Files.isDirectory(dir)) return 0;
+        int count = 0;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.bin")) {
+            for (Path file : ds) {
+                String name = file.getFileName().toString();
+                String[] parts = name.substring(0, name.length() - 4).split("_");
+                if (parts.length != 2) continue;
+                int cx, cz;
+                try {
+                    cx = Integer.parseInt(parts[0]);
+                    cz = Integer.parseInt(parts[1]);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                try {
+                    ChunkWork cw = work.computeIfAbsent(key(cx, cz), k -> new ChunkWork(cx, cz));
+                    readBackup(file, cw);
+                    count++;
+                } catch (IOException e) {
+                    log("Skipping backup " + name + ": " + e.getMessage());
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void readBackup(Path file, ChunkWork cw) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != BACKUP_MAGIC) throw new IOException("Bad magic");
+            byte ver = in.readByte();
+            if (ver != BACKUP_VERSION) throw new IOException("Bad version " + ver);
+
+            int stepXZ = in.readUnsignedByte();
+            int stepY = in.readUnsignedByte();
+            if (stepXZ == 0 || stepY == 0) throw new IOException("Bad grid step");
+            int minY = in.readInt();
+            int maxY = in.readInt();
+
+            String[] palette = new String[in.readInt()];
+            for (int i = 0; i < palette.length; i++) {
+                byte[] b = new byte[in.readUnsignedShort()];
+                in.readFully(b);
+                palette[i] = new String(b, StandardCharsets.UTF_8);
+            }
+
+            int n = in.readInt();
+            boolean useByte = in.readBoolean();
+            int[] idx = new int[n];
+            for (int i = 0; i < n; i++) idx[i] = useByte ? in.readUnsignedByte() : in.readUnsignedShort();
+
+            cw.backupFile = file;
+            cw.stepXZ = stepXZ;
+            cw.stepY = stepY;
+            cw.backupMinY = minY;
+            cw.backupMaxY = maxY;
+            cw.backupPalette = palette;
+            cw.backupIndices = idx;
+        }
+    }
+
+    private static long key(int x, int z) {
+        return ((long) x << 32) | (z & 0xffffffffL);
+    }
+}
@@ -0,0 +1,147 @@
+package Kinkin.aeternum.offline;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Archivo de región Anvil (r.X.Z.mca) cargado entero en memoria.
+ *
+ * Cabecera de 8 KiB: 1024 ubicaciones (offset de sector 3 bytes + nº de sectores 1 byte)
+ * y 1024 timestamps. Cada chunk: longitud int, compresión byte, datos.
+ * Solo se descomprimen los chunks que se editan; al guardar se reescribe el archivo
+ * entero (chunks contiguos desde el sector 2) en un .tmp y se mueve encima.
+ */
+final class RegionFile {
+
+    private static final int SECTOR = 4096;
+    private static final int COMPRESSION_GZIP = 1;
+    private static final int COMPRESSION_ZLIB = 2;
+    private static final int COMPRESSION_NONE = 3;
+
+    private final Path file;
+    private final byte[] raw;
+    // payload ya comprimido por índice local (lx + lz * 32); null = sin tocar
+    private final byte[][] replaced = new byte[1024][];
+
+    RegionFile(Path file) throws IOException {
+        this.file = file;
+        this.raw = Files.readAllBytes(file);
+        if (raw.length < SECTOR * 2) throw new IOException("Region header too short: " + file);
+    }
+
+    Path path() {
+        return file;
+    }
+
+    private static int index(int cx, int cz) {
+        return (cx & 31) + (cz & 31) * 32;
+    }
+
+    private int location(int idx) {
+        return ByteBuffer.wrap(raw, idx * 4, 4).getInt();
+    }
+
+    boolean hasChunk(int cx, int cz) {
+        return location(index(cx, cz)) != 0;
+    }
+
+    /**
+     * NBT del chunk, o null si no existe. Lanza IOException si está en un formato
+     * que no sabemos leer (LZ4, chunk externo .mcc): mejor no tocarlo.
+     */
+    Map<String, Object> read(int cx, int cz) throws IOException {
+        int loc = location(index(cx, cz));
+        if (loc == 0) return null;
+
+        int offset = (loc >>> 8) * SECTOR;
+        if (offset + 5 > raw.length) throw new IOException("Chunk " + cx + "," + cz + " points past end of file");
+
+        int length = ByteBuffer.wrap(raw, offset, 4).getInt();
+        int compression = raw[offset + 4] & 0xFF;
+        if (length <= 1 || offset + 4 + length > raw.length) {
+            throw new IOException("Chunk " + cx + "," + cz + " has a bad length " + length);
+        }
+
+        InputStream data = new ByteArrayInputStream(raw, offset + 5, length - 1);
+        InputStream in = switch (compression) {
+            case COMPRESSION_GZIP -> new GZIPInputStream(data);
+            case COMPRESSION_ZLIB -> new InflaterInputStream(data);
+            case COMPRESSION_NONE -> data;
+            default -> throw new IOException("Unsupported chunk compression " + compression
+                    + " at " + cx + "," + cz);
+        };
+        try (DataInputStream din = new DataInputStream(new BufferedInputStream(in))) {
+            return Nbt.readRoot(din);
+        }
+    }
+
+    /** Sustituye el chunk (se comprime con zlib, como hace vanilla). */
+    void write(int cx, int cz, Map<String, Object> root) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            Nbt.writeRoot(out, root);
+        }
+        replaced[index(cx, cz)] = bytes.toByteArray();
+    }
+
+    boolean isDirty() {
+        for (byte[] b : replaced) if (b != null) return true;
+        return false;
+    }
+
+    /** Reescribe el archivo si hubo cambios (atómico: .tmp + move). */
+    void save() throws IOException {
+        if (!isDirty()) return;
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(raw.length);
+        byte[] header = new byte[SECTOR * 2];
+        System.arraycopy(raw, SECTOR, header, SECTOR, SECTOR); // timestamps tal cual
+        ByteBuffer locations = ByteBuffer.wrap(header, 0, SECTOR);
+
+        int sector = 2;
+        for (int idx = 0; idx < 1024; idx++) {
+            byte[] payload; // longitud + compresión + datos
+            if (replaced[idx] != null) {
+                byte[] data = replaced[idx];
+                payload = ByteBuffer.allocate(5 + data.length)
+                        .putInt(data.length + 1).put((byte) COMPRESSION_ZLIB).put(data).array();
+            } else {
+                int loc = location(idx);
+                if (loc == 0) continue;
+                int offset = (loc >>> 8) * SECTOR;
+                int length = ByteBuffer.wrap(raw, offset, 4).getInt();
+                payload = new byte[4 + length];
+                System.arraycopy(raw, offset, payload, 0, payload.length);
+            }
+
+            int sectors = (payload.length + SECTOR - 1) / SECTOR;
+            if (sectors > 255) {
+                throw new IOException("Chunk #" + idx + " needs " + sectors + " sectors (max 255), region left untouched");
+            }
+            body.write(payload);
+            body.write(new byte[sectors * SECTOR - payload.length]);
+            locations.putInt(idx * 4, (sector << 8) | sectors);
+            sector += sectors;
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var out = Files.newOutputStream(tmp)) {
+            out.write(header);
+            body.writeTo(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
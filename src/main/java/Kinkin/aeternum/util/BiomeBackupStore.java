@@ -1,6 +1,7 @@
 package Kinkin.aeternum.world;
 
 import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.util.LifecycleScope;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.World;
@@ -13,6 +14,8 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Stream;
 
 public final class BiomeBackupStore {
@@ -27,9 +30,15 @@ public final class BiomeBackupStore {
     private final Set<Long> saved = ConcurrentHashMap.newKeySet();
     private final Set<Long> pending = ConcurrentHashMap.newKeySet();
 
+    // escrituras en un hilo propio: el scope lo drena al cerrar (no se pierden backups a medias)
+    private final LifecycleScope life;
+    private final ExecutorService io;
+
     public BiomeBackupStore(AeternumSeasonsPlugin plugin) {
         this.plugin = plugin;
         this.root = plugin.getDataFolder().toPath().resolve("biome_backups");
+        this.life = plugin.lifecycle.scope("BiomeBackup");
+        this.io = life.executor("io");
         try {
             Files.createDirectories(root);
         } catch (IOException e) {
@@ -60,7 +69,7 @@ public final class BiomeBackupStore {
         int minY = w.getMinHeight();
         int maxY = w.getMaxHeight();
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+        Runnable write = () -> {
             try {
                 writeBackup(file, copy, stepXZ, stepY, minY, maxY);
                 saved.add(k);
@@ -69,7 +78,14 @@ public final class BiomeBackupStore {
             } finally {
                 pending.remove(k);
             }
-        });
+        };
+
+        try {
+            io.execute(write);
+        } catch (RejectedExecutionException ex) {
+            // el scope ya se cerró (apagando): escribimos en línea, el backup original no se puede perder
+            write.run();
+        }
     }
 
     private void writeBackup(Path file, Biome[] grid, int stepXZ, int stepY, int minY, int maxY) throws IOException {
@@ -125,7 +141,7 @@ public final class BiomeBackupStore {
 
     public void startRestoreAll(CommandSender sender, int budgetChunksPerTick) {
         // escaneo async de todos los backups
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+        life.async(() -> {
             List<Path> files = new ArrayList<>();
 
             if (Files.exists(root)) {
@@ -136,7 +152,7 @@ public final class BiomeBackupStore {
                 }
             }
 
-            Bukkit.getScheduler().runTask(plugin, () -> {
+            life.now(() -> {
                 if (files.isEmpty()) {
                     sender.sendMessage("§e[BiomeBackup] No hay backups para restaurar.");
                     return;
@@ -145,8 +161,8 @@ public final class BiomeBackupStore {
                 sender.sendMessage("§a[BiomeBackup] Restaurando " + files.size()
                         + " chunks... budget=" + budgetChunksPerTick + "/tick");
 
-                new RestoreTask(files.iterator(), sender, Math.max(1, budgetChunksPerTick))
-                        .runTaskTimer(plugin, 1L, 1L);
+                life.track(new RestoreTask(files.iterator(), sender, Math.max(1, budgetChunksPerTick))
+                        .runTaskTimer(plugin, 1L, 1L));
             });
         });
     }
@@ -0,0 +1,47 @@
+package Kinkin.aeternum.util;
+
+/**
+ * Empaquetado de coordenadas en un long, SIN mundo (el mundo lo da el
+ * {@link PerWorld} que contiene la colección).
+ *
+ * - chunk: cx (32 bits) | cz (32 bits)
+ * - bloque: x (26 bits) | z (26 bits) | y (12 bits, desplazado +2048)
+ */
+public final class BlockKeys {
+
+    private BlockKeys() {
+    }
+
+    public static long chunk(int cx, int cz) {
+        return (((long) cx) << 32) | (((long) cz) & 0xffffffffL);
+    }
+
+    public static int chunkX(long k) {
+        return (int) (k >> 32);
+    }
+
+    public static int chunkZ(long k) {
+        return (int) k;
+    }
+
+    public static long block(int x, int y, int z) {
+        return ((x & 0x3FFFFFFL) << 38) | ((z & 0x3FFFFFFL) << 12) | ((y + 2048L) & 0xFFFL);
+    }
+
+    public static int blockX(long k) {
+        return (int) (k >> 38);
+    }
+
+    public static int blockY(long k) {
+        return (int) (k & 0xFFFL) - 2048;
+    }
+
+    public static int blockZ(long k) {
+        return (int) (k << 26 >> 38);
+    }
+
+    /** Chunk que contiene el bloque empaquetado. */
+    public static long chunkOfBlock(long k) {
+        return chunk(blockX(k) >> 4, blockZ(k) >> 4);
+    }
+}
@@ -0,0 +1,107 @@
+package Kinkin.aeternum.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registro central de ciclo de vida.
+ *
+ * Cada servicio pide su {@link LifecycleScope} por nombre y programa a través de él
+ * tareas, listeners y executors. Con eso:
+ * - {@link #closeAll()} desmonta TODO de forma determinista (onDisable),
+ * - {@link #findLeaks()} compara las tareas pendientes del scheduler con las que
+ *   tienen dueño: cualquier tarea del plugin sin scope es una fuga (alguien usó
+ *   Bukkit.getScheduler() directo, o un scope se olvidó de cerrarse).
+ */
+public final class LifecycleRegistry {
+
+    private final Plugin plugin;
+    private final Map<String, LifecycleScope> scopes = new LinkedHashMap<>();
+
+    public LifecycleRegistry(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /** Devuelve el scope de ese dueño (lo crea la primera vez; el mismo nombre = el mismo scope). */
+    public synchronized LifecycleScope scope(String owner) {
+        return scopes.computeIfAbsent(owner, o -> new LifecycleScope(plugin, o));
+    }
+
+    /** Cierra todos los scopes en orden inverso de creación. */
+    public synchronized void closeAll() {
+        List<LifecycleScope> list = new ArrayList<>(scopes.values());
+        for (int i = list.size() - 1; i >= 0; i--) {
+            try {
+                list.get(i).close();
+            } catch (Throwable t) {
+                plugin.getLogger().warning("[Lifecycle] Error closing " + list.get(i).owner() + ": " + t.getMessage());
+            }
+        }
+    }
+
+    /** Tareas pendientes de este plugin que ningún scope reconoce como suyas. */
+    public synchronized List<BukkitTask> findLeaks() {
+        List<BukkitTask> leaks = new ArrayList<>();
+        for (BukkitTask t : Bukkit.getScheduler().getPendingTasks()) {
+            if (t.getOwner() != plugin || t.isCancelled()) continue;
+            boolean owned = false;
+            for (LifecycleScope s : scopes.values()) {
+                if (s.owns(t.getTaskId())) {
+                    owned = true;
+                    break;
+                }
+            }
+            if (!owned) leaks.add(t);
+        }
+        return leaks;
+    }
+
+    /** Total de tareas vivas con dueño (debe quedarse plano entre reloads). */
+    public synchronized int liveTasks() {
+        int n = 0;
+        for (LifecycleScope s : scopes.values()) n += s.liveTasks();
+        return n;
+    }
+
+    /** Total de listeners registrados por los scopes (debe quedarse plano entre reloads). */
+    public synchronized int listenerCount() {
+        int n = 0;
+        for (LifecycleScope s : scopes.values()) n += s.listenerCount();
+        return n;
+    }
+
+    /** Total de executors vivos de los scopes. */
+    public synchronized int executorCount() {
+        int n = 0;
+        for (LifecycleScope s : scopes.values()) n += s.executorCount();
+        return n;
+    }
+
+    /** Log de estado: tareas/listeners/executors por scope + fugas detectadas. */
+    public synchronized void report(String when) {
+        StringBuilder sb = new StringBuilder();
+        int tasks = 0, listeners = 0, executors = 0;
+        for (LifecycleScope s : scopes.values()) {
+            int t = s.liveTasks(), l = s.listenerCount(), e = s.executorCount();
+            tasks += t;
+            listeners += l;
+            executors += e;
+            if (t + l + e == 0) continue;
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(s.owner()).append('=').append(t).append('/').append(l).append('/').append(e);
+        }
+        plugin.getLogger().info("[Lifecycle] " + when + ": tasks=" + tasks + " listeners=" + listeners
+                + " executors=" + executors + (sb.length() > 0 ? " [" + sb + "]" : ""));
+
+        for (BukkitTask leak : findLeaks()) {
+            plugin.getLogger().warning("[Lifecycle] Leaked task id=" + leak.getTaskId()
+                    + (leak.isSync() ? " (sync)" : " (async)") + " not owned by any scope.");
+        }
+    }
+}
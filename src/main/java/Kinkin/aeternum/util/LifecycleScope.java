@@ -0,0 +1,169 @@
+package Kinkin.aeternum.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dueño de los handles (tareas, listeners, executors) de UN servicio.
+ *
+ * - Todo lo que el servicio programa pasa por aquí, así {@link #close()} lo
+ *   desmonta entero y en orden: tareas → listeners → executors.
+ * - El scope se puede reutilizar: close() lo deja vacío y register() vuelve a llenarlo.
+ * - Las tareas one-shot ya terminadas se purgan solas al programar nuevas.
+ *
+ * Se obtiene con {@link LifecycleRegistry#scope(String)}.
+ */
+public final class LifecycleScope {
+
+    private static final long EXECUTOR_DRAIN_MS = 5000L;
+
+    private final Plugin plugin;
+    private final String owner;
+
+    private final Set<BukkitTask> tasks = new LinkedHashSet<>();
+    private final Set<Listener> listeners = new LinkedHashSet<>();
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    LifecycleScope(Plugin plugin, String owner) {
+        this.plugin = plugin;
+        this.owner = owner;
+    }
+
+    public String owner() {
+        return owner;
+    }
+
+    /* ========================= TAREAS ========================= */
+
+    public BukkitTask timer(Runnable r, long delay, long period) {
+        return track(Bukkit.getScheduler().runTaskTimer(plugin, r, delay, period));
+    }
+
+    public BukkitTask later(Runnable r, long delay) {
+        return track(Bukkit.getScheduler().runTaskLater(plugin, r, delay));
+    }
+
+    public BukkitTask now(Runnable r) {
+        return track(Bukkit.getScheduler().runTask(plugin, r));
+    }
+
+    public BukkitTask async(Runnable r) {
+        return track(Bukkit.getScheduler().runTaskAsynchronously(plugin, r));
+    }
+
+    /** Para tareas creadas por fuera (p.ej. BukkitRunnable#runTaskTimer). */
+    public synchronized BukkitTask track(BukkitTask t) {
+        prune();
+        if (t != null) tasks.add(t);
+        return t;
+    }
+
+    /** Cancela una tarea del scope (null-safe). Devuelve siempre null para poder hacer task = life.cancel(task). */
+    public synchronized BukkitTask cancel(BukkitTask t) {
+        if (t != null) {
+            t.cancel();
+            tasks.remove(t);
+        }
+        return null;
+    }
+
+    /* ======================== LISTENERS ======================== */
+
+    /** Registra el listener una sola vez (llamadas repetidas no duplican handlers). */
+    public synchronized void listen(Listener l) {
+        if (!listeners.add(l)) return;
+        Bukkit.getPluginManager().registerEvents(l, plugin);
+    }
+
+    public synchronized void unlisten(Listener l) {
+        if (listeners.remove(l)) {
+            HandlerList.unregisterAll(l);
+        }
+    }
+
+    /* ======================== EXECUTORS ======================== */
+
+    /** Executor de un hilo (daemon) para IO; se drena en close(). */
+    public synchronized ExecutorService executor(String name) {
+        ExecutorService ex = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "SeasonsCore-" + owner + "-" + name);
+            t.setDaemon(true);
+            return t;
+        });
+        executors.add(ex);
+        return ex;
+    }
+
+    /* ========================= CIERRE ========================= */
+
+    /**
+     * Desmonta todo lo que posee el scope. Los executors se drenan (hasta 5s)
+     * para no perder escrituras a disco a medias.
+     */
+    public synchronized void close() {
+        for (BukkitTask t : tasks) {
+            t.cancel();
+        }
+        tasks.clear();
+
+        for (Listener l : listeners) {
+            HandlerList.unregisterAll(l);
+        }
+        listeners.clear();
+
+        for (ExecutorService ex : executors) {
+            ex.shutdown();
+            try {
+                if (!ex.awaitTermination(EXECUTOR_DRAIN_MS, TimeUnit.MILLISECONDS)) {
+                    plugin.getLogger().warning("[Lifecycle] " + owner + ": executor did not drain in time, forcing shutdown.");
+                    ex.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                ex.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        executors.clear();
+    }
+
+    /* ========================= CONTEO ========================= */
+
+    synchronized boolean owns(int taskId) {
+        for (BukkitTask t : tasks) {
+            if (t.getTaskId() == taskId) return true;
+        }
+        return false;
+    }
+
+    public synchronized int liveTasks() {
+        prune();
+        return tasks.size();
+    }
+
+    public synchronized int listenerCount() {
+        return listeners.size();
+    }
+
+    public synchronized int executorCount() {
+        return executors.size();
+    }
+
+    // quita one-shots que ya corrieron y tareas canceladas por fuera
+    private void prune() {
+        BukkitScheduler sch = Bukkit.getScheduler();
+        tasks.removeIf(t -> t.isCancelled()
+                || (!sch.isQueued(t.getTaskId()) && !sch.isCurrentlyRunning(t.getTaskId())));
+    }
+}
@@ -0,0 +1,22 @@
+package Kinkin.aeternum.util;
+
+/** Utilidades compartidas por {@link LongSet} y {@link LongMap}. */
+final class LongHash {
+
+    static final float LOAD_FACTOR = 0.75f;
+
+    private LongHash() {
+    }
+
+    // mezcla tipo fibonacci: las claves de chunk/bloque vecinas no caen en huecos vecinos
+    static int mix(long k) {
+        long h = k * 0x9E3779B97F4A7C15L;
+        h ^= (h >>> 32);
+        return (int) (h ^ (h >>> 16));
+    }
+
+    static int capacityFor(int expected) {
+        int need = (int) Math.ceil(Math.max(4, expected) / LOAD_FACTOR);
+        return Integer.highestOneBit(need - 1) << 1;
+    }
+}
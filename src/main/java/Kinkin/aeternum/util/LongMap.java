@@ -0,0 +1,149 @@
+package Kinkin.aeternum.util;
+
+import java.util.Arrays;
+
+/**
+ * Mapa long → V sin boxing de claves (direccionamiento abierto, sondeo lineal).
+ * Los valores null no se admiten: un hueco con valor null es un hueco libre.
+ * NO es thread-safe: se usa solo desde el hilo principal.
+ */
+public final class LongMap<V> {
+
+    /** Visitante de entradas; devolver false corta el recorrido. */
+    @FunctionalInterface
+    public interface Visitor<V> {
+        boolean visit(long key, V value);
+    }
+
+    private long[] keys;
+    private Object[] vals;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongMap() {
+        this(16);
+    }
+
+    public LongMap(int expected) {
+        allocate(LongHash.capacityFor(expected));
+    }
+
+    private void allocate(int cap) {
+        keys = new long[cap];
+        vals = new Object[cap];
+        mask = cap - 1;
+        resizeAt = (int) (cap * LongHash.LOAD_FACTOR);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long k) {
+        int pos = LongHash.mix(k) & mask;
+        while (vals[pos] != null) {
+            if (keys[pos] == k) return (V) vals[pos];
+            pos = (pos + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(long k) {
+        return get(k) != null;
+    }
+
+    /** @return el valor anterior, o null */
+    @SuppressWarnings("unchecked")
+    public V put(long k, V v) {
+        if (v == null) throw new IllegalArgumentException("null values are not supported");
+        int pos = LongHash.mix(k) & mask;
+        while (vals[pos] != null) {
+            if (keys[pos] == k) {
+                V old = (V) vals[pos];
+                vals[pos] = v;
+                return old;
+            }
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = k;
+        vals[pos] = v;
+        if (++size >= resizeAt) rehash(keys.length << 1);
+        return null;
+    }
+
+    /** @return el valor existente (sin tocarlo), o null si se insertó v */
+    public V putIfAbsent(long k, V v) {
+        V cur = get(k);
+        if (cur != null) return cur;
+        put(k, v);
+        return null;
+    }
+
+    /** @return el valor quitado, o null */
+    @SuppressWarnings("unchecked")
+    public V remove(long k) {
+        int pos = LongHash.mix(k) & mask;
+        while (vals[pos] != null) {
+            if (keys[pos] == k) {
+                V old = (V) vals[pos];
+                size--;
+                shiftKeys(pos);
+                return old;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return null;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        size = 0;
+        Arrays.fill(vals, null);
+    }
+
+    /** Recorre las entradas; el visitante NO debe modificar el mapa. */
+    @SuppressWarnings("unchecked")
+    public void forEach(Visitor<V> visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (vals[i] != null && !visitor.visit(keys[i], (V) vals[i])) return;
+        }
+    }
+
+    private void shiftKeys(int pos) {
+        int last;
+        while (true) {
+            last = pos;
+            pos = (pos + 1) & mask;
+            while (true) {
+                if (vals[pos] == null) {
+                    vals[last] = null;
+                    return;
+                }
+                int slot = LongHash.mix(keys[pos]) & mask;
+                if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) break;
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = keys[pos];
+            vals[last] = vals[pos];
+        }
+    }
+
+    private void rehash(int cap) {
+        long[] oldKeys = keys;
+        Object[] oldVals = vals;
+        allocate(cap);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldVals[i] == null) continue;
+            int pos = LongHash.mix(oldKeys[i]) & mask;
+            while (vals[pos] != null) pos = (pos + 1) & mask;
+            keys[pos] = oldKeys[i];
+            vals[pos] = oldVals[i];
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package Kinkin.aeternum.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Set de longs sin boxing (direccionamiento abierto, sondeo lineal).
+ *
+ * Pensado para claves de chunk/bloque de {@link BlockKeys}: un Set<Long> con
+ * miles de posiciones cuesta ~5x más memoria y genera basura en cada contains().
+ * NO es thread-safe: se usa solo desde el hilo principal.
+ */
+public final class LongSet {
+
+    private long[] keys;
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongSet() {
+        this(16);
+    }
+
+    public LongSet(int expected) {
+        allocate(LongHash.capacityFor(expected));
+    }
+
+    private void allocate(int cap) {
+        keys = new long[cap];
+        used = new boolean[cap];
+        mask = cap - 1;
+        resizeAt = (int) (cap * LongHash.LOAD_FACTOR);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(long k) {
+        int pos = LongHash.mix(k) & mask;
+        while (used[pos]) {
+            if (keys[pos] == k) return true;
+            pos = (pos + 1) & mask;
+        }
+        return false;
+    }
+
+    /** @return true si no estaba */
+    public boolean add(long k) {
+        int pos = LongHash.mix(k) & mask;
+        while (used[pos]) {
+            if (keys[pos] == k) return false;
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = k;
+        used[pos] = true;
+        if (++size >= resizeAt) rehash(keys.length << 1);
+        return true;
+    }
+
+    /** @return true si estaba */
+    public boolean remove(long k) {
+        int pos = LongHash.mix(k) & mask;
+        while (used[pos]) {
+            if (keys[pos] == k) {
+                size--;
+                shiftKeys(pos);
+                return true;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return false;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        size = 0;
+        Arrays.fill(used, false);
+    }
+
+    public void forEach(LongConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) action.accept(keys[i]);
+        }
+    }
+
+    public long[] toArray() {
+        long[] out = new long[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) out[n++] = keys[i];
+        }
+        return out;
+    }
+
+    // borrado con desplazamiento hacia atrás (sin tombstones)
+    private void shiftKeys(int pos) {
+        int last;
+        while (true) {
+            last = pos;
+            pos = (pos + 1) & mask;
+            while (true) {
+                if (!used[pos]) {
+                    used[last] = false;
+                    return;
+                }
+                int slot = LongHash.mix(keys[pos]) & mask;
+                if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) break;
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = keys[pos];
+        }
+    }
+
+    private void rehash(int cap) {
+        long[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        allocate(cap);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i]) continue;
+            int pos = LongHash.mix(oldKeys[i]) & mask;
+            while (used[pos]) pos = (pos + 1) & mask;
+            keys[pos] = oldKeys[i];
+            used[pos] = true;
+        }
+    }
+}
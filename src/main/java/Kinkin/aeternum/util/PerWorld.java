@@ -0,0 +1,63 @@
+package Kinkin.aeternum.util;
+
+import org.bukkit.World;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Estado de un servicio partido por mundo.
+ *
+ * - El estado de un mundo se crea la primera vez que se toca ({@link #get}),
+ *   con un factory que recibe el World para dimensionarse.
+ * - {@link #drop} lo suelta entero: los servicios lo llaman en WorldUnloadEvent,
+ *   así los mundos que se crean y destruyen (minijuegos) no dejan residuos.
+ * - Las lecturas usan {@link #peek} para no crear estado vacío.
+ *
+ * NO es thread-safe: se usa solo desde el hilo principal.
+ */
+public final class PerWorld<T> {
+
+    private final Function<World, T> factory;
+    private final Map<UUID, T> byWorld = new HashMap<>();
+
+    public PerWorld(Function<World, T> factory) {
+        this.factory = factory;
+    }
+
+    public T get(World w) {
+        return byWorld.computeIfAbsent(w.getUID(), id -> factory.apply(w));
+    }
+
+    public T peek(World w) {
+        return w == null ? null : byWorld.get(w.getUID());
+    }
+
+    public T peek(UUID worldId) {
+        return byWorld.get(worldId);
+    }
+
+    public T drop(World w) {
+        return byWorld.remove(w.getUID());
+    }
+
+    public void clear() {
+        byWorld.clear();
+    }
+
+    public boolean isEmpty() {
+        return byWorld.isEmpty();
+    }
+
+    public Collection<T> values() {
+        return byWorld.values();
+    }
+
+    public Map<UUID, T> view() {
+        return Collections.unmodifiableMap(byWorld);
+    }
+}
@@ -0,0 +1,251 @@
+package Kinkin.aeternum.util;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.util.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Foto de los jugadores conectados, tomada como mucho UNA vez por tick.
+ *
+ * Antes cada tarea periódica llamaba por su cuenta a getOnlinePlayers(),
+ * getLocation() (un Location nuevo por llamada), getWorld() e isWorldDisabled()
+ * varias veces por jugador y tick. Ahora:
+ * - {@link #frame()} devuelve la foto del tick actual (la captura la primera
+ *   llamada del tick; las siguientes la reutilizan),
+ * - cada {@link PlayerView} guarda posiciones/chunk/mirada/velocidad en primitivos,
+ * - cada mundo tiene una rejilla espacial (celdas de {@link #CELL_CHUNKS} chunks),
+ *   así "jugadores cerca del chunk X" no recorre a todos los jugadores.
+ *
+ * Solo se captura en el hilo principal: fuera de él se devuelve la última foto
+ * publicada (o una vacía si aún no hay ninguna), nunca se llama a la API de Bukkit.
+ */
+public final class PlayerSnapshotService {
+
+    /** Lado de una celda de la rejilla, en chunks. */
+    public static final int CELL_CHUNKS = 8;
+
+    /** Estado inmutable de un jugador en el tick de la foto. */
+    public static final class PlayerView {
+        public final Player player;
+        public final World world;
+        public final int worldIndex;      // índice en Frame#worlds()
+        public final boolean fxDisabled;  // worlds.disabled_season_fx
+        public final double x, y, z;
+        public final int blockX, blockY, blockZ;
+        public final int chunkX, chunkZ;
+        public final double lookX, lookZ; // dirección de mirada en XZ, normalizada (0,1 si mira vertical)
+        public final double velX, velY, velZ;
+        public final int viewDistance;    // min(cliente, servidor)
+
+        PlayerView(Player p, World w, int worldIndex, boolean fxDisabled, Location loc, Vector vel, int viewDistance) {
+            this.player = p;
+            this.world = w;
+            this.worldIndex = worldIndex;
+            this.fxDisabled = fxDisabled;
+            this.x = loc.getX();
+            this.y = loc.getY();
+            this.z = loc.getZ();
+            this.blockX = loc.getBlockX();
+            this.blockY = loc.getBlockY();
+            this.blockZ = loc.getBlockZ();
+            this.chunkX = blockX >> 4;
+            this.chunkZ = blockZ >> 4;
+
+            Vector dir = loc.getDirection();
+            double lx = dir.getX(), lz = dir.getZ();
+            double len = Math.sqrt(lx * lx + lz * lz);
+            if (len < 1e-2) {
+                this.lookX = 0.0;
+                this.lookZ = 1.0;
+            } else {
+                this.lookX = lx / len;
+                this.lookZ = lz / len;
+            }
+
+            this.velX = vel.getX();
+            this.velY = vel.getY();
+            this.velZ = vel.getZ();
+            this.viewDistance = viewDistance;
+        }
+
+        /** Distancia Chebyshev en chunks a (cx, cz). */
+        public int chunkDistance(int cx, int cz) {
+            return Math.max(Math.abs(chunkX - cx), Math.abs(chunkZ - cz));
+        }
+
+        public double distanceSquared(double ox, double oy, double oz) {
+            double dx = x - ox, dy = y - oy, dz = z - oz;
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    /** Foto de un tick: jugadores + rejilla por mundo. */
+    public static final class Frame {
+        private static final PlayerView[] NONE = new PlayerView[0];
+
+        /** Sin jugadores ni mundos: lo que ve un hilo async antes de la primera foto. */
+        @SuppressWarnings("unchecked")
+        static final Frame EMPTY = new Frame(-1, NONE, new World[0], new PlayerView[0][], new LongMap[0]);
+
+        private final int tick;
+        private final PlayerView[] players;
+        private final World[] worlds;
+        private final PlayerView[][] byWorld;
+        private final LongMap<PlayerView[]>[] grids;
+
+        private Frame(int tick, PlayerView[] players, World[] worlds, PlayerView[][] byWorld, LongMap<PlayerView[]>[] grids) {
+            this.tick = tick;
+            this.players = players;
+            this.worlds = worlds;
+            this.byWorld = byWorld;
+            this.grids = grids;
+        }
+
+        public int tick() {
+            return tick;
+        }
+
+        /** Todos los jugadores conectados (no modificar el array). */
+        public PlayerView[] players() {
+            return players;
+        }
+
+        public World[] worlds() {
+            return worlds;
+        }
+
+        public boolean isEmpty() {
+            return players.length == 0;
+        }
+
+        /** Jugadores en ese mundo (no modificar el array). */
+        public PlayerView[] inWorld(World w) {
+            int i = indexOf(w);
+            return i < 0 ? NONE : byWorld[i];
+        }
+
+        /** Llama a action por cada jugador del mundo a ≤ radius chunks (Chebyshev) de (cx, cz). */
+        public void forEachNear(World w, int cx, int cz, int radius, Consumer<PlayerView> action) {
+            int i = indexOf(w);
+            if (i < 0 || byWorld[i].length == 0) return;
+
+            LongMap<PlayerView[]> grid = grids[i];
+            int minCellX = Math.floorDiv(cx - radius, CELL_CHUNKS), maxCellX = Math.floorDiv(cx + radius, CELL_CHUNKS);
+            int minCellZ = Math.floorDiv(cz - radius, CELL_CHUNKS), maxCellZ = Math.floorDiv(cz + radius, CELL_CHUNKS);
+            for (int gx = minCellX; gx <= maxCellX; gx++) {
+                for (int gz = minCellZ; gz <= maxCellZ; gz++) {
+                    PlayerView[] cell = grid.get(BlockKeys.chunk(gx, gz));
+                    if (cell == null) continue;
+                    for (PlayerView pv : cell) {
+                        if (pv.chunkDistance(cx, cz) <= radius) action.accept(pv);
+                    }
+                }
+            }
+        }
+
+        /** ¿Algún jugador del mundo a ≤ radius chunks de (cx, cz)? */
+        public boolean anyNear(World w, int cx, int cz, int radius) {
+            boolean[] found = {false};
+            forEachNear(w, cx, cz, radius, pv -> found[0] = true);
+            return found[0];
+        }
+
+        private int indexOf(World w) {
+            for (int i = 0; i < worlds.length; i++) {
+                if (worlds[i] == w) return i;
+            }
+            return -1;
+        }
+    }
+
+    private final AeternumSeasonsPlugin plugin;
+    // se publica en el hilo principal y se lee desde hilos async
+    private volatile Frame frame;
+
+    public PlayerSnapshotService(AeternumSeasonsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /** Foto del tick actual (se captura la primera vez que se pide en cada tick). */
+    public Frame frame() {
+        Frame f = frame;
+        if (!Bukkit.isPrimaryThread()) {
+            return f != null ? f : Frame.EMPTY;
+        }
+        int tick = Bukkit.getCurrentTick();
+        if (f == null || f.tick != tick) {
+            f = capture(tick);
+            frame = f;
+        }
+        return f;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Frame capture(int tick) {
+        List<World> worldList = Bukkit.getWorlds();
+        World[] worlds = worldList.toArray(new World[0]);
+        boolean[] disabled = new boolean[worlds.length];
+        for (int i = 0; i < worlds.length; i++) {
+            disabled[i] = plugin.isWorldDisabled(worlds[i]);
+        }
+
+        int serverView = Bukkit.getViewDistance();
+        List<PlayerView> all = new ArrayList<>();
+        List<PlayerView>[] perWorld = new List[worlds.length];
+        for (int i = 0; i < worlds.length; i++) perWorld[i] = new ArrayList<>();
+
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            Location loc = p.getLocation();
+            World w = loc.getWorld();
+            int wi = -1;
+            for (int i = 0; i < worlds.length; i++) {
+                if (worlds[i] == w) {
+                    wi = i;
+                    break;
+                }
+            }
+            if (wi < 0) continue;
+
+            int view = Math.min(serverView, Math.max(2, p.getClientViewDistance()));
+            PlayerView pv = new PlayerView(p, w, wi, disabled[wi], loc, p.getVelocity(), view);
+            all.add(pv);
+            perWorld[wi].add(pv);
+        }
+
+        PlayerView[][] byWorld = new PlayerView[worlds.length][];
+        LongMap<PlayerView[]>[] grids = new LongMap[worlds.length];
+        for (int i = 0; i < worlds.length; i++) {
+            byWorld[i] = perWorld[i].toArray(new PlayerView[0]);
+            grids[i] = buildGrid(byWorld[i]);
+        }
+
+        return new Frame(tick, all.toArray(new PlayerView[0]), worlds, byWorld, grids);
+    }
+
+    private static LongMap<PlayerView[]> buildGrid(PlayerView[] players) {
+        LongMap<List<PlayerView>> cells = new LongMap<>(Math.max(4, players.length));
+        for (PlayerView pv : players) {
+            long k = BlockKeys.chunk(Math.floorDiv(pv.chunkX, CELL_CHUNKS), Math.floorDiv(pv.chunkZ, CELL_CHUNKS));
+            List<PlayerView> cell = cells.get(k);
+            if (cell == null) {
+                cell = new ArrayList<>(2);
+                cells.put(k, cell);
+            }
+            cell.add(pv);
+        }
+
+        LongMap<PlayerView[]> grid = new LongMap<>(Math.max(4, cells.size()));
+        cells.forEach((k, list) -> {
+            grid.put(k, list.toArray(new PlayerView[0]));
+            return true;
+        });
+        return grid;
+    }
+}
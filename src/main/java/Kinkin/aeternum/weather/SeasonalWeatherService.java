@@ -5,12 +5,13 @@ import Kinkin.aeternum.calendar.CalendarState;
 import Kinkin.aeternum.calendar.Season;
 import Kinkin.aeternum.calendar.SeasonService;
 import Kinkin.aeternum.calendar.SeasonUpdateEvent;
+import Kinkin.aeternum.config.WeatherSettings;
+import Kinkin.aeternum.util.LifecycleScope;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
+import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.event.Listener;
 
 import java.io.File;
@@ -23,6 +24,7 @@ public final class SeasonalWeatherService implements Listener {
     private final AeternumSeasonsPlugin plugin;
     private final SeasonService seasons;
 
+    private WeatherSettings settings;
     private boolean enabled;
     private List<String> worldIds;
 
@@ -46,67 +48,62 @@ public final class SeasonalWeatherService implements Listener {
     private long lastAppliedWorldDay = Long.MIN_VALUE;      // idx de día del mundo para no reaplicar en bucle
     private boolean manualOverrideToday = false;
 
+    private final LifecycleScope life;
+    private BukkitTask clockTask;
+
     public SeasonalWeatherService(AeternumSeasonsPlugin plugin, SeasonService seasons) {
         this.plugin = plugin;
         this.seasons = seasons;
-        reloadFromConfig();
+        this.life = plugin.lifecycle.scope("SeasonalWeather");
+        copySettings(plugin.cfg.snapshot().weather());
         loadOrSeedSchedule(seasons.getStateCopy());
     }
 
     public void register() {
         if (!enabled) return;
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        life.listen(this);
         // aplicar clima del día actual al registrar
         applyForToday();
         // reloj suave: chequea índice de día del mundo para re-aplicar al amanecer si hace falta
-        Bukkit.getScheduler().runTaskTimer(plugin, this::tickWorldClock, 60L, 40L);
+        life.cancel(clockTask);
+        clockTask = life.timer(this::tickWorldClock, 60L, 40L);
     }
 
     public void unregister() {
-        HandlerList.unregisterAll(this);
+        life.close();
+        clockTask = null;
     }
 
-    private void reloadFromConfig() {
-        enabled = plugin.cfg.climate.getBoolean("seasonal_weather.enabled", true);
-
-        worldIds = new ArrayList<>(plugin.cfg.climate.getStringList("seasonal_weather.worlds"));
-        if (worldIds.isEmpty()) {
-            worldIds = List.of("world");
+    /**
+     * Hot-reload: aplica seasonal_weather.* sin tocar el calendario de lluvias ya sembrado.
+     * Solo se (des)registra si cambió seasonal_weather.enabled.
+     */
+    public void applySettings(WeatherSettings next) {
+        WeatherSettings prev = this.settings;
+        if (next.equals(prev)) return;
+
+        copySettings(next);
+        if (prev.enabled() && !enabled) {
+            unregister();
+        } else if (!prev.enabled() && enabled) {
+            register();
         }
+    }
 
-        // Global fallback
-        rainyDaysPerSeason = Math.max(0,
-                plugin.cfg.climate.getInt("seasonal_weather.rainy_days_per_season", 10)
-        );
-
-        // Overrides por estación: seasonal_weather.rainy_days.SPRING / SUMMER / AUTUMN / WINTER
-        rainyDaysOverrides.clear();
-        ConfigurationSection sec = plugin.cfg.climate.getConfigurationSection("seasonal_weather.rainy_days");
-        if (sec != null) {
-            for (Season s : Season.values()) {
-                // si no está en config, usa el global
-                int v = Math.max(0, sec.getInt(s.name(), rainyDaysPerSeason));
-                rainyDaysOverrides.put(s, v);
-            }
-        } else {
-            // si no hay sección, todas las estaciones usan el global
-            for (Season s : Season.values()) {
-                rainyDaysOverrides.put(s, rainyDaysPerSeason);
-            }
-        }
-
-        thunderChance = Math.max(0.0, Math.min(1.0,
-                plugin.cfg.climate.getDouble("seasonal_weather.thunder_chance", 0.20)
-        ));
-
-        stormMin = plugin.cfg.climate.getInt("seasonal_weather.storm_duration_ticks.min", 6000);
-        stormMax = plugin.cfg.climate.getInt("seasonal_weather.storm_duration_ticks.max", 18000);
-
-        clearMin = plugin.cfg.climate.getInt("seasonal_weather.clear_duration_ticks.min", 6000);
-        clearMax = plugin.cfg.climate.getInt("seasonal_weather.clear_duration_ticks.max", 24000);
-
-        reseedEachSeason = plugin.cfg.climate.getBoolean("seasonal_weather.reseed_each_season", true);
-        respectManual = plugin.cfg.climate.getBoolean("seasonal_weather.respect_manual_commands", true);
+    private void copySettings(WeatherSettings ws) {
+        this.settings = ws;
+        this.enabled = ws.enabled();
+        this.worldIds = ws.worlds();
+        this.rainyDaysPerSeason = ws.rainyDaysPerSeason();
+        this.rainyDaysOverrides.clear();
+        this.rainyDaysOverrides.putAll(ws.rainyDays());
+        this.thunderChance = ws.thunderChance();
+        this.stormMin = ws.stormMin();
+        this.stormMax = ws.stormMax();
+        this.clearMin = ws.clearMin();
+        this.clearMax = ws.clearMax();
+        this.reseedEachSeason = ws.reseedEachSeason();
+        this.respectManual = ws.respectManual();
     }
 
     @EventHandler
@@ -173,6 +170,15 @@ public final class SeasonalWeatherService implements Listener {
         }
     }
 
+    /**
+     * ¿El día {@code day} de la estación está programado como lluvioso en w?
+     * null si el servicio está apagado o no gestiona ese mundo.
+     */
+    public Boolean isRainyDay(World w, int day) {
+        if (!enabled || !worldIds.contains(w.getName())) return null;
+        return rainyDays.contains(day);
+    }
+
     private List<World> worldsToApply() {
         List<World> out = new ArrayList<>();
         for (String id : worldIds) {
@@ -4,7 +4,11 @@ import Kinkin.aeternum.AeternumSeasonsPlugin;
 import Kinkin.aeternum.calendar.CalendarState;
 import Kinkin.aeternum.calendar.Season;
 import Kinkin.aeternum.calendar.SeasonService;
-import org.bukkit.Bukkit;
+import Kinkin.aeternum.config.AutumnFoliageSettings;
+import Kinkin.aeternum.config.AutumnSoilSettings;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.PlayerSnapshotService.PlayerView;
+import org.bukkit.Chunk;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Biome;
@@ -12,7 +16,6 @@ import org.bukkit.block.Block;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.block.data.type.Leaves;
 import org.bukkit.entity.Item;
-import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
@@ -23,16 +26,18 @@ import org.bukkit.util.Vector;
 import org.bukkit.Location;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 public final class AutumnSoilPainter implements Runnable, Listener {
 
     private final AeternumSeasonsPlugin plugin;
     private final SeasonService seasons;
 
+    private final LifecycleScope life;
     private BukkitTask task;
     private final Random random = new Random();
 
+    private AutumnSoilSettings settings;
+
     // cuántos CHUNKS intentamos procesar por tick (global)
     private int chunksPerTick;
 
@@ -42,6 +47,9 @@ public final class AutumnSoilPainter implements Runnable, Listener {
     // probabilidad base de recolorear cada bloque de hojas
     private double leafChancePerBlock;
 
+    // autumn_foliage.mode = client: el color lo pone VirtualFoliage, aquí no se pinta
+    private boolean clientFoliage;
+
     // tipos de hojas que vamos a transformar
     private final Set<Material> leafTypes = EnumSet.of(
             Material.SPRUCE_LEAVES,
@@ -49,10 +57,6 @@ public final class AutumnSoilPainter implements Runnable, Listener {
             Material.CHERRY_LEAVES
     );
 
-    // hojas pintadas -> para revertir luego
-    // key = worldUUID:x:y:z, value = tipo original
-    private final Map<String, Material> paintedLeaves = new ConcurrentHashMap<>();
-
     // para ordenar offsets como BiomeSpoofAdapter
     private static final class Offset {
         final int dx, dz;
@@ -71,45 +75,55 @@ public final class AutumnSoilPainter implements Runnable, Listener {
     private static final int PRE_AUTUMN_START_DAY  = 26; // 26,27,28 de verano
     private static final int PRE_AUTUMN_RAMP_DAYS  = 3;  // 3 días de rampa
 
+    // chunks con sello LEAF_HEAL desfasado (cargados tras el cambio de estación)
+    private final Deque<Chunk> healQueue = new ArrayDeque<>();
+
     // flip para alternar el patrón de columnas (anti-parches)
     private boolean gridFlip = false;
 
     public AutumnSoilPainter(AeternumSeasonsPlugin plugin, SeasonService seasons) {
         this.plugin = plugin;
         this.seasons = seasons;
-        reloadFromConfig();
+        this.life = plugin.lifecycle.scope("AutumnSoil");
+        copySettings(plugin.cfg.snapshot().autumnSoil(), plugin.cfg.snapshot().autumnFoliage());
     }
 
-    public void reloadFromConfig() {
-        var y = plugin.cfg.climate;
-
-        this.chunksPerTick = Math.max(
-                2,
-                y.getInt("autumn_soil.attempts_per_tick", 4)
-        );
-
-        this.radiusChunks = Math.max(
-                2,
-                y.getInt("autumn_soil.radius_chunks", 4)
-        );
-
-        this.leafChancePerBlock = y.getDouble("autumn_soil.leaf_chance_per_block", 1.0);
-        if (this.leafChancePerBlock < 0.0) this.leafChancePerBlock = 0.0;
-        if (this.leafChancePerBlock > 1.0) this.leafChancePerBlock = 1.0;
+    private void copySettings(AutumnSoilSettings soil, AutumnFoliageSettings foliage) {
+        this.settings = soil;
+        this.chunksPerTick = soil.chunksPerTick();
+        this.radiusChunks = soil.radiusChunks();
+        this.leafChancePerBlock = soil.leafChancePerBlock();
+        this.clientFoliage = foliage.clientMode();
     }
 
     public void register() {
-        if (task != null) task.cancel();
-        if (!plugin.cfg.climate.getBoolean("autumn_soil.enabled", false)) return;
-        this.task = Bukkit.getScheduler().runTaskTimer(plugin, this, 60L, 5L);
+        task = life.cancel(task);
+        if (!settings.enabled()) return;
+        this.task = life.timer(this, 60L, 5L);
 
         // registrar como listener
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        life.listen(this);
+        plugin.getSeasonStamp().watch(ChunkSeasonStamp.LEAF_HEAL, s -> s != Season.AUTUMN, healQueue::add);
     }
 
     public void unregister() {
-        if (task != null) task.cancel();
+        life.close();
         task = null;
+        plugin.getSeasonStamp().unwatch(ChunkSeasonStamp.LEAF_HEAL);
+        healQueue.clear();
+    }
+
+    /**
+     * Hot-reload: aplica autumn_soil.* (y el modo de autumn_foliage) conservando las
+     * hojas ya pintadas. Solo se (des)registra si cambió autumn_soil.enabled.
+     */
+    public void applySettings(AutumnSoilSettings soil, AutumnFoliageSettings foliage) {
+        AutumnSoilSettings prev = this.settings;
+        copySettings(soil, foliage);
+        if (prev.enabled() == soil.enabled()) return;
+
+        unregister();
+        register();
     }
 
     @Override
@@ -136,8 +150,8 @@ public final class AutumnSoilPainter implements Runnable, Listener {
 
         // fuera de pre-otoño y otoño -> MODO LIMPIEZA + AUTOREPARACIÓN
         if (paintFactor <= 0.0) {
-            // 1) Revertir las hojas que SÍ conocemos por mapa
-            revertSomeLeaves(4096);
+            // 1) Revertir las hojas que SÍ conocemos (overlay de los chunks cargados)
+            plugin.getOverlay().revertSome(SeasonOverlay.LEAF, chunksPerTick);
 
             // 2) Reparar hojas de acacia "sospechosas" en taiga/birch,
             // incluso si el mapa se perdió en un reinicio.
@@ -146,27 +160,26 @@ public final class AutumnSoilPainter implements Runnable, Listener {
             return;
         }
 
+        // modo cliente: solo deshacemos lo que quedara pintado en el mundo (modo anterior)
+        if (clientFoliage) {
+            plugin.getOverlay().revertSome(SeasonOverlay.LEAF, chunksPerTick);
+            return;
+        }
+
         // "otoño maduro": desde día 3 queremos que cerca del jugador estén FULL pintados
         boolean matureAutumn = (season == Season.AUTUMN && dayInSeason >= 3);
 
-        for (Player p : Bukkit.getOnlinePlayers()) {
+        for (PlayerView pv : plugin.players.frame().players()) {
             if (budget <= 0) break;
 
-            World w = p.getWorld();
+            World w = pv.world;
             if (w.getEnvironment() != World.Environment.NORMAL) continue;
 
-            Location loc = p.getLocation();
-            int pcx = loc.getBlockX() >> 4;
-            int pcz = loc.getBlockZ() >> 4;
-
-            // dirección de mirada (para ordenar como BiomeSpoofAdapter)
-            Vector look = loc.getDirection().clone();
-            look.setY(0);
-            if (look.lengthSquared() < 1e-4) {
-                look = new Vector(0, 0, 1);
-            } else {
-                look.normalize();
-            }
+            int pcx = pv.chunkX;
+            int pcz = pv.chunkZ;
+
+            // dirección de mirada (para ordenar como BiomeSpoofAdapter), ya normalizada en XZ
+            Vector look = new Vector(pv.lookX, 0, pv.lookZ);
 
             int radius = radiusChunks;
 
@@ -220,21 +233,30 @@ public final class AutumnSoilPainter implements Runnable, Listener {
     private void healResidualAutumnLeavesAroundPlayers() {
         int budget = chunksPerTick;
         if (budget <= 0) budget = 2;
+        ChunkSeasonStamp stamp = plugin.getSeasonStamp();
+
+        // ✅ primero los chunks desfasados que cargaron (sin depender del muestreo)
+        while (budget > 0 && !healQueue.isEmpty()) {
+            Chunk ch = healQueue.poll();
+            if (!ch.isLoaded() || stamp.isDone(ch, ChunkSeasonStamp.LEAF_HEAL)) continue;
+            fixChunkResidualLeaves(ch.getWorld(), ch.getX(), ch.getZ());
+            budget--;
+        }
 
-        for (Player p : Bukkit.getOnlinePlayers()) {
+        for (PlayerView pv : plugin.players.frame().players()) {
             if (budget <= 0) break;
 
-            World w = p.getWorld();
+            World w = pv.world;
             if (w.getEnvironment() != World.Environment.NORMAL) continue;
 
-            Location loc = p.getLocation();
-            int pcx = loc.getBlockX() >> 4;
-            int pcz = loc.getBlockZ() >> 4;
+            int pcx = pv.chunkX;
+            int pcz = pv.chunkZ;
             int radius = radiusChunks;
 
             for (int cx = pcx - radius; cx <= pcx + radius && budget > 0; cx++) {
                 for (int cz = pcz - radius; cz <= pcz + radius && budget > 0; cz++) {
                     if (!w.isChunkLoaded(cx, cz)) continue;
+                    if (stamp.isDone(w, cx, cz, ChunkSeasonStamp.LEAF_HEAL)) continue; // ✅ ya al día
                     fixChunkResidualLeaves(w, cx, cz);
                     budget--;
                 }
@@ -244,52 +266,45 @@ public final class AutumnSoilPainter implements Runnable, Listener {
 
     private void fixChunkResidualLeaves(World w, int cx, int cz) {
         int minY = w.getMinHeight();
-        int maxY = w.getMaxHeight();
-
-        int baseX = cx << 4;
-        int baseZ = cz << 4;
 
-        for (int lx = 0; lx < 16; lx++) {
-            for (int lz = 0; lz < 16; lz++) {
-                int wx = baseX + lx;
-                int wz = baseZ + lz;
+        // sonda aún escaneando: sin sello, se reintenta en otra pasada
+        byte[] masks = plugin.getSectionProbe().sections(w, cx, cz);
+        if (masks == null) return;
 
-                int yTop = w.getHighestBlockYAt(wx, wz) - 1;
-                if (yTop < minY) continue;
+        // sello: al salir, el chunk queda al día para esta estación
+        plugin.getSeasonStamp().markDone(w, cx, cz, ChunkSeasonStamp.LEAF_HEAL);
 
-                int scanMinY = Math.max(minY, yTop - 12);
-                int scanMaxY = Math.min(maxY, yTop + 8);
+        // ✅ chunk sin ACACIA_LEAVES en ninguna sección → nada que corregir
+        if (!SectionProbe.any(masks, SectionProbe.LEAF)) return;
 
-                for (int y = scanMinY; y <= scanMaxY; y++) {
-                    Block b = w.getBlockAt(wx, y, wz);
+        // ✅ hojas del registro de árboles del chunk (sin escanear columnas)
+        plugin.getTrees().forEachLeaf(w, cx, cz, b -> {
+            if (!SectionProbe.at(masks, minY, b.getY(), SectionProbe.LEAF)) return;
 
-                    // Solo hojas de acacia “raras”
-                    if (b.getType() != Material.ACACIA_LEAVES) continue;
+            // Solo hojas de acacia “raras”
+            if (b.getType() != Material.ACACIA_LEAVES) return;
 
-                    Material guessed = guessOriginalFromWorld(b);
-                    if (guessed == null || guessed == Material.ACACIA_LEAVES) continue;
+            Material guessed = guessOriginalFromWorld(b);
+            if (guessed == null || guessed == Material.ACACIA_LEAVES) return;
 
-                    BlockData current = b.getBlockData();
-                    int distance = 1;
-                    if (current instanceof Leaves leaves) {
-                        distance = leaves.getDistance();
-                    }
-
-                    Leaves backLeaves = (Leaves) guessed.createBlockData();
-                    backLeaves.setDistance(distance);
-                    backLeaves.setPersistent(false); // comportamiento vanilla
-                    b.setBlockData(backLeaves, false);
-                }
+            BlockData current = b.getBlockData();
+            int distance = 1;
+            if (current instanceof Leaves leaves) {
+                distance = leaves.getDistance();
             }
-        }
+
+            Leaves backLeaves = (Leaves) guessed.createBlockData();
+            backLeaves.setDistance(distance);
+            backLeaves.setPersistent(false); // comportamiento vanilla
+            b.setBlockData(backLeaves, false);
+        });
     }
 
     /**
      * Intenta adivinar si una ACACIA_LEAVES en este sitio debería ser
-     * SPRUCE_LEAVES o BIRCH_LEAVES, mirando troncos cercanos y bioma.
+     * SPRUCE_LEAVES o BIRCH_LEAVES, mirando los troncos de su árbol y el bioma.
      */
     private Material guessOriginalFromWorld(Block leaf) {
-        World w = leaf.getWorld();
         Biome biome = leaf.getBiome();
 
         // Nunca tocamos acacias reales en biomas de sabana
@@ -299,32 +314,12 @@ public final class AutumnSoilPainter implements Runnable, Listener {
             return null;
         }
 
-        // Buscamos troncos cercanos
-        int radius = 6;
-        int lx = leaf.getX();
-        int ly = leaf.getY();
-        int lz = leaf.getZ();
-
-        boolean nearSpruce = false;
-        boolean nearBirch  = false;
-
-        for (int x = lx - radius; x <= lx + radius; x++) {
-            for (int y = ly - radius; y <= ly + radius; y++) {
-                for (int z = lz - radius; z <= lz + radius; z++) {
-                    Block b = w.getBlockAt(x, y, z);
-                    Material t = b.getType();
-                    if (t == Material.SPRUCE_LOG) nearSpruce = true;
-                    if (t == Material.BIRCH_LOG)  nearBirch  = true;
-                }
-            }
-        }
-
-        // Si solo hay pinos alrededor → taiga
-        if (nearSpruce && !nearBirch) return Material.SPRUCE_LEAVES;
-        // Si solo hay abedules alrededor → birch
-        if (nearBirch && !nearSpruce) return Material.BIRCH_LEAVES;
+        // Especie del árbol (registro compartido): sus troncos dicen qué hoja era.
+        // Solo especies que pintamos (o acacia real, que el llamador deja en paz)
+        Material species = plugin.getTrees().species(leaf);
+        if (species == Material.ACACIA_LEAVES || leafTypes.contains(species)) return species;
 
-        // Si hay mezcla, usamos el bioma para decidir
+        // Sin troncos o mezcla, usamos el bioma para decidir
         if (isTaigaBiome(biome)) return Material.SPRUCE_LEAVES;
         if (isBirchBiome(biome)) return Material.BIRCH_LEAVES;
 
@@ -353,57 +348,37 @@ public final class AutumnSoilPainter implements Runnable, Listener {
                               double paintFactor,
                               boolean matureAutumn) {
 
-        int minY = w.getMinHeight();
-        int maxY = w.getMaxHeight();
-
-        int baseX = cx << 4;
-        int baseZ = cz << 4;
-
         // probabilidad efectiva de pintar por bloque
         double effectiveChance = leafChancePerBlock * paintFactor;
         if (effectiveChance <= 0.0) return;
 
-        // stride:
-        int stepXZ = (matureAutumn && highDetail) ? 1 : 2;
-        int startOffset = 0;
-        if (stepXZ == 2) {
-            startOffset = gridFlip ? 0 : 1; // un tick pares, otro impares
-        }
-
-        for (int lx = startOffset; lx < 16; lx += stepXZ) {
-            for (int lz = startOffset; lz < 16; lz += stepXZ) {
-                int wx = baseX + lx;
-                int wz = baseZ + lz;
+        // ✅ chunk que ya nació otoñal (SeasonalPopulator)
+        if (plugin.getSeasonStamp().isDone(w, cx, cz, ChunkSeasonStamp.GENERATED)) return;
 
-                int yTop = w.getHighestBlockYAt(wx, wz) - 1;
-                if (yTop < minY) continue;
+        // stride: con 2, solo columnas (lx, lz) con la paridad de este tick
+        boolean stride = !(matureAutumn && highDetail);
+        int parity = gridFlip ? 0 : 1; // un tick pares, otro impares
 
-                int scanMinY = Math.max(minY, yTop - 12);
-                int scanMaxY = Math.min(maxY, yTop + 8);
+        // ✅ hojas del registro de árboles del chunk (sin escanear columnas)
+        plugin.getTrees().forEachLeaf(w, cx, cz, b -> {
+            if (stride && (((b.getX() ^ parity) | (b.getZ() ^ parity)) & 1) != 0) return;
 
-                for (int y = scanMinY; y <= scanMaxY; y++) {
-                    Block b = w.getBlockAt(wx, y, wz);
-                    Material type = b.getType();
+            Material type = b.getType();
+            if (!leafTypes.contains(type)) return;
+            if (effectiveChance < 1.0 && random.nextDouble() > effectiveChance) return;
 
-                    if (!leafTypes.contains(type)) continue;
-                    if (effectiveChance < 1.0 && random.nextDouble() > effectiveChance) continue;
-
-                    paintLeaf(b, type);
-                }
-            }
-        }
+            paintLeaf(b, type);
+        });
     }
 
     /**
-     * Pinta una hoja concreta a ACACIA_LEAVES y guarda el tipo original.
+     * Pinta una hoja concreta a ACACIA_LEAVES; el overlay guarda el estado original.
      * IMPORTANTE: persistent = false para que el decay vanilla siga funcionando.
      */
     private void paintLeaf(Block b, Material originalType) {
         if (b.getType() == Material.ACACIA_LEAVES) {
             return;
         }
-        String k = key(b.getWorld(), b.getX(), b.getY(), b.getZ());
-        paintedLeaves.putIfAbsent(k, originalType);
 
         BlockData oldData = b.getBlockData();
         int distance = 1;
@@ -414,7 +389,8 @@ public final class AutumnSoilPainter implements Runnable, Listener {
         Leaves newLeaves = (Leaves) Material.ACACIA_LEAVES.createBlockData();
         newLeaves.setDistance(distance);
         newLeaves.setPersistent(false); // decay vanilla
-        b.setBlockData(newLeaves, false);
+        plugin.getOverlay().set(b, newLeaves, SeasonOverlay.LEAF);
+        plugin.getSectionProbe().note(b, Material.ACACIA_LEAVES);
     }
 
     /**
@@ -448,22 +424,21 @@ public final class AutumnSoilPainter implements Runnable, Listener {
         int bz = loc.getBlockZ();
 
         // Buscamos si tenemos registrada una hoja pintada en esa posición
-        Material original = null;
+        SeasonOverlay overlay = plugin.getOverlay();
 
         // primero el bloque donde está el ítem
-        String k0 = key(w, bx, by, bz);
-        original = paintedLeaves.get(k0);
+        BlockData painted = overlay.original(w, bx, by, bz);
 
         // si no, probamos un bloque más arriba (por si el ítem aparece ligeramente alto)
-        if (original == null) {
-            String k1 = key(w, bx, by + 1, bz);
-            original = paintedLeaves.get(k1);
+        if (painted == null) {
+            painted = overlay.original(w, bx, by + 1, bz);
         }
 
-        if (original == null) {
+        if (painted == null) {
             // no era una hoja pintada nuestra
             return;
         }
+        Material original = painted.getMaterial();
 
         // Solo queremos corregir spruce y birch, el resto lo dejamos tal cual
         if (original != Material.SPRUCE_LEAVES && original != Material.BIRCH_LEAVES) {
@@ -479,75 +454,6 @@ public final class AutumnSoilPainter implements Runnable, Listener {
         stack.setType(correctSapling);
     }
 
-    /**
-     * Revertimos hasta "maxBlocks" hojas pintadas por tick,
-     * sólo si el chunk está cargado.
-     */
-    private void revertSomeLeaves(int maxBlocks) {
-        if (maxBlocks <= 0) return;
-
-        Iterator<Map.Entry<String, Material>> it = paintedLeaves.entrySet().iterator();
-        while (it.hasNext() && maxBlocks > 0) {
-            Map.Entry<String, Material> entry = it.next();
-            String key = entry.getKey();
-            Material original = entry.getValue();
-
-            String[] parts = key.split(":");
-            if (parts.length != 4) {
-                it.remove();
-                continue;
-            }
-
-            UUID worldId;
-            try {
-                worldId = UUID.fromString(parts[0]);
-            } catch (IllegalArgumentException ex) {
-                it.remove();
-                continue;
-            }
-
-            World w = Bukkit.getWorld(worldId);
-            if (w == null) {
-                it.remove();
-                continue;
-            }
-
-            int x, y, z;
-            try {
-                x = Integer.parseInt(parts[1]);
-                y = Integer.parseInt(parts[2]);
-                z = Integer.parseInt(parts[3]);
-            } catch (NumberFormatException ex) {
-                it.remove();
-                continue;
-            }
-
-            if (!w.isChunkLoaded(x >> 4, z >> 4)) {
-                continue;
-            }
-
-            Block b = w.getBlockAt(x, y, z);
-
-            BlockData currentData = b.getBlockData();
-            int distance = 1;
-            if (currentData instanceof Leaves leavesCurrent) {
-                distance = leavesCurrent.getDistance();
-            }
-
-            BlockData backData = original.createBlockData();
-            if (backData instanceof Leaves backLeaves) {
-                backLeaves.setDistance(distance);
-                backLeaves.setPersistent(false);
-                b.setBlockData(backLeaves, false);
-            } else {
-                b.setType(original, false);
-            }
-
-            it.remove();
-            maxBlocks--;
-        }
-    }
-
     /**
      * Devuelve el sapling que corresponde a un tipo de hoja original.
      */
@@ -564,10 +470,6 @@ public final class AutumnSoilPainter implements Runnable, Listener {
         };
     }
 
-    private String key(World w, int x, int y, int z) {
-        return w.getUID() + ":" + x + ":" + y + ":" + z;
-    }
-
     /* ====================== HELPERS CALENDARIO ====================== */
 
     private int computeDayInSeason(CalendarState st) {
@@ -674,4 +576,37 @@ public final class AutumnSoilPainter implements Runnable, Listener {
         if (factor > 1.0) factor = 1.0;
         return factor;
     }
+
+    /* ========================= CAMBIO DE ESTACIÓN ========================= */
+
+    /**
+     * Otoño: cada chunk planificado se pinta entero (sin stride) en su turno del rollout.
+     * Fin del otoño: se revierten sus hojas del overlay de una pasada.
+     */
+    SeasonTransitionOrchestrator.Participant transitionParticipant() {
+        return new SeasonTransitionOrchestrator.Participant() {
+            @Override
+            public String name() {
+                return "foliage";
+            }
+
+            @Override
+            public void stage(Chunk ch, SeasonTransitionOrchestrator.ChunkPlan plan) {
+                // las hojas salen del TreeRegistry: nada que preparar
+            }
+
+            @Override
+            public boolean rollOut(Chunk ch, SeasonTransitionOrchestrator.ChunkPlan plan) {
+                if (task == null) return false; // autumn_soil desactivado
+                World w = ch.getWorld();
+                if (plan.season == Season.AUTUMN) {
+                    if (clientFoliage) return false; // lo pinta VirtualFoliage en cada cliente
+                    processChunk(w, ch.getX(), ch.getZ(), true, 1.0, true);
+                    return true;
+                }
+                if (!plugin.getOverlay().has(w, ch.getX(), ch.getZ(), SeasonOverlay.LEAF)) return false;
+                return plugin.getOverlay().revert(ch, SeasonOverlay.LEAF) > 0;
+            }
+        };
+    }
 }
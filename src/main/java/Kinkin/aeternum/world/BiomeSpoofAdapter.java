@@ -5,8 +5,16 @@ import Kinkin.aeternum.calendar.CalendarState;
 import Kinkin.aeternum.calendar.Season;
 import Kinkin.aeternum.calendar.SeasonService;
 import Kinkin.aeternum.calendar.SeasonUpdateEvent;
+import Kinkin.aeternum.config.BiomeSpoofSettings;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.LongMap;
+import Kinkin.aeternum.util.LongSet;
+import Kinkin.aeternum.util.PerWorld;
+import Kinkin.aeternum.util.PlayerSnapshotService.PlayerView;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
@@ -14,10 +22,10 @@ import org.bukkit.block.Biome;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.Vector;
 
@@ -66,21 +74,46 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
     private final EnumMap<Season, Biome> riverTarget = new EnumMap<>(Season.class); // NUEVO
     /* ================================================================ */
 
+    // ajustes vigentes (para comparar en hot-reload)
+    private volatile BiomeSpoofSettings settings;
+
+    private final LifecycleScope life;
     private BukkitTask task;
 
     /**
-     * backups: por cada chunk spoofeado guardamos una copia "original"
-     * (muestra de biomas antes de empezar con el sistema de estaciones).
-     * Así podemos revertir TODO al desregistrar el adaptador
-     * o cuando se descarga el chunk.
+     * Chunks ya spoofeados cuyo mapeo cambió en un reload: se repintan
+     * antes del anillo de jugadores, con el mismo budget por tick.
      */
-    private final Map<Long, Biome[]> backups = new ConcurrentHashMap<>();
+    private final ArrayDeque<Chunk> repaintQueue = new ArrayDeque<>();
 
     /**
-     * chunks que actualmente están "spoofeados" (tiñendo biomas por estación).
+     * Estado por mundo (claves de chunk sin mundo, ver BlockKeys.chunk):
+     * - backups: por cada chunk spoofeado guardamos una copia "original"
+     *   (muestra de biomas antes de empezar con el sistema de estaciones).
+     *   Así podemos revertir TODO al desregistrar el adaptador
+     *   o cuando se descarga el chunk.
+     * - spoofed: chunks que actualmente están "spoofeados" (tiñendo biomas por estación).
+     * Se crea al tocar el mundo por primera vez y se suelta entero en WorldUnloadEvent.
      */
-    private final Set<Long> spoofed = ConcurrentHashMap.newKeySet();
-    private static final Set<Long> COLD_CHUNKS = ConcurrentHashMap.newKeySet();
+    private static final class WorldState {
+        final LongMap<Biome[]> backups;
+        final LongSet spoofed;
+
+        WorldState(World w) {
+            int expected = expectedChunks(w);
+            this.backups = new LongMap<>(expected);
+            this.spoofed = new LongSet(expected);
+        }
+    }
+
+    private final PerWorld<WorldState> worlds = new PerWorld<>(WorldState::new);
+    private static final PerWorld<LongSet> COLD_CHUNKS = new PerWorld<>(w -> new LongSet(expectedChunks(w)));
+
+    // chunks que suele tener cargados un mundo: (2*view+1)^2
+    private static int expectedChunks(World w) {
+        int view = Math.max(2, w.getViewDistance());
+        return (2 * view + 1) * (2 * view + 1);
+    }
 
     /* ================== anti-flicker: nudges por jugador ================== */
     private static final int NUDGES_PER_TICK = 8;
@@ -133,69 +166,100 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
     public BiomeSpoofAdapter(AeternumSeasonsPlugin plugin, SeasonService seasons) {
         this.plugin = plugin;
         this.seasons = seasons;
+        this.life = plugin.lifecycle.scope("BiomeSpoof");
         this.diskBackups = new Kinkin.aeternum.world.BiomeBackupStore(plugin);
-        reloadFromConfig();
+        copySettings(plugin.cfg.snapshot().biomeSpoof());
+        this.mode = settings.enabled() ? Mode.GLOBAL_RING : Mode.OFF;
     }
 
-    private void reloadFromConfig() {
-        String m = plugin.cfg.climate.getString("biome_spoof.mode", "GLOBAL_RING");
-        if ("OFF".equalsIgnoreCase(m)) {
-            this.mode = Mode.OFF;
-        } else {
-            this.mode = Mode.GLOBAL_RING;
-        }
+    private void copySettings(BiomeSpoofSettings bs) {
+        this.settings = bs;
 
-        this.radiusChunksCfg = Math.max(1, plugin.cfg.climate.getInt("biome_spoof.radius_chunks", 8));
-        this.budgetPerTick   = Math.max(2, plugin.cfg.climate.getInt("biome_spoof.budget_chunks_per_tick", 16));
-        this.revertOnSeasonChange = plugin.cfg.climate.getBoolean("biome_spoof.revert_on_non_winter", true);
+        this.radiusChunksCfg = bs.radiusChunks();
+        this.budgetPerTick   = bs.budgetPerTick();
+        this.revertOnSeasonChange = bs.revertOnNonWinter();
 
-        seasonTarget.put(Season.SPRING,  readBiome("biome_spoof.seasons.SPRING",  Biome.FLOWER_FOREST));
-        seasonTarget.put(Season.SUMMER,  readBiome("biome_spoof.seasons.SUMMER",  Biome.PLAINS));
-        seasonTarget.put(Season.AUTUMN,  readBiome("biome_spoof.seasons.AUTUMN",  Biome.WINDSWEPT_SAVANNA));
-        seasonTarget.put(Season.WINTER,  readBiome("biome_spoof.seasons.WINTER",  Biome.SNOWY_PLAINS));
+        seasonTarget.clear();
+        seasonTarget.putAll(bs.landTargets());
 
         /* =================== OCEANS CONFIG =================== */
-        this.oceansEnabled = plugin.cfg.climate.getBoolean("biome_spoof.oceans.enabled", true);
-        this.oceansAffectRivers = plugin.cfg.climate.getBoolean("biome_spoof.oceans.affect_rivers", true);
-        this.oceansAffectShores = plugin.cfg.climate.getBoolean("biome_spoof.oceans.affect_shores", true); // NUEVO
-        this.oceansKeepDeepVariants = plugin.cfg.climate.getBoolean("biome_spoof.oceans.keep_deep_variants", true);
+        this.oceansEnabled = bs.oceansEnabled();
+        this.oceansAffectRivers = bs.oceansAffectRivers();
+        this.oceansAffectShores = bs.oceansAffectShores(); // NUEVO
+        this.oceansKeepDeepVariants = bs.oceansKeepDeepVariants();
 
-        oceanTarget.put(Season.SPRING, readBiome("biome_spoof.oceans.seasons.SPRING", Biome.LUKEWARM_OCEAN));
-        oceanTarget.put(Season.SUMMER, readBiome("biome_spoof.oceans.seasons.SUMMER", Biome.WARM_OCEAN));
-        oceanTarget.put(Season.AUTUMN, readBiome("biome_spoof.oceans.seasons.AUTUMN", Biome.OCEAN));
-        oceanTarget.put(Season.WINTER, readBiome("biome_spoof.oceans.seasons.WINTER", Biome.FROZEN_OCEAN));
+        oceanTarget.clear();
+        oceanTarget.putAll(bs.oceanTargets());
 
         /* =================== RIVERS CONFIG =================== */
-        this.riversEnabled = plugin.cfg.climate.getBoolean("biome_spoof.rivers.enabled", oceansAffectRivers);
+        this.riversEnabled = bs.riversEnabled();
 
-        riverTarget.put(Season.SPRING, readBiome("biome_spoof.rivers.seasons.SPRING", Biome.RIVER));
-        riverTarget.put(Season.SUMMER, readBiome("biome_spoof.rivers.seasons.SUMMER", Biome.RIVER));
-        riverTarget.put(Season.AUTUMN, readBiome("biome_spoof.rivers.seasons.AUTUMN", Biome.RIVER));
-        riverTarget.put(Season.WINTER, readBiome("biome_spoof.rivers.seasons.WINTER", Biome.FROZEN_RIVER));
+        riverTarget.clear();
+        riverTarget.putAll(bs.riverTargets());
         /* ====================================================== */
-
     }
 
-    private Biome readBiome(String path, Biome def) {
-        String s = plugin.cfg.climate.getString(path, def.name());
-        try {
-            return Biome.valueOf(s.toUpperCase(Locale.ROOT));
-        } catch (IllegalArgumentException ex) {
-            plugin.getLogger().warning("[BiomeSpoof] Invalid biome '" + s + "' at " + path + ", using " + def);
-            return def;
+    /**
+     * Hot-reload: aplica los ajustes nuevos SIN revertir el mundo.
+     * - mode pasa a OFF en config → revertimos (lo pidió el admin).
+     *   Si el mode de config no cambió, se respeta el on/off puesto por comando.
+     * - cambia el mapeo de una familia → solo esos chunks spoofeados se encolan para repintar.
+     * - radio/budget → se usan en el siguiente tick, nada que repintar.
+     */
+    public synchronized void applySettings(BiomeSpoofSettings next) {
+        BiomeSpoofSettings prev = this.settings;
+        if (next.equals(prev)) return;
+
+        EnumSet<Family> changed = EnumSet.noneOf(Family.class);
+        if (next.classificationDiffers(prev)) {
+            // cambian las reglas de clasificación → cualquier familia puede moverse
+            changed = EnumSet.allOf(Family.class);
+        } else {
+            if (!next.landTargets().equals(prev.landTargets())) changed.add(Family.LAND);
+            if (!next.oceanTargets().equals(prev.oceanTargets())
+                    || next.oceansKeepDeepVariants() != prev.oceansKeepDeepVariants()) {
+                changed.add(Family.OCEAN);
+            }
+            if (!next.riverTargets().equals(prev.riverTargets())) changed.add(Family.RIVER);
+        }
+
+        boolean wasEnabled = prev.enabled();
+        copySettings(next);
+
+        if (wasEnabled && !next.enabled()) {
+            setEnabled(false);
+            revertAll();
+            return;
+        }
+        if (!wasEnabled && next.enabled()) {
+            setEnabled(true);
+        }
+
+        if (changed.isEmpty() || mode == Mode.OFF) return;
+
+        repaintQueue.clear();
+        for (World w : Bukkit.getWorlds()) {
+            for (Chunk ch : w.getLoadedChunks()) {
+                if (!isSpoofed(ch)) continue;
+                if (changed.contains(classifyOriginalFamily(ch))) {
+                    repaintQueue.add(ch);
+                }
+            }
         }
+        plugin.getLogger().info("[BiomeSpoof] Reload: families " + changed + " changed, " + repaintQueue.size() + " chunks queued for repaint.");
     }
 
     public void register() {
-        Bukkit.getPluginManager().registerEvents(this, plugin);
-        if (task != null) task.cancel();
+        life.listen(this);
+        life.cancel(task);
         // cada 10 ticks (~500 ms) es suficiente para un efecto suave
-        this.task = Bukkit.getScheduler().runTaskTimer(plugin, this, 40L, 10L);
+        this.task = life.timer(this, 40L, 10L);
     }
 
     public void unregister() {
-        if (task != null) task.cancel();
-        HandlerList.unregisterAll(this);
+        life.close();
+        task = null;
+        repaintQueue.clear();
         // al desregistrar, devolvemos el mundo a sus biomas originales
         revertAll();
         nudgeQueue.clear();
@@ -203,11 +267,34 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
         COLD_CHUNKS.clear();
     }
 
+    /**
+     * Apagado rápido: los chunks spoofeados cargados NO se revierten aquí;
+     * su backup va al diario y se restaura cuando el chunk cargue de nuevo.
+     */
+    public void journalAndClose(RevertJournal journal) {
+        life.close();
+        task = null;
+        repaintQueue.clear();
+        for (World w : Bukkit.getWorlds()) {
+            for (Chunk ch : w.getLoadedChunks()) {
+                Biome[] old = backupOf(ch);
+                if (old != null && isSpoofed(ch)) {
+                    journal.recordBiomes(w, ch.getX(), ch.getZ(), old);
+                }
+            }
+        }
+        worlds.clear();
+        nudgeQueue.clear();
+        nudgeLast.clear();
+        COLD_CHUNKS.clear();
+    }
+
     @EventHandler
     public void onChunkLoad(ChunkLoadEvent e) {
-        long k = key(e.getChunk());
+        WorldState st = worlds.peek(e.getWorld());
+        if (st == null) return;
         // al cargar un chunk nuevo no queremos residuos marcados como spoofed
-        spoofed.remove(k);
+        st.spoofed.remove(key(e.getChunk()));
         // backups se mantienen si el chunk fue modificado; se limpia en onChunkUnload
     }
 
@@ -215,11 +302,15 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
     public void onChunkUnload(ChunkUnloadEvent e) {
         Chunk ch = e.getChunk();
         long k = key(ch);
-        // antes de soltar el chunk, lo devolvemos a su bioma original, si lo teníamos spoofeado
-        if (spoofed.remove(k)) {
-            revertChunk(ch);
+        WorldState st = worlds.peek(e.getWorld());
+        if (st != null) {
+            // antes de soltar el chunk, lo devolvemos a su bioma original, si lo teníamos spoofeado
+            if (st.spoofed.contains(k)) {
+                revertChunk(ch);
+                st.spoofed.remove(k);
+            }
+            st.backups.remove(k);
         }
-        backups.remove(k);
 
         for (ArrayDeque<Long> q : nudgeQueue.values()) {
             q.remove(k);
@@ -263,7 +354,10 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
         int effectiveBudget = budgetPerTick;
 
         // Durante la ventana de transición, el presupuesto se escala de forma suave
-        if (now < seasonTransitionUntil) {
+        // (salvo si el orquestador ya reparte el cambio a ritmo constante)
+        SeasonTransitionOrchestrator orchestrator = plugin.getTransitions();
+        boolean orchestrated = orchestrator != null && orchestrator.isDriving();
+        if (now < seasonTransitionUntil && !orchestrated) {
             double extra = 1.0 + (preTransitionFactor * (TRANSITION_BUDGET_MULTIPLIER - 1));
             if (extra < 1.0) extra = 1.0;
             effectiveBudget = (int) Math.max(1, Math.round(budgetPerTick * extra));
@@ -272,27 +366,29 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
         int budget = effectiveBudget;
         if (budget <= 0) return;
 
-        for (Player p : Bukkit.getOnlinePlayers()) {
+        // 0) chunks pendientes de repintar por un hot-reload del mapeo
+        while (budget > 0 && !repaintQueue.isEmpty()) {
+            Chunk ch = repaintQueue.poll();
+            if (!ch.isLoaded() || !isSpoofed(ch)) continue;
+            if (repaintIfNeeded(ch, currentTarget, nextTarget, currentOceanTarget, nextOceanTarget, preTransitionFactor)) {
+                budget--;
+            }
+        }
+
+        for (PlayerView pv : plugin.players.frame().players()) {
             if (budget <= 0) break;
 
-            World w = p.getWorld();
+            World w = pv.world;
             if (w.getEnvironment() != World.Environment.NORMAL) continue;
 
             int view = Bukkit.getViewDistance();
             int radius = Math.min(Math.max(radiusChunksCfg, view + 1), view + 4);
 
-            Location loc = p.getLocation();
-            int pcx = loc.getBlockX() >> 4;
-            int pcz = loc.getBlockZ() >> 4;
+            int pcx = pv.chunkX;
+            int pcz = pv.chunkZ;
 
-            // dirección de mirada (solo plano XZ)
-            Vector look = loc.getDirection().clone();
-            look.setY(0);
-            if (look.lengthSquared() < 1e-4) {
-                look = new Vector(0, 0, 1);
-            } else {
-                look.normalize();
-            }
+            // dirección de mirada (solo plano XZ, ya normalizada en la foto)
+            Vector look = new Vector(pv.lookX, 0, pv.lookZ);
 
             // 1) procesar SIEMPRE el chunk donde está el jugador primero
             if (w.isChunkLoaded(pcx, pcz) && budget > 0) {
@@ -314,10 +410,11 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
                     // no pintamos este chunk en ninguna estación
                 } else if (!isChunkAtTarget(center, chunkTarget)) {
                     Biome[] old = captureAndApply(center, chunkTarget);
-                    if (old != null && !backups.containsKey(ck)) {
-                        backups.put(ck, old);
+                    WorldState ws = worlds.get(w);
+                    if (old != null) {
+                        ws.backups.putIfAbsent(ck, old);
                     }
-                    spoofed.add(ck);
+                    ws.spoofed.add(ck);
                     nudgeViewers(w, pcx, pcz);
                     budget--;
                 }
@@ -384,11 +481,12 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
 
                 Biome[] old = captureAndApply(ch, chunkTarget);
                 // solo guardamos backup la PRIMERA vez que tocamos este chunk
-                if (old != null && !backups.containsKey(k)) {
-                    backups.put(k, old);
+                WorldState ws = worlds.get(w);
+                if (old != null) {
+                    ws.backups.putIfAbsent(k, old);
                 }
 
-                spoofed.add(k);
+                ws.spoofed.add(k);
                 nudgeViewers(w, cx, cz);
                 budget--;
             }
@@ -399,9 +497,28 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
 
     /* ===== helpers ===== */
 
-    private Biome getRepresentativeOriginalOceanBiome(Chunk ch) {
+    private boolean repaintIfNeeded(Chunk ch,
+                                    Biome currentTarget, Biome nextTarget,
+                                    Biome currentOceanTarget, Biome nextOceanTarget,
+                                    double preTransitionFactor) {
         long k = key(ch);
-        Biome[] old = backups.get(k);
+        Biome chunkTarget = chooseTargetBiomeForChunk(
+                k, classifyOriginalFamily(ch),
+                currentTarget, nextTarget,
+                currentOceanTarget, nextOceanTarget,
+                preTransitionFactor,
+                ch
+        );
+        if (shouldSkipSpoofForChunk(ch) || isChunkAtTarget(ch, chunkTarget)) {
+            return false;
+        }
+        captureAndApply(ch, chunkTarget);
+        nudgeViewers(ch.getWorld(), ch.getX(), ch.getZ());
+        return true;
+    }
+
+    private Biome getRepresentativeOriginalOceanBiome(Chunk ch) {
+        Biome[] old = backupOf(ch);
         if (old != null && old.length > 0) {
             for (Biome b : old) {
                 if (isOceanBiome(b)) return b;
@@ -445,38 +562,25 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
         return true;
     }
 
-    /** Consideramos "frío" cualquier bioma con nieve/hielo en el nombre, montañas, etc. */
+    /** Frío de origen: la misma temperatura base que el campo de clima (ver {@link ClimateFieldService#isFreezingBiome}). */
     private boolean isColdBiome(Biome biome) {
-        // Cherry Grove NO es un bioma frío real, no lo tratamos como nival
-        if (biome == Biome.CHERRY_GROVE) {
-            return false;
-        }
-
-        String name = biome.name();
-        return name.contains("SNOW")
-                || name.contains("FROZEN")
-                || name.contains("ICE")
-                || name.equals("GROVE")
-                || name.contains("SNOWY_TAIGA")
-                || name.contains("PEAK")
-                || name.contains("MOUNTAIN");
+        return ClimateFieldService.isFreezingBiome(biome);
     }
 
     private boolean isOceanBiome(Biome b) {
-        return b.name().contains("OCEAN");
+        return BiomeTraits.has(b, BiomeTraits.OCEAN);
     }
 
     private boolean isRiverBiome(Biome b) {
-        return b.name().contains("RIVER");
+        return BiomeTraits.has(b, BiomeTraits.RIVER);
     }
 
     private boolean isDeepOcean(Biome b) {
-        return b.name().contains("DEEP_") && isOceanBiome(b);
+        return BiomeTraits.has(b, BiomeTraits.DEEP_OCEAN);
     }
 
     private boolean isShoreBiome(Biome b) {
-        String n = b.name();
-        return n.contains("BEACH") || n.contains("SHORE");
+        return BiomeTraits.has(b, BiomeTraits.SHORE);
     }
 
     /**
@@ -490,9 +594,7 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
      *  - LAND: resto
      */
     private Family classifyOriginalFamily(Chunk ch) {
-        long k = key(ch);
-
-        Biome[] old = backups.get(k);
+        Biome[] old = backupOf(ch);
         if (old != null && old.length > 0) {
             for (Biome b : old) {
                 if (oceansEnabled) {
@@ -533,8 +635,7 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
      * (backup si existe, si no muestreo).
      */
     private Biome getRepresentativeOriginalBiome(Chunk ch) {
-        long k = key(ch);
-        Biome[] old = backups.get(k);
+        Biome[] old = backupOf(ch);
         if (old != null && old.length > 0) {
             return old[0];
         }
@@ -559,35 +660,22 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
      * Ajusta el target de océano para respetar deep/shallow según el original.
      */
     private Biome applyOceanVariant(Biome baseTarget, Biome originalOcean) {
-        if (!oceansKeepDeepVariants) return baseTarget;
-
-        boolean origDeep = isDeepOcean(originalOcean);
-        String baseName = baseTarget.name();
+        return applyOceanVariant(baseTarget, originalOcean, oceansKeepDeepVariants);
+    }
 
-        if (origDeep) {
-            // si ya es deep, ok
-            if (baseName.startsWith("DEEP_")) return baseTarget;
+    private Biome applyOceanVariant(Biome baseTarget, Biome originalOcean, boolean keepDeepVariants) {
+        if (!keepDeepVariants) return baseTarget;
 
-            // intentar DEEP_<base>
-            try {
-                return Biome.valueOf("DEEP_" + baseName);
-            } catch (IllegalArgumentException ignored) {
-                // no existe deep para ese biome → dejamos base
-                return baseTarget;
-            }
-        } else {
-            // original shallow: si el base viene deep por config, intentamos bajarlo
-            if (baseName.startsWith("DEEP_")) {
-                String shallow = baseName.substring("DEEP_".length());
-                try {
-                    return Biome.valueOf(shallow);
-                } catch (IllegalArgumentException ignored) {
-                    return baseTarget;
-                }
-            }
-        }
+        // variantes precalculadas: si no existe DEEP_<base> (o <base> sin DEEP_) se queda el base
+        return isDeepOcean(originalOcean)
+                ? BiomeTraits.deepOf(baseTarget)
+                : BiomeTraits.shallowOf(baseTarget);
+    }
 
-        return baseTarget;
+    // sin getChunkAt: consultar el backup nunca debe cargar el chunk
+    private Biome[] backupAt(World w, int x, int z) {
+        WorldState st = worlds.peek(w);
+        return st == null ? null : st.backups.get(BlockKeys.chunk(x >> 4, z >> 4));
     }
 
     /**
@@ -654,7 +742,7 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
             int maxY = w.getMaxHeight();
 
             long k = key(ch);
-            Biome[] existing = backups.get(k);
+            Biome[] existing = backupOf(ch);
             List<Biome> prevs = (existing == null) ? new ArrayList<>() : null;
 
             boolean anyChange = false;
@@ -694,7 +782,7 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
                     }
                 }
                 if (cold) {
-                    COLD_CHUNKS.add(k);
+                    COLD_CHUNKS.get(w).add(k);
                 }
             }
 
@@ -721,7 +809,7 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
      * Revierte un chunk a sus biomas originales usando el backup.
      */
     private void revertChunk(Chunk ch) {
-        Biome[] old = backups.get(key(ch));
+        Biome[] old = backupOf(ch);
         if (old == null) return;
 
         try {
@@ -751,34 +839,49 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
         }
     }
 
+    // el mundo ya lo separa PerWorld: la clave es solo (cx, cz)
     private long key(Chunk ch) {
-        return key(ch.getWorld(), ch.getX(), ch.getZ());
+        return BlockKeys.chunk(ch.getX(), ch.getZ());
+    }
+
+    private Biome[] backupOf(Chunk ch) {
+        WorldState st = worlds.peek(ch.getWorld());
+        return st == null ? null : st.backups.get(key(ch));
+    }
+
+    private boolean isSpoofed(Chunk ch) {
+        WorldState st = worlds.peek(ch.getWorld());
+        return st != null && st.spoofed.contains(key(ch));
     }
 
-    private long key(World w, int cx, int cz) {
-        long k = (((long) cx) & 0xffffffffL) << 32 | (((long) cz) & 0xffffffffL);
-        // incluimos el UUID del mundo para evitar colisiones entre mundos
-        return k ^ (w.getUID().getMostSignificantBits() ^ w.getUID().getLeastSignificantBits());
+    /**
+     * ¿Lo marcó el spoof como frío de origen (nunca se spoofea)? Para "¿nieva aquí en
+     * vanilla?" el resto del plugin usa {@link ClimateFieldService#isNaturallySnowy}.
+     */
+    private static boolean isChunkNaturallySnowy(World w, int cx, int cz) {
+        LongSet cold = COLD_CHUNKS.peek(w);
+        return cold != null && cold.contains(BlockKeys.chunk(cx, cz));
     }
 
-    /** Consulta global: ¿este chunk era originalmente frío/nival? */
-    public static boolean isChunkNaturallySnowy(World w, int cx, int cz) {
-        long k = (((long) cx) & 0xffffffffL) << 32 | (((long) cz) & 0xffffffffL);
-        k = k ^ (w.getUID().getMostSignificantBits() ^ w.getUID().getLeastSignificantBits());
-        return COLD_CHUNKS.contains(k);
+    /** Mundo descargado (p.ej. mundos de minijuego): soltamos todo su estado. */
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent e) {
+        worlds.drop(e.getWorld());
+        COLD_CHUNKS.drop(e.getWorld());
+        repaintQueue.removeIf(ch -> ch.getWorld().equals(e.getWorld()));
     }
 
     private void revertAll() {
         for (World w : Bukkit.getWorlds()) {
+            WorldState st = worlds.peek(w);
+            if (st == null) continue;
             for (Chunk ch : w.getLoadedChunks()) {
-                long k = key(ch);
-                if (spoofed.contains(k)) {
+                if (st.spoofed.contains(key(ch))) {
                     revertChunk(ch);
                 }
             }
         }
-        spoofed.clear();
-        backups.clear();
+        worlds.clear();
         nudgeQueue.clear();
         nudgeLast.clear();
     }
@@ -788,23 +891,29 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
      * Marca el chunk en COLD_CHUNKS la primera vez.
      */
     private boolean shouldSkipSpoofForChunk(Chunk ch) {
-        long k = key(ch);
+        // chunk con revert pendiente del apagado anterior: sus biomas actuales son
+        // los pintados, no los originales → esperar a que el diario lo restaure
+        RevertJournal journal = plugin.getRevertJournal();
+        if (journal != null && journal.isPending(ch)) {
+            return true;
+        }
+
+        World w = ch.getWorld();
 
         // Ya clasificado como frío de origen
-        if (COLD_CHUNKS.contains(k)) {
+        if (isChunkNaturallySnowy(w, ch.getX(), ch.getZ())) {
             return true;
         }
 
         // Ya hemos hecho captureAndApply al menos una vez → si fuera frío de origen
         // lo habríamos marcado en COLD_CHUNKS dentro de captureAndApply.
         // No volvemos a muestrear para no confundir bioma original con bioma pintado.
-        if (backups.containsKey(k)) {
+        if (backupOf(ch) != null) {
             return false;
         }
 
         // Chunk "nuevo": todavía tiene sus biomas originales,
         // así que podemos decidir si es frío de origen.
-        World w = ch.getWorld();
         int bx = ch.getX() << 4;
         int bz = ch.getZ() << 4;
         int minY = w.getMinHeight();
@@ -815,7 +924,7 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
                 for (int y = minY; y < maxY; y += 32) {
                     Biome b = w.getBiome(bx + x, y, bz + z);
                     if (isColdBiome(b)) {
-                        COLD_CHUNKS.add(k); // frío de origen
+                        COLD_CHUNKS.get(w).add(key(ch)); // frío de origen
                         return true;        // NO lo pintamos nunca
                     }
                 }
@@ -829,18 +938,12 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
     /* ===================== NUDGE (anti-flicker) ===================== */
 
     private void nudgeViewers(World w, int cx, int cz) {
-        for (Player viewer : w.getPlayers()) {
-            int vcx = viewer.getLocation().getBlockX() >> 4;
-            int vcz = viewer.getLocation().getBlockZ() >> 4;
-            int view = Bukkit.getViewDistance() + 1;
-            if (Math.abs(vcx - cx) <= view && Math.abs(vcz - cz) <= view) {
-                enqueueNudge(viewer, w, cx, cz);
-            }
-        }
+        int view = Bukkit.getViewDistance() + 1;
+        plugin.players.frame().forEachNear(w, cx, cz, view, pv -> enqueueNudge(pv.player, w, cx, cz));
     }
 
     private void enqueueNudge(Player p, World w, int cx, int cz) {
-        long ck = key(w, cx, cz);
+        long ck = BlockKeys.chunk(cx, cz);
         String cooldownKey = p.getUniqueId() + ":" + ck;
         long now = System.currentTimeMillis();
         Long last = nudgeLast.get(cooldownKey);
@@ -851,48 +954,45 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
     }
 
     private void flushNudges() {
+        if (nudgeQueue.isEmpty()) return;
+        PlayerView[] players = plugin.players.frame().players();
+
+        // ✅ colas de jugadores que ya se fueron
+        if (nudgeQueue.size() > players.length) {
+            Set<UUID> online = new HashSet<>();
+            for (PlayerView pv : players) online.add(pv.player.getUniqueId());
+            nudgeQueue.keySet().retainAll(online);
+        }
+
         int sent = 0;
-        for (Iterator<Map.Entry<UUID, ArrayDeque<Long>>> it = nudgeQueue.entrySet().iterator(); it.hasNext() && sent < NUDGES_PER_TICK; ) {
-            Map.Entry<UUID, ArrayDeque<Long>> e = it.next();
-            UUID pid = e.getKey();
-            ArrayDeque<Long> q = e.getValue();
-
-            Player p = Bukkit.getPlayer(pid);
-            if (p == null || !p.isOnline() || q.isEmpty()) {
-                if (q != null && q.isEmpty()) it.remove();
+        int view = Bukkit.getViewDistance() + 2;
+        for (PlayerView pv : players) {
+            if (sent >= NUDGES_PER_TICK) break;
+            ArrayDeque<Long> q = nudgeQueue.get(pv.player.getUniqueId());
+            if (q == null) continue;
+            Long next = q.poll();
+            if (next == null) {
+                nudgeQueue.remove(pv.player.getUniqueId());
                 continue;
             }
-
-            long ck = q.poll();
             sent++;
 
-            World w = p.getWorld();
-            int baseX = p.getLocation().getBlockX() >> 4;
-            int baseZ = p.getLocation().getBlockZ() >> 4;
-            int view = Bukkit.getViewDistance() + 2;
+            // solo si el chunk sigue a la vista y cargado
+            long ck = next;
+            int cx = BlockKeys.chunkX(ck);
+            int cz = BlockKeys.chunkZ(ck);
+            World w = pv.world;
+            if (pv.chunkDistance(cx, cz) > view) continue;
+            if (!w.isChunkLoaded(cx, cz)) continue;
 
-            boolean done = false;
-            for (int dx = -view; dx <= view && !done; dx++) {
-                for (int dz = -view; dz <= view && !done; dz++) {
-                    int cx = baseX + dx;
-                    int cz = baseZ + dz;
-                    if (!w.isChunkLoaded(cx, cz)) continue;
-                    if (key(w, cx, cz) != ck) continue;
+            Player p = pv.player;
+            Location loc = new Location(w, cx << 4, w.getMinHeight(), cz << 4);
 
-                    int minY = w.getMinHeight();
-                    int bx = (cx << 4);
-                    int bz = (cz << 4);
-                    Location loc = new Location(w, bx, minY, bz);
+            BlockData fake = NUDGE_FAKE.createBlockData();
+            BlockData real = w.getBlockAt(loc).getBlockData();
 
-                    BlockData fake = NUDGE_FAKE.createBlockData();
-                    BlockData real = w.getBlockAt(loc).getBlockData();
-
-                    p.sendBlockChange(loc, fake);
-                    Bukkit.getScheduler().runTask(plugin, () -> p.sendBlockChange(loc, real));
-
-                    done = true;
-                }
-            }
+            p.sendBlockChange(loc, fake);
+            life.now(() -> p.sendBlockChange(loc, real));
         }
     }
 
@@ -920,7 +1020,12 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
      *  - daysPerSeason = 10 → usa días 8,9,10
      */
     private double computePreTransitionFactor(int dayInSeason) {
-        int daysPerSeason = Math.max(1, seasons.getDaysPerSeason());
+        return preTransitionFactor(dayInSeason, seasons.getDaysPerSeason());
+    }
+
+    // versión sin estado (también la usa ClimateFieldService)
+    static double preTransitionFactor(int dayInSeason, int daysPerSeason) {
+        daysPerSeason = Math.max(1, daysPerSeason);
         int window = Math.min(PRE_TRANSITION_DAYS, daysPerSeason);
 
         int start = daysPerSeason - window + 1; // primer día de transición
@@ -946,8 +1051,7 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
     }
 
     public Biome getOriginalBiomeApprox(World w, int x, int y, int z) {
-        Chunk ch = w.getChunkAt(x >> 4, z >> 4);
-        Biome[] old = backups.get(key(ch));
+        Biome[] old = backupAt(w, x, z);
 
         if (old == null || old.length == 0) {
             return w.getBiome(x, y, z);
@@ -971,8 +1075,7 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
     }
 
     public Biome getOriginalBiomeApproxOrNull(World w, int x, int y, int z) {
-        Chunk ch = w.getChunkAt(x >> 4, z >> 4);
-        Biome[] old = backups.get(key(ch));
+        Biome[] old = backupAt(w, x, z);
         if (old == null || old.length == 0) return null; // <- clave
 
         int minY = w.getMinHeight();
@@ -1022,14 +1125,11 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
         if (enabled) {
             mode = Mode.GLOBAL_RING;
             if (task == null || task.isCancelled()) {
-                task = Bukkit.getScheduler().runTaskTimer(plugin, this, 40L, 10L);
+                task = life.timer(this, 40L, 10L);
             }
         } else {
             mode = Mode.OFF;
-            if (task != null) {
-                task.cancel();
-                task = null;
-            }
+            task = life.cancel(task);
         }
     }
 
@@ -1037,6 +1137,117 @@ public final class BiomeSpoofAdapter implements Listener, Runnable {
         return mode != Mode.OFF;
     }
 
+    /* ============ Orquestador de transición (SeasonTransitionOrchestrator) ============ */
+
+    /** Hilo principal: ¿tiene sentido planificar este chunk? */
+    boolean canPlan(Chunk ch) {
+        if (mode == Mode.OFF) return false;
+        RevertJournal journal = plugin.getRevertJournal();
+        if (journal != null && journal.isPending(ch)) return false;
+        return !isChunkNaturallySnowy(ch.getWorld(), ch.getX(), ch.getZ());
+    }
+
+    /** Hilo principal: backup original ya guardado (o null). */
+    Biome[] backupGrid(Chunk ch) {
+        return backupOf(ch);
+    }
+
+    /** Cualquier hilo: rejilla 4x4x4 de biomas de un snapshot, en el mismo orden que los backups. */
+    static Biome[] gridOf(ChunkSnapshot snap, int minY, int maxY) {
+        List<Biome> out = new ArrayList<>();
+        for (int x = 0; x < 16; x += STEP_XZ) {
+            for (int z = 0; z < 16; z += STEP_XZ) {
+                for (int y = minY; y < maxY; y += STEP_Y) {
+                    out.add(snap.getBiome(x, y, z));
+                }
+            }
+        }
+        return out.toArray(new Biome[0]);
+    }
+
+    /**
+     * Fuera del hilo principal: clasifica el chunk desde su rejilla original y
+     * elige el bioma final de plan.season. Solo lee el BiomeSpoofSettings vigente (inmutable).
+     */
+    void planChunk(SeasonTransitionOrchestrator.ChunkPlan plan) {
+        BiomeSpoofSettings s = this.settings;
+        Biome[] grid = plan.original;
+        if (grid == null || grid.length == 0) return;
+
+        for (Biome b : grid) {
+            if (isColdBiome(b)) {
+                plan.cold = true;
+                return;
+            }
+        }
+
+        // mismas reglas que classifyOriginalFamily / getRepresentativeOriginalOceanBiome
+        Family fam = Family.LAND;
+        for (Biome b : grid) {
+            if (s.oceansEnabled() && (isOceanBiome(b) || (s.oceansAffectShores() && isShoreBiome(b)))) {
+                fam = Family.OCEAN;
+                break;
+            }
+            if (s.riversEnabled() && isRiverBiome(b)) {
+                fam = Family.RIVER;
+                break;
+            }
+        }
+
+        plan.target = switch (fam) {
+            case RIVER -> s.riverTargets().getOrDefault(plan.season, Biome.RIVER);
+            case OCEAN -> {
+                Biome base = s.oceanTargets().getOrDefault(plan.season, Biome.OCEAN);
+                Biome origOcean = grid[0];
+                for (Biome b : grid) {
+                    if (isOceanBiome(b)) {
+                        origOcean = b;
+                        break;
+                    }
+                }
+                yield isOceanBiome(origOcean) ? applyOceanVariant(base, origOcean, s.oceansKeepDeepVariants()) : base;
+            }
+            case LAND -> s.landTargets().getOrDefault(plan.season, grid[0]);
+        };
+    }
+
+    SeasonTransitionOrchestrator.Participant transitionParticipant() {
+        return new SeasonTransitionOrchestrator.Participant() {
+            @Override
+            public String name() {
+                return "biomes";
+            }
+
+            @Override
+            public void stage(Chunk ch, SeasonTransitionOrchestrator.ChunkPlan plan) {
+                if (plan.cold) {
+                    COLD_CHUNKS.get(ch.getWorld()).add(key(ch));
+                    return;
+                }
+                // pre-guardamos el original: el día del cambio solo queda pintar.
+                // También a disco: captureAndApply verá el backup en memoria y ya no lo guardaría,
+                // y sin él /season restore-all no podría revertir el chunk.
+                if (!plan.hadBackup && plan.original != null && !isSpoofed(ch)
+                        && worlds.get(ch.getWorld()).backups.putIfAbsent(key(ch), plan.original) == null) {
+                    diskBackups.saveFirstTouch(ch, plan.original, STEP_XZ, STEP_Y);
+                }
+            }
+
+            @Override
+            public boolean rollOut(Chunk ch, SeasonTransitionOrchestrator.ChunkPlan plan) {
+                if (mode == Mode.OFF || plan.cold || plan.target == null) return false;
+                if (shouldSkipSpoofForChunk(ch) || isChunkAtTarget(ch, plan.target)) return false;
+
+                Biome[] old = captureAndApply(ch, plan.target);
+                WorldState ws = worlds.get(ch.getWorld());
+                if (old != null) ws.backups.putIfAbsent(key(ch), old);
+                ws.spoofed.add(key(ch));
+                nudgeViewers(ch.getWorld(), ch.getX(), ch.getZ());
+                return true;
+            }
+        };
+    }
+
     public Kinkin.aeternum.world.BiomeBackupStore getDiskBackups() {
         return diskBackups;
     }
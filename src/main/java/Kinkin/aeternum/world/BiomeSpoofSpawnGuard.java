@@ -1,12 +1,11 @@
 package Kinkin.aeternum.world;
 
 import Kinkin.aeternum.AeternumSeasonsPlugin;
-import org.bukkit.Bukkit;
+import Kinkin.aeternum.util.LifecycleScope;
 import org.bukkit.World;
 import org.bukkit.block.Biome;
 import org.bukkit.entity.EntityType;
 import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.CreatureSpawnEvent;
 
@@ -16,6 +15,7 @@ public final class BiomeSpoofSpawnGuard implements Listener {
 
     private final AeternumSeasonsPlugin plugin;
     private final BiomeSpoofAdapter spoof;
+    private final LifecycleScope life;
     private boolean enabled = true;
 
     private static final Set<Biome> OCELOT_OK = Set.of(
@@ -25,16 +25,17 @@ public final class BiomeSpoofSpawnGuard implements Listener {
     public BiomeSpoofSpawnGuard(AeternumSeasonsPlugin plugin, BiomeSpoofAdapter spoof) {
         this.plugin = plugin;
         this.spoof = spoof;
+        this.life = plugin.lifecycle.scope("BiomeSpoofSpawnGuard");
     }
 
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
 
     public void register() {
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        life.listen(this);
     }
 
     public void unregister() {
-        HandlerList.unregisterAll(this);
+        life.close();
     }
 
     @EventHandler(ignoreCancelled = true)
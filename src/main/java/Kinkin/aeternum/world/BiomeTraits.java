@@ -0,0 +1,251 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.util.LifecycleScope;
+import io.papermc.paper.event.server.ServerResourcesReloadedEvent;
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.Biome;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rasgos de bioma precalculados, indexados por ordinal.
+ *
+ * Antes cada subsistema clasificaba biomas con name()/toString() + contains() en
+ * caminos calientes (migración, nieve de copa, spoof, pintor de invierno) y la flora
+ * con HashSet<Biome>. Aquí se hace UNA vez por bioma y se consulta con un AND de bits:
+ * sin Strings ni allocs, y seguro desde cualquier hilo (tabla inmutable publicada
+ * con volatile; el planificador del spoof la lee fuera del hilo principal).
+ *
+ * Se reconstruye en register() y en cada ServerResourcesReloadedEvent (/reload de
+ * datapacks). Ojo: en esta API Biome sigue siendo enum, así que los biomas de datapack
+ * llegan todos como Biome.CUSTOM y no tienen rasgos propios.
+ *
+ * Cada grupo replica las reglas por nombre que tenía su consumidor.
+ */
+public final class BiomeTraits implements Listener {
+
+    /* ---- spoof ---- */
+    public static final int OCEAN       = 1 << 1;
+    public static final int DEEP_OCEAN  = 1 << 2;
+    public static final int RIVER       = 1 << 3;
+    public static final int SHORE       = 1 << 4;
+
+    /* ---- nieve ---- */
+    // el frío (nevado de origen, nieve de copa) sale de la temperatura: ver ClimateFieldService
+    /** Taiga o abedul (hojas que se pintan en otoño). */
+    public static final int TAIGA_BIRCH = 1 << 7;
+
+    /* ---- fauna ---- */
+    public static final int WARM        = 1 << 8;
+    public static final int JUNGLE      = 1 << 9;
+    public static final int DESERT      = 1 << 10;
+    public static final int TEMPERATE   = 1 << 11;
+    public static final int FAUNA_COLD  = 1 << 12;
+    public static final int HIGHLAND    = 1 << 13;
+    public static final int WARM_OCEAN  = 1 << 14;
+    public static final int SPRING      = 1 << 15;
+
+    /* ---- clima ---- */
+    /** Sin precipitación en vanilla (desiertos, sabanas, badlands, Nether, End). */
+    public static final int DRY         = 1 << 16;
+
+    // temperatura base vanilla por bioma (sin modificador de altura); lo que no está → 0.8
+    private static final float DEFAULT_TEMPERATURE = 0.8f;
+    private static final String TEMPERATURES =
+            "BADLANDS 2.0 ERODED_BADLANDS 2.0 WOODED_BADLANDS 2.0 DESERT 2.0 SAVANNA 2.0 SAVANNA_PLATEAU 2.0 "
+            + "WINDSWEPT_SAVANNA 2.0 NETHER_WASTES 2.0 CRIMSON_FOREST 2.0 WARPED_FOREST 2.0 SOUL_SAND_VALLEY 2.0 "
+            + "BASALT_DELTAS 2.0 STONY_PEAKS 1.0 JUNGLE 0.95 SPARSE_JUNGLE 0.95 BAMBOO_JUNGLE 0.95 "
+            + "MUSHROOM_FIELDS 0.9 PLAINS 0.8 SUNFLOWER_PLAINS 0.8 BEACH 0.8 SWAMP 0.8 MANGROVE_SWAMP 0.8 "
+            + "DRIPSTONE_CAVES 0.8 DEEP_DARK 0.8 FOREST 0.7 FLOWER_FOREST 0.7 DARK_FOREST 0.7 "
+            + "BIRCH_FOREST 0.6 OLD_GROWTH_BIRCH_FOREST 0.6 MEADOW 0.5 CHERRY_GROVE 0.5 LUSH_CAVES 0.5 "
+            + "OCEAN 0.5 DEEP_OCEAN 0.5 WARM_OCEAN 0.5 LUKEWARM_OCEAN 0.5 DEEP_LUKEWARM_OCEAN 0.5 "
+            + "COLD_OCEAN 0.5 DEEP_COLD_OCEAN 0.5 DEEP_FROZEN_OCEAN 0.5 RIVER 0.5 THE_END 0.5 "
+            + "END_HIGHLANDS 0.5 END_MIDLANDS 0.5 END_BARRENS 0.5 SMALL_END_ISLANDS 0.5 THE_VOID 0.5 "
+            + "OLD_GROWTH_PINE_TAIGA 0.3 OLD_GROWTH_SPRUCE_TAIGA 0.25 TAIGA 0.25 STONY_SHORE 0.2 "
+            + "WINDSWEPT_HILLS 0.2 WINDSWEPT_GRAVELLY_HILLS 0.2 WINDSWEPT_FOREST 0.2 SNOWY_BEACH 0.05 "
+            + "FROZEN_OCEAN 0.0 FROZEN_RIVER 0.0 SNOWY_PLAINS 0.0 ICE_SPIKES 0.0 GROVE -0.2 "
+            + "SNOWY_SLOPES -0.3 SNOWY_TAIGA -0.5 FROZEN_PEAKS -0.7 JAGGED_PEAKS -0.7";
+
+    private static final class Table {
+        final int[] traits;
+        final float[] temperature;
+        final long[] flora;        // bit i = la regla de flora i admite este bioma
+        final Biome[] deep;        // variante DEEP_ (o null)
+        final Biome[] shallow;     // variante sin DEEP_ (o null)
+        final Map<NamespacedKey, Integer> byKey;
+
+        Table(int[] traits, float[] temperature, long[] flora, Biome[] deep, Biome[] shallow,
+              Map<NamespacedKey, Integer> byKey) {
+            this.traits = traits;
+            this.temperature = temperature;
+            this.flora = flora;
+            this.deep = deep;
+            this.shallow = shallow;
+            this.byKey = byKey;
+        }
+    }
+
+    private static volatile Table table = build(null);
+
+    private final AeternumSeasonsPlugin plugin;
+    private final LifecycleScope life;
+
+    public BiomeTraits(AeternumSeasonsPlugin plugin) {
+        this.plugin = plugin;
+        this.life = plugin.lifecycle.scope("BiomeTraits");
+    }
+
+    public void register() {
+        table = build(table.flora);
+        life.listen(this);
+    }
+
+    public void unregister() {
+        life.close();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onResourcesReloaded(ServerResourcesReloadedEvent e) {
+        table = build(table.flora);
+        plugin.getLogger().info("[BiomeTraits] Rebuilt after resource reload (" + table.traits.length + " biomes).");
+    }
+
+    /* ========================= CONSULTA ========================= */
+
+    public static int of(Biome b) {
+        return b == null ? 0 : table.traits[b.ordinal()];
+    }
+
+    public static int of(NamespacedKey key) {
+        Table t = table;
+        Integer ord = t.byKey.get(key);
+        return ord == null ? 0 : t.traits[ord];
+    }
+
+    public static boolean has(Biome b, int trait) {
+        return (of(b) & trait) != 0;
+    }
+
+    /** Temperatura base vanilla del bioma (escala vanilla: < 0.15 nieva). */
+    public static float temperature(Biome b) {
+        return b == null ? DEFAULT_TEMPERATURE : table.temperature[b.ordinal()];
+    }
+
+    /** DEEP_<b> si existe; si no, el propio b. */
+    public static Biome deepOf(Biome b) {
+        Biome d = table.deep[b.ordinal()];
+        return d != null ? d : b;
+    }
+
+    /** b sin DEEP_ si existe; si no, el propio b. */
+    public static Biome shallowOf(Biome b) {
+        Biome s = table.shallow[b.ordinal()];
+        return s != null ? s : b;
+    }
+
+    /** Máscara de reglas de flora (por índice, máx. 64) que admiten este bioma. */
+    public static long floraRules(Biome b) {
+        return b == null ? 0L : table.flora[b.ordinal()];
+    }
+
+    /**
+     * Reglas de flora: biomesPerRule.get(i) = biomas de la regla i (vacío = todos).
+     * Solo las primeras 64 reglas caben en la máscara.
+     */
+    public static void setFloraRules(List<Set<Biome>> biomesPerRule) {
+        Biome[] all = Biome.values();
+        long[] flora = new long[all.length];
+        int n = Math.min(64, biomesPerRule.size());
+        for (int i = 0; i < n; i++) {
+            Set<Biome> set = biomesPerRule.get(i);
+            long bit = 1L << i;
+            for (Biome b : all) {
+                if (set.isEmpty() || set.contains(b)) flora[b.ordinal()] |= bit;
+            }
+        }
+        Table t = table;
+        table = new Table(t.traits, t.temperature, flora, t.deep, t.shallow, t.byKey);
+    }
+
+    /* ========================= CONSTRUCCIÓN ========================= */
+
+    private static Table build(long[] flora) {
+        Biome[] all = Biome.values();
+        int[] traits = new int[all.length];
+        float[] temperature = new float[all.length];
+        Biome[] deep = new Biome[all.length];
+        Biome[] shallow = new Biome[all.length];
+        Map<NamespacedKey, Integer> byKey = new HashMap<>();
+
+        Map<String, Biome> byName = new HashMap<>();
+        for (Biome b : all) byName.put(b.name(), b);
+
+        Map<String, Float> temps = new HashMap<>();
+        String[] parts = TEMPERATURES.split(" ");
+        for (int i = 0; i + 1 < parts.length; i += 2) temps.put(parts[i], Float.parseFloat(parts[i + 1]));
+
+        for (Biome b : all) {
+            int i = b.ordinal();
+            traits[i] = classify(b);
+            temperature[i] = temps.getOrDefault(b.name(), DEFAULT_TEMPERATURE);
+            deep[i] = byName.get("DEEP_" + b.name());
+            if (b.name().startsWith("DEEP_")) shallow[i] = byName.get(b.name().substring("DEEP_".length()));
+            try {
+                NamespacedKey key = b.getKey();
+                if (key != null) byKey.put(key, i);
+            } catch (Throwable ignored) {
+                // CUSTOM no tiene key en algunas versiones
+            }
+        }
+
+        if (flora == null || flora.length != all.length) flora = new long[all.length];
+        return new Table(traits, temperature, flora, deep, shallow, byKey);
+    }
+
+    private static int classify(Biome b) {
+        String n = b.name();
+        int t = 0;
+
+        if (n.contains("OCEAN")) t |= OCEAN;
+        if (n.contains("OCEAN") && n.contains("DEEP_")) t |= DEEP_OCEAN;
+        if (n.contains("RIVER")) t |= RIVER;
+        if (n.contains("BEACH") || n.contains("SHORE")) t |= SHORE;
+
+        // hojas de otoño
+        if (n.contains("TAIGA") || n.contains("BIRCH")) t |= TAIGA_BIRCH;
+
+        // fauna: mismas listas de tokens que AnimalMigrationService
+        if (containsAny(n, "DESERT", "SAVANNA", "BADLANDS", "JUNGLE")) t |= WARM;
+        if (n.contains("JUNGLE")) t |= JUNGLE;
+        if (n.contains("DESERT")) t |= DESERT;
+        if (containsAny(n, "PLAINS", "FOREST", "MEADOW")) t |= TEMPERATE;
+        if (containsAny(n, "SNOW", "FROZEN", "COLD", "ICE", "PEAKS", "SLOPES", "GROVE")) t |= FAUNA_COLD;
+        if (containsAny(n, "TAIGA", "WINDSWEPT_HILLS", "WINDSWEPT_FOREST", "MOUNTAIN", "GROVE", "SLOPES", "PEAKS")) {
+            t |= HIGHLAND;
+        }
+        if (containsAny(n, "WARM_OCEAN", "LUKEWARM_OCEAN")) t |= WARM_OCEAN;
+        if (containsAny(n, "PLAINS", "FLOWER_FOREST", "MEADOW")) t |= SPRING;
+
+        // clima
+        if (containsAny(n, "DESERT", "SAVANNA", "BADLANDS", "NETHER", "CRIMSON", "WARPED", "SOUL_SAND",
+                "BASALT", "END", "THE_VOID")) {
+            t |= DRY;
+        }
+
+        return t;
+    }
+
+    private static boolean containsAny(String name, String... tokens) {
+        for (String t : tokens) {
+            if (name.contains(t)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,304 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.LongMap;
+import Kinkin.aeternum.util.PerWorld;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldSaveEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+
+/**
+ * Marcas por bloque (bits) agrupadas por chunk: "esta nieve la puso un jugador",
+ * "este hielo no es nuestro", "esta flor la plantó un jugador / el plugin"...
+ *
+ * Antes eran LongSet por mundo que crecían con cada bloque colocado en toda la
+ * partida, no se soltaban nunca y se perdían al reiniciar. Ahora cada chunk
+ * cargado tiene un array ORDENADO de posiciones empaquetadas + un byte de bits:
+ * - consultar es una búsqueda binaria, sin objetos ni locks (solo hilo principal),
+ * - iterar un chunk es recorrer su array ({@link #forEach}),
+ * - al descargar el chunk se escribe en su PDC ("block_marks") y se suelta.
+ *
+ * pos = (y << 8) | (lx << 4) | lz  (igual que {@link SeasonOverlay})
+ * Formato: VERSION byte, int n, n × (pos int, bits byte)
+ */
+public final class BlockMarks implements Listener {
+
+    /** Nieve/capas colocadas por un jugador: el derretido no la toca. */
+    public static final int PLAYER_SNOW = 1;
+    /** Hielo colocado por un jugador. */
+    public static final int PLAYER_ICE  = 1 << 1;
+    /** Flora de reglas colocada/fertilizada por un jugador: la purga no la toca. */
+    public static final int FLORA_PLAYER = 1 << 2;
+    /** Flora de reglas puesta por el plugin (se puede purgar aunque purge_natural=false). */
+    public static final int FLORA_PLUGIN = 1 << 3;
+
+    private static final byte VERSION = 1;
+
+    private static final class Marks {
+        int size;
+        int[] pos = new int[8];
+        byte[] bits = new byte[8];
+        int any;            // OR de los bits presentes
+        boolean dirty;
+
+        int find(int p) {
+            return Arrays.binarySearch(pos, 0, size, p);
+        }
+
+        void add(int p, int b) {
+            int i = find(p);
+            if (i >= 0) {
+                if ((bits[i] & b) == b) return;
+                bits[i] |= (byte) b;
+            } else {
+                i = -i - 1;
+                if (size == pos.length) {
+                    pos = Arrays.copyOf(pos, size << 1);
+                    bits = Arrays.copyOf(bits, size << 1);
+                }
+                System.arraycopy(pos, i, pos, i + 1, size - i);
+                System.arraycopy(bits, i, bits, i + 1, size - i);
+                pos[i] = p;
+                bits[i] = (byte) b;
+                size++;
+            }
+            any |= b;
+            dirty = true;
+        }
+
+        void remove(int p, int b) {
+            int i = find(p);
+            if (i < 0 || (bits[i] & b) == 0) return;
+            bits[i] &= (byte) ~b;
+            if (bits[i] == 0) {
+                System.arraycopy(pos, i + 1, pos, i, size - i - 1);
+                System.arraycopy(bits, i + 1, bits, i, size - i - 1);
+                size--;
+            }
+            any = 0;
+            for (int j = 0; j < size; j++) any |= bits[j];
+            dirty = true;
+        }
+    }
+
+    private final AeternumSeasonsPlugin plugin;
+    private final LifecycleScope life;
+    private final NamespacedKey key;
+
+    // solo chunks cargados con alguna marca
+    private final PerWorld<LongMap<Marks>> loaded = new PerWorld<>(w -> new LongMap<>(64));
+
+    public BlockMarks(AeternumSeasonsPlugin plugin) {
+        this.plugin = plugin;
+        this.life = plugin.lifecycle.scope("BlockMarks");
+        this.key = new NamespacedKey(plugin, "block_marks");
+    }
+
+    public void register() {
+        life.listen(this);
+        for (World w : Bukkit.getWorlds()) {
+            for (Chunk ch : w.getLoadedChunks()) load(ch);
+        }
+    }
+
+    /** Escribe en los chunks lo pendiente y suelta la memoria. */
+    public void unregister() {
+        life.close();
+        for (Map.Entry<UUID, LongMap<Marks>> en : loaded.view().entrySet()) {
+            World w = Bukkit.getWorld(en.getKey());
+            if (w != null) saveWorld(w, en.getValue());
+        }
+        loaded.clear();
+    }
+
+    /* ========================= API ========================= */
+
+    public boolean has(Block b, int mask) {
+        return has(b.getWorld(), b.getX(), b.getY(), b.getZ(), mask);
+    }
+
+    public boolean has(World w, int x, int y, int z, int mask) {
+        Marks m = marks(w, x >> 4, z >> 4);
+        if (m == null || (m.any & mask) == 0) return false;
+        int i = m.find(pos(x, y, z));
+        return i >= 0 && (m.bits[i] & mask) != 0;
+    }
+
+    /** ¿El chunk tiene alguna marca de estos bits? (para saltarse las consultas). */
+    public boolean any(World w, int cx, int cz, int mask) {
+        Marks m = marks(w, cx, cz);
+        return m != null && (m.any & mask) != 0;
+    }
+
+    public void add(Block b, int bits) {
+        World w = b.getWorld();
+        int cx = b.getX() >> 4, cz = b.getZ() >> 4;
+        if (!w.isChunkLoaded(cx, cz)) return;
+        LongMap<Marks> map = loaded.get(w);
+        long k = BlockKeys.chunk(cx, cz);
+        Marks m = map.get(k);
+        if (m == null) {
+            m = new Marks();
+            map.put(k, m);
+        }
+        m.add(pos(b.getX(), b.getY(), b.getZ()), bits);
+    }
+
+    public void remove(Block b, int bits) {
+        Marks m = marks(b.getWorld(), b.getX() >> 4, b.getZ() >> 4);
+        if (m != null) m.remove(pos(b.getX(), b.getY(), b.getZ()), bits);
+    }
+
+    /**
+     * Recorre las posiciones marcadas del chunk (orden y, x, z) con alguno de estos
+     * bits. Decodificar con {@link #y}, {@link #localX}, {@link #localZ}.
+     */
+    public void forEach(World w, int cx, int cz, int mask, IntConsumer visitor) {
+        Marks m = marks(w, cx, cz);
+        if (m == null || (m.any & mask) == 0) return;
+        for (int i = 0; i < m.size; i++) {
+            if ((m.bits[i] & mask) != 0) visitor.accept(m.pos[i]);
+        }
+    }
+
+    public static int y(int pos) {
+        return pos >> 8;
+    }
+
+    public static int localX(int pos) {
+        return (pos >> 4) & 15;
+    }
+
+    public static int localZ(int pos) {
+        return pos & 15;
+    }
+
+    private static int pos(int x, int y, int z) {
+        return (y << 8) | ((x & 15) << 4) | (z & 15);
+    }
+
+    private Marks marks(World w, int cx, int cz) {
+        LongMap<Marks> map = loaded.peek(w);
+        return map == null ? null : map.get(BlockKeys.chunk(cx, cz));
+    }
+
+    /* ========================= PDC ========================= */
+
+    private void load(Chunk ch) {
+        byte[] raw = ch.getPersistentDataContainer().get(key, PersistentDataType.BYTE_ARRAY);
+        if (raw == null) return;
+        try {
+            Marks m = decode(raw);
+            if (m.size > 0) loaded.get(ch.getWorld()).put(BlockKeys.chunk(ch.getX(), ch.getZ()), m);
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().warning("[Marks] Dropping unreadable marks in chunk "
+                    + ch.getX() + "," + ch.getZ() + ": " + e.getMessage());
+            ch.getPersistentDataContainer().remove(key);
+        }
+    }
+
+    private void save(Chunk ch, Marks m) {
+        if (!m.dirty) return;
+        PersistentDataContainer pdc = ch.getPersistentDataContainer();
+        if (m.size == 0) {
+            pdc.remove(key);
+        } else {
+            try {
+                pdc.set(key, PersistentDataType.BYTE_ARRAY, encode(m));
+            } catch (IOException e) {
+                plugin.getLogger().warning("[Marks] Could not encode chunk " + ch.getX() + "," + ch.getZ() + ": " + e.getMessage());
+                return;
+            }
+        }
+        m.dirty = false;
+    }
+
+    private void saveWorld(World w, LongMap<Marks> map) {
+        map.forEach((k, m) -> {
+            int cx = BlockKeys.chunkX(k), cz = BlockKeys.chunkZ(k);
+            if (m.dirty && w.isChunkLoaded(cx, cz)) save(w.getChunkAt(cx, cz), m);
+            return true;
+        });
+    }
+
+    private static byte[] encode(Marks m) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(5 + m.size * 5);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeInt(m.size);
+            for (int i = 0; i < m.size; i++) {
+                out.writeInt(m.pos[i]);
+                out.writeByte(m.bits[i]);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Marks decode(byte[] raw) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            byte ver = in.readByte();
+            if (ver != VERSION) throw new IOException("Bad version " + ver);
+            Marks m = new Marks();
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                int p = in.readInt();
+                int b = in.readByte();
+                if (b != 0) m.add(p, b);
+            }
+            m.dirty = false;
+            return m;
+        }
+    }
+
+    /* ========================= EVENTOS ========================= */
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onChunkLoad(ChunkLoadEvent e) {
+        if (!e.isNewChunk()) load(e.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent e) {
+        Chunk ch = e.getChunk();
+        LongMap<Marks> map = loaded.peek(ch.getWorld());
+        if (map == null) return;
+        Marks m = map.remove(BlockKeys.chunk(ch.getX(), ch.getZ()));
+        if (m != null) save(ch, m);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldSave(WorldSaveEvent e) {
+        LongMap<Marks> map = loaded.peek(e.getWorld());
+        if (map != null) saveWorld(e.getWorld(), map);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent e) {
+        LongMap<Marks> map = loaded.peek(e.getWorld());
+        if (map != null) saveWorld(e.getWorld(), map);
+        loaded.drop(e.getWorld());
+    }
+}
@@ -0,0 +1,187 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.LongMap;
+import Kinkin.aeternum.util.PerWorld;
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cola de cambios de bloque de los painters (nieve, hielo, hojas, flora).
+ *
+ * Antes cada painter hacía setType(..., false) bloque a bloque según lo iba
+ * decidiendo, intercalado con sus lecturas. Aquí los cambios se agrupan por sección
+ * (16³) durante el tick y se aplican todos al final del tick (ServerTickEndEvent),
+ * sección a sección:
+ * - se salta la escritura si el bloque ya tiene el estado destino,
+ * - se salta también si el bloque ya no es el material que tenía al encolar
+ *   (un jugador, la física o otro plugin lo cambió entre medias: no se pisa),
+ * - si varios cambios caen en el mismo bloque se aplican en orden (gana el último),
+ * - si el chunk se descargó entre medias, se descartan,
+ * - cada escritura marca su columna en el {@link SurfaceCatalog}.
+ *
+ * El servidor ya junta los cambios de una sección en un único paquete
+ * multi-bloque por tick, así que agrupar aquí también agrupa lo que se envía.
+ * Solo hilo principal.
+ */
+public final class BlockMutationBatcher implements Listener {
+
+    private static final class Section {
+        final int cx, sy, cz;
+        int size;
+        short[] pos = new short[16];        // (y&15)<<8 | (z&15)<<4 | (x&15)
+        BlockData[] data = new BlockData[16];
+        Material[] expect = new Material[16]; // material del bloque al encolar
+
+        Section(int cx, int sy, int cz) {
+            this.cx = cx;
+            this.sy = sy;
+            this.cz = cz;
+        }
+
+        void add(int p, BlockData d, Material was) {
+            if (size == pos.length) {
+                pos = Arrays.copyOf(pos, size << 1);
+                data = Arrays.copyOf(data, size << 1);
+                expect = Arrays.copyOf(expect, size << 1);
+            }
+            pos[size] = (short) p;
+            data[size] = d;
+            expect[size] = was;
+            size++;
+        }
+    }
+
+    private static final class Pending {
+        final LongMap<Section> byKey = new LongMap<>(64);
+        final List<Section> order = new ArrayList<>();
+    }
+
+    private final AeternumSeasonsPlugin plugin;
+    private final LifecycleScope life;
+
+    private final PerWorld<Pending> pending = new PerWorld<>(w -> new Pending());
+    // estado por defecto de cada material (BlockData es inmutable una vez aplicado)
+    private final BlockData[] defaults = new BlockData[Material.values().length];
+    private int queued;
+    // posiciones ya escritas en la sección que se está aplicando (4096 bits)
+    private final long[] written = new long[64];
+
+    public BlockMutationBatcher(AeternumSeasonsPlugin plugin) {
+        this.plugin = plugin;
+        this.life = plugin.lifecycle.scope("BlockBatcher");
+    }
+
+    public void register() {
+        life.listen(this);
+    }
+
+    public void unregister() {
+        life.close();
+        // lo que no se aplicó se descarta: los painters revierten por su cuenta
+        pending.clear();
+        queued = 0;
+    }
+
+    /* ========================= ENCOLAR ========================= */
+
+    /** Cambia b a su estado por defecto de m al final del tick. */
+    public void set(Block b, Material m) {
+        BlockData d = defaults[m.ordinal()];
+        if (d == null) {
+            d = m.createBlockData();
+            defaults[m.ordinal()] = d;
+        }
+        set(b, d);
+    }
+
+    /**
+     * Cambia b a data al final del tick (sin física). No modificar data después.
+     * Si al aplicar el bloque ya no es del material que tiene ahora, no se toca.
+     */
+    public void set(Block b, BlockData data) {
+        int x = b.getX(), y = b.getY(), z = b.getZ();
+        int cx = x >> 4, sy = y >> 4, cz = z >> 4;
+
+        Pending p = pending.get(b.getWorld());
+        long key = BlockKeys.block(cx, sy, cz);
+        Section s = p.byKey.get(key);
+        if (s == null) {
+            s = new Section(cx, sy, cz);
+            p.byKey.put(key, s);
+            p.order.add(s);
+        }
+        s.add(((y & 15) << 8) | ((z & 15) << 4) | (x & 15), data, b.getType());
+        queued++;
+    }
+
+    /* ========================= APLICAR ========================= */
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent e) {
+        flush();
+    }
+
+    /** Aplica ya todo lo pendiente (normalmente lo hace el fin de tick). */
+    public void flush() {
+        if (queued == 0) return;
+        queued = 0;
+
+        for (Map.Entry<UUID, Pending> entry : pending.view().entrySet()) {
+            Pending p = entry.getValue();
+            if (p.order.isEmpty()) continue;
+            World w = Bukkit.getWorld(entry.getKey());
+            if (w != null) {
+                for (Section s : p.order) apply(w, s);
+            }
+            p.byKey.clear();
+            p.order.clear();
+        }
+    }
+
+    private void apply(World w, Section s) {
+        if (!w.isChunkLoaded(s.cx, s.cz)) return;
+        SurfaceCatalog surface = plugin.getSurfaceCatalog();
+
+        int bx = s.cx << 4, by = s.sy << 4, bz = s.cz << 4;
+        Arrays.fill(written, 0L);
+        for (int i = 0; i < s.size; i++) {
+            int p = s.pos[i];
+            Block b = w.getBlockAt(bx + (p & 15), by + (p >> 8), bz + ((p >> 4) & 15));
+            BlockData target = s.data[i];
+            Material now = b.getType();
+
+            // cambió desde que se encoló (y no por una escritura nuestra de este mismo flush): no pisar
+            boolean ours = (written[p >>> 6] & (1L << p)) != 0;
+            if (!ours && now != s.expect[i]) continue;
+
+            // mismo material: comparar estado completo; distinto: escribir sin más
+            if (now == target.getMaterial() && b.getBlockData().equals(target)) continue;
+            b.setBlockData(target, false);
+            written[p >>> 6] |= 1L << p;
+            // la columna pudo consultarse antes de aplicar: que se recalcule
+            surface.touch(w, b.getX(), b.getZ());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent e) {
+        pending.drop(e.getWorld());
+    }
+}
@@ -4,10 +4,11 @@ import Kinkin.aeternum.AeternumSeasonsPlugin;
 import Kinkin.aeternum.calendar.CalendarState;
 import Kinkin.aeternum.calendar.Season;
 import Kinkin.aeternum.calendar.SeasonService;
+import Kinkin.aeternum.config.CanopySnowSettings;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.PlayerSnapshotService.PlayerView;
 import org.bukkit.*;
-import org.bukkit.block.Biome;
 import org.bukkit.block.Block;
-import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
 
 import java.util.EnumSet;
@@ -20,9 +21,11 @@ public final class CanopySnowPainter implements Runnable {
     private final AeternumSeasonsPlugin plugin;
     private final SeasonService seasons;
 
+    private final LifecycleScope life;
     private BukkitTask task;
     private final Random random = new Random();
 
+    private CanopySnowSettings settings;
     private boolean enabled;
     private int attemptsPerTick;
     private int radiusBlocks;
@@ -44,31 +47,37 @@ public final class CanopySnowPainter implements Runnable {
     public CanopySnowPainter(AeternumSeasonsPlugin plugin, SeasonService seasons) {
         this.plugin = plugin;
         this.seasons = seasons;
-        reloadFromConfig();
+        this.life = plugin.lifecycle.scope("CanopySnow");
+        copySettings(plugin.cfg.snapshot().canopySnow());
     }
 
-    public void reloadFromConfig() {
-        var y = plugin.cfg.climate.getConfigurationSection("real_snow.canopy");
-        if (y == null) {
-            enabled = false;
-            return;
-        }
-        enabled            = y.getBoolean("enabled", true);
-        attemptsPerTick    = Math.max(1, y.getInt("attempts_per_tick", 40));
-        radiusBlocks       = Math.max(4, y.getInt("radius_blocks", 32));
-        maxLeafScanHeight  = Math.max(2, y.getInt("max_leaf_scan_height", 6));
-        onlyInColdBiomes   = y.getBoolean("only_in_cold_biomes", true);
+    private void copySettings(CanopySnowSettings cs) {
+        settings           = cs;
+        enabled            = cs.enabled();
+        attemptsPerTick    = cs.attemptsPerTick();
+        radiusBlocks       = cs.radiusBlocks();
+        maxLeafScanHeight  = cs.maxLeafScanHeight();
+        onlyInColdBiomes   = cs.onlyInColdBiomes();
+    }
+
+    /** Hot-reload: aplica real_snow.canopy.*; la tarea solo se reprograma si cambió enabled. */
+    public void applySettings(CanopySnowSettings next) {
+        CanopySnowSettings prev = this.settings;
+        if (next.equals(prev)) return;
+
+        copySettings(next);
+        if (prev.enabled() != enabled) register();
     }
 
     public void register() {
-        if (task != null) task.cancel();
+        task = life.cancel(task);
         if (!enabled) return;
         // cada 10 ticks (~0.5s)
-        this.task = Bukkit.getScheduler().runTaskTimer(plugin, this, 60L, 10L);
+        this.task = life.timer(this, 60L, 10L);
     }
 
     public void unregister() {
-        if (task != null) task.cancel();
+        life.close();
         task = null;
     }
 
@@ -84,78 +93,50 @@ public final class CanopySnowPainter implements Runnable {
         ThreadLocalRandom rnd = ThreadLocalRandom.current();
         if (attemptsPerTick <= 0 || radiusBlocks <= 0) return;
 
-        for (Player p : Bukkit.getOnlinePlayers()) {
-            World w = p.getWorld();
+        for (PlayerView pv : plugin.players.frame().players()) {
+            World w = pv.world;
             if (w.getEnvironment() != World.Environment.NORMAL) continue;
 
             // 🔹 NUEVO: solo pintar nieve de copa cuando realmente hay tormenta (lluvia/nieve)
             if (!w.hasStorm()) continue;
 
-            int px = p.getLocation().getBlockX();
-            int pz = p.getLocation().getBlockZ();
-            int minY = w.getMinHeight();
+            int px = pv.blockX;
+            int pz = pv.blockZ;
             int maxY = w.getMaxHeight();
+            SurfaceCatalog surface = plugin.getSurfaceCatalog();
+            ClimateFieldService climate = plugin.getClimateField();
 
             for (int i = 0; i < attemptsPerTick; i++) {
                 int x = px + rnd.nextInt(-radiusBlocks, radiusBlocks + 1);
                 int z = pz + rnd.nextInt(-radiusBlocks, radiusBlocks + 1);
 
-                // sólo en biomas/chunks fríos si así se configuró
-                if (onlyInColdBiomes) {
-                    int cx = x >> 4;
-                    int cz = z >> 4;
-
-                    boolean markedCold = BiomeSpoofAdapter.isChunkNaturallySnowy(w, cx, cz);
-                    boolean biomeCold  = isNaturallySnowyBiome(w, x, z);
-
-                    if (!markedCold && !biomeCold) {
-                        continue;
-                    }
-                }
-
-                int highest = w.getHighestBlockYAt(x, z) - 1; // bloque no aire más alto
-                if (highest < minY) continue;
-
-                // buscamos suelo cerca de la superficie (16 bloques hacia abajo máx)
-                int scanMinY = Math.max(minY, highest - 16);
-
-                Block ground = null;
-                for (int y = highest; y >= scanMinY; y--) {
-                    Block candidate = w.getBlockAt(x, y, z);
-                    Material t = candidate.getType();
-
-                    // si ya es nieve arriba de todo, no hace falta rellenar
-                    if (t == Material.SNOW || t == Material.SNOW_BLOCK) {
-                        ground = null;
-                        break;
-                    }
-
-                    if (groundTypes.contains(t)) {
-                        Block above = candidate.getRelative(0, 1, 0);
-                        Material aboveType = above.getType();
-                        if (aboveType.isAir() || above.isPassable()) {
-                            ground = candidate;
-                        }
-                        break;
-                    }
-                }
+                // ✅ catálogo de superficie: sin copa encima, o ya nevado → nada que hacer
+                int flags = surface.flags(w, x, z);
+                if ((flags & SurfaceCatalog.CANOPY) == 0 || (flags & SurfaceCatalog.SNOW) != 0) continue;
+                if (!groundTypes.contains(surface.groundType(w, x, z))) continue;
 
-                if (ground == null) continue;
-
-                int groundY = ground.getY();
-                Block aboveGround = ground.getRelative(0, 1, 0);
+                int groundY = surface.groundY(w, x, z);
+                // sólo donde el campo de clima hiela (bioma original + estación + altura), si así se configuró
+                if (onlyInColdBiomes && !climate.isFreezing(w, x, groundY + 1, z)) continue;
+                Block aboveGround = w.getBlockAt(x, groundY + 1, z);
                 Material aboveType = aboveGround.getType();
                 if (!aboveType.isAir() && !aboveGround.isPassable()) {
                     continue; // ya ocupado
                 }
 
-                // tiene que haber hojas haciendo "techo"
-                if (!hasLeavesAbove(w, x, groundY + 2, z, maxY)) {
+                // tiene que haber hojas haciendo "techo": entre suelo y copa solo hay hojas/aire,
+                // así que basta con que la copa llegue a groundY + 2; solo si es muy alta
+                // hay que buscar la hoja más baja
+                int canopyY = surface.motionY(w, x, z);
+                if (canopyY < groundY + 2) continue;
+                if (canopyY > groundY + 2 + maxLeafScanHeight && !hasLeavesAbove(w, x, groundY + 2, z, maxY)) {
                     continue;
                 }
 
                 // colocamos nieve SOLO debajo de árboles y SOLO cuando está nevando
-                aboveGround.setType(Material.SNOW, false);
+                plugin.getMutations().set(aboveGround, Material.SNOW);
+                plugin.getSectionProbe().note(aboveGround, Material.SNOW);
+                surface.touch(aboveGround);
             }
         }
     }
@@ -188,18 +169,4 @@ public final class CanopySnowPainter implements Runnable {
         return n.endsWith("_LEAVES");
     }
 
-    private boolean isNaturallySnowyBiome(World w, int x, int z) {
-        int y = w.getHighestBlockYAt(x, z);
-        Biome biome = w.getBiome(x, y, z);
-        String name = biome.name().toUpperCase();
-
-        return name.contains("SNOW")
-                || name.contains("FROZEN")
-                || name.contains("ICE")
-                || name.contains("TAIGA")
-                || name.contains("GROVE")
-                || name.contains("PEAK")
-                || name.contains("MOUNTAIN");
-    }
-
 }
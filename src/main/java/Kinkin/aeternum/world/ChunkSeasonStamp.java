@@ -0,0 +1,242 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.calendar.CalendarState;
+import Kinkin.aeternum.calendar.Season;
+import Kinkin.aeternum.calendar.SeasonService;
+import Kinkin.aeternum.calendar.SeasonUpdateEvent;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.LongMap;
+import Kinkin.aeternum.util.PerWorld;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Sello de estación por chunk, guardado en el PersistentDataContainer del chunk.
+ *
+ * Antes nadie sabía para qué estación se había procesado ya un chunk: el derretido,
+ * la reparación de hojas de otoño y la purga de flora lo redescubrían escaneando,
+ * y los chunks descargados durante el cambio solo se encontraban por muestreo.
+ *
+ * El sello es (época de estación, bits aplicados). La época cambia con cada
+ * estación ({@link #epochOf}); si no coincide con la actual, todos los bits cuentan
+ * como pendientes. Cada subsistema:
+ * - pregunta {@link #isDone} para saltarse chunks ya al día,
+ * - llama a {@link #markDone} cuando ha dejado el chunk reconciliado,
+ * - y puede {@link #watch vigilar} su bit: al cargar un chunk desfasado (o al cambiar
+ *   de estación, para los ya cargados) se le entrega para que lo encole.
+ *
+ * Solo hilo principal.
+ */
+public final class ChunkSeasonStamp implements Listener {
+
+    /** Nieve/hielo pintados derretidos (fuera de invierno). */
+    public static final int MELT        = 1;
+    /** Hojas de acacia residuales corregidas (fuera de otoño). */
+    public static final int LEAF_HEAL   = 1 << 1;
+    /** Flora de la estación purgada. */
+    public static final int FLORA_PURGE = 1 << 2;
+    /** La estación se aplicó al generar el chunk (SeasonalPopulator). */
+    public static final int GENERATED   = 1 << 3;
+
+    private static final int BITS = 16;
+    private static final long BIT_MASK = (1L << BITS) - 1;
+
+    private static final class Watcher {
+        final int bit;
+        final Predicate<Season> active;
+        final Consumer<Chunk> enqueue;
+
+        Watcher(int bit, Predicate<Season> active, Consumer<Chunk> enqueue) {
+            this.bit = bit;
+            this.active = active;
+            this.enqueue = enqueue;
+        }
+    }
+
+    private final SeasonService seasons;
+    private final LifecycleScope life;
+    private final NamespacedKey key;
+
+    // sello empaquetado (época << 16 | bits) por chunk cargado, para no leer el PDC cada vez
+    private final PerWorld<LongMap<Long>> cache = new PerWorld<>(w -> new LongMap<>(256));
+    private final List<Watcher> watchers = new ArrayList<>();
+    // ¿un chunk recién generado sale sin nada nuestro pendiente? (lo responde quien lo puebla)
+    private Predicate<Chunk> freshCheck;
+
+    private long epoch;
+    private Season season;
+
+    public ChunkSeasonStamp(AeternumSeasonsPlugin plugin, SeasonService seasons) {
+        this.seasons = seasons;
+        this.life = plugin.lifecycle.scope("SeasonStamp");
+        this.key = new NamespacedKey(plugin, "season_stamp");
+    }
+
+    public void register() {
+        CalendarState st = seasons.getStateCopy();
+        epoch = epochOf(st);
+        season = st.season;
+        life.listen(this);
+    }
+
+    public void unregister() {
+        life.close();
+        cache.clear();
+        watchers.clear();
+        freshCheck = null;
+    }
+
+    /** Época de estación: crece en 1 con cada estación, estable entre reinicios. */
+    public static long epochOf(CalendarState st) {
+        return (long) (Math.max(1, st.year) - 1) * 4 + st.season.ordinal();
+    }
+
+    /**
+     * Vigila un bit: los chunks desfasados para ese bit se entregan a enqueue
+     * (al cargar, o al cambiar de estación si ya estaban cargados) mientras
+     * active sea cierto para la estación actual.
+     */
+    public void watch(int bit, Predicate<Season> active, Consumer<Chunk> enqueue) {
+        watchers.removeIf(wt -> wt.bit == bit); // re-registro tras reload
+        watchers.add(new Watcher(bit, active, enqueue));
+    }
+
+    public void unwatch(int bit) {
+        watchers.removeIf(wt -> wt.bit == bit);
+    }
+
+    /**
+     * Quién decide si un chunk recién generado está al día ({@link SeasonalPopulator}):
+     * si check dice que no, el chunk se trata como uno desfasado en vez de sellarse.
+     * null = todo chunk nuevo está al día.
+     */
+    public void vouchNewChunks(Predicate<Chunk> check) {
+        this.freshCheck = check;
+    }
+
+    /* ========================= CONSULTA ========================= */
+
+    /** ¿El subsistema bit ya dejó este chunk al día para la estación actual? */
+    public boolean isDone(World w, int cx, int cz, int bit) {
+        long s = stamp(w, cx, cz);
+        return (s >>> BITS) == epoch && (s & bit) != 0;
+    }
+
+    public boolean isDone(Chunk ch, int bit) {
+        return isDone(ch.getWorld(), ch.getX(), ch.getZ(), bit);
+    }
+
+    /* ========================= ANOTAR ========================= */
+
+    /** bit puede llevar varios subsistemas a la vez. */
+    public void markDone(Chunk ch, int bit) {
+        long s = stamp(ch.getWorld(), ch.getX(), ch.getZ());
+        long bits = (s >>> BITS) == epoch ? (s & BIT_MASK) : 0L;
+        if ((bits & bit) == bit) return;
+        write(ch, (epoch << BITS) | bits | bit);
+    }
+
+    public void markDone(World w, int cx, int cz, int bit) {
+        if (w.isChunkLoaded(cx, cz)) markDone(w.getChunkAt(cx, cz), bit);
+    }
+
+    /** El chunk vuelve a tener trabajo pendiente para bit (p.ej. se puso flora nueva). */
+    public void clear(World w, int cx, int cz, int bit) {
+        if (!w.isChunkLoaded(cx, cz)) return;
+        long s = stamp(w, cx, cz);
+        if ((s >>> BITS) != epoch || (s & bit) == 0) return;
+        write(w.getChunkAt(cx, cz), s & ~(long) bit);
+    }
+
+    private long stamp(World w, int cx, int cz) {
+        LongMap<Long> map = cache.get(w);
+        long k = BlockKeys.chunk(cx, cz);
+        Long s = map.get(k);
+        if (s != null) return s;
+        if (!w.isChunkLoaded(cx, cz)) return -1L;
+
+        Long stored = w.getChunkAt(cx, cz).getPersistentDataContainer().get(key, PersistentDataType.LONG);
+        long v = stored == null ? -1L : stored;
+        map.put(k, v);
+        return v;
+    }
+
+    private void write(Chunk ch, long s) {
+        ch.getPersistentDataContainer().set(key, PersistentDataType.LONG, s);
+        cache.get(ch.getWorld()).put(BlockKeys.chunk(ch.getX(), ch.getZ()), s);
+    }
+
+    /* ====================== RECONCILIAR ====================== */
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent e) {
+        Chunk ch = e.getChunk();
+        if (ch.getWorld().getEnvironment() != World.Environment.NORMAL) return;
+
+        // chunk recién generado: no tiene nada nuestro → al día para todo,
+        // salvo que se pintara al generarlo para otra estación (o no se sepa)
+        if (e.isNewChunk()) {
+            if (freshCheck != null && !freshCheck.test(ch)) {
+                offer(ch);
+                return;
+            }
+            int all = 0;
+            for (Watcher wt : watchers) all |= wt.bit;
+            markDone(ch, all);
+            return;
+        }
+        if (watchers.isEmpty()) return;
+        offer(ch);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onSeasonUpdate(SeasonUpdateEvent e) {
+        CalendarState st = e.getState();
+        long next = epochOf(st);
+        if (next == epoch) return;
+        epoch = next;
+        season = st.season;
+
+        // todos los chunks cargados quedan desfasados
+        for (World w : Bukkit.getWorlds()) {
+            if (w.getEnvironment() != World.Environment.NORMAL) continue;
+            for (Chunk ch : w.getLoadedChunks()) offer(ch);
+        }
+    }
+
+    private void offer(Chunk ch) {
+        for (Watcher wt : watchers) {
+            if (!wt.active.test(season)) continue;
+            if (isDone(ch, wt.bit)) continue;
+            wt.enqueue.accept(ch);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent e) {
+        Chunk ch = e.getChunk();
+        LongMap<Long> map = cache.peek(ch.getWorld());
+        if (map != null) map.remove(BlockKeys.chunk(ch.getX(), ch.getZ()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent e) {
+        cache.drop(e.getWorld());
+    }
+}
@@ -0,0 +1,256 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.api.ClimateField;
+import Kinkin.aeternum.calendar.CalendarState;
+import Kinkin.aeternum.calendar.Season;
+import Kinkin.aeternum.calendar.SeasonService;
+import Kinkin.aeternum.calendar.SeasonUpdateEvent;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.LongMap;
+import Kinkin.aeternum.util.PerWorld;
+import Kinkin.aeternum.weather.SeasonalWeatherService;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.ServicePriority;
+
+import java.util.EnumMap;
+
+/**
+ * Implementación de {@link ClimateField}.
+ *
+ * Una celda por chunk con la temperatura base (bioma original en el centro del chunk,
+ * a nivel del mar, + ajuste de estación) y la precipitación del día. Se calcula al
+ * primer uso y se reutiliza hasta que cambia la época: nuevo día/estación/año o
+ * recarga. La altura se aplica al consultar (vanilla: -0.05 cada 40 bloques sobre y=80).
+ *
+ * Además guarda el frío "de origen" (sin estación): {@link #isNaturallySnowy} es lo que
+ * nieva también en vanilla, y lo consultan los painters para no tocar esa nieve.
+ *
+ * Se publica en el ServicesManager de Bukkit para otros plugins. Solo hilo principal.
+ */
+public final class ClimateFieldService implements ClimateField, Listener {
+
+    // gradiente vanilla: 0.05 por cada 40 bloques por encima de y=80
+    private static final int LAPSE_START_Y = 80;
+    private static final float LAPSE_PER_BLOCK = 0.05f / 40f;
+
+    private static final class Cell {
+        float base;          // bioma original en el centro, sin estación ni altura
+        float temperature;   // base + estación (sin altura)
+        float coldest;       // mínimo sin estación sobre una rejilla 4x4 del suelo (con altura)
+        float precipitation;
+        long epoch;
+    }
+
+    private final AeternumSeasonsPlugin plugin;
+    private final SeasonService seasons;
+    private final BiomeSpoofAdapter biomeSpoof;
+    private final SeasonalWeatherService weather;
+    private final LifecycleScope life;
+
+    private final PerWorld<LongMap<Cell>> cache = new PerWorld<>(w -> new LongMap<>(256));
+    private final EnumMap<Season, Float> seasonOffsets = new EnumMap<>(Season.class);
+    private float dryDayPrecipitation;
+
+    private long epoch = 1L;
+    private int lastYear, lastDay;
+    private Season lastSeason;
+    // válidos para la época actual
+    private volatile float seasonOffset;   // también lo lee el SeasonalPopulator (generación)
+    private int dayInSeason;
+
+    public ClimateFieldService(AeternumSeasonsPlugin plugin, SeasonService seasons,
+                               BiomeSpoofAdapter biomeSpoof, SeasonalWeatherService weather) {
+        this.plugin = plugin;
+        this.seasons = seasons;
+        this.biomeSpoof = biomeSpoof;
+        this.weather = weather;
+        this.life = plugin.lifecycle.scope("ClimateField");
+        loadConfig();
+    }
+
+    public void register() {
+        life.listen(this);
+        Bukkit.getServicesManager().register(ClimateField.class, this, plugin, ServicePriority.Normal);
+        invalidate(seasons.getStateCopy());
+    }
+
+    public void unregister() {
+        Bukkit.getServicesManager().unregister(ClimateField.class, this);
+        life.close();
+        cache.clear();
+    }
+
+    public void reload() {
+        loadConfig();
+        invalidate(seasons.getStateCopy());
+    }
+
+    private void loadConfig() {
+        FileConfiguration c = plugin.cfg.climate;
+        seasonOffsets.put(Season.SPRING, (float) c.getDouble("climate_field.season_offsets.SPRING", 0.0));
+        seasonOffsets.put(Season.SUMMER, (float) c.getDouble("climate_field.season_offsets.SUMMER", 0.2));
+        seasonOffsets.put(Season.AUTUMN, (float) c.getDouble("climate_field.season_offsets.AUTUMN", -0.2));
+        seasonOffsets.put(Season.WINTER, (float) c.getDouble("climate_field.season_offsets.WINTER", -0.8));
+        dryDayPrecipitation = (float) Math.max(0.0, Math.min(1.0,
+                c.getDouble("climate_field.dry_day_precipitation", 0.1)));
+    }
+
+    /* ========================= API ========================= */
+
+    @Override
+    public float temperature(World w, int x, int y, int z) {
+        Cell c = cell(w, x, z);
+        return c == null ? Float.NaN : lapse(c.temperature, y);
+    }
+
+    /** Temperatura del bioma original en (x, y, z) SIN la estación, o NaN si el chunk no está cargado. */
+    public float naturalTemperature(World w, int x, int y, int z) {
+        Cell c = cell(w, x, z);
+        return c == null ? Float.NaN : lapse(c.base, y);
+    }
+
+    /**
+     * ¿Nieva en este chunk también en vanilla? true si alguna columna de la rejilla 4x4
+     * (bioma original a la altura del suelo) está bajo {@link #FREEZING} sin contar la estación.
+     * false si el chunk no está cargado.
+     */
+    public boolean isNaturallySnowy(World w, int cx, int cz) {
+        Cell c = cell(w, cx << 4, cz << 4);
+        return c != null && c.coldest < FREEZING;
+    }
+
+    /** Temperatura vanilla de un bioma a la altura y, sin estación. Cualquier hilo (generación, planner). */
+    public static float naturalTemperature(Biome b, int y) {
+        return lapse(BiomeTraits.temperature(b), y);
+    }
+
+    /** Frío de origen de un bioma suelto, sin altura ni estación. Cualquier hilo. */
+    public static boolean isFreezingBiome(Biome b) {
+        return BiomeTraits.temperature(b) < FREEZING;
+    }
+
+    /**
+     * Temperatura con estación de un chunk cuyo bioma original (en su centro) es b,
+     * a la altura y: la misma cuenta que {@link #temperature}, sin caché. Cualquier hilo.
+     */
+    public float seasonalTemperature(Biome b, int y) {
+        return lapse(BiomeTraits.temperature(b) + seasonOffset, y);
+    }
+
+    private static float lapse(float t, int y) {
+        return y > LAPSE_START_Y ? t - (y - LAPSE_START_Y) * LAPSE_PER_BLOCK : t;
+    }
+
+    @Override
+    public float precipitation(World w, int x, int z) {
+        Cell c = cell(w, x, z);
+        return c == null ? Float.NaN : c.precipitation;
+    }
+
+    @Override
+    public long epoch() {
+        return epoch;
+    }
+
+    /* ========================= CÁLCULO ========================= */
+
+    private Cell cell(World w, int x, int z) {
+        int cx = x >> 4, cz = z >> 4;
+        if (!w.isChunkLoaded(cx, cz)) return null;
+
+        LongMap<Cell> map = cache.get(w);
+        long key = BlockKeys.chunk(cx, cz);
+        Cell c = map.get(key);
+        if (c == null) {
+            c = new Cell();
+            map.put(key, c);
+        } else if (c.epoch == epoch) {
+            return c;
+        }
+        fill(w, cx, cz, c);
+        return c;
+    }
+
+    private void fill(World w, int cx, int cz, Cell c) {
+        Biome original = biomeSpoof.getOriginalBiomeApprox(w, (cx << 4) + 8, w.getSeaLevel(), (cz << 4) + 8);
+        c.base = BiomeTraits.temperature(original);
+        c.temperature = c.base + seasonOffset;
+
+        // frío de origen: no depende de la estación, basta calcularlo una vez
+        if (c.epoch == 0L) {
+            SurfaceCatalog surface = plugin.getSurfaceCatalog();
+            float coldest = Float.MAX_VALUE;
+            for (int i = 0; i < 16; i++) {
+                int x = (cx << 4) + ((i & 3) << 2) + 2, z = (cz << 4) + ((i >> 2) << 2) + 2;
+                int y = surface.groundY(w, x, z);
+                if (y == SurfaceCatalog.NONE) y = w.getSeaLevel();
+                coldest = Math.min(coldest, naturalTemperature(biomeSpoof.getOriginalBiomeApprox(w, x, y, z), y + 1));
+            }
+            c.coldest = coldest;
+        }
+
+        if (BiomeTraits.has(original, BiomeTraits.DRY)) {
+            c.precipitation = 0f;
+        } else {
+            Boolean rainy = weather.isRainyDay(w, dayInSeason);
+            if (rainy == null) c.precipitation = w.hasStorm() ? 1f : 0f; // sin calendario de lluvia
+            else c.precipitation = rainy ? 1f : dryDayPrecipitation;
+        }
+        c.epoch = epoch;
+    }
+
+    // nueva época: las celdas se recalculan perezosamente en la próxima consulta
+    private void invalidate(CalendarState st) {
+        lastYear = st.year;
+        lastSeason = st.season;
+        lastDay = st.day;
+        dayInSeason = st.day;
+
+        double f = BiomeSpoofAdapter.preTransitionFactor(st.day, seasons.getDaysPerSeason());
+        float cur = seasonOffsets.getOrDefault(st.season, 0f);
+        float next = seasonOffsets.getOrDefault(next(st.season), 0f);
+        seasonOffset = (float) (cur + (next - cur) * f);
+        epoch++;
+    }
+
+    private static Season next(Season s) {
+        return switch (s) {
+            case SPRING -> Season.SUMMER;
+            case SUMMER -> Season.AUTUMN;
+            case AUTUMN -> Season.WINTER;
+            case WINTER -> Season.SPRING;
+        };
+    }
+
+    /* ====================== EVENTOS ====================== */
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onSeason(SeasonUpdateEvent e) {
+        CalendarState st = e.getState();
+        if (st.year == lastYear && st.season == lastSeason && st.day == lastDay) return;
+        invalidate(st);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent e) {
+        Chunk ch = e.getChunk();
+        LongMap<Cell> map = cache.peek(ch.getWorld());
+        if (map != null) map.remove(BlockKeys.chunk(ch.getX(), ch.getZ()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent e) {
+        cache.drop(e.getWorld());
+    }
+}
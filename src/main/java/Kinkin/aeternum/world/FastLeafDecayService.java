@@ -1,122 +1,232 @@
 package Kinkin.aeternum.world;
 
 import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.LongSet;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
+import org.bukkit.Tag;
 import org.bukkit.World;
 import org.bukkit.block.Block;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
-import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.block.data.type.Leaves;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Decay rápido de las hojas que se quedan lejos de la madera al talar.
+ *
+ * Como vanilla: distancia = pasos por hojas hasta el tronco más cercano, y a
+ * partir de 7 la hoja cae. En vez de buscar troncos alrededor de cada hoja, por
+ * tala se hace UN BFS:
+ * 1) desde los troncos rotos, la componente de hojas que los tocaba y los troncos
+ *    que siguen tocándola,
+ * 2) BFS multi-origen desde esos troncos por esas hojas, hasta distancia 6;
+ *    lo que no se alcanza, cae.
+ * Los troncos rotos cerca unos de otros en pocos ticks (talar a mano, plugins
+ * de tala) se juntan en una sola tala, y los decays se reparten entre ticks.
+ */
+public final class FastLeafDecayService {
+
+    // ticks sin más roturas antes de resolver la tala; y espera máxima
+    private static final int COALESCE_TICKS = 5;
+    private static final int MAX_WAIT_TICKS = 40;
+    // margen (bloques) para juntar un tronco a una tala abierta: alcance de las hojas + 2
+    private static final int JOIN_MARGIN = 8;
+    // hojas por BFS: por encima no sabemos qué queda sostenido y no se toca nada
+    private static final int MAX_LEAVES = 4096;
+    private static final int MAX_DISTANCE = 6;
+    private static final int DECAYS_PER_TICK = 32;
+
+    private static final int[] DX = {1, -1, 0, 0, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1, 0, 0};
+    private static final int[] DZ = {0, 0, 0, 0, 1, -1};
+
+    /** Troncos rotos que se resuelven juntos. */
+    private static final class Felling {
+        final World world;
+        final int created;
+        int due;
+        long[] seeds = new long[8];
+        int n;
+        int minX, minY, minZ, maxX, maxY, maxZ;
+
+        Felling(World world, Block log, int now) {
+            this.world = world;
+            this.created = now;
+            minX = maxX = log.getX();
+            minY = maxY = log.getY();
+            minZ = maxZ = log.getZ();
+            add(log, now);
+        }
 
-import java.util.EnumSet;
-import java.util.Set;
+        boolean near(Block b) {
+            return b.getX() >= minX - JOIN_MARGIN && b.getX() <= maxX + JOIN_MARGIN
+                    && b.getY() >= minY - JOIN_MARGIN && b.getY() <= maxY + JOIN_MARGIN
+                    && b.getZ() >= minZ - JOIN_MARGIN && b.getZ() <= maxZ + JOIN_MARGIN;
+        }
 
-public final class FastLeafDecayService implements Listener {
+        void add(Block log, int now) {
+            if (n == seeds.length) seeds = Arrays.copyOf(seeds, n << 1);
+            seeds[n++] = BlockKeys.block(log.getX(), log.getY(), log.getZ());
+            minX = Math.min(minX, log.getX()); maxX = Math.max(maxX, log.getX());
+            minY = Math.min(minY, log.getY()); maxY = Math.max(maxY, log.getY());
+            minZ = Math.min(minZ, log.getZ()); maxZ = Math.max(maxZ, log.getZ());
+            due = Math.min(now + COALESCE_TICKS, created + MAX_WAIT_TICKS);
+        }
+    }
 
     private final AeternumSeasonsPlugin plugin;
+    private final LifecycleScope life;
+    private BukkitTask task;
 
-    // Troncos que consideramos "madera de árbol"
-    private final Set<Material> logTypes = EnumSet.of(
-            Material.OAK_LOG,
-            Material.SPRUCE_LOG,
-            Material.BIRCH_LOG,
-            Material.DARK_OAK_LOG,
-            Material.JUNGLE_LOG,
-            Material.ACACIA_LOG,
-            Material.CHERRY_LOG,
-            Material.MANGROVE_LOG
-    );
-
-    // Hojas (incluye las pintadas de otoño, que son ACACIA_LEAVES)
-    private final Set<Material> leafTypes = EnumSet.of(
-            Material.OAK_LEAVES,
-            Material.SPRUCE_LEAVES,
-            Material.BIRCH_LEAVES,
-            Material.DARK_OAK_LEAVES,
-            Material.JUNGLE_LEAVES,
-            Material.ACACIA_LEAVES,
-            Material.CHERRY_LEAVES,
-            Material.MANGROVE_LEAVES
-    );
+    private final List<Felling> fellings = new ArrayList<>();
+    private final Deque<Block> decays = new ArrayDeque<>();
 
     public FastLeafDecayService(AeternumSeasonsPlugin plugin) {
         this.plugin = plugin;
+        this.life = plugin.lifecycle.scope("FastLeafDecay");
     }
 
     public void register() {
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        plugin.getTrees().watchFellings(this::onFelled);
     }
 
     public void unregister() {
-        BlockBreakEvent.getHandlerList().unregister(this);
+        plugin.getTrees().unwatchFellings();
+        life.close();
+        task = null;
+        fellings.clear();
+        decays.clear();
     }
 
-    /**
-     * Cada vez que se rompe un tronco, aceleramos el decay de las hojas
-     * que ya no tienen ningún tronco cerca. NO tocamos hojas que aún
-     * están conectadas a madera.
-     */
-    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
-    public void onLogBreak(BlockBreakEvent event) {
-        Block block = event.getBlock();
-        if (!logTypes.contains(block.getType())) return;
-
-        // Lo hacemos unos ticks después para que Minecraft actualice distancias, etc.
-        Bukkit.getScheduler().runTaskLater(plugin, () -> fastDecayAround(block), 5L);
+    /** Tronco roto que sostenía hojas ({@link TreeRegistry}): se junta a su tala. */
+    private void onFelled(Block log) {
+        int now = Bukkit.getCurrentTick();
+        Felling f = null;
+        for (Felling open : fellings) {
+            if (open.world == log.getWorld() && open.near(log)) {
+                f = open;
+                break;
+            }
+        }
+        if (f == null) fellings.add(new Felling(log.getWorld(), log, now));
+        else f.add(log, now);
+
+        if (task == null) task = life.timer(this::tick, 1L, 1L);
     }
 
-    private void fastDecayAround(Block originLog) {
-        World w = originLog.getWorld();
-        if (w == null) return;
-
-        int radius = 6; // radio alrededor del tronco
-        int ox = originLog.getX();
-        int oy = originLog.getY();
-        int oz = originLog.getZ();
-
-        for (int x = ox - radius; x <= ox + radius; x++) {
-            for (int y = oy - radius; y <= oy + radius; y++) {
-                for (int z = oz - radius; z <= oz + radius; z++) {
-                    Block leaf = w.getBlockAt(x, y, z);
-                    if (!leafTypes.contains(leaf.getType())) continue;
-
-                    // Si todavía tiene algún tronco cerca, dejamos que Minecraft
-                    // haga su decay normal.
-                    if (hasLogNearby(leaf)) continue;
-
-                    // Aquí SÍ está "flotando": aceleramos el decay vanilla.
-                    // Para que no sea ultra instantáneo, metemos una probabilidad.
-                    if (Math.random() < 0.8) { // ~35% de las hojas flotantes se rompen ya
-                        leaf.breakNaturally();   // respeta drops vanilla, fortune, etc.
-                    }
+    private void tick() {
+        int now = Bukkit.getCurrentTick();
+        for (Iterator<Felling> it = fellings.iterator(); it.hasNext(); ) {
+            Felling f = it.next();
+            if (now < f.due) continue;
+            it.remove();
+            settle(f);
+        }
+
+        for (int i = 0; i < DECAYS_PER_TICK && !decays.isEmpty(); i++) {
+            decay(decays.poll());
+        }
+
+        // sin trabajo: el timer se para hasta la próxima tala
+        if (fellings.isEmpty() && decays.isEmpty()) task = life.cancel(task);
+    }
+
+    /* ========================= DISTANCIAS ========================= */
+
+    private void settle(Felling f) {
+        World w = f.world;
+        int minY = w.getMinHeight(), maxY = w.getMaxHeight() - 1;
+
+        // 1) componente de hojas que tocaba los troncos rotos + troncos que la siguen tocando
+        LongSet leaves = new LongSet(256);
+        long[] queue = new long[256];
+        int tail = 0;
+        for (int s = 0; s < f.n; s++) {
+            long k = f.seeds[s];
+            int x = BlockKeys.blockX(k), y = BlockKeys.blockY(k), z = BlockKeys.blockZ(k);
+            for (int d = 0; d < 6; d++) {
+                int nx = x + DX[d], ny = y + DY[d], nz = z + DZ[d];
+                if (ny < minY || ny > maxY || !w.isChunkLoaded(nx >> 4, nz >> 4)) continue;
+                long nk = BlockKeys.block(nx, ny, nz);
+                if (leaves.contains(nk) || !Tag.LEAVES.isTagged(w.getBlockAt(nx, ny, nz).getType())) continue;
+                leaves.add(nk);
+                if (tail == queue.length) queue = Arrays.copyOf(queue, tail << 1);
+                queue[tail++] = nk;
+            }
+        }
+        if (tail == 0) return;
+
+        // hojas pegadas a un tronco (distancia 1)
+        long[] frontier = new long[64];
+        int fn = 0;
+        for (int head = 0; head < tail; head++) {
+            long k = queue[head];
+            int x = BlockKeys.blockX(k), y = BlockKeys.blockY(k), z = BlockKeys.blockZ(k);
+            boolean onLog = false;
+            for (int d = 0; d < 6; d++) {
+                int nx = x + DX[d], ny = y + DY[d], nz = z + DZ[d];
+                if (ny < minY || ny > maxY) continue;
+                if (!w.isChunkLoaded(nx >> 4, nz >> 4)) return; // no vemos todo el árbol: no tocar
+                long nk = BlockKeys.block(nx, ny, nz);
+                if (leaves.contains(nk)) continue;
+
+                Material m = w.getBlockAt(nx, ny, nz).getType();
+                if (Tag.LEAVES.isTagged(m)) {
+                    if (tail >= MAX_LEAVES) return; // demasiado grande para saber qué queda sostenido
+                    leaves.add(nk);
+                    if (tail == queue.length) queue = Arrays.copyOf(queue, tail << 1);
+                    queue[tail++] = nk;
+                } else if (Tag.LOGS.isTagged(m)) {
+                    onLog = true;
                 }
             }
+            if (onLog) {
+                if (fn == frontier.length) frontier = Arrays.copyOf(frontier, fn << 1);
+                frontier[fn++] = k;
+            }
         }
-    }
 
-    /**
-     * Comprueba si esta hoja tiene algún tronco cerca (parecido a la
-     * lógica de distancia de las hojas vanilla).
-     */
-    private boolean hasLogNearby(Block leaf) {
-        World w = leaf.getWorld();
-        int radius = 5; // similar al alcance vanilla
-        int lx = leaf.getX();
-        int ly = leaf.getY();
-        int lz = leaf.getZ();
-
-        for (int x = lx - radius; x <= lx + radius; x++) {
-            for (int y = ly - radius; y <= ly + radius; y++) {
-                for (int z = lz - radius; z <= lz + radius; z++) {
-                    Block b = w.getBlockAt(x, y, z);
-                    if (logTypes.contains(b.getType())) {
-                        return true;
-                    }
+        // 2) BFS multi-origen por niveles desde las hojas de distancia 1
+        LongSet held = new LongSet(tail);
+        for (int i = 0; i < fn; i++) held.add(frontier[i]);
+        for (int dist = 2; dist <= MAX_DISTANCE && fn > 0; dist++) {
+            long[] next = new long[Math.max(16, fn)];
+            int nn = 0;
+            for (int i = 0; i < fn; i++) {
+                long k = frontier[i];
+                int x = BlockKeys.blockX(k), y = BlockKeys.blockY(k), z = BlockKeys.blockZ(k);
+                for (int d = 0; d < 6; d++) {
+                    long nk = BlockKeys.block(x + DX[d], y + DY[d], z + DZ[d]);
+                    if (!leaves.contains(nk) || !held.add(nk)) continue;
+                    if (nn == next.length) next = Arrays.copyOf(next, nn << 1);
+                    next[nn++] = nk;
                 }
             }
+            frontier = next;
+            fn = nn;
+        }
+
+        // 3) lo que no alcanza ningún tronco, cae (repartido entre ticks)
+        for (int i = 0; i < tail; i++) {
+            long k = queue[i];
+            if (held.contains(k)) continue;
+            decays.add(w.getBlockAt(BlockKeys.blockX(k), BlockKeys.blockY(k), BlockKeys.blockZ(k)));
         }
-        return false;
+    }
+
+    private void decay(Block leaf) {
+        if (!Tag.LEAVES.isTagged(leaf.getType())) return; // ya cayó o la quitaron
+        // hojas puestas por jugadores: vanilla tampoco las deja caer
+        if (leaf.getBlockData() instanceof Leaves l && l.isPersistent()) return;
+        leaf.breakNaturally();   // respeta drops vanilla, fortune, etc.
+        plugin.getTrees().forget(leaf);
     }
 }
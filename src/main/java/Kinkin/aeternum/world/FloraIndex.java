@@ -0,0 +1,335 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LongMap;
+import Kinkin.aeternum.util.LongSet;
+import Kinkin.aeternum.util.PerWorld;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockFertilizeEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Ocupación de flora por chunk: posiciones de bloques de reglas + su material.
+ *
+ * El cap por chunk (max_per_chunk) recorría las 256 columnas en cada visita y la
+ * distancia mínima (min_distance_blocks) leía hasta 17×17×3 bloques antes de cada
+ * colocación. Ahora cada chunk se indexa UNA vez (ChunkSnapshot capturado en el
+ * hilo principal, recorrido en el executor del controlador) en la banda de
+ * superficie que miraba el escáner, y después se mantiene con los eventos
+ * (colocar, romper, spread, grow, bonemeal) y con lo que pone/purga el plugin:
+ * - contar = recorrer las entradas del chunk (k, no 256 columnas),
+ * - cercanía = entradas de los chunks que toca el radio, en su rango de y.
+ * Mientras un chunk no está indexado, las consultas devuelven "no sé" (-1).
+ *
+ * pos = (y << 8) | (lx << 4) | lz  (igual que {@link SeasonOverlay}), ordenado.
+ * Solo hilo principal (salvo el recorrido del snapshot). Se suelta al descargar.
+ */
+final class FloraIndex implements Listener {
+
+    private static final class Occupancy {
+        int size;
+        int[] pos;
+        char[] mat;   // ordinal de Material
+
+        Occupancy(int[] pos, char[] mat, int size) {
+            this.pos = pos;
+            this.mat = mat;
+            this.size = size;
+        }
+
+        int find(int p) {
+            return Arrays.binarySearch(pos, 0, size, p);
+        }
+
+        void set(int p, int m) {
+            int i = find(p);
+            if (i >= 0) {
+                if (m < 0) {
+                    System.arraycopy(pos, i + 1, pos, i, size - i - 1);
+                    System.arraycopy(mat, i + 1, mat, i, size - i - 1);
+                    size--;
+                } else {
+                    mat[i] = (char) m;
+                }
+                return;
+            }
+            if (m < 0) return;
+            i = -i - 1;
+            if (size == pos.length) {
+                pos = Arrays.copyOf(pos, Math.max(8, size << 1));
+                mat = Arrays.copyOf(mat, Math.max(8, size << 1));
+            }
+            System.arraycopy(pos, i, pos, i + 1, size - i);
+            System.arraycopy(mat, i, mat, i + 1, size - i);
+            pos[i] = p;
+            mat[i] = (char) m;
+            size++;
+        }
+
+        /** Material en p (ordinal) o -1. */
+        int at(int p) {
+            int i = find(p);
+            return i >= 0 ? mat[i] : -1;
+        }
+    }
+
+    private record Built(UUID world, long chunk, int generation, int[] pos, char[] mat, int size) {}
+
+    private final AeternumSeasonsPlugin plugin;
+    private final ExecutorService executor;
+
+    private final PerWorld<LongMap<Occupancy>> built = new PerWorld<>(w -> new LongMap<>(64));
+    // en vuelo / cambiados mientras estaban en vuelo (el resultado se descarta)
+    private final PerWorld<LongSet> pending = new PerWorld<>(w -> new LongSet(16));
+    private final PerWorld<LongSet> stale = new PerWorld<>(w -> new LongSet(16));
+    private final ConcurrentLinkedQueue<Built> done = new ConcurrentLinkedQueue<>();
+
+    // materiales de reglas (ordinal); se cambia en cada recarga de reglas
+    private boolean[] flora = new boolean[0];
+    private int depth = 8;
+    private int generation;
+
+    FloraIndex(AeternumSeasonsPlugin plugin, ExecutorService executor) {
+        this.plugin = plugin;
+        this.executor = executor;
+    }
+
+    /** Reglas recargadas: otros materiales → se reindexa todo al usarse. */
+    void reset(boolean[] flora, int surfaceScanDepth) {
+        this.flora = flora;
+        this.depth = surfaceScanDepth;
+        clear();
+    }
+
+    void clear() {
+        generation++;
+        built.clear();
+        pending.clear();
+        stale.clear();
+        done.clear();
+    }
+
+    /** Mete en el índice los chunks recorridos en el executor. Llamar cada tick del controlador. */
+    void drain() {
+        Built r;
+        while ((r = done.poll()) != null) {
+            World w = Bukkit.getWorld(r.world());
+            if (w == null || r.generation() != generation) continue;
+            LongSet inFlight = pending.peek(w);
+            if (inFlight != null) inFlight.remove(r.chunk());
+            LongSet dirty = stale.peek(w);
+            if (dirty != null && dirty.remove(r.chunk())) continue; // cambió mientras: se repide al usarse
+            if (!w.isChunkLoaded(BlockKeys.chunkX(r.chunk()), BlockKeys.chunkZ(r.chunk()))) continue;
+            built.get(w).put(r.chunk(), new Occupancy(r.pos(), r.mat(), r.size()));
+        }
+    }
+
+    /* ========================= CONSULTAS ========================= */
+
+    /**
+     * Columnas del chunk con algún bloque de mats (las plantas dobles cuentan una vez),
+     * parando en cap. -1 si el chunk aún no está indexado (se pide).
+     */
+    int count(World w, int cx, int cz, boolean[] mats, int cap) {
+        Occupancy o = occupancy(w, cx, cz);
+        if (o == null) return -1;
+        int count = 0;
+        for (int i = 0; i < o.size && count < cap; i++) {
+            int m = o.mat[i];
+            if (!mats[m]) continue;
+            if (o.at(o.pos[i] - 256) == m) continue; // mitad de arriba
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * ¿Algún bloque de mats a distancia (horizontal) ≤ r de (x, y, z), en y-1..y+1?
+     * 1 = sí, 0 = no, -1 = algún chunk del radio aún no está indexado (se pide).
+     */
+    int anyNear(World w, int x, int y, int z, int r, boolean[] mats) {
+        int unknown = 0;
+        int r2 = r * r;
+        for (int cx = (x - r) >> 4; cx <= (x + r) >> 4; cx++) {
+            for (int cz = (z - r) >> 4; cz <= (z + r) >> 4; cz++) {
+                Occupancy o = occupancy(w, cx, cz);
+                if (o == null) {
+                    unknown = -1;
+                    continue;
+                }
+                // ordenado por y: solo el tramo y-1..y+1
+                int i = o.find((y - 1) << 8);
+                if (i < 0) i = -i - 1;
+                int end = ((y + 1) << 8) | 0xFF;
+                int bx = cx << 4, bz = cz << 4;
+                for (; i < o.size && o.pos[i] <= end; i++) {
+                    if (!mats[o.mat[i]]) continue;
+                    int dx = bx + ((o.pos[i] >> 4) & 15) - x;
+                    int dz = bz + (o.pos[i] & 15) - z;
+                    if (dx * dx + dz * dz <= r2) return 1;
+                }
+            }
+        }
+        return unknown;
+    }
+
+    /* ========================= CAMBIOS ========================= */
+
+    /** b pasa a ser {@code type} (lo que sea que no es flora lo quita del índice). */
+    void set(Block b, Material type) {
+        World w = b.getWorld();
+        long k = BlockKeys.chunk(b.getX() >> 4, b.getZ() >> 4);
+        LongSet inFlight = pending.peek(w);
+        if (inFlight != null && inFlight.contains(k)) stale.get(w).add(k);
+
+        LongMap<Occupancy> map = built.peek(w);
+        Occupancy o = map == null ? null : map.get(k);
+        if (o == null) return;
+        int m = type.ordinal();
+        o.set(pos(b.getX(), b.getY(), b.getZ()), m < flora.length && flora[m] ? m : -1);
+    }
+
+    private Occupancy occupancy(World w, int cx, int cz) {
+        LongMap<Occupancy> map = built.peek(w);
+        Occupancy o = map == null ? null : map.get(BlockKeys.chunk(cx, cz));
+        if (o == null) request(w, cx, cz);
+        return o;
+    }
+
+    /* ========================= INDEXADO ========================= */
+
+    private void request(World w, int cx, int cz) {
+        if (!w.isChunkLoaded(cx, cz)) return;
+        long k = BlockKeys.chunk(cx, cz);
+        LongSet inFlight = pending.get(w);
+        if (!inFlight.add(k)) return;
+
+        // banda por columna (hilo principal, catálogo en caché): la misma que miraba el escáner
+        int[] from = new int[256], to = new int[256];
+        int minY = w.getMinHeight(), maxY = w.getMaxHeight() - 1;
+        int bx = cx << 4, bz = cz << 4;
+        for (int i = 0; i < 256; i++) {
+            int x = bx + (i >> 4), z = bz + (i & 15);
+            int ground = plugin.getSurfaceCatalog().groundY(w, x, z);
+            if (ground == SurfaceCatalog.NONE) ground = w.getHighestBlockYAt(x, z);
+            from[i] = Math.max(minY, ground - depth);
+            to[i] = Math.min(maxY, ground + 2);
+        }
+
+        Chunk ch = w.getChunkAt(cx, cz);
+        ChunkSnapshot snap = ch.getChunkSnapshot(false, false, false);
+        boolean[] mats = flora;
+        UUID world = w.getUID();
+        int gen = generation;
+        try {
+            executor.execute(() -> done.add(scan(snap, world, k, gen, mats, from, to, minY)));
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(k); // cerrando
+        }
+    }
+
+    private static Built scan(ChunkSnapshot snap, UUID world, long k, int gen,
+                              boolean[] mats, int[] from, int[] to, int minY) {
+        long[] entries = new long[32];
+        int n = 0;
+        for (int i = 0; i < 256; i++) {
+            int lx = i >> 4, lz = i & 15;
+            for (int y = from[i]; y <= to[i]; y++) {
+                if (snap.isSectionEmpty((y - minY) >> 4)) {
+                    y |= 15; // salta al final de la sección
+                    continue;
+                }
+                int m = snap.getBlockType(lx, y, lz).ordinal();
+                if (m >= mats.length || !mats[m]) continue;
+                if (n == entries.length) entries = Arrays.copyOf(entries, n << 1);
+                entries[n++] = ((long) pos(lx, y, lz) << 16) | m;
+            }
+        }
+
+        // (pos << 16) | material: ordenar los longs ordena por pos
+        Arrays.sort(entries, 0, n);
+        int[] pos = new int[Math.max(8, n)];
+        char[] mat = new char[pos.length];
+        for (int i = 0; i < n; i++) {
+            pos[i] = (int) (entries[i] >> 16);
+            mat[i] = (char) (entries[i] & 0xFFFF);
+        }
+        return new Built(world, k, gen, pos, mat, n);
+    }
+
+    private static int pos(int x, int y, int z) {
+        return (y << 8) | ((x & 15) << 4) | (z & 15);
+    }
+
+    /* ========================= EVENTOS ========================= */
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onPlace(BlockPlaceEvent e) {
+        Block b = e.getBlockPlaced();
+        set(b, b.getType());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBreak(BlockBreakEvent e) {
+        Block b = e.getBlock();
+        Material type = b.getType();
+        set(b, Material.AIR);
+        // la otra mitad de una planta doble cae con ella
+        Block up = b.getRelative(0, 1, 0), down = b.getRelative(0, -1, 0);
+        if (up.getType() == type) set(up, Material.AIR);
+        if (down.getType() == type) set(down, Material.AIR);
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onSpread(BlockSpreadEvent e) {
+        set(e.getBlock(), e.getNewState().getType());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onGrow(BlockGrowEvent e) {
+        set(e.getBlock(), e.getNewState().getType());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onFertilize(BlockFertilizeEvent e) {
+        for (BlockState bs : e.getBlocks()) set(bs.getBlock(), bs.getType());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent e) {
+        World w = e.getWorld();
+        long k = BlockKeys.chunk(e.getChunk().getX(), e.getChunk().getZ());
+        LongMap<Occupancy> map = built.peek(w);
+        if (map != null) map.remove(k);
+        LongSet inFlight = pending.peek(w);
+        if (inFlight != null && inFlight.contains(k)) stale.get(w).add(k);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent e) {
+        built.drop(e.getWorld());
+        pending.drop(e.getWorld());
+        stale.drop(e.getWorld());
+    }
+}
@@ -0,0 +1,214 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.api.ClimateField;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LongMap;
+import Kinkin.aeternum.util.PerWorld;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.Levelled;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Congelación/deshielo de superficies de agua desde la orilla.
+ *
+ * Por chunk se guarda el FRENTE: columnas de agua quieta en superficie que tocan
+ * tierra o hielo (al congelar), o columnas de hielo nuestro que tocan agua o tierra
+ * (al deshelar). Cada pasada, cada columna del frente avanza con probabilidad
+ * chance × frío (o calor) de su temperatura en el {@link ClimateField}; al avanzar,
+ * sus vecinas entran en el frente. El trabajo es proporcional al frente, no al
+ * área: un lago se cierra de la orilla hacia dentro y se abre igual al revés.
+ *
+ * frente = bitset de 256 columnas (índice (lz << 4) | lx)
+ * Se recalcula al cambiar el epoch del ClimateField o el sentido (congelar/deshelar),
+ * y cuando un chunk vecino avanza hasta su borde.
+ *
+ * Solo chunks cargados; se sueltan al descargar. Solo hilo principal.
+ */
+final class IceFrontier {
+
+    private static final class IceChunk {
+        final long[] front = new long[4];
+        boolean freezing;
+        long seededEpoch = Long.MIN_VALUE;
+
+        boolean isEmpty() {
+            return (front[0] | front[1] | front[2] | front[3]) == 0L;
+        }
+
+        void set(int i) {
+            front[i >> 6] |= 1L << (i & 63);
+        }
+
+        void clear(int i) {
+            front[i >> 6] &= ~(1L << (i & 63));
+        }
+    }
+
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DZ = {0, 0, 1, -1};
+
+    private final AeternumSeasonsPlugin plugin;
+    private final PerWorld<LongMap<IceChunk>> chunks = new PerWorld<>(w -> new LongMap<>(64));
+
+    IceFrontier(AeternumSeasonsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Avanza el frente del chunk.
+     * @param freezing true = congelar agua, false = deshelar nuestro hielo
+     * @param chance   probabilidad de avance por pasada con frío/calor máximo
+     * @return bloques escritos
+     */
+    int step(World w, int cx, int cz, boolean freezing, long epoch, double chance, int maxWrites) {
+        if (maxWrites <= 0 || !w.isChunkLoaded(cx, cz)) return 0;
+        IceChunk st = state(w, cx, cz);
+        if (st.seededEpoch != epoch || st.freezing != freezing) {
+            seed(w, cx, cz, st, freezing);
+            st.seededEpoch = epoch;
+        }
+        if (st.isEmpty()) return 0;
+
+        ClimateField climate = plugin.getClimateField();
+        SurfaceCatalog surface = plugin.getSurfaceCatalog();
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int bx = cx << 4, bz = cz << 4;
+        int writes = 0;
+
+        // foto del frente: lo que entra en esta pasada avanza en la siguiente
+        long[] snap = st.front.clone();
+        for (int word = 0; word < 4 && writes < maxWrites; word++) {
+            long bits = snap[word];
+            while (bits != 0L && writes < maxWrites) {
+                int i = (word << 6) | Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+
+                int x = bx + (i & 15), z = bz + (i >> 4);
+                int y = surface.groundY(w, x, z);
+                Block b = y == SurfaceCatalog.NONE ? null : w.getBlockAt(x, y, z);
+                if (b == null || !(freezing ? isOpenWater(b) : isOurIce(b))) {
+                    st.clear(i); // ya no es frente (lo cambió otro)
+                    continue;
+                }
+
+                float t = climate.temperature(w, x, y + 1, z);
+                if (Float.isNaN(t)) continue;
+                double strength = freezing
+                        ? (ClimateField.FREEZING - t) / 0.5
+                        : (t - ClimateField.FREEZING) / 0.5;
+                if (strength <= 0.0 || rnd.nextDouble() >= chance * Math.min(1.0, strength)) continue;
+
+                if (!(freezing ? freeze(b) : thaw(b))) {
+                    st.clear(i); // protegido (WorldGuard...): se queda como está
+                    continue;
+                }
+                writes++;
+                st.clear(i);
+                spread(w, st, cx, cz, x, y, z, freezing);
+            }
+        }
+        return writes;
+    }
+
+    void drop(World w, int cx, int cz) {
+        LongMap<IceChunk> map = chunks.peek(w);
+        if (map != null) map.remove(BlockKeys.chunk(cx, cz));
+    }
+
+    void dropWorld(World w) {
+        chunks.drop(w);
+    }
+
+    void clear() {
+        chunks.clear();
+    }
+
+    /* ========================= FRENTE ========================= */
+
+    private IceChunk state(World w, int cx, int cz) {
+        LongMap<IceChunk> map = chunks.get(w);
+        long k = BlockKeys.chunk(cx, cz);
+        IceChunk c = map.get(k);
+        if (c == null) {
+            c = new IceChunk();
+            map.put(k, c);
+        }
+        return c;
+    }
+
+    /** Recalcula el frente: columnas candidatas con alguna vecina que no lo es. */
+    private void seed(World w, int cx, int cz, IceChunk st, boolean freezing) {
+        st.freezing = freezing;
+        for (int j = 0; j < 4; j++) st.front[j] = 0L;
+
+        SurfaceCatalog surface = plugin.getSurfaceCatalog();
+        int bx = cx << 4, bz = cz << 4;
+        for (int i = 0; i < 256; i++) {
+            int x = bx + (i & 15), z = bz + (i >> 4);
+            int y = surface.groundY(w, x, z);
+            if (y == SurfaceCatalog.NONE) continue;
+            Block b = w.getBlockAt(x, y, z);
+            if (!(freezing ? isOpenWater(b) : isOurIce(b))) continue;
+
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d], nz = z + DZ[d];
+                if (!w.isChunkLoaded(nx >> 4, nz >> 4)) continue; // no cargar chunks por mirar
+                Material n = w.getBlockAt(nx, y, nz).getType();
+                // congelar: orilla = cualquier cosa que no sea agua; deshelar: lo que no sea hielo
+                if (freezing ? n != Material.WATER : (n != Material.ICE && n != Material.FROSTED_ICE)) {
+                    st.set(i);
+                    break;
+                }
+            }
+        }
+    }
+
+    /** Tras avanzar en (x, y, z): las vecinas candidatas entran en el frente. */
+    private void spread(World w, IceChunk st, int cx, int cz, int x, int y, int z, boolean freezing) {
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DX[d], nz = z + DZ[d];
+            int ncx = nx >> 4, ncz = nz >> 4;
+            if (ncx != cx || ncz != cz) {
+                // borde: el vecino recalcula su frente en su próxima pasada
+                LongMap<IceChunk> map = chunks.peek(w);
+                IceChunk other = map == null ? null : map.get(BlockKeys.chunk(ncx, ncz));
+                if (other != null) other.seededEpoch = Long.MIN_VALUE;
+                continue;
+            }
+            Block nb = w.getBlockAt(nx, y, nz);
+            if (freezing ? isOpenWater(nb) : isOurIce(nb)) st.set(((nz & 15) << 4) | (nx & 15));
+        }
+    }
+
+    /* ========================= BLOQUES ========================= */
+
+    /** Agua quieta con aire encima. */
+    private static boolean isOpenWater(Block b) {
+        return b.getType() == Material.WATER
+                && b.getBlockData() instanceof Levelled lvl && lvl.getLevel() == 0
+                && b.getRelative(0, 1, 0).getType().isAir();
+    }
+
+    /** Hielo que pusimos nosotros (anotado en el overlay). */
+    private boolean isOurIce(Block b) {
+        Material t = b.getType();
+        return (t == Material.ICE || t == Material.FROSTED_ICE)
+                && plugin.getOverlay().original(b.getWorld(), b.getX(), b.getY(), b.getZ()) != null;
+    }
+
+    private boolean freeze(Block b) {
+        if (!WinterWorldGuardHelper.canModify(b)) return false;
+        plugin.getOverlay().set(b, Material.ICE, SeasonOverlay.ICE);
+        plugin.getSectionProbe().note(b, Material.ICE);
+        plugin.getSurfaceCatalog().touch(b);
+        return true;
+    }
+
+    private boolean thaw(Block b) {
+        return plugin.getOverlay().revert(b);
+    }
+}
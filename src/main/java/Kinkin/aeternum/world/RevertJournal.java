@@ -0,0 +1,408 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.util.LifecycleScope;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Diario de reverts pendientes (apagado rápido).
+ *
+ * Al apagar, en vez de revertir en el momento todos los chunks spoofeados, se
+ * escribe un diario compacto por mundo en data/journal/<uuid>.bin.
+ * (La nieve/hielo/hojas pintadas ya no pasan por aquí: viven en el
+ * {@link SeasonOverlay} de cada chunk. Las entradas de bloque de diarios
+ * antiguos se siguen aplicando.) En el siguiente arranque el diario se carga en memoria
+ * y cada chunk se revierte cuando carga, con un presupuesto de ms por tick.
+ *
+ * Formato (gzip):
+ *   MAGIC int, VERSION byte, minY int,
+ *   paleta (int n + UTF[n])  → nombres de Material/Biome,
+ *   chunks (int n) → por chunk: cx int, cz int,
+ *                    bloques (int n) → pos int, kind byte, paleta short (-1 = nada),
+ *                    biomas (int n, 0 = sin biomas) → paleta short[n]
+ *
+ * pos = ((y - minY) << 8) | (lx << 4) | lz
+ */
+public final class RevertJournal implements Listener, Runnable {
+
+    private static final int MAGIC = 0xAE5EDA7A;
+    private static final byte VERSION = 1;
+
+    static final byte KIND_SNOW = 0;
+    static final byte KIND_ICE  = 1;
+    static final byte KIND_LEAF = 2;
+
+    // grilla de biomas igual que BiomeSpoofAdapter (paso 4 en x/z/y)
+    private static final int STEP_XZ = 4;
+    private static final int STEP_Y  = 4;
+
+    private final AeternumSeasonsPlugin plugin;
+    private final LifecycleScope life;
+    private final Path root;
+
+    private boolean enabled;
+    private long applyBudgetNanos;
+
+    // mundo → (chunk → entradas pendientes)
+    private final Map<UUID, WorldJournal> worlds = new HashMap<>();
+    private final ArrayDeque<Chunk> applyQueue = new ArrayDeque<>();
+    private BukkitTask task;
+
+    private static final class WorldJournal {
+        int minY;
+        final Map<Long, ChunkEntry> chunks = new HashMap<>();
+    }
+
+    private static final class ChunkEntry {
+        final int cx, cz;
+        int size;
+        int[] pos = new int[8];
+        byte[] kind = new byte[8];
+        String[] original = new String[8];
+        Biome[] biomes; // null = el chunk no estaba spoofeado
+
+        ChunkEntry(int cx, int cz) {
+            this.cx = cx;
+            this.cz = cz;
+        }
+
+        void add(int p, byte k, String orig) {
+            if (size == pos.length) {
+                int n = size * 2;
+                pos = Arrays.copyOf(pos, n);
+                kind = Arrays.copyOf(kind, n);
+                original = Arrays.copyOf(original, n);
+            }
+            pos[size] = p;
+            kind[size] = k;
+            original[size] = orig;
+            size++;
+        }
+    }
+
+    public RevertJournal(AeternumSeasonsPlugin plugin) {
+        this.plugin = plugin;
+        this.life = plugin.lifecycle.scope("RevertJournal");
+        this.root = plugin.getDataFolder().toPath().resolve("data").resolve("journal");
+        reloadFromConfig();
+    }
+
+    public void reloadFromConfig() {
+        this.enabled = plugin.getConfig().getBoolean("shutdown.journal_reverts", true);
+        long ms = Math.max(1L, plugin.getConfig().getLong("shutdown.apply_budget_ms", 2L));
+        this.applyBudgetNanos = ms * 1_000_000L;
+    }
+
+    /** true si al apagar se debe escribir el diario en vez de revertir en sitio. */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /* ============================ ARRANQUE ============================ */
+
+    public void register() {
+        loadAll();
+        life.listen(this);
+        task = life.cancel(task);
+        task = life.timer(this, 1L, 1L);
+
+        // chunks que ya estaban cargados antes de habilitar el plugin (spawn)
+        for (UUID id : worlds.keySet()) {
+            World w = Bukkit.getWorld(id);
+            if (w == null) continue;
+            for (Chunk ch : w.getLoadedChunks()) {
+                if (isPending(ch)) applyQueue.add(ch);
+            }
+        }
+    }
+
+    public void unregister() {
+        life.close();
+        task = null;
+        applyQueue.clear();
+    }
+
+    private void loadAll() {
+        worlds.clear();
+        if (!Files.isDirectory(root)) return;
+
+        int entries = 0;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(root, "*.bin")) {
+            for (Path file : ds) {
+                String name = file.getFileName().toString();
+                try {
+                    UUID id = UUID.fromString(name.substring(0, name.length() - 4));
+                    WorldJournal wj = read(file);
+                    if (wj != null && !wj.chunks.isEmpty()) {
+                        worlds.put(id, wj);
+                        entries += wj.chunks.size();
+                    }
+                } catch (Throwable t) {
+                    plugin.getLogger().warning("[Journal] Could not read " + file + ": " + t.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("[Journal] Could not list journals: " + e.getMessage());
+        }
+
+        if (entries > 0) {
+            plugin.getLogger().info("[Journal] " + entries + " chunks with pending reverts (applied lazily on chunk load).");
+        }
+    }
+
+    public boolean isPending(Chunk ch) {
+        WorldJournal wj = worlds.get(ch.getWorld().getUID());
+        return wj != null && wj.chunks.containsKey(chunkKey(ch.getX(), ch.getZ()));
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onChunkLoad(ChunkLoadEvent e) {
+        if (worlds.isEmpty()) return;
+        if (isPending(e.getChunk())) {
+            applyQueue.add(e.getChunk());
+        }
+    }
+
+    @Override
+    public void run() {
+        if (applyQueue.isEmpty()) return;
+
+        long deadline = System.nanoTime() + applyBudgetNanos;
+        while (!applyQueue.isEmpty() && System.nanoTime() < deadline) {
+            Chunk ch = applyQueue.poll();
+            // si se descargó antes de llegar, queda pendiente para la próxima carga
+            if (!ch.isLoaded()) continue;
+
+            WorldJournal wj = worlds.get(ch.getWorld().getUID());
+            if (wj == null) continue;
+            ChunkEntry entry = wj.chunks.remove(chunkKey(ch.getX(), ch.getZ()));
+            if (entry == null) continue;
+
+            apply(ch, wj.minY, entry);
+            if (wj.chunks.isEmpty()) {
+                worlds.remove(ch.getWorld().getUID());
+            }
+        }
+    }
+
+    private void apply(Chunk ch, int minY, ChunkEntry entry) {
+        World w = ch.getWorld();
+        int bx = ch.getX() << 4;
+        int bz = ch.getZ() << 4;
+
+        for (int i = 0; i < entry.size; i++) {
+            int p = entry.pos[i];
+            Block b = w.getBlockAt(bx + ((p >> 4) & 15), (p >>> 8) + minY, bz + (p & 15));
+            Material type = b.getType();
+
+            switch (entry.kind[i]) {
+                case KIND_SNOW -> {
+                    if ((type == Material.SNOW || type == Material.SNOW_BLOCK) && WinterWorldGuardHelper.canIceMelt(b)) {
+                        b.setType(Material.AIR, false);
+                        WinterWorldPainter.clearSnowyBelow(b);
+                    }
+                }
+                case KIND_ICE -> {
+                    if ((type == Material.ICE || type == Material.FROSTED_ICE) && WinterWorldGuardHelper.canIceMelt(b)) {
+                        b.setType(Material.WATER, false);
+                    }
+                }
+                case KIND_LEAF -> {
+                    Material orig = entry.original[i] == null ? null : Material.matchMaterial(entry.original[i]);
+                    if (orig != null && type == Material.ACACIA_LEAVES && WinterWorldGuardHelper.canModify(b)) {
+                        b.setType(orig, false);
+                    }
+                }
+                default -> { }
+            }
+        }
+
+        if (entry.biomes != null) {
+            int minWorldY = w.getMinHeight();
+            int maxWorldY = w.getMaxHeight();
+            int i = 0;
+            for (int x = 0; x < 16; x += STEP_XZ) {
+                for (int z = 0; z < 16; z += STEP_XZ) {
+                    for (int y = minWorldY; y < maxWorldY; y += STEP_Y) {
+                        if (i >= entry.biomes.length) break;
+                        Biome bio = entry.biomes[i++];
+                        if (bio != null) w.setBiome(bx + x, y, bz + z, bio);
+                    }
+                }
+            }
+            w.refreshChunk(ch.getX(), ch.getZ());
+        }
+    }
+
+    /* ============================ APAGADO ============================ */
+
+    /** Anota la grilla de biomas originales de un chunk spoofeado. */
+    public void recordBiomes(World w, int cx, int cz, Biome[] original) {
+        WorldJournal wj = worldJournal(w);
+        ChunkEntry e = wj.chunks.computeIfAbsent(chunkKey(cx, cz), k -> new ChunkEntry(cx, cz));
+        e.biomes = Arrays.copyOf(original, original.length);
+    }
+
+    private WorldJournal worldJournal(World w) {
+        return worlds.computeIfAbsent(w.getUID(), id -> {
+            WorldJournal wj = new WorldJournal();
+            wj.minY = w.getMinHeight();
+            return wj;
+        });
+    }
+
+    /**
+     * Escribe (síncrono) un archivo por mundo con lo pendiente: lo que no se llegó
+     * a aplicar de la sesión anterior + lo anotado en este apagado.
+     * Mundos sin nada pendiente → se borra su archivo.
+     */
+    public void flush() {
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            plugin.getLogger().warning("[Journal] Could not create " + root + ": " + e.getMessage());
+            return;
+        }
+
+        Set<String> keep = new HashSet<>();
+        int chunks = 0;
+        for (Map.Entry<UUID, WorldJournal> en : worlds.entrySet()) {
+            WorldJournal wj = en.getValue();
+            if (wj.chunks.isEmpty()) continue;
+
+            String name = en.getKey() + ".bin";
+            Path file = root.resolve(name);
+            Path tmp = root.resolve(name + ".tmp");
+            try {
+                write(tmp, wj);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                keep.add(name);
+                chunks += wj.chunks.size();
+            } catch (IOException e) {
+                plugin.getLogger().warning("[Journal] Could not write " + file + ": " + e.getMessage());
+            }
+        }
+
+        // limpiar diarios ya aplicados por completo
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(root, "*.bin")) {
+            for (Path file : ds) {
+                if (!keep.contains(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("[Journal] Could not clean journals: " + e.getMessage());
+        }
+
+        if (chunks > 0) {
+            plugin.getLogger().info("[Journal] Wrote pending reverts for " + chunks + " chunks.");
+        }
+    }
+
+    /* ============================== IO ============================== */
+
+    private static void write(Path file, WorldJournal wj) throws IOException {
+        Map<String, Integer> paletteMap = new LinkedHashMap<>();
+        for (ChunkEntry e : wj.chunks.values()) {
+            for (int i = 0; i < e.size; i++) {
+                if (e.original[i] != null) paletteMap.putIfAbsent(e.original[i], paletteMap.size());
+            }
+            if (e.biomes != null) {
+                for (Biome b : e.biomes) if (b != null) paletteMap.putIfAbsent(b.name(), paletteMap.size());
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(file))))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(wj.minY);
+
+            out.writeInt(paletteMap.size());
+            for (String s : paletteMap.keySet()) out.writeUTF(s);
+
+            out.writeInt(wj.chunks.size());
+            for (ChunkEntry e : wj.chunks.values()) {
+                out.writeInt(e.cx);
+                out.writeInt(e.cz);
+                out.writeInt(e.size);
+                for (int i = 0; i < e.size; i++) {
+                    out.writeInt(e.pos[i]);
+                    out.writeByte(e.kind[i]);
+                    out.writeShort(e.original[i] == null ? -1 : paletteMap.get(e.original[i]));
+                }
+                if (e.biomes == null) {
+                    out.writeInt(0);
+                } else {
+                    out.writeInt(e.biomes.length);
+                    // -1 = bioma que no se pudo leer (ya no existe): ese punto no se toca
+                    for (Biome b : e.biomes) out.writeShort(b == null ? -1 : paletteMap.get(b.name()));
+                }
+            }
+        }
+    }
+
+    private static WorldJournal read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC) return null;
+            if (in.readByte() != VERSION) return null;
+
+            WorldJournal wj = new WorldJournal();
+            wj.minY = in.readInt();
+
+            String[] palette = new String[in.readInt()];
+            for (int i = 0; i < palette.length; i++) palette[i] = in.readUTF();
+
+            int chunks = in.readInt();
+            for (int c = 0; c < chunks; c++) {
+                ChunkEntry e = new ChunkEntry(in.readInt(), in.readInt());
+                int n = in.readInt();
+                for (int i = 0; i < n; i++) {
+                    int p = in.readInt();
+                    byte k = in.readByte();
+                    short idx = in.readShort();
+                    e.add(p, k, idx < 0 ? null : palette[idx]);
+                }
+                int nb = in.readInt();
+                if (nb > 0) {
+                    e.biomes = new Biome[nb];
+                    for (int i = 0; i < nb; i++) {
+                        short idx = in.readShort();
+                        e.biomes[i] = idx < 0 ? null : parseBiome(palette[idx]);
+                    }
+                }
+                wj.chunks.put(chunkKey(e.cx, e.cz), e);
+            }
+            return wj;
+        }
+    }
+
+    private static Biome parseBiome(String name) {
+        try {
+            return Biome.valueOf(name);
+        } catch (IllegalArgumentException ex) {
+            return null; // bioma que ya no existe → ese punto no se toca
+        }
+    }
+
+    private static long chunkKey(int cx, int cz) {
+        return (((long) cx) & 0xffffffffL) << 32 | (((long) cz) & 0xffffffffL);
+    }
+}
@@ -0,0 +1,499 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.LongMap;
+import Kinkin.aeternum.util.PerWorld;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.Leaves;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldSaveEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+/**
+ * Capa reversible por chunk: lo que el plugin cambió en el mundo (nieve, hielo,
+ * hojas de otoño) como diff posición → estado original, guardado en el
+ * PersistentDataContainer del propio chunk.
+ *
+ * Antes cada painter llevaba su propio mapa global (paintedSnow, paintedIce,
+ * paintedLeaves...) que crecía con todo lo pintado, se perdía al reiniciar y tenía
+ * su propio camino de revert. Ahora:
+ * - los painters escriben a través de {@link #set}: se anota el estado original
+ *   (la primera vez) y el cambio va al {@link BlockMutationBatcher},
+ * - revertir es una pasada por chunk ({@link #revert}): solo se restaura lo que
+ *   sigue siendo lo que pusimos,
+ * - en memoria solo están los chunks CARGADOS que tienen diff; al descargar
+ *   (o al guardar el mundo) se escribe en el chunk y se suelta.
+ *
+ * Formato (PDC "season_overlay", byte[]):
+ *   VERSION byte, paleta (short n + UTF[n]) → estados (BlockData) y materiales,
+ *   entradas (int n) → pos int, kind byte, original short, puesto short
+ *   pos = (y << 8) | (lx << 4) | lz  (y de mundo, con signo)
+ *
+ * Solo hilo principal.
+ */
+public final class SeasonOverlay implements Listener {
+
+    /** Nieve/capas pintadas en invierno. */
+    public static final int SNOW = 1;
+    /** Agua congelada por el painter. */
+    public static final int ICE  = 1 << 1;
+    /** Hojas pintadas de otoño (ACACIA_LEAVES). */
+    public static final int LEAF = 1 << 2;
+
+    private static final byte VERSION = 1;
+
+    /** Diff de un chunk cargado. */
+    private static final class Diff {
+        final int cx, cz;
+        int size;
+        int[] pos = new int[8];
+        byte[] kind = new byte[8];
+        BlockData[] original = new BlockData[8];
+        Material[] placed = new Material[8];
+        // pos → índice en los arrays
+        final LongMap<Integer> index = new LongMap<>(16);
+        final int[] perKind = new int[3];   // entradas de SNOW, ICE, LEAF
+        int kinds;          // OR de los kinds presentes (perKind > 0)
+        boolean dirty;
+
+        Diff(int cx, int cz) {
+            this.cx = cx;
+            this.cz = cz;
+        }
+
+        void put(int p, int k, BlockData orig, Material now) {
+            Integer i = index.get(p);
+            if (i != null) {
+                // el original es el de la PRIMERA escritura; solo cambia lo puesto
+                placed[i] = now;
+                if (kind[i] != k) {
+                    count(kind[i], -1);
+                    count(k, 1);
+                    kind[i] = (byte) k;
+                }
+            } else {
+                if (size == pos.length) {
+                    int n = size << 1;
+                    pos = Arrays.copyOf(pos, n);
+                    kind = Arrays.copyOf(kind, n);
+                    original = Arrays.copyOf(original, n);
+                    placed = Arrays.copyOf(placed, n);
+                }
+                pos[size] = p;
+                kind[size] = (byte) k;
+                original[size] = orig;
+                placed[size] = now;
+                index.put(p, size);
+                size++;
+                count(k, 1);
+            }
+            dirty = true;
+        }
+
+        /** Quita la entrada i: la última ocupa su hueco (O(1), el orden da igual). */
+        void removeAt(int i) {
+            int last = size - 1;
+            count(kind[i], -1);
+            index.remove(pos[i]);
+            if (i != last) {
+                pos[i] = pos[last];
+                kind[i] = kind[last];
+                original[i] = original[last];
+                placed[i] = placed[last];
+                index.put(pos[i], i);
+            }
+            original[last] = null;
+            placed[last] = null;
+            size = last;
+            dirty = true;
+        }
+
+        private void count(int k, int delta) {
+            int b = Integer.numberOfTrailingZeros(k);
+            perKind[b] += delta;
+            if (perKind[b] > 0) kinds |= k;
+            else kinds &= ~k;
+        }
+
+        /** Quita las entradas marcadas (removed[i]) y rehace índice y kinds. */
+        void compact(boolean[] removed) {
+            int n = 0;
+            index.clear();
+            Arrays.fill(perKind, 0);
+            kinds = 0;
+            for (int i = 0; i < size; i++) {
+                if (removed[i]) continue;
+                pos[n] = pos[i];
+                kind[n] = kind[i];
+                original[n] = original[i];
+                placed[n] = placed[i];
+                index.put(pos[n], n);
+                count(kind[n], 1);
+                n++;
+            }
+            Arrays.fill(original, n, size, null);
+            Arrays.fill(placed, n, size, null);
+            size = n;
+            dirty = true;
+        }
+    }
+
+    private final AeternumSeasonsPlugin plugin;
+    private final LifecycleScope life;
+    private final NamespacedKey key;
+
+    // solo chunks cargados con diff
+    private final PerWorld<LongMap<Diff>> loaded = new PerWorld<>(w -> new LongMap<>(64));
+
+    public SeasonOverlay(AeternumSeasonsPlugin plugin) {
+        this.plugin = plugin;
+        this.life = plugin.lifecycle.scope("SeasonOverlay");
+        this.key = new NamespacedKey(plugin, "season_overlay");
+    }
+
+    public void register() {
+        life.listen(this);
+        // chunks ya cargados (spawn / reload)
+        for (World w : Bukkit.getWorlds()) {
+            for (Chunk ch : w.getLoadedChunks()) load(ch);
+        }
+    }
+
+    /** Escribe en los chunks lo pendiente y suelta la memoria. */
+    public void unregister() {
+        life.close();
+        saveAll();
+        loaded.clear();
+    }
+
+    /* ========================= ESCRIBIR ========================= */
+
+    /** Cambia b a data al final del tick (sin física), anotando su estado original. */
+    public void set(Block b, BlockData data, int kind) {
+        record(b, data.getMaterial(), kind);
+        plugin.getMutations().set(b, data);
+    }
+
+    /** Igual, con el estado por defecto de m. */
+    public void set(Block b, Material m, int kind) {
+        record(b, m, kind);
+        plugin.getMutations().set(b, m);
+    }
+
+    private void record(Block b, Material placed, int kind) {
+        Diff d = diff(b.getWorld(), b.getX() >> 4, b.getZ() >> 4, true);
+        if (d == null) return;
+        // el bloque aún tiene su estado actual: es el original si es la primera vez
+        d.put(pos(b.getX(), b.getY(), b.getZ()), kind, b.getBlockData(), placed);
+    }
+
+    /**
+     * Anota un cambio hecho por otro camino (p.ej. SeasonalPopulator durante la
+     * generación): el bloque ya tiene placed y original es lo que había.
+     */
+    public void adopt(Chunk ch, int x, int y, int z, BlockData original, Material placed, int kind) {
+        Diff d = diff(ch.getWorld(), ch.getX(), ch.getZ(), true);
+        if (d != null) d.put(pos(x, y, z), kind, original, placed);
+    }
+
+    /** El bloque deja de ser nuestro (p.ej. un jugador lo reemplazó). */
+    public void forget(Block b) {
+        Diff d = diff(b.getWorld(), b.getX() >> 4, b.getZ() >> 4, false);
+        if (d == null) return;
+        Integer i = d.index.get(pos(b.getX(), b.getY(), b.getZ()));
+        if (i != null) d.removeAt(i);
+    }
+
+    /* ========================= CONSULTA ========================= */
+
+    /** Estado original anotado en (x, y, z), o null si no lo tocamos (o el chunk no está cargado). */
+    public BlockData original(World w, int x, int y, int z) {
+        Diff d = diff(w, x >> 4, z >> 4, false);
+        if (d == null) return null;
+        Integer i = d.index.get(pos(x, y, z));
+        return i == null ? null : d.original[i];
+    }
+
+    /** ¿El chunk (cargado) tiene entradas de alguno de estos kinds? */
+    public boolean has(World w, int cx, int cz, int kinds) {
+        Diff d = diff(w, cx, cz, false);
+        return d != null && (d.kinds & kinds) != 0;
+    }
+
+    /** Claves (BlockKeys.chunk) de los chunks cargados del mundo con entradas de estos kinds. */
+    public void forEachChunk(World w, int kinds, LongConsumer chunkKey) {
+        LongMap<Diff> map = loaded.peek(w);
+        if (map == null) return;
+        map.forEach((k, d) -> {
+            if ((d.kinds & kinds) != 0) chunkKey.accept(k);
+            return true;
+        });
+    }
+
+    /* ========================= REVERTIR ========================= */
+
+    /**
+     * Revierte en una pasada las entradas de estos kinds del chunk: solo donde el
+     * bloque sigue siendo lo que pusimos (si no, se olvida). Escribe directo.
+     * @return bloques restaurados
+     */
+    public int revert(Chunk ch, int kinds) {
+        return revert(ch, kinds, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Igual, parando tras maxBlocks bloques restaurados: el resto de entradas se
+     * queda para la siguiente llamada.
+     */
+    public int revert(Chunk ch, int kinds, int maxBlocks) {
+        Diff d = diff(ch.getWorld(), ch.getX(), ch.getZ(), false);
+        if (d == null || (d.kinds & kinds) == 0) return 0;
+
+        // lo que siga en cola del batcher debe estar aplicado antes de comparar
+        plugin.getMutations().flush();
+
+        World w = ch.getWorld();
+        int bx = ch.getX() << 4, bz = ch.getZ() << 4;
+        boolean[] removed = new boolean[d.size];
+        int restored = 0;
+
+        for (int i = 0; i < d.size && restored < maxBlocks; i++) {
+            if ((d.kind[i] & kinds) == 0) continue;
+            removed[i] = true;
+
+            int p = d.pos[i];
+            if (restore(w.getBlockAt(bx + ((p >> 4) & 15), p >> 8, bz + (p & 15)), d, i)) restored++;
+        }
+
+        d.compact(removed);
+        return restored;
+    }
+
+    /**
+     * Revierte solo la entrada de b (si la hay). El cambio aún en cola del batcher
+     * para ESE bloque no se espera: quien llama ya ve el bloque en el mundo.
+     * @return true si se restauró
+     */
+    public boolean revert(Block b) {
+        Diff d = diff(b.getWorld(), b.getX() >> 4, b.getZ() >> 4, false);
+        if (d == null) return false;
+        Integer i = d.index.get(pos(b.getX(), b.getY(), b.getZ()));
+        if (i == null) return false;
+        boolean ok = restore(b, d, i);
+        d.removeAt(i);
+        return ok;
+    }
+
+    /** Restaura la entrada i en b si sigue siendo lo que pusimos. */
+    private boolean restore(Block b, Diff d, int i) {
+        if (b.getType() != d.placed[i]) return false; // ya no es nuestro
+
+        if (d.kind[i] == LEAF) {
+            if (!WinterWorldGuardHelper.canModify(b)) return false;
+            BlockData back = d.original[i].clone();
+            // la distancia al tronco es la actual, no la de cuando se pintó
+            if (back instanceof Leaves bl && b.getBlockData() instanceof Leaves cur) {
+                bl.setDistance(cur.getDistance());
+            }
+            b.setBlockData(back, false);
+        } else {
+            if (!WinterWorldGuardHelper.canIceMelt(b)) return false;
+            b.setBlockData(d.original[i], false);
+            if (d.kind[i] == SNOW && d.original[i].getMaterial().isAir()) WinterWorldPainter.clearSnowyBelow(b);
+        }
+        plugin.getSurfaceCatalog().touch(b);
+        return true;
+    }
+
+    /**
+     * Revierte estos kinds en hasta maxChunks chunks cargados.
+     * @return bloques restaurados
+     */
+    public int revertSome(int kinds, int maxChunks) {
+        List<Chunk> batch = new ArrayList<>();
+        for (Map.Entry<UUID, LongMap<Diff>> en : loaded.view().entrySet()) {
+            World w = Bukkit.getWorld(en.getKey());
+            if (w == null) continue;
+            en.getValue().forEach((k, d) -> {
+                if ((d.kinds & kinds) != 0 && w.isChunkLoaded(d.cx, d.cz)) batch.add(w.getChunkAt(d.cx, d.cz));
+                return batch.size() < maxChunks;
+            });
+            if (batch.size() >= maxChunks) break;
+        }
+
+        int restored = 0;
+        for (Chunk ch : batch) restored += revert(ch, kinds);
+        return restored;
+    }
+
+    /* ========================= PDC ========================= */
+
+    private Diff diff(World w, int cx, int cz, boolean create) {
+        long k = BlockKeys.chunk(cx, cz);
+        LongMap<Diff> map = create ? loaded.get(w) : loaded.peek(w);
+        if (map == null) return null;
+        Diff d = map.get(k);
+        if (d == null && create) {
+            if (!w.isChunkLoaded(cx, cz)) return null;
+            d = new Diff(cx, cz);
+            map.put(k, d);
+        }
+        return d;
+    }
+
+    private void load(Chunk ch) {
+        byte[] raw = ch.getPersistentDataContainer().get(key, PersistentDataType.BYTE_ARRAY);
+        if (raw == null) return;
+        try {
+            Diff d = decode(ch.getX(), ch.getZ(), raw);
+            if (d.size > 0) loaded.get(ch.getWorld()).put(BlockKeys.chunk(ch.getX(), ch.getZ()), d);
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().warning("[Overlay] Dropping unreadable overlay in chunk "
+                    + ch.getX() + "," + ch.getZ() + ": " + e.getMessage());
+            ch.getPersistentDataContainer().remove(key);
+        }
+    }
+
+    private void save(Chunk ch, Diff d) {
+        if (!d.dirty) return;
+        PersistentDataContainer pdc = ch.getPersistentDataContainer();
+        if (d.size == 0) {
+            pdc.remove(key);
+        } else {
+            try {
+                pdc.set(key, PersistentDataType.BYTE_ARRAY, encode(d));
+            } catch (IOException e) {
+                plugin.getLogger().warning("[Overlay] Could not encode chunk " + d.cx + "," + d.cz + ": " + e.getMessage());
+                return;
+            }
+        }
+        d.dirty = false;
+    }
+
+    private void saveWorld(World w, LongMap<Diff> map) {
+        map.forEach((k, d) -> {
+            if (d.dirty && w.isChunkLoaded(d.cx, d.cz)) save(w.getChunkAt(d.cx, d.cz), d);
+            return true;
+        });
+    }
+
+    private void saveAll() {
+        for (Map.Entry<UUID, LongMap<Diff>> en : loaded.view().entrySet()) {
+            World w = Bukkit.getWorld(en.getKey());
+            if (w != null) saveWorld(w, en.getValue());
+        }
+    }
+
+    private static byte[] encode(Diff d) throws IOException {
+        Map<String, Integer> palette = new LinkedHashMap<>();
+        short[] orig = new short[d.size];
+        short[] now = new short[d.size];
+        for (int i = 0; i < d.size; i++) {
+            orig[i] = (short) (int) palette.computeIfAbsent(d.original[i].getAsString(), s -> palette.size());
+            now[i] = (short) (int) palette.computeIfAbsent(d.placed[i].name(), s -> palette.size());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + d.size * 9);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeShort(palette.size());
+            for (String s : palette.keySet()) out.writeUTF(s);
+            out.writeInt(d.size);
+            for (int i = 0; i < d.size; i++) {
+                out.writeInt(d.pos[i]);
+                out.writeByte(d.kind[i]);
+                out.writeShort(orig[i]);
+                out.writeShort(now[i]);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Diff decode(int cx, int cz, byte[] raw) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            byte ver = in.readByte();
+            if (ver != VERSION) throw new IOException("Bad version " + ver);
+            String[] palette = new String[in.readUnsignedShort()];
+            for (int i = 0; i < palette.length; i++) palette[i] = in.readUTF();
+
+            Diff d = new Diff(cx, cz);
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                int p = in.readInt();
+                int k = in.readByte();
+                String orig = palette[in.readUnsignedShort()];
+                String now = palette[in.readUnsignedShort()];
+                BlockData original;
+                Material placed = Material.matchMaterial(now);
+                try {
+                    original = Bukkit.createBlockData(orig);
+                } catch (IllegalArgumentException ex) {
+                    continue; // estado que ya no existe → esa entrada se olvida
+                }
+                if (placed != null && (k == SNOW || k == ICE || k == LEAF)) d.put(p, k, original, placed);
+            }
+            d.dirty = false;
+            return d;
+        }
+    }
+
+    private static int pos(int x, int y, int z) {
+        return (y << 8) | ((x & 15) << 4) | (z & 15);
+    }
+
+    /* ========================= EVENTOS ========================= */
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onChunkLoad(ChunkLoadEvent e) {
+        if (!e.isNewChunk()) load(e.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent e) {
+        Chunk ch = e.getChunk();
+        LongMap<Diff> map = loaded.peek(ch.getWorld());
+        if (map == null) return;
+        Diff d = map.remove(BlockKeys.chunk(ch.getX(), ch.getZ()));
+        if (d != null) save(ch, d);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldSave(WorldSaveEvent e) {
+        LongMap<Diff> map = loaded.peek(e.getWorld());
+        if (map != null) saveWorld(e.getWorld(), map);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent e) {
+        LongMap<Diff> map = loaded.peek(e.getWorld());
+        if (map != null) saveWorld(e.getWorld(), map);
+        loaded.drop(e.getWorld());
+    }
+}
@@ -0,0 +1,374 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.calendar.CalendarState;
+import Kinkin.aeternum.calendar.Season;
+import Kinkin.aeternum.calendar.SeasonService;
+import Kinkin.aeternum.calendar.SeasonUpdateEvent;
+import Kinkin.aeternum.config.TransitionSettings;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.PlayerSnapshotService;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Orquestador del cambio de estación.
+ *
+ * Antes, el día del cambio todos los chunks cargados se re-evaluaban a la vez
+ * (BiomeSpoofAdapter triplicaba su presupuesto) → pico de MSPT. Ahora:
+ *
+ * 1) STAGING: a transition.lead_days del límite se recorren los chunks cargados
+ *    (pocos por tick). De cada uno se toma el backup existente o un ChunkSnapshot
+ *    de biomas, y en un hilo aparte se calcula el bioma final de la próxima estación.
+ *    De vuelta en el hilo principal cada participante "pre-prepara" el chunk
+ *    (p.ej. el spoof guarda ya el backup original).
+ * 2) ROLLOUT: al cambiar la estación, el cambio se reparte en transition.rollout_seconds,
+ *    del chunk más cercano a un jugador al más lejano, a ritmo constante.
+ *
+ * Participantes (cada uno lleva su propio progreso, aplicados/total):
+ * - biomes:  BiomeSpoofAdapter (pre-guarda el backup y pinta el bioma final),
+ * - snow:    WinterWorldPainter (derrite lo pintado al salir del invierno),
+ * - foliage: AutumnSoilPainter (pinta/revierte las hojas de otoño),
+ * - flora:   SeasonalFloraController (purga/restaura la flora de la estación nueva).
+ * El hielo (IceFrontier) y la nieve que cae no entran: avanzan a su ritmo por diseño.
+ * Si la estación cambia sin plan (p.ej. /season set), los servicios siguen con
+ * su comportamiento normal.
+ */
+public final class SeasonTransitionOrchestrator implements Listener, Runnable {
+
+    /** Subsistema que se apunta al cambio de estación. */
+    interface Participant {
+        String name();
+
+        /** Hilo principal, antes del límite. */
+        void stage(Chunk ch, ChunkPlan plan);
+
+        /** Hilo principal, durante el rollout. true si hizo trabajo. */
+        boolean rollOut(Chunk ch, ChunkPlan plan);
+    }
+
+    /** Plan precalculado de un chunk para la próxima estación. */
+    static final class ChunkPlan {
+        final UUID world;
+        final int cx, cz;
+        final Season season;
+        final boolean hadBackup;  // el grid ya era el backup (no hay nada que pre-guardar)
+        final boolean biomes;     // el spoof lo planifica (si no, solo entran los demás participantes)
+        final int generation;     // plan de otra tanda (descartado) → se ignora
+        Biome[] original;         // rejilla original 4x4x4 (orden del spoof)
+        Biome target;             // bioma final para `season` (null = no tocar)
+        boolean cold;             // frío de origen → nunca se pinta
+        int dist;                 // distancia (chunks) al jugador más cercano
+
+        ChunkPlan(UUID world, int cx, int cz, Season season, boolean hadBackup, boolean biomes, int generation) {
+            this.world = world;
+            this.cx = cx;
+            this.cz = cz;
+            this.season = season;
+            this.hadBackup = hadBackup;
+            this.biomes = biomes;
+            this.generation = generation;
+        }
+    }
+
+    private enum Phase { IDLE, STAGING, READY, ROLLOUT }
+
+    private final AeternumSeasonsPlugin plugin;
+    private final SeasonService seasons;
+    private final BiomeSpoofAdapter spoof;
+    private final LifecycleScope life;
+    private final List<Participant> participants = new ArrayList<>();
+
+    private TransitionSettings settings;
+    private boolean enabled;
+    private int leadDays;
+    private int stageChunksPerTick;
+    private int rolloutTicks;
+
+    private BukkitTask task;
+    private ExecutorService planner;
+
+    private Phase phase = Phase.IDLE;
+    private Season stagedFrom;
+    private Season plannedSeason;
+    private int generation;
+    private final ArrayDeque<Chunk> toStage = new ArrayDeque<>();
+    private final ConcurrentLinkedQueue<ChunkPlan> computed = new ConcurrentLinkedQueue<>();
+    private int inFlight;
+    private final List<ChunkPlan> plans = new ArrayList<>();
+
+    private int rolloutTick;
+    private int rolloutDone;
+    private final Map<String, int[]> progress = new LinkedHashMap<>(); // nombre → {aplicados, total}
+    private int lastLoggedPct;
+
+    public SeasonTransitionOrchestrator(AeternumSeasonsPlugin plugin, SeasonService seasons, BiomeSpoofAdapter spoof,
+                                        WinterWorldPainter winter, AutumnSoilPainter autumn,
+                                        SeasonalFloraController flora) {
+        this.plugin = plugin;
+        this.seasons = seasons;
+        this.spoof = spoof;
+        this.life = plugin.lifecycle.scope("Transition");
+        participants.add(spoof.transitionParticipant());
+        participants.add(winter.transitionParticipant());
+        participants.add(autumn.transitionParticipant());
+        participants.add(flora.transitionParticipant());
+        copySettings(plugin.cfg.snapshot().transitions());
+    }
+
+    private void copySettings(TransitionSettings ts) {
+        this.settings = ts;
+        this.enabled = ts.enabled();
+        this.leadDays = ts.leadDays();
+        this.stageChunksPerTick = ts.stageChunksPerTick();
+        this.rolloutTicks = ts.rolloutTicks();
+    }
+
+    public void register() {
+        life.listen(this);
+        task = life.cancel(task);
+        if (!enabled) return;
+        if (planner == null) planner = life.executor("planner");
+        this.task = life.timer(this, 20L, 1L);
+        checkBoundary();
+    }
+
+    public void unregister() {
+        life.close();
+        task = null;
+        planner = null;
+        reset();
+    }
+
+    /** Hot-reload: aplica transition.*; solo rearranca (descartando el plan) si cambió enabled. */
+    public void applySettings(TransitionSettings next) {
+        TransitionSettings prev = this.settings;
+        if (next.equals(prev)) return;
+
+        copySettings(next);
+        if (prev.enabled() != enabled) {
+            unregister();
+            register();
+        }
+    }
+
+    /** true mientras el orquestador reparte el cambio (el spoof no debe aplicar su boost). */
+    public boolean isDriving() {
+        return phase == Phase.ROLLOUT;
+    }
+
+    /** Progreso por subsistema: nombre → {aplicados, total}. */
+    public Map<String, int[]> getProgress() {
+        Map<String, int[]> out = new LinkedHashMap<>();
+        progress.forEach((k, v) -> out.put(k, v.clone()));
+        return out;
+    }
+
+    /* ============================ CALENDARIO ============================ */
+
+    @EventHandler
+    public void onSeasonUpdate(SeasonUpdateEvent e) {
+        if (!enabled) return;
+        Season now = e.getState().season;
+
+        if ((phase == Phase.STAGING || phase == Phase.READY) && now == plannedSeason) {
+            startRollout();
+            return;
+        }
+        if ((phase == Phase.STAGING || phase == Phase.READY) && now != stagedFrom) {
+            // cambio manual a otra estación: el plan ya no sirve
+            plugin.getLogger().info("[Transition] Season jumped to " + now + ", discarding plan for " + plannedSeason + ".");
+            reset();
+        }
+        if (phase == Phase.IDLE) checkBoundary();
+    }
+
+    private void checkBoundary() {
+        if (phase != Phase.IDLE) return;
+        CalendarState st = seasons.getStateCopy();
+        int daysToBoundary = seasons.getDaysPerSeason() - st.day + 1;
+        if (daysToBoundary > leadDays) return;
+
+        stagedFrom = st.season;
+        plannedSeason = nextSeason(st.season);
+        phase = Phase.STAGING;
+
+        for (World w : Bukkit.getWorlds()) {
+            if (w.getEnvironment() != World.Environment.NORMAL) continue;
+            if (plugin.isWorldDisabled(w)) continue;
+            Collections.addAll(toStage, w.getLoadedChunks());
+        }
+        plugin.getLogger().info("[Transition] " + daysToBoundary + " day(s) to " + plannedSeason
+                + ": staging " + toStage.size() + " loaded chunks.");
+    }
+
+    /* =============================== TICK =============================== */
+
+    @Override
+    public void run() {
+        switch (phase) {
+            case STAGING -> stageStep();
+            case ROLLOUT -> rolloutStep();
+            default -> { }
+        }
+    }
+
+    private void stageStep() {
+        // 1) resultados del planner → participantes
+        ChunkPlan p;
+        while ((p = computed.poll()) != null) {
+            if (p.generation != generation) continue;
+            inFlight--;
+            World w = Bukkit.getWorld(p.world);
+            if (w == null || !w.isChunkLoaded(p.cx, p.cz)) continue;
+            Chunk ch = w.getChunkAt(p.cx, p.cz);
+            for (Participant part : participants) {
+                part.stage(ch, p);
+            }
+            plans.add(p);
+        }
+
+        // 2) capturar unos pocos chunks más
+        for (int n = 0; n < stageChunksPerTick && !toStage.isEmpty(); n++) {
+            Chunk ch = toStage.poll();
+            if (!ch.isLoaded()) continue;
+
+            ChunkPlan plan = capture(ch);
+            if (!plan.biomes) {
+                // sin bioma que calcular: directo a los participantes
+                computed.add(plan);
+                inFlight++;
+                continue;
+            }
+            inFlight++;
+            try {
+                ChunkSnapshot snap = plan.original == null ? ch.getChunkSnapshot(false, true, false) : null;
+                int minY = ch.getWorld().getMinHeight();
+                int maxY = ch.getWorld().getMaxHeight();
+                planner.execute(() -> {
+                    try {
+                        if (snap != null) plan.original = BiomeSpoofAdapter.gridOf(snap, minY, maxY);
+                        spoof.planChunk(plan);
+                    } catch (Throwable t) {
+                        plan.target = null;
+                    }
+                    computed.add(plan);
+                });
+            } catch (RejectedExecutionException ex) {
+                inFlight--;
+            }
+        }
+
+        if (toStage.isEmpty() && inFlight <= 0 && computed.isEmpty()) {
+            phase = Phase.READY;
+            plugin.getLogger().info("[Transition] " + plans.size() + " chunks planned for " + plannedSeason + ".");
+        }
+    }
+
+    private ChunkPlan capture(Chunk ch) {
+        UUID world = ch.getWorld().getUID();
+        if (!spoof.canPlan(ch)) {
+            return new ChunkPlan(world, ch.getX(), ch.getZ(), plannedSeason, false, false, generation);
+        }
+        Biome[] backup = spoof.backupGrid(ch);
+        ChunkPlan plan = new ChunkPlan(world, ch.getX(), ch.getZ(), plannedSeason, backup != null, true, generation);
+        plan.original = backup; // el backup es inmutable una vez guardado
+        return plan;
+    }
+
+    private void startRollout() {
+        if (phase == Phase.STAGING) {
+            // lo que no llegó a planificarse lo cubre el pintado normal alrededor de los jugadores
+            toStage.clear();
+            ChunkPlan p;
+            while ((p = computed.poll()) != null) {
+                if (p.generation == generation) plans.add(p);
+            }
+        }
+
+        // orden: del más cercano a un jugador al más lejano
+        Map<UUID, List<int[]>> playerChunks = new HashMap<>();
+        for (PlayerSnapshotService.PlayerView pv : plugin.players.frame().players()) {
+            playerChunks.computeIfAbsent(pv.world.getUID(), k -> new ArrayList<>())
+                    .add(new int[]{pv.chunkX, pv.chunkZ});
+        }
+        for (ChunkPlan p : plans) {
+            int best = Integer.MAX_VALUE;
+            for (int[] pc : playerChunks.getOrDefault(p.world, List.of())) {
+                best = Math.min(best, Math.max(Math.abs(pc[0] - p.cx), Math.abs(pc[1] - p.cz)));
+            }
+            p.dist = best;
+        }
+        plans.sort(Comparator.comparingInt(p -> p.dist));
+
+        progress.clear();
+        for (Participant part : participants) {
+            progress.put(part.name(), new int[]{0, plans.size()});
+        }
+        rolloutTick = 0;
+        rolloutDone = 0;
+        lastLoggedPct = 0;
+        phase = Phase.ROLLOUT;
+        plugin.getLogger().info("[Transition] Rolling out " + plannedSeason + " over "
+                + (rolloutTicks / 20) + "s (" + plans.size() + " chunks).");
+    }
+
+    private void rolloutStep() {
+        rolloutTick++;
+        int total = plans.size();
+        // rampa plana: a cada tick le toca la misma fracción del total
+        int quota = (int) Math.min(total, (long) Math.ceil(total * (double) rolloutTick / rolloutTicks));
+
+        while (rolloutDone < quota) {
+            ChunkPlan p = plans.get(rolloutDone++);
+            World w = Bukkit.getWorld(p.world);
+            if (w == null || !w.isChunkLoaded(p.cx, p.cz)) continue;
+            Chunk ch = w.getChunkAt(p.cx, p.cz);
+            for (Participant part : participants) {
+                if (part.rollOut(ch, p)) progress.get(part.name())[0]++;
+            }
+        }
+
+        int pct = total == 0 ? 100 : (rolloutDone * 100 / total);
+        if (pct >= lastLoggedPct + 25 || rolloutDone >= total) {
+            lastLoggedPct = pct;
+            StringBuilder sb = new StringBuilder();
+            progress.forEach((k, v) -> sb.append(sb.length() > 0 ? ", " : "").append(k).append('=').append(v[0]).append('/').append(v[1]));
+            plugin.getLogger().info("[Transition] " + plannedSeason + " " + pct + "% [" + sb + "]");
+        }
+
+        if (rolloutDone >= total) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        generation++;
+        phase = Phase.IDLE;
+        plannedSeason = null;
+        toStage.clear();
+        computed.clear();
+        inFlight = 0;
+        plans.clear();
+    }
+
+    private static Season nextSeason(Season s) {
+        return switch (s) {
+            case SPRING -> Season.SUMMER;
+            case SUMMER -> Season.AUTUMN;
+            case AUTUMN -> Season.WINTER;
+            case WINTER -> Season.SPRING;
+        };
+    }
+}
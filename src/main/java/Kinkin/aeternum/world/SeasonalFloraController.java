@@ -4,6 +4,12 @@ import Kinkin.aeternum.AeternumSeasonsPlugin;
 import Kinkin.aeternum.calendar.CalendarState;
 import Kinkin.aeternum.calendar.Season;
 import Kinkin.aeternum.calendar.SeasonService;
+import Kinkin.aeternum.config.FloraSettings;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.LongSet;
+import Kinkin.aeternum.util.PerWorld;
+import Kinkin.aeternum.util.PlayerSnapshotService.PlayerView;
 import org.bukkit.*;
 import org.bukkit.block.Biome;
 import org.bukkit.block.Block;
@@ -12,9 +18,7 @@ import org.bukkit.block.BlockState;
 import org.bukkit.block.data.Bisected;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.block.data.type.Cocoa;
-import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.*;
 import org.bukkit.event.player.PlayerInteractEvent;
@@ -23,7 +27,6 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.scheduler.BukkitTask;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -38,6 +41,7 @@ import java.util.concurrent.ThreadLocalRandom;
  *  - min_distance_blocks (evita clusters)
  *  - max_per_chunk (cap natural por chunk)
  *  - no procesa el mismo chunk 2 veces en un tick (varios jugadores)
+ *  - marcas jugador/plugin en el PDC de cada chunk ({@link BlockMarks}): sobreviven a reinicios
  */
 public final class SeasonalFloraController implements Listener, Runnable {
 
@@ -45,6 +49,7 @@ public final class SeasonalFloraController implements Listener, Runnable {
     private final SeasonService seasons;
 
 
+    private FloraSettings settings;
     private boolean enabled;
     private int tickPeriod;
     private int innerRadiusChunksCfg;
@@ -55,6 +60,7 @@ public final class SeasonalFloraController implements Listener, Runnable {
     private int surfaceScanDepth;
     private boolean allowInView;
 
+    private final LifecycleScope life;
     private BukkitTask task;
 
     /** Reglas cargadas desde config (incluye purge-only cuando están disabled) */
@@ -62,17 +68,12 @@ public final class SeasonalFloraController implements Listener, Runnable {
     /** Lookup rápido por Material -> reglas que lo afectan */
     private final Map<Material, List<FloraRule>> rulesByMaterial = new EnumMap<>(Material.class);
 
-    /**
-     * Set de bloques colocados por jugadores para NO tocarlos jamás.
-     * Guardado por chunkKey -> set de blockKey.
-     */
-    private final Map<Long, Set<Long>> playerPlaced = new ConcurrentHashMap<>();
+    /** Reglas compiladas para la estación actual (null = recompilar en el próximo tick) */
+    private FloraTable table;
+
+    /** Ocupación de flora por chunk (cap por chunk y distancia mínima) */
+    private FloraIndex index;
 
-    /**
-     * Set de bloques colocados por el plugin (para poder purgarlos sin tocar lo natural ni lo del jugador).
-     * Guardado por chunkKey -> set de blockKey.
-     */
-    private final Map<Long, Set<Long>> pluginPlaced = new ConcurrentHashMap<>();
 
     private static final int OFFSETS_STEP = 1;        // chunks
     private static final int SAMPLES_PER_CHUNK = 28;  // muestreo por chunk para limpieza
@@ -80,41 +81,74 @@ public final class SeasonalFloraController implements Listener, Runnable {
     public SeasonalFloraController(AeternumSeasonsPlugin plugin, SeasonService seasons) {
         this.plugin = plugin;
         this.seasons = seasons;
-        reloadFromConfig();
+        this.life = plugin.lifecycle.scope("SeasonalFlora");
+        copySettings(plugin.cfg.snapshot().flora());
+        loadRules();
     }
 
     public void register() {
-        Bukkit.getPluginManager().registerEvents(this, plugin);
-        if (task != null) task.cancel();
+        life.listen(this);
+        index = new FloraIndex(plugin, life.executor("index"));
+        resetIndex();
+        life.listen(index);
+        task = life.cancel(task);
         if (!enabled) return;
-        this.task = Bukkit.getScheduler().runTaskTimer(plugin, this, 40L, tickPeriod);
+        this.task = life.timer(this, 40L, tickPeriod);
     }
 
     public void unregister() {
-        if (task != null) task.cancel();
-        HandlerList.unregisterAll(this);
+        life.close();
+        task = null;
         rules.clear();
         rulesByMaterial.clear();
-        playerPlaced.clear();
-        pluginPlaced.clear();
+        table = null;
+        if (index != null) index.clear();
+        index = null;
+    }
+
+    /**
+     * Hot-reload: solo recompila las reglas si cambiaron; las marcas de bloques (colocados por
+     * jugador / por el plugin) viven en {@link BlockMarks} y no se tocan. Solo reprograma si cambió enabled o el periodo.
+     */
+    public void applySettings(FloraSettings next) {
+        FloraSettings prev = this.settings;
+        if (next.equals(prev)) return;
+
+        copySettings(next);
+        if (!next.rules().equals(prev.rules())) {
+            loadRules();
+        } else if (next.surfaceScanDepth() != prev.surfaceScanDepth()) {
+            resetIndex();
+        }
+        if (!next.scheduleDiffers(prev)) return;
+
+        task = life.cancel(task);
+        if (!enabled) return;
+        this.task = life.timer(this, 40L, tickPeriod);
     }
 
-    public void reloadFromConfig() {
-        this.enabled = plugin.cfg.climate.getBoolean("seasonal_flora.enabled", true);
-        this.tickPeriod = Math.max(1, plugin.cfg.climate.getInt("seasonal_flora.tick_period_ticks", 10));
-        this.innerRadiusChunksCfg = Math.max(0, plugin.cfg.climate.getInt("seasonal_flora.inner_radius_chunks", 0));
-        this.outerRadiusChunksCfg = Math.max(1, plugin.cfg.climate.getInt("seasonal_flora.outer_radius_chunks", 8));
-        this.budgetPerTick = Math.max(1, plugin.cfg.climate.getInt("seasonal_flora.budget_blocks_per_tick", 120));
-        this.maxChunksPerTick = Math.max(1, plugin.cfg.climate.getInt("seasonal_flora.max_chunks_per_tick", 8));
-        this.protectPlayerPlaced = plugin.cfg.climate.getBoolean("seasonal_flora.protect_player_placed", true);
-        this.allowInView = plugin.cfg.climate.getBoolean("seasonal_flora.allow_in_view", true);
-        this.surfaceScanDepth = Math.max(1, plugin.cfg.climate.getInt("seasonal_flora.surface_scan_depth", 8));
+    private void copySettings(FloraSettings fs) {
+        this.settings = fs;
+        this.enabled = fs.enabled();
+        this.tickPeriod = fs.tickPeriod();
+        this.innerRadiusChunksCfg = fs.innerRadiusChunks();
+        this.outerRadiusChunksCfg = fs.outerRadiusChunks();
+        this.budgetPerTick = fs.budgetPerTick();
+        this.maxChunksPerTick = fs.maxChunksPerTick();
+        this.protectPlayerPlaced = fs.protectPlayerPlaced();
+        this.allowInView = fs.allowInView();
+        this.surfaceScanDepth = fs.surfaceScanDepth();
+    }
 
+    private void loadRules() {
         rules.clear();
         rulesByMaterial.clear();
+        table = null;
 
-        var sec = plugin.cfg.climate.getConfigurationSection("seasonal_flora.rules");
-        if (sec == null) {
+        if (settings.rules().isEmpty()) {
+            plugin.getSectionProbe().setFloraMaterials(rulesByMaterial.keySet());
+            BiomeTraits.setFloraRules(List.of());
+            resetIndex();
             plugin.getLogger().info("[SeasonalFlora] No rules found at seasonal_flora.rules");
             return;
         }
@@ -122,12 +156,9 @@ public final class SeasonalFloraController implements Listener, Runnable {
         int loaded = 0;
         int purgeOnly = 0;
 
-        for (String id : sec.getKeys(false)) {
-            var rsec = sec.getConfigurationSection(id);
-            if (rsec == null) continue;
-
-            FloraRule rule = FloraRule.fromConfig(id, rsec, plugin);
-
+        for (Map.Entry<String, Map<String, Object>> en : settings.rules().entrySet()) {
+            String id = en.getKey();
+            FloraRule rule = FloraRule.fromConfig(id, FloraSettings.ruleSection(en.getValue()), plugin);
             // si está disabled y no quiere purga cuando disabled -> ignorar totalmente
             if (!rule.enabled && !rule.purgeWhenDisabled) continue;
 
@@ -136,6 +167,7 @@ public final class SeasonalFloraController implements Listener, Runnable {
                 continue;
             }
 
+            rule.index = rules.size();
             rules.put(id, rule);
             loaded++;
             if (!rule.enabled && rule.purgeWhenDisabled) purgeOnly++;
@@ -145,9 +177,26 @@ public final class SeasonalFloraController implements Listener, Runnable {
             }
         }
 
+        // la sonda de secciones necesita saber qué materiales son "flora"
+        plugin.getSectionProbe().setFloraMaterials(rulesByMaterial.keySet());
+        resetIndex();
+
+        // biomas por regla → máscara por ordinal de bioma
+        List<Set<Biome>> biomesPerRule = new ArrayList<>(rules.size());
+        for (FloraRule r : rules.values()) biomesPerRule.add(r.biomes);
+        BiomeTraits.setFloraRules(biomesPerRule);
+
         plugin.getLogger().info("[SeasonalFlora] Loaded " + loaded + " flora rules (" + purgeOnly + " purge-only).");
     }
 
+    /** Otras reglas → otros materiales: el índice de ocupación empieza de cero. */
+    private void resetIndex() {
+        if (index == null) return;
+        boolean[] flora = new boolean[Material.values().length];
+        for (Material m : rulesByMaterial.keySet()) flora[m.ordinal()] = true;
+        index.reset(flora, surfaceScanDepth);
+    }
+
     /* ============================= EVENTS ============================= */
 
     @EventHandler(ignoreCancelled = true)
@@ -295,6 +344,7 @@ public final class SeasonalFloraController implements Listener, Runnable {
     @Override
     public void run() {
         if (!enabled || rules.isEmpty()) return;
+        index.drain();
 
         CalendarState st = seasons.getStateCopy();
         Season season = st.season;
@@ -302,14 +352,19 @@ public final class SeasonalFloraController implements Listener, Runnable {
         int budget = budgetPerTick;
         if (budget <= 0) return;
 
+        // ✅ reglas compiladas: se rehacen solo al cambiar de estación (o recargar)
+        FloraTable t = table;
+        if (t == null || t.season != season) table = t = FloraTable.compile(rules.values(), season);
+
         // evita procesar el mismo chunk 2 veces este tick (por donuts solapados)
-        Set<Long> processedThisTick = new HashSet<>();
+        PerWorld<LongSet> processedThisTick = new PerWorld<>(x -> new LongSet(maxChunksPerTick));
+        int processed = 0;
 
-        for (Player p : Bukkit.getOnlinePlayers()) {
+        for (PlayerView pv : plugin.players.frame().players()) {
             if (budget <= 0) break;
-            if (processedThisTick.size() >= maxChunksPerTick) break;
+            if (processed >= maxChunksPerTick) break;
 
-            World w = p.getWorld();
+            World w = pv.world;
             if (w.getEnvironment() != World.Environment.NORMAL) continue;
 
             int view = Bukkit.getViewDistance();
@@ -320,35 +375,35 @@ public final class SeasonalFloraController implements Listener, Runnable {
 // inner no puede pasar de outer-1
             int inner = Math.min(innerRadiusChunksCfg, Math.max(0, outer - 1));
 
-            Location loc = p.getLocation();
-            int pcx = loc.getBlockX() >> 4;
-            int pcz = loc.getBlockZ() >> 4;
+            int pcx = pv.chunkX;
+            int pcz = pv.chunkZ;
 
             // Donut: solo distancias [inner..outer]
             for (int dist = inner; dist <= outer && budget > 0; dist++) {
-                if (processedThisTick.size() >= maxChunksPerTick) break;
+                if (processed >= maxChunksPerTick) break;
                 for (int dx = -dist; dx <= dist && budget > 0; dx += OFFSETS_STEP) {
-                    if (processedThisTick.size() >= maxChunksPerTick) break;
+                    if (processed >= maxChunksPerTick) break;
                     for (int dz = -dist; dz <= dist && budget > 0; dz += OFFSETS_STEP) {
-                        if (processedThisTick.size() >= maxChunksPerTick) break;
+                        if (processed >= maxChunksPerTick) break;
                         if (Math.max(Math.abs(dx), Math.abs(dz)) != dist) continue;
 
                         int cx = pcx + dx;
                         int cz = pcz + dz;
                         if (!w.isChunkLoaded(cx, cz)) continue;
 
-                        long ck = chunkKey(w, cx, cz);
-                        if (!processedThisTick.add(ck)) continue; // ya processado este tick
+                        long ck = BlockKeys.chunk(cx, cz);
+                        if (!processedThisTick.get(w).add(ck)) continue; // ya processado este tick
+                        processed++;
 
                         Chunk ch = w.getChunkAt(cx, cz);
-                        budget = processChunk(ch, season, budget);
+                        budget = processChunk(ch, t, budget);
                     }
                 }
             }
         }
     }
 
-    private int processChunk(Chunk ch, Season season, int budget) {
+    private int processChunk(Chunk ch, FloraTable t, int budget) {
         if (budget <= 0) return 0;
 
         World w = ch.getWorld();
@@ -358,63 +413,63 @@ public final class SeasonalFloraController implements Listener, Runnable {
         ThreadLocalRandom rnd = ThreadLocalRandom.current();
 
         // 1) Limpieza/reemplazo natural progresivo
-        for (int i = 0; i < SAMPLES_PER_CHUNK && budget > 0; i++) {
+        // ✅ sello: chunk sin flora de reglas ya purgado esta estación → saltar el muestreo
+        ChunkSeasonStamp stamp = plugin.getSeasonStamp();
+        // (sin reglas que purguen esta estación no hay nada que buscar)
+        boolean purgeDone = !t.purges || stamp.isDone(ch, ChunkSeasonStamp.FLORA_PURGE);
+        if (!purgeDone) {
+            // null = sonda aún escaneando: se muestrea igual, sin sellar
+            byte[] masks = plugin.getSectionProbe().sections(w, ch.getX(), ch.getZ());
+            if (masks != null && !SectionProbe.any(masks, SectionProbe.FLORA)) {
+                stamp.markDone(ch, ChunkSeasonStamp.FLORA_PURGE);
+                purgeDone = true;
+            }
+        }
+        for (int i = 0; i < SAMPLES_PER_CHUNK && budget > 0 && !purgeDone; i++) {
             int x = bx + rnd.nextInt(16);
             int z = bz + rnd.nextInt(16);
             int surfaceY = getSurfaceY(w, x, z);
 
             // Si arriba hay nieve / hojas / etc, baja un poco para encontrar la flora real.
             // Esto evita que "la nieve tape" flores y nunca se purguen.
-            Block b = findPurgeCandidate(w, x, surfaceY, z, surfaceScanDepth);
+            Block b = findPurgeCandidate(w, x, surfaceY, z, surfaceScanDepth, t.flora);
             if (b == null) continue;
 
-            Material type = b.getType();
-            List<FloraRule> list = rulesByMaterial.get(type);
-            if (list == null) continue;
-
-            for (FloraRule r : list) {
+            int o = b.getType().ordinal();
+            if (t.purgePlugin[o] == null && t.purgeNatural[o] == null) continue;
 
-                boolean purgeSeason = r.enabled && r.removeSeasons.contains(season);
-                boolean purgeDisabled = (!r.enabled && r.purgeWhenDisabled);
-                if (!purgeSeason && !purgeDisabled) continue;
+            // Nunca tocar lo del jugador
+            if (isProtectedByPlayer(b)) continue;
 
-                // Nunca tocar lo del jugador
-                if (isProtectedByPlayer(b)) continue;
+            // Purga SOLO lo que puso el plugin (y opcionalmente lo natural si purge_natural=true)
+            Material replace = isPlacedByPlugin(b) ? t.purgePlugin[o] : t.purgeNatural[o];
+            if (replace == null) continue;
 
-                // Purga SOLO lo que puso el plugin (y opcionalmente lo natural si purge_natural=true)
-                boolean isPlugin = isPlacedByPlugin(b);
-                boolean canPurge = (r.purgePluginPlaced && isPlugin) || (r.purgeNatural && !isPlugin);
-                if (!canPurge) continue;
-
-                Material replace = (r.replaceWith != null) ? r.replaceWith : Material.AIR;
-                int removed = purgeBlockRespectingShape(b, replace);
-                if (removed > 0) {
-                    budget -= removed;
-                }
-                break;
+            int removed = purgeBlockRespectingShape(b, replace);
+            if (removed > 0) {
+                budget -= removed;
             }
         }
 
         if (budget <= 0) return budget;
 
-        // 2) Restauración / spawn probabilístico (solo reglas enabled)
-        for (FloraRule r : rules.values()) {
+        // 2) Restauración / spawn probabilístico (solo reglas enabled con restauración esta estación)
+        for (RestoreRule r : t.restore) {
             if (budget <= 0) break;
-            if (!r.enabled) continue;
-            if (!r.restoreSeasons.contains(season)) continue;
 
-            if (rnd.nextDouble() > r.restoreChance) continue;
+            if (rnd.nextDouble() > r.chance) continue;
 
-            // cap por chunk (si aplica)
+            // cap por chunk (si aplica); sin indexar aún → en la próxima visita
             if (r.maxPerChunk > 0) {
-                int existing = countRuleBlocksInChunk(ch, r.blocks, r.maxPerChunk);
-                if (existing >= r.maxPerChunk) continue;
+                int existing = index.count(w, ch.getX(), ch.getZ(), r.blocks, r.maxPerChunk);
+                if (existing < 0 || existing >= r.maxPerChunk) continue;
             }
 
-            for (int tries = 0; tries < r.restoreTriesPerChunk && budget > 0; tries++) {
+            for (int tries = 0; tries < r.tries && budget > 0; tries++) {
                 int x = bx + rnd.nextInt(16);
                 int z = bz + rnd.nextInt(16);
-                int y = w.getHighestBlockYAt(x, z);
+                int y = plugin.getSurfaceCatalog().motionY(w, x, z);
+                if (y == SurfaceCatalog.NONE) continue;
 
                 Block top = w.getBlockAt(x, y, z);
                 if (top.isLiquid()) continue;
@@ -423,28 +478,28 @@ public final class SeasonalFloraController implements Listener, Runnable {
                 if (!placeAt.getType().isAir()) continue;
                 if (isProtectedByPlayer(placeAt)) continue;
 
-                Biome biome = w.getBiome(x, placeAt.getY(), z);
-                if (!r.isBiomeAllowed(biome)) continue;
+                if (r.biomes != null && !r.biomes[w.getBiome(x, placeAt.getY(), z).ordinal()]) continue;
 
                 int light = placeAt.getLightLevel();
                 if (light < r.minLight || light > r.maxLight) continue;
 
-                Block ground = placeAt.getRelative(BlockFace.DOWN);
                 if (r.requireSolidGround) {
-                    if (!ground.getType().isSolid()) continue;
-                    if (!r.groundBlocks.isEmpty() && !r.groundBlocks.contains(ground.getType())) continue;
+                    Material ground = placeAt.getRelative(BlockFace.DOWN).getType();
+                    if (!ground.isSolid()) continue;
+                    if (r.ground != null && !r.ground[ground.ordinal()]) continue;
                 }
 
-                if (r.forbidCanopy) {
+                if (r.canopyCheckHeight > 0) {
                     if (!isOpenSky(placeAt, r.canopyCheckHeight)) continue;
                 }
 
-                // evita clusters (si aplica)
-                if (r.minDistanceBlocks > 0 && hasNearbyRuleBlock(placeAt, r.blocks, r.minDistanceBlocks)) {
+                // evita clusters (si aplica); radio con tope de 8, y-1..y+1; "no sé" cuenta como cerca
+                if (r.minDistanceBlocks > 0 && index.anyNear(w, x, placeAt.getY(), z,
+                        Math.min(r.minDistanceBlocks, 8), r.blocks) != 0) {
                     continue;
                 }
 
-                boolean placed = placeRuleBlock(r, placeAt, rnd);
+                boolean placed = placeRuleBlock(r.rule, placeAt, rnd);
                 if (placed) {
                     budget--;
                     break;
@@ -456,49 +511,6 @@ public final class SeasonalFloraController implements Listener, Runnable {
     }
 
 
-    /** Cuenta flora de la regla en chunk, parando cuando llega al cap. */
-    private int countRuleBlocksInChunk(Chunk ch, List<Material> mats, int cap) {
-        World w = ch.getWorld();
-        int bx = ch.getX() << 4;
-        int bz = ch.getZ() << 4;
-
-        int count = 0;
-        for (int dx = 0; dx < 16; dx++) {
-            for (int dz = 0; dz < 16; dz++) {
-                int x = bx + dx;
-                int z = bz + dz;
-
-                Block b = findRuleBlockInColumn(w, x, z, mats);
-                if (b == null) continue;              // ✅ no hay nada que contar
-                if (mats.contains(b.getType())) {
-                    count++;
-                    if (count >= cap) return count;
-                }
-            }
-        }
-        return count;
-    }
-
-
-    /** Checa cerca para no apilar flores igualitas. */
-    private boolean hasNearbyRuleBlock(Block center, List<Material> mats, int radius) {
-        World w = center.getWorld();
-        int cx = center.getX(), cy = center.getY(), cz = center.getZ();
-
-        int r = Math.min(radius, 8); // safety hardcap
-        for (int dx = -r; dx <= r; dx++) {
-            for (int dz = -r; dz <= r; dz++) {
-                // circular-ish
-                if (dx*dx + dz*dz > r*r) continue;
-                for (int dy = -1; dy <= 1; dy++) {
-                    Block b = w.getBlockAt(cx + dx, cy + dy, cz + dz);
-                    if (mats.contains(b.getType())) return true;
-                }
-            }
-        }
-        return false;
-    }
-
     private boolean placeRuleBlock(FloraRule r, Block placeAt, ThreadLocalRandom rnd) {
         // ✅ random real del bloque a poner
         Material toPlace = r.blocks.size() == 1
@@ -507,7 +519,7 @@ public final class SeasonalFloraController implements Listener, Runnable {
 
         if (r.requiresAttachment && toPlace == Material.COCOA) {
             boolean ok = placeCocoa(r, placeAt, rnd);
-            if (ok) markPluginPlaced(placeAt);
+            if (ok) markPluginPlaced(placeAt, Material.COCOA);
             return ok;
         }
 
@@ -515,13 +527,13 @@ public final class SeasonalFloraController implements Listener, Runnable {
             Block up = placeAt.getRelative(BlockFace.UP);
             if (!up.getType().isAir()) return false;
             placeDoublePlant(placeAt, toPlace);
-            markPluginPlaced(placeAt);
-            markPluginPlaced(up);
+            markPluginPlaced(placeAt, toPlace);
+            markPluginPlaced(up, toPlace);
             return true;
         }
 
-        placeAt.setType(toPlace, false);
-        markPluginPlaced(placeAt);
+        plugin.getMutations().set(placeAt, toPlace);
+        markPluginPlaced(placeAt, toPlace);
         return true;
     }
 
@@ -534,13 +546,12 @@ public final class SeasonalFloraController implements Listener, Runnable {
         for (BlockFace face : faces) {
             Block attached = placeAt.getRelative(face);
             if (r.attachBlocks.isEmpty() || r.attachBlocks.contains(attached.getType())) {
-                placeAt.setType(Material.COCOA, false);
-                BlockData bd = placeAt.getBlockData();
+                BlockData bd = Material.COCOA.createBlockData();
                 if (bd instanceof Cocoa cocoa) {
                     cocoa.setFacing(face.getOppositeFace());
                     cocoa.setAge(0);
-                    placeAt.setBlockData(cocoa, false);
                 }
+                plugin.getMutations().set(placeAt, bd);
                 return true;
             }
         }
@@ -548,18 +559,16 @@ public final class SeasonalFloraController implements Listener, Runnable {
     }
 
     private void placeDoublePlant(Block lower, Material mat) {
-        lower.setType(mat, false);
         Block upper = lower.getRelative(BlockFace.UP);
-        upper.setType(mat, false);
 
-        BlockData lowerData = lower.getBlockData();
-        BlockData upperData = upper.getBlockData();
+        BlockData lowerData = mat.createBlockData();
+        BlockData upperData = mat.createBlockData();
         if (lowerData instanceof Bisected bl && upperData instanceof Bisected bu) {
             bl.setHalf(Bisected.Half.BOTTOM);
             bu.setHalf(Bisected.Half.TOP);
-            lower.setBlockData(bl, false);
-            upper.setBlockData(bu, false);
         }
+        plugin.getMutations().set(lower, lowerData);
+        plugin.getMutations().set(upper, upperData);
     }
 
     private boolean isOpenSky(Block placeAt, int height) {
@@ -581,7 +590,7 @@ public final class SeasonalFloraController implements Listener, Runnable {
      * Intenta encontrar el bloque real a evaluar para purge (por si arriba hay nieve / canopy).
      * Escanea hacia abajo unos pocos bloques: barato y suficiente.
      */
-    private Block findPurgeCandidate(World w, int x, int surfaceY, int z, int depth) {
+    private Block findPurgeCandidate(World w, int x, int surfaceY, int z, int depth, boolean[] flora) {
         int minY = Math.max(w.getMinHeight(), surfaceY - depth);
         int startY = Math.min(w.getMaxHeight() - 1, surfaceY + 2);
 
@@ -595,89 +604,40 @@ public final class SeasonalFloraController implements Listener, Runnable {
             if (t == Material.SNOW || t == Material.SNOW_BLOCK) continue;
 
             // candidato real
-            if (rulesByMaterial.containsKey(t)) return b;
+            if (flora[t.ordinal()]) return b;
 
             // si ya llegamos a un bloque sólido “de suelo”, no tiene caso seguir mucho más abajo
             if (t.isSolid()) {
                 // pero deja chance de que la flor esté justo encima del suelo:
                 Block up = b.getRelative(BlockFace.UP);
-                if (rulesByMaterial.containsKey(up.getType())) return up;
-                break;
-            }
-        }
-        return null;
-    }
-
-    /** Encuentra un bloque de la lista en la columna (soporta hojas arriba / flor en y+1). */
-    private Block findRuleBlockInColumn(World w, int x, int z, List<Material> mats) {
-        int surfaceY = getSurfaceYCompat(w, x, z);
-
-        int depth = Math.max(1, plugin.cfg.climate.getInt("seasonal_flora.surface_scan_depth", 8));
-        int minY = Math.max(w.getMinHeight(), surfaceY - depth);
-        int startY = Math.min(w.getMaxHeight() - 1, surfaceY + 2);
-
-        for (int y = startY; y >= minY; y--) {
-            Block b = w.getBlockAt(x, y, z);
-            Material t = b.getType();
-
-            if (t == Material.AIR) continue;
-            if (t == Material.SNOW || t == Material.SNOW_BLOCK) continue;
-
-            if (mats.contains(t)) return b;
-
-            if (t.isSolid()) {
-                // chance de que la flor esté justo encima del suelo
-                Block up = b.getRelative(BlockFace.UP);
-                if (mats.contains(up.getType())) return up;
+                if (flora[up.getType().ordinal()]) return up;
                 break;
             }
         }
         return null;
     }
 
-    private int getSurfaceYCompat(World w, int x, int z) {
-        try {
-            // Paper: ignora leaves
-            return w.getHighestBlockYAt(x, z, org.bukkit.HeightMap.MOTION_BLOCKING_NO_LEAVES);
-        } catch (Throwable ignored) {
-            // Bukkit/compat
-            return w.getHighestBlockYAt(x, z);
-        }
-    }
-
-
     private boolean isProtectedByPlayer(Block b) {
-        if (!protectPlayerPlaced) return false;
-        long ck = chunkKey(b.getWorld(), b.getX() >> 4, b.getZ() >> 4);
-        Set<Long> set = playerPlaced.get(ck);
-        if (set == null || set.isEmpty()) return false;
-        long bk = blockKey(b.getWorld(), b.getX(), b.getY(), b.getZ());
-        return set.contains(bk);
+        return protectPlayerPlaced && plugin.getBlockMarks().has(b, BlockMarks.FLORA_PLAYER);
     }
 
     private boolean isPlacedByPlugin(Block b) {
-        long ck = chunkKey(b.getWorld(), b.getX() >> 4, b.getZ() >> 4);
-        Set<Long> set = pluginPlaced.get(ck);
-        if (set == null || set.isEmpty()) return false;
-        long bk = blockKey(b.getWorld(), b.getX(), b.getY(), b.getZ());
-        return set.contains(bk);
+        return plugin.getBlockMarks().has(b, BlockMarks.FLORA_PLUGIN);
     }
 
-    private void markPluginPlaced(Block b) {
-        long ck = chunkKey(b.getWorld(), b.getX() >> 4, b.getZ() >> 4);
-        long bk = blockKey(b.getWorld(), b.getX(), b.getY(), b.getZ());
-        pluginPlaced.computeIfAbsent(ck, k -> ConcurrentHashMap.newKeySet()).add(bk);
+    // placed: lo que se encoló (el bloque aún no cambió hasta el fin de tick)
+    private void markPluginPlaced(Block b, Material placed) {
+        plugin.getSectionProbe().note(b, placed);
+        index.set(b, placed);
+        plugin.getSeasonStamp().clear(b.getWorld(), b.getX() >> 4, b.getZ() >> 4, ChunkSeasonStamp.FLORA_PURGE);
+        plugin.getSurfaceCatalog().touch(b);
+        plugin.getBlockMarks().add(b, BlockMarks.FLORA_PLUGIN);
     }
 
     private void unmarkPluginPlaced(Block b) {
-        long ck = chunkKey(b.getWorld(), b.getX() >> 4, b.getZ() >> 4);
-        long bk = blockKey(b.getWorld(), b.getX(), b.getY(), b.getZ());
-
-        Set<Long> set = pluginPlaced.get(ck);
-        if (set != null) {
-            set.remove(bk);
-            if (set.isEmpty()) pluginPlaced.remove(ck);
-        }
+        plugin.getBlockMarks().remove(b, BlockMarks.FLORA_PLUGIN);
+        index.set(b, b.getType()); // ya purgado
+        plugin.getSurfaceCatalog().touch(b);
     }
 
     /**
@@ -716,36 +676,102 @@ public final class SeasonalFloraController implements Listener, Runnable {
         return 1;
     }
 
+    // marcas en el PDC del chunk ("block_marks"): sobreviven a reinicios y se sueltan al descargar
     private void markPlayerPlaced(Block b) {
-        long ck = chunkKey(b.getWorld(), b.getX() >> 4, b.getZ() >> 4);
-        long bk = blockKey(b.getWorld(), b.getX(), b.getY(), b.getZ());
-        playerPlaced.computeIfAbsent(ck, k -> ConcurrentHashMap.newKeySet()).add(bk);
+        plugin.getBlockMarks().add(b, BlockMarks.FLORA_PLAYER);
     }
 
     private void unmarkPlayerPlaced(Block b) {
-        long ck = chunkKey(b.getWorld(), b.getX() >> 4, b.getZ() >> 4);
-        long bk = blockKey(b.getWorld(), b.getX(), b.getY(), b.getZ());
-
-        Set<Long> set = playerPlaced.get(ck);
-        if (set != null) {
-            set.remove(bk);
-            if (set.isEmpty()) playerPlaced.remove(ck);
-        }
+        plugin.getBlockMarks().remove(b, BlockMarks.FLORA_PLAYER);
     }
 
-    private long chunkKey(World w, int cx, int cz) {
-        long k = (((long) cx) & 0xffffffffL) << 32 | (((long) cz) & 0xffffffffL);
-        long wh = (w.getUID().getMostSignificantBits() ^ w.getUID().getLeastSignificantBits());
-        return k ^ wh;
+    /* ============================= TABLAS ============================= */
+
+    private static final int MATERIALS = Material.values().length;
+    private static final int BIOMES = Biome.values().length;
+
+    /**
+     * Reglas compiladas para UNA estación: tablas planas por ordinal de Material /
+     * Biome con lo que ya se sabe de antemano (quién se purga y a qué, quién se
+     * restaura, con qué probabilidad y qué suelo pide). El bucle por columna solo
+     * indexa arrays: sin listas, sets, EnumSet.contains ni config.
+     */
+    private static final class FloraTable {
+        final Season season;
+        final boolean[] flora = new boolean[MATERIALS];        // material de alguna regla
+        final Material[] purgeNatural = new Material[MATERIALS]; // natural → reemplazo (null = no)
+        final Material[] purgePlugin = new Material[MATERIALS];  // puesto por el plugin → reemplazo
+        boolean purges;                                        // alguna regla purga esta estación
+        final RestoreRule[] restore;
+
+        private FloraTable(Season season, RestoreRule[] restore) {
+            this.season = season;
+            this.restore = restore;
+        }
+
+        static FloraTable compile(Collection<FloraRule> rules, Season season) {
+            List<RestoreRule> restore = new ArrayList<>();
+            for (FloraRule r : rules) {
+                if (r.enabled && r.restoreSeasons.contains(season)) restore.add(new RestoreRule(r));
+            }
+            FloraTable t = new FloraTable(season, restore.toArray(new RestoreRule[0]));
+
+            // en orden de carga: por material, gana la primera regla que purga (como antes)
+            for (FloraRule r : rules) {
+                boolean purge = r.enabled ? r.removeSeasons.contains(season) : r.purgeWhenDisabled;
+                Material replace = r.replaceWith != null ? r.replaceWith : Material.AIR;
+                for (Material m : r.blocks) {
+                    int o = m.ordinal();
+                    t.flora[o] = true;
+                    if (!purge) continue;
+                    if (r.purgeNatural && t.purgeNatural[o] == null) t.purgeNatural[o] = replace;
+                    if (r.purgePluginPlaced && t.purgePlugin[o] == null) t.purgePlugin[o] = replace;
+                    t.purges |= r.purgeNatural || r.purgePluginPlaced;
+                }
+            }
+            return t;
+        }
     }
 
-    private long blockKey(World w, int x, int y, int z) {
-        long wx = x & 0x3FFFFFFL;
-        long wz = z & 0x3FFFFFFL;
-        long wy = (y + 2048L) & 0xFFFL;
-        long k = (wx << 38) | (wz << 12) | wy;
-        long wh = (w.getUID().getMostSignificantBits() ^ w.getUID().getLeastSignificantBits());
-        return k ^ wh;
+    /** Regla con restauración activa, con sus conjuntos pasados a tablas por ordinal. */
+    private static final class RestoreRule {
+        final FloraRule rule;
+        final double chance;
+        final int tries;
+        final boolean[] blocks;
+        final boolean[] biomes;        // null = todos
+        final int minLight, maxLight;
+        final boolean requireSolidGround;
+        final boolean[] ground;        // null = cualquier suelo sólido
+        final int canopyCheckHeight;   // 0 = sin comprobar cielo
+        final int maxPerChunk;
+        final int minDistanceBlocks;
+
+        RestoreRule(FloraRule r) {
+            this.rule = r;
+            this.chance = r.restoreChance;
+            this.tries = r.restoreTriesPerChunk;
+            this.blocks = new boolean[MATERIALS];
+            for (Material m : r.blocks) blocks[m.ordinal()] = true;
+            if (r.biomes == null || r.biomes.isEmpty()) {
+                this.biomes = null;
+            } else {
+                this.biomes = new boolean[BIOMES];
+                for (Biome b : r.biomes) biomes[b.ordinal()] = true;
+            }
+            this.minLight = r.minLight;
+            this.maxLight = r.maxLight;
+            this.requireSolidGround = r.requireSolidGround;
+            if (r.groundBlocks.isEmpty()) {
+                this.ground = null;
+            } else {
+                this.ground = new boolean[MATERIALS];
+                for (Material m : r.groundBlocks) ground[m.ordinal()] = true;
+            }
+            this.canopyCheckHeight = r.forbidCanopy ? r.canopyCheckHeight : 0;
+            this.maxPerChunk = r.maxPerChunk;
+            this.minDistanceBlocks = r.minDistanceBlocks;
+        }
     }
 
     /* ============================= RULE ============================= */
@@ -782,6 +808,9 @@ public final class SeasonalFloraController implements Listener, Runnable {
         final int maxPerChunk;         // 0 = sin cap
         final int minDistanceBlocks;   // 0 = sin distancia mínima
 
+        // bit de esta regla en BiomeTraits.floraRules (orden de carga; -1 = sin asignar)
+        int index = -1;
+
         FloraRule(
                 String id,
                 boolean enabled,
@@ -840,7 +869,9 @@ public final class SeasonalFloraController implements Listener, Runnable {
         }
 
         boolean isBiomeAllowed(Biome b) {
-            return biomes == null || biomes.isEmpty() || biomes.contains(b);
+            if (biomes == null || biomes.isEmpty()) return true;
+            if (index >= 0 && index < 64) return (BiomeTraits.floraRules(b) & (1L << index)) != 0;
+            return biomes.contains(b);
         }
 
         static FloraRule fromConfig(String id, org.bukkit.configuration.ConfigurationSection sec, AeternumSeasonsPlugin plugin) {
@@ -864,7 +895,7 @@ public final class SeasonalFloraController implements Listener, Runnable {
             double chance = clamp01(sec.getDouble("restore_chance", 0.0));
             int restoreTries = Math.max(1, sec.getInt("restore_tries_per_chunk", 6));
 
-            Set<Biome> biomes = new HashSet<>();
+            Set<Biome> biomes = EnumSet.noneOf(Biome.class);
             for (String s : sec.getStringList("biomes")) {
                 Biome b = parseBiome(s);
                 if (b != null) biomes.add(b);
@@ -947,34 +978,38 @@ public final class SeasonalFloraController implements Listener, Runnable {
         }
     }
 
-    // ===== HeightMap(MOTION_BLOCKING_NO_LEAVES) cache (Paper) =====
-    private static final Object HM_MOTION_NO_LEAVES;
-    private static final java.lang.reflect.Method M_GET_HIGHEST_Y_HM;
+    // ===== Superficie (MOTION_BLOCKING_NO_LEAVES) desde el SurfaceCatalog =====
+    private int getSurfaceY(World w, int x, int z) {
+        int y = plugin.getSurfaceCatalog().groundY(w, x, z);
+        return y != SurfaceCatalog.NONE ? y : w.getHighestBlockYAt(x, z);
+    }
 
-    static {
-        Object hm = null;
-        java.lang.reflect.Method m = null;
-        try {
-            Class<?> heightMapClass = Class.forName("org.bukkit.HeightMap");
-            @SuppressWarnings("unchecked")
-            Class<? extends Enum> enumClass = (Class<? extends Enum>) heightMapClass;
-            hm = Enum.valueOf(enumClass, "MOTION_BLOCKING_NO_LEAVES");
+    /* ========================= CAMBIO DE ESTACIÓN ========================= */
 
-            m = World.class.getMethod("getHighestBlockYAt", int.class, int.class, heightMapClass);
-        } catch (Throwable ignored) {
-            // Spigot/Bukkit sin overload o sin HeightMap: fallback normal
-        }
-        HM_MOTION_NO_LEAVES = hm;
-        M_GET_HIGHEST_Y_HM = m;
-    }
+    /**
+     * Purga/restauración de la estación nueva en cada chunk planificado, con el presupuesto
+     * medio de un chunk en {@link #run()}; lo que no dé tiempo lo termina el donut normal.
+     */
+    SeasonTransitionOrchestrator.Participant transitionParticipant() {
+        return new SeasonTransitionOrchestrator.Participant() {
+            @Override
+            public String name() {
+                return "flora";
+            }
 
-    private int getSurfaceY(World w, int x, int z) {
-        if (M_GET_HIGHEST_Y_HM != null && HM_MOTION_NO_LEAVES != null) {
-            try {
-                return (int) M_GET_HIGHEST_Y_HM.invoke(w, x, z, HM_MOTION_NO_LEAVES);
-            } catch (Throwable ignored) {}
-        }
-        return w.getHighestBlockYAt(x, z);
-    }
+            @Override
+            public void stage(Chunk ch, SeasonTransitionOrchestrator.ChunkPlan plan) {
+                // las reglas se compilan al llegar la estación (una vez), no por chunk
+            }
 
+            @Override
+            public boolean rollOut(Chunk ch, SeasonTransitionOrchestrator.ChunkPlan plan) {
+                if (!enabled || rules.isEmpty() || index == null) return false;
+                FloraTable t = table;
+                if (t == null || t.season != plan.season) table = t = FloraTable.compile(rules.values(), plan.season);
+                int budget = Math.max(1, budgetPerTick / maxChunksPerTick);
+                return processChunk(ch, t, budget) < budget;
+            }
+        };
+    }
 }
@@ -0,0 +1,321 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.api.ClimateField;
+import Kinkin.aeternum.calendar.CalendarState;
+import Kinkin.aeternum.calendar.Season;
+import Kinkin.aeternum.calendar.SeasonService;
+import Kinkin.aeternum.calendar.SeasonUpdateEvent;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.LongMap;
+import Kinkin.aeternum.util.LongSet;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.HeightMap;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Levelled;
+import org.bukkit.block.data.type.Leaves;
+import org.bukkit.block.data.type.Snow;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldInitEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.generator.BlockPopulator;
+import org.bukkit.generator.LimitedRegion;
+import org.bukkit.generator.WorldInfo;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aplica la estación actual a los chunks RECIÉN GENERADOS, en el hilo de generación.
+ *
+ * Sin esto un chunk nuevo en invierno nace verde y sin nieve, y los painters
+ * (WinterWorldPainter, AutumnSoilPainter) gastan ticks del hilo principal en
+ * convergerlo justo donde exploran los jugadores. Aquí, durante la población:
+ * - INVIERNO: nieve sobre el suelo con el espesor objetivo del día ({@link SnowDepthModel},
+ *   como el painter: sin costuras con los chunks vecinos) y hielo en agua quieta,
+ * - OTOÑO: hojas de spruce/birch/cherry → ACACIA_LEAVES (no persistentes).
+ *
+ * Lo pintado se apunta por chunk y, cuando el chunk carga en el hilo principal
+ * (ChunkLoadEvent), se anota en su {@link SeasonOverlay} (para revertirlo luego
+ * como lo de los painters) y el chunk se sella con {@link ChunkSeasonStamp#GENERATED}: los painters lo saltan.
+ * Lo apuntado se guarda hasta esa primera carga aunque cambie la estación entre medias:
+ * entonces se anota igual, pero el chunk queda desfasado para que el derretido y la
+ * reparación de hojas lo reviertan. Un chunk nuevo sin apunte (generado antes de un
+ * reinicio) también queda desfasado: no sabemos qué se le pintó.
+ *
+ * Hay chunks que se pueblan (borde de lo generado) y no llegan a cargarse nunca:
+ * sus apuntes caducan entre 5 y 10 minutos después (dos generaciones de mapa que
+ * rotan) y, si el chunk carga más tarde, se trata como sin apunte.
+ *
+ * Los biomas NO se tocan aquí: el spoof necesita guardar el bioma original para
+ * poder revertir, y eso ya lo hace al cargar el chunk.
+ *
+ * Opcional: seasonal_generation.enabled (por defecto false).
+ */
+public final class SeasonalPopulator extends BlockPopulator implements Listener {
+
+    // lo pintado en un chunk, a la espera de que cargue en el hilo principal
+    private static final class Generated {
+        final Season season;   // estación para la que se pintó (null = nada pintado)
+        final LongSet snow = new LongSet(64);
+        final LongSet ice = new LongSet(16);
+        final LongMap<BlockData> leaves = new LongMap<>(64);   // → estado original
+
+        Generated(Season season) {
+            this.season = season;
+        }
+    }
+
+    // chunk poblado sin pintar nada: al día sea cual sea la estación
+    private static final Generated NOTHING = new Generated(null);
+
+    // apuntes de un mundo en dos generaciones: al rotar, lo que sigue en "old" caduca
+    private static final class Pending {
+        volatile Map<Long, Generated> young = new ConcurrentHashMap<>();
+        Map<Long, Generated> old = new ConcurrentHashMap<>();   // solo hilo principal
+
+        Generated take(long key) {
+            Generated g = young.remove(key);
+            return g != null ? g : old.remove(key);
+        }
+
+        void rotate() {
+            old = young;
+            young = new ConcurrentHashMap<>();
+        }
+    }
+
+    // cada cuánto rotan las generaciones (5 min): un apunte vive entre 1× y 2× esto
+    private static final long PENDING_TTL_TICKS = 20L * 60 * 5;
+
+    private static final Set<Material> LEAF_TYPES = Set.of(
+            Material.SPRUCE_LEAVES, Material.BIRCH_LEAVES, Material.CHERRY_LEAVES);
+
+    private final AeternumSeasonsPlugin plugin;
+    private final SeasonService seasons;
+    private final LifecycleScope life;
+
+    // leídos desde los hilos de generación
+    private volatile Season season;
+    private volatile boolean enabled;
+    private volatile int maxSnowLayers;
+    private volatile double winterProgress;       // día / díasPorEstación, como el painter
+    private volatile ClimateFieldService climate;
+    private volatile boolean freezeWater;
+    private volatile boolean autumnLeaves;
+
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>();
+
+    public SeasonalPopulator(AeternumSeasonsPlugin plugin, SeasonService seasons) {
+        this.plugin = plugin;
+        this.seasons = seasons;
+        this.life = plugin.lifecycle.scope("SeasonalPopulator");
+        reloadFromConfig();
+    }
+
+    public void reloadFromConfig() {
+        FileConfiguration c = plugin.cfg.climate;
+        enabled = c.getBoolean("seasonal_generation.enabled", false);
+        maxSnowLayers = plugin.cfg.snapshot().realSnow().maxSnowLayers();
+        freezeWater = c.getBoolean("seasonal_generation.freeze_water", true);
+        autumnLeaves = c.getBoolean("seasonal_generation.autumn_leaves", true);
+    }
+
+    public void register() {
+        track(seasons.getStateCopy());
+        climate = plugin.getClimateField();
+        life.listen(this);
+        plugin.getSeasonStamp().vouchNewChunks(this::settle);
+        life.timer(this::expire, PENDING_TTL_TICKS, PENDING_TTL_TICKS);
+        for (World w : Bukkit.getWorlds()) attach(w);
+    }
+
+    public void unregister() {
+        life.close();
+        plugin.getSeasonStamp().vouchNewChunks(null);
+        for (World w : Bukkit.getWorlds()) w.getPopulators().remove(this);
+        pending.clear();
+    }
+
+    /** Hot-reload: relee la config y engancha/desengancha según enabled. */
+    public void reload() {
+        reloadFromConfig();
+        for (World w : Bukkit.getWorlds()) {
+            w.getPopulators().remove(this);
+            attach(w);
+        }
+    }
+
+    private void attach(World w) {
+        if (!enabled) return;
+        if (w.getEnvironment() != World.Environment.NORMAL) return;
+        if (plugin.isWorldDisabled(w)) return;
+        if (!w.getPopulators().contains(this)) w.getPopulators().add(this);
+    }
+
+    /* ================== HILO DE GENERACIÓN ================== */
+
+    @Override
+    public void populate(WorldInfo info, Random random, int cx, int cz, LimitedRegion region) {
+        Season s = season;
+        if (!enabled || s == null) return;
+
+        Generated g = switch (s) {
+            case WINTER -> paintWinter(info, cx, cz, region);
+            case AUTUMN -> autumnLeaves ? paintAutumn(info, cx, cz, region) : null;
+            default -> null;
+        };
+        pending.computeIfAbsent(info.getUID(), k -> new Pending())
+                .young.put(BlockKeys.chunk(cx, cz), g != null ? g : NOTHING);
+    }
+
+    private Generated paintWinter(WorldInfo info, int cx, int cz, LimitedRegion region) {
+        Generated g = new Generated(Season.WINTER);
+        int minY = info.getMinHeight();
+        int maxY = info.getMaxHeight();
+        int bx = cx << 4, bz = cz << 4;
+        ClimateFieldService field = climate;
+        if (field == null) return null;
+        double progress = winterProgress;
+        int layersMax = maxSnowLayers;
+        // el campo de clima usa el bioma original del centro del chunk
+        int cy = region.getHighestBlockYAt(bx + 8, bz + 8, HeightMap.MOTION_BLOCKING_NO_LEAVES);
+        Biome center = region.getBiome(bx + 8, Math.max(minY, Math.min(maxY - 1, cy)), bz + 8);
+
+        for (int lx = 0; lx < 16; lx++) {
+            for (int lz = 0; lz < 16; lz++) {
+                int x = bx + lx, z = bz + lz;
+                int y = region.getHighestBlockYAt(x, z, HeightMap.MOTION_BLOCKING_NO_LEAVES);
+                if (y < minY || y + 1 >= maxY) continue;
+
+                // nieve natural: ya la pone vanilla (misma temperatura que el campo de clima)
+                if (ClimateFieldService.naturalTemperature(region.getBiome(x, y, z), y + 1) < ClimateField.FREEZING) continue;
+
+                Material ground = region.getType(x, y, z);
+                if (ground == Material.WATER) {
+                    if (!freezeWater) continue;
+                    if (region.getBlockData(x, y, z) instanceof Levelled lvl && lvl.getLevel() == 0) {
+                        region.setType(x, y, z, Material.ICE);
+                        g.ice.add(BlockKeys.block(x, y, z));
+                    }
+                    continue;
+                }
+
+                if (ground == Material.SNOW) continue;
+                int layers = SnowDepthModel.target(x, z, field.seasonalTemperature(center, y + 1), progress, layersMax);
+                if (layers <= 0) continue;
+                if (!region.getType(x, y + 1, z).isAir()) continue;
+                if (WinterWorldPainter.blocksSnow(ground)) continue;
+
+                Snow snow = (Snow) Material.SNOW.createBlockData();
+                snow.setLayers(Math.min(layers, snow.getMaximumLayers()));
+                region.setBlockData(x, y + 1, z, snow);
+                g.snow.add(BlockKeys.block(x, y + 1, z));
+            }
+        }
+        return g.snow.isEmpty() && g.ice.isEmpty() ? null : g;
+    }
+
+    private Generated paintAutumn(WorldInfo info, int cx, int cz, LimitedRegion region) {
+        Generated g = new Generated(Season.AUTUMN);
+        int minY = info.getMinHeight();
+        int maxY = info.getMaxHeight() - 1;
+        int bx = cx << 4, bz = cz << 4;
+
+        for (int lx = 0; lx < 16; lx++) {
+            for (int lz = 0; lz < 16; lz++) {
+                int x = bx + lx, z = bz + lz;
+                // misma franja que AutumnSoilPainter: de la copa hacia abajo
+                int top = region.getHighestBlockYAt(x, z, HeightMap.MOTION_BLOCKING) - 1;
+                int from = Math.max(minY, top - 12);
+                int to = Math.min(maxY, top + 8);
+
+                for (int y = from; y <= to; y++) {
+                    Material t = region.getType(x, y, z);
+                    if (!LEAF_TYPES.contains(t)) continue;
+
+                    int distance = 1;
+                    BlockData old = region.getBlockData(x, y, z);
+                    if (old instanceof Leaves l) distance = l.getDistance();
+
+                    Leaves acacia = (Leaves) Material.ACACIA_LEAVES.createBlockData();
+                    acacia.setDistance(distance);
+                    acacia.setPersistent(false); // decay vanilla
+                    region.setBlockData(x, y, z, acacia);
+                    g.leaves.put(BlockKeys.block(x, y, z), old);
+                }
+            }
+        }
+        return g.leaves.isEmpty() ? null : g;
+    }
+
+    /* ==================== HILO PRINCIPAL ==================== */
+
+    /**
+     * Primera carga de un chunk recién generado (lo llama {@link ChunkSeasonStamp}):
+     * anota lo pintado en el overlay. ¿Queda al día para la estación actual?
+     */
+    private boolean settle(Chunk ch) {
+        World w = ch.getWorld();
+        Pending byChunk = pending.get(w.getUID());
+        Generated g = byChunk == null ? null : byChunk.take(BlockKeys.chunk(ch.getX(), ch.getZ()));
+        // sin apunte: generado sin nosotros (limpio) o antes de un reinicio (no se sabe)
+        if (g == null) return !enabled || plugin.isWorldDisabled(w);
+        if (g == NOTHING) return true;
+
+        SeasonOverlay overlay = plugin.getOverlay();
+        BlockData air = Material.AIR.createBlockData();
+        BlockData water = Material.WATER.createBlockData();
+        g.snow.forEach(k -> overlay.adopt(ch, BlockKeys.blockX(k), BlockKeys.blockY(k), BlockKeys.blockZ(k),
+                air, Material.SNOW, SeasonOverlay.SNOW));
+        g.ice.forEach(k -> overlay.adopt(ch, BlockKeys.blockX(k), BlockKeys.blockY(k), BlockKeys.blockZ(k),
+                water, Material.ICE, SeasonOverlay.ICE));
+        g.leaves.forEach((k, original) -> {
+            overlay.adopt(ch, BlockKeys.blockX(k), BlockKeys.blockY(k), BlockKeys.blockZ(k),
+                    original, Material.ACACIA_LEAVES, SeasonOverlay.LEAF);
+            return true;
+        });
+        // pintado para otra estación: desfasado, el derretido/reparación lo revierte desde el overlay
+        if (g.season != season) return false;
+        plugin.getSeasonStamp().markDone(ch, ChunkSeasonStamp.GENERATED);
+        return true;
+    }
+
+    /** Poblados que nunca cargaron: sus apuntes caducan (ver Pending). */
+    private void expire() {
+        // el Pending del mundo se queda (lo quita WorldUnload): un hilo de generación puede estar escribiendo
+        for (Pending p : pending.values()) p.rotate();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onSeasonUpdate(SeasonUpdateEvent e) {
+        // lo pendiente se guarda: al cargar se anota y queda desfasado (ver settle)
+        track(e.getState());
+    }
+
+    private void track(CalendarState st) {
+        season = st.season;
+        winterProgress = Math.max(0.0, Math.min(1.0, st.day / (double) seasons.getDaysPerSeason()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldInit(WorldInitEvent e) {
+        attach(e.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent e) {
+        pending.remove(e.getWorld().getUID());
+    }
+}
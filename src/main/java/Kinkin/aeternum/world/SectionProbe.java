@@ -0,0 +1,356 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.LongMap;
+import Kinkin.aeternum.util.PerWorld;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Snowable;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.*;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Sonda de contenido por sección (16³).
+ *
+ * Los escáneres (derretir nieve/hielo, hojas de otoño residuales, conteo de flora)
+ * recorrían columnas enteras bloque a bloque aunque el chunk no tuviera nada que
+ * hacer. Aquí se calcula UNA vez por chunk, desde un ChunkSnapshot (paletas, sin
+ * tocar el mundo vivo), una máscara por sección con qué categorías PUEDE contener:
+ *
+ *   SNOW  = SNOW / SNOW_BLOCK
+ *   ICE   = ICE / FROSTED_ICE
+ *   SNOWY = bloque Snowable con snowy=true (pasto/podzol/micelio nevado)
+ *   LEAF  = ACACIA_LEAVES
+ *   FLORA = cualquier bloque de reglas de seasonal_flora
+ *
+ * La máscara es "puede contener" (sobre-aproximada): quitar bloques no la toca.
+ * - Cambios externos (jugador, clima, crecimiento, explosiones...) ensanchan la
+ *   sección afectada a {@link #ALL} sin re-escanear.
+ * - Lo que pone el propio plugin se anota con {@link #note(Block, Material)}.
+ * - Las entradas caducan a los {@link #MAX_AGE_TICKS} (cambios sin evento, p.ej. WorldEdit)
+ *   y se sueltan al descargar el chunk/mundo.
+ *
+ * El snapshot se toma en el hilo principal, pero el recorrido de sus 4096 bloques por
+ * sección corre en un hilo aparte: mientras tanto {@link #sections} devuelve null
+ * ("aún no se sabe") y el llamador lo reintenta más tarde. Consultas, anotaciones y
+ * publicación de resultados: solo hilo principal.
+ */
+public final class SectionProbe implements Listener {
+
+    public static final int SNOW  = 1;
+    public static final int ICE   = 1 << 1;
+    public static final int SNOWY = 1 << 2;
+    public static final int LEAF  = 1 << 3;
+    public static final int FLORA = 1 << 4;
+    public static final int ALL   = SNOW | ICE | SNOWY | LEAF | FLORA;
+
+    // 5 min: red de seguridad para cambios que no disparan eventos
+    private static final int MAX_AGE_TICKS = 20 * 60 * 5;
+
+    private static final Material[] SNOWABLE = {Material.GRASS_BLOCK, Material.PODZOL, Material.MYCELIUM};
+
+    private static final class Entry {
+        byte[] masks;       // null mientras se escanea
+        int born;
+        byte[] widened;     // cambios vistos durante el escaneo (se suman al publicar)
+
+        Entry(byte[] masks, int born) {
+            this.masks = masks;
+            this.born = born;
+        }
+    }
+
+    /** Resultado de un escaneo async, pendiente de publicar en el hilo principal. */
+    private record Scanned(World world, long key, Entry entry, byte[] masks) {}
+
+    private final AeternumSeasonsPlugin plugin;
+    private final LifecycleScope life;
+
+    // Material.ordinal() → categorías (sin SNOWY: depende del estado)
+    private byte[] classes = buildClasses(Set.of());
+    private Set<Material> flora = Set.of();
+
+    private final PerWorld<LongMap<Entry>> cache = new PerWorld<>(w -> new LongMap<>(256));
+    private final BlockData[] snowyStates = new BlockData[SNOWABLE.length];
+
+    private ExecutorService scanner;
+    private final ConcurrentLinkedQueue<Scanned> scanned = new ConcurrentLinkedQueue<>();
+
+    public SectionProbe(AeternumSeasonsPlugin plugin) {
+        this.plugin = plugin;
+        this.life = plugin.lifecycle.scope("SectionProbe");
+    }
+
+    public void register() {
+        for (int i = 0; i < SNOWABLE.length; i++) {
+            BlockData d = SNOWABLE[i].createBlockData();
+            if (d instanceof Snowable s) s.setSnowy(true);
+            snowyStates[i] = d;
+        }
+        life.listen(this);
+        scanner = life.executor("scan");
+    }
+
+    public void unregister() {
+        life.close();
+        scanner = null;
+        scanned.clear();
+        cache.clear();
+    }
+
+    /** Define los materiales que cuentan como FLORA (unión de todas las reglas). */
+    public void setFloraMaterials(Collection<Material> mats) {
+        Set<Material> next = mats.isEmpty() ? Set.of() : EnumSet.copyOf(mats);
+        if (next.equals(flora)) return;
+        flora = next;
+        classes = buildClasses(next);
+        cache.clear(); // las máscaras viejas no saben de los materiales nuevos
+    }
+
+    /* ========================= CONSULTA ========================= */
+
+    /**
+     * Máscaras por sección del chunk (índice = (y - minY) >> 4), o null si aún se está
+     * escaneando: el llamador no debe sacar conclusiones y lo reintenta más tarde.
+     * El chunk debe estar cargado; si no está en caché (o caducó) se lanza el escaneo.
+     * No modificar el array.
+     */
+    public byte[] sections(World w, int cx, int cz) {
+        publishScanned();
+        LongMap<Entry> map = cache.get(w);
+        long key = BlockKeys.chunk(cx, cz);
+        int now = Bukkit.getCurrentTick();
+
+        Entry e = map.get(key);
+        if (e != null) {
+            if (e.masks == null) return null; // escaneo en curso
+            if (now - e.born < MAX_AGE_TICKS) return e.masks;
+        }
+        if (scanner == null) return null;
+
+        // snapshot en el hilo principal; el recorrido, fuera
+        int minY = w.getMinHeight(), maxY = w.getMaxHeight();
+        ChunkSnapshot snap = w.getChunkAt(cx, cz).getChunkSnapshot(false, false, false);
+        Entry pending = new Entry(null, now);
+        pending.widened = new byte[(maxY - minY) >> 4];
+        map.put(key, pending);
+
+        byte[] cls = classes;
+        BlockData[] snowy = snowyStates.clone();
+        try {
+            scanner.execute(() -> scanned.add(new Scanned(w, key, pending, scan(snap, cls, snowy, minY, maxY))));
+        } catch (RejectedExecutionException ex) {
+            map.remove(key);
+        }
+        return null;
+    }
+
+    // Publica los escaneos terminados (si su entrada sigue siendo la vigente).
+    private void publishScanned() {
+        Scanned r;
+        int now = Bukkit.getCurrentTick();
+        while ((r = scanned.poll()) != null) {
+            LongMap<Entry> map = cache.peek(r.world());
+            // descargado, caché vaciada o re-escaneado: el resultado ya no vale
+            if (map == null || map.get(r.key()) != r.entry()) continue;
+            Entry e = r.entry();
+            byte[] masks = r.masks();
+            for (int s = 0; s < masks.length; s++) masks[s] |= e.widened[s];
+            e.masks = masks;
+            e.widened = null;
+            e.born = now;
+        }
+    }
+
+    /** ¿Alguna sección del chunk puede contener alguna de esas categorías? */
+    public static boolean any(byte[] masks, int kinds) {
+        for (byte m : masks) {
+            if ((m & kinds) != 0) return true;
+        }
+        return false;
+    }
+
+    /** ¿La sección de la altura y puede contener alguna de esas categorías? */
+    public static boolean at(byte[] masks, int minY, int y, int kinds) {
+        int s = (y - minY) >> 4;
+        return s >= 0 && s < masks.length && (masks[s] & kinds) != 0;
+    }
+
+    /** ¿Alguna sección que toque el rango [fromY, toY] puede contener esas categorías? */
+    public static boolean anyIn(byte[] masks, int minY, int fromY, int toY, int kinds) {
+        int s0 = Math.max(0, (fromY - minY) >> 4);
+        int s1 = Math.min(masks.length - 1, (toY - minY) >> 4);
+        for (int s = s0; s <= s1; s++) {
+            if ((masks[s] & kinds) != 0) return true;
+        }
+        return false;
+    }
+
+    /* ========================= ANOTAR ========================= */
+
+    /** El plugin puso {@code placed} en b: añade sus categorías a la sección (si está en caché). */
+    public void note(Block b, Material placed) {
+        int kinds = classes[placed.ordinal()];
+        if (kinds != 0) widen(b.getWorld(), b.getX(), b.getY(), b.getZ(), kinds);
+    }
+
+    private void widen(World w, int x, int y, int z, int kinds) {
+        LongMap<Entry> map = cache.peek(w);
+        if (map == null) return;
+        Entry e = map.get(BlockKeys.chunk(x >> 4, z >> 4));
+        if (e == null) return;
+        int s = (y - w.getMinHeight()) >> 4;
+        byte[] target = e.masks != null ? e.masks : e.widened;
+        if (s >= 0 && s < target.length) target[s] |= (byte) kinds;
+    }
+
+    /* ========================= ESCANEO ========================= */
+
+    // Cualquier hilo: solo lee el snapshot y tablas que no se modifican.
+    private static byte[] scan(ChunkSnapshot snap, byte[] cls, BlockData[] snowyStates, int minY, int maxY) {
+        byte[] masks = new byte[(maxY - minY) >> 4];
+
+        // contains() mira las paletas: si no hay ningún estado snowy=true, no hace falta getBlockData
+        boolean snowyPossible = false;
+        for (BlockData d : snowyStates) {
+            if (d != null && snap.contains(d)) {
+                snowyPossible = true;
+                break;
+            }
+        }
+
+        for (int s = 0; s < masks.length; s++) {
+            if (snap.isSectionEmpty(s)) continue;
+
+            int mask = 0;
+            int y0 = minY + (s << 4);
+            for (int y = y0; y < y0 + 16 && mask != ALL; y++) {
+                for (int x = 0; x < 16; x++) {
+                    for (int z = 0; z < 16; z++) {
+                        Material t = snap.getBlockType(x, y, z);
+                        mask |= cls[t.ordinal()];
+                        if (snowyPossible && (mask & SNOWY) == 0 && isSnowable(t)
+                                && snap.getBlockData(x, y, z) instanceof Snowable sn && sn.isSnowy()) {
+                            mask |= SNOWY;
+                        }
+                    }
+                }
+            }
+            masks[s] = (byte) mask;
+        }
+        return masks;
+    }
+
+    private static boolean isSnowable(Material t) {
+        return t == Material.GRASS_BLOCK || t == Material.PODZOL || t == Material.MYCELIUM;
+    }
+
+    private static byte[] buildClasses(Set<Material> flora) {
+        byte[] out = new byte[Material.values().length];
+        out[Material.SNOW.ordinal()] |= SNOW;
+        out[Material.SNOW_BLOCK.ordinal()] |= SNOW;
+        out[Material.ICE.ordinal()] |= ICE;
+        out[Material.FROSTED_ICE.ordinal()] |= ICE;
+        out[Material.ACACIA_LEAVES.ordinal()] |= LEAF;
+        for (Material m : flora) out[m.ordinal()] |= FLORA;
+        return out;
+    }
+
+    /* ====================== INVALIDACIÓN ====================== */
+
+    // Cambio externo: la sección queda "puede contener de todo" hasta que caduque.
+    private void changed(Block b) {
+        widen(b.getWorld(), b.getX(), b.getY(), b.getZ(), ALL);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlace(BlockPlaceEvent e) {
+        changed(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBreak(BlockBreakEvent e) {
+        changed(e.getBlock());
+        changed(e.getBlock().getRelative(0, -1, 0)); // snowy del bloque de abajo
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onForm(BlockFormEvent e) {
+        changed(e.getBlock());
+        changed(e.getBlock().getRelative(0, -1, 0));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSpread(BlockSpreadEvent e) {
+        changed(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onGrow(BlockGrowEvent e) {
+        changed(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFade(BlockFadeEvent e) {
+        changed(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDecay(LeavesDecayEvent e) {
+        changed(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChange(EntityChangeBlockEvent e) {
+        changed(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent e) {
+        for (Block b : e.blockList()) changed(b);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent e) {
+        for (Block b : e.blockList()) changed(b);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent e) {
+        for (BlockState s : e.getBlocks()) changed(s.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent e) {
+        Chunk ch = e.getChunk();
+        LongMap<Entry> map = cache.peek(ch.getWorld());
+        if (map != null) map.remove(BlockKeys.chunk(ch.getX(), ch.getZ()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent e) {
+        cache.drop(e.getWorld());
+    }
+}
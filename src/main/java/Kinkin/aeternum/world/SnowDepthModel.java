@@ -0,0 +1,84 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.api.ClimateField;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LongMap;
+import Kinkin.aeternum.util.PerWorld;
+import org.bukkit.World;
+
+/**
+ * Espesor de nieve OBJETIVO por columna durante el invierno.
+ *
+ * En vez de tirar columnas al azar y subir capas de una en una, cada columna
+ * tiene un objetivo determinista (progreso del invierno + temperatura del
+ * {@link ClimateField} + ruido fijo por columna) y el painter solo escribe donde
+ * lo alcanzado es menor. Por chunk se guarda:
+ *   depth[256] → capas ya alcanzadas (índice (lz << 4) | lx)
+ *   convergedEpoch → epoch del ClimateField en que el chunk quedó al día
+ * Un chunk convergido no se vuelve a mirar hasta que cambia el epoch (nuevo día,
+ * estación o recarga), que es cuando puede subir el objetivo.
+ *
+ * Solo chunks cargados; se sueltan al descargar. Solo hilo principal.
+ */
+final class SnowDepthModel {
+
+    static final class SnowChunk {
+        final byte[] depth = new byte[256];
+        long convergedEpoch = Long.MIN_VALUE;
+    }
+
+    private final PerWorld<LongMap<SnowChunk>> chunks = new PerWorld<>(w -> new LongMap<>(64));
+
+    SnowChunk get(World w, int cx, int cz) {
+        LongMap<SnowChunk> map = chunks.get(w);
+        long k = BlockKeys.chunk(cx, cz);
+        SnowChunk c = map.get(k);
+        if (c == null) {
+            c = new SnowChunk();
+            map.put(k, c);
+        }
+        return c;
+    }
+
+    void drop(World w, int cx, int cz) {
+        LongMap<SnowChunk> map = chunks.peek(w);
+        if (map != null) map.remove(BlockKeys.chunk(cx, cz));
+    }
+
+    void dropWorld(World w) {
+        chunks.drop(w);
+    }
+
+    void clear() {
+        chunks.clear();
+    }
+
+    /**
+     * Capas objetivo en (x, z).
+     * @param temp     temperatura del ClimateField sobre el suelo (NaN → 0)
+     * @param progress día / díasPorEstación (0..1)
+     */
+    static int target(int x, int z, float temp, double progress, int maxLayers) {
+        if (Float.isNaN(temp) || temp >= ClimateField.FREEZING) return 0;
+
+        // 0 justo en el umbral, 1 a partir de medio grado "vanilla" por debajo
+        double cold = Math.min(1.0, (ClimateField.FREEZING - temp) / 0.5);
+        double s = progress * (0.5 + 0.5 * cold);
+
+        // cobertura: cada columna tiene su umbral fijo → la nieve se extiende sin parpadeos;
+        // con frío máximo todo queda cubierto a mitad de invierno
+        if (noise(x, z, 0) >= s * 2.0) return 0;
+
+        int layers = 1 + (int) Math.round((maxLayers - 1) * s * (0.75 + 0.5 * noise(x, z, 1)));
+        return Math.min(maxLayers, layers);
+    }
+
+    /** Ruido 0..1 fijo por columna (hash entero, sin estado). */
+    private static double noise(int x, int z, int salt) {
+        int h = x * 0x9E3779B1 ^ z * 0x85EBCA6B ^ salt * 0xC2B2AE35;
+        h ^= h >>> 16;
+        h *= 0x7FEB352D;
+        h ^= h >>> 15;
+        return (h & 0xFFFF) / 65536.0;
+    }
+}
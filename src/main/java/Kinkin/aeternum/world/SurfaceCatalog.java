@@ -0,0 +1,264 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.LongMap;
+import Kinkin.aeternum.util.PerWorld;
+import org.bukkit.Chunk;
+import org.bukkit.HeightMap;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.*;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Catálogo de superficie por chunk (una entrada por columna).
+ *
+ * Antes cada painter redescubría la superficie en cada visita: getHighestBlockYAt
+ * + bajar bloque a bloque buscando hojas/suelo, o reflexión para el overload con
+ * HeightMap. Aquí se leen UNA vez por columna los tres heightmaps
+ *
+ *   top    = WORLD_SURFACE              (bloque no-aire más alto)
+ *   motion = MOTION_BLOCKING            (= getHighestBlockYAt(x, z) de Bukkit)
+ *   ground = MOTION_BLOCKING_NO_LEAVES  (suelo real, ignora copas)
+ *
+ * y se clasifica la columna con flags:
+ *   WATER   = el suelo es agua
+ *   GRASS   = el suelo es pasto/podzol/micelio
+ *   CANOPY  = hay hojas por encima del suelo (motion > ground)
+ *   SNOW    = el suelo es nieve o tiene una capa de nieve encima
+ *   EXPOSED = suelo a cielo abierto (ni agua ni copa)
+ *
+ * Mantenimiento incremental: los eventos de bloque (y lo que cambia el propio plugin
+ * vía {@link #touch(Block)}) marcan la columna como sucia; se recalcula al consultarla.
+ * Se suelta al descargar el chunk/mundo. Solo hilo principal.
+ */
+public final class SurfaceCatalog implements Listener {
+
+    /** Chunk no cargado: no hay datos (y no lo cargamos para averiguarlo). */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    public static final int WATER   = 1;
+    public static final int GRASS   = 1 << 1;
+    public static final int CANOPY  = 1 << 2;
+    public static final int SNOW    = 1 << 3;
+    public static final int EXPOSED = 1 << 4;
+
+    private static final class Entry {
+        final short[] top = new short[256];
+        final short[] motion = new short[256];
+        final short[] ground = new short[256];
+        final Material[] groundType = new Material[256];
+        final byte[] flags = new byte[256];
+        final long[] dirty = new long[4]; // 1 bit por columna
+    }
+
+    private final AeternumSeasonsPlugin plugin;
+    private final LifecycleScope life;
+
+    private final PerWorld<LongMap<Entry>> cache = new PerWorld<>(w -> new LongMap<>(256));
+
+    public SurfaceCatalog(AeternumSeasonsPlugin plugin) {
+        this.plugin = plugin;
+        this.life = plugin.lifecycle.scope("SurfaceCatalog");
+    }
+
+    public void register() {
+        life.listen(this);
+    }
+
+    public void unregister() {
+        life.close();
+        cache.clear();
+    }
+
+    /* ========================= CONSULTA ========================= */
+
+    /** Y del bloque no-aire más alto (WORLD_SURFACE), o {@link #NONE}. */
+    public int topY(World w, int x, int z) {
+        Entry e = entry(w, x, z);
+        return e == null ? NONE : e.top[column(e, w, x, z)];
+    }
+
+    /** Y del bloque más alto que bloquea movimiento o tiene fluido (MOTION_BLOCKING), o {@link #NONE}. */
+    public int motionY(World w, int x, int z) {
+        Entry e = entry(w, x, z);
+        return e == null ? NONE : e.motion[column(e, w, x, z)];
+    }
+
+    /** Y del suelo sin contar hojas (MOTION_BLOCKING_NO_LEAVES), o {@link #NONE}. */
+    public int groundY(World w, int x, int z) {
+        Entry e = entry(w, x, z);
+        return e == null ? NONE : e.ground[column(e, w, x, z)];
+    }
+
+    /** Material del bloque en {@link #groundY}, o null si el chunk no está cargado. */
+    public Material groundType(World w, int x, int z) {
+        Entry e = entry(w, x, z);
+        return e == null ? null : e.groundType[column(e, w, x, z)];
+    }
+
+    /** Flags de la columna (WATER/GRASS/CANOPY/SNOW/EXPOSED), 0 si el chunk no está cargado. */
+    public int flags(World w, int x, int z) {
+        Entry e = entry(w, x, z);
+        return e == null ? 0 : e.flags[column(e, w, x, z)];
+    }
+
+    /* ========================= ANOTAR ========================= */
+
+    /** El plugin cambió b (sin eventos): la columna se recalcula en la próxima consulta. */
+    public void touch(Block b) {
+        touch(b.getWorld(), b.getX(), b.getZ());
+    }
+
+    public void touch(World w, int x, int z) {
+        LongMap<Entry> map = cache.peek(w);
+        if (map == null) return;
+        Entry e = map.get(BlockKeys.chunk(x >> 4, z >> 4));
+        if (e == null) return;
+        int i = ((z & 15) << 4) | (x & 15);
+        e.dirty[i >> 6] |= 1L << (i & 63);
+    }
+
+    /* ========================= CÁLCULO ========================= */
+
+    private Entry entry(World w, int x, int z) {
+        int cx = x >> 4, cz = z >> 4;
+        if (!w.isChunkLoaded(cx, cz)) return null;
+
+        LongMap<Entry> map = cache.get(w);
+        long key = BlockKeys.chunk(cx, cz);
+        Entry e = map.get(key);
+        if (e == null) {
+            e = new Entry();
+            int bx = cx << 4, bz = cz << 4;
+            for (int i = 0; i < 256; i++) {
+                compute(w, bx + (i & 15), bz + (i >> 4), e, i);
+            }
+            map.put(key, e);
+        }
+        return e;
+    }
+
+    // índice de columna, recalculándola antes si estaba sucia
+    private static int column(Entry e, World w, int x, int z) {
+        int i = ((z & 15) << 4) | (x & 15);
+        long bit = 1L << (i & 63);
+        if ((e.dirty[i >> 6] & bit) != 0) {
+            e.dirty[i >> 6] &= ~bit;
+            compute(w, x, z, e, i);
+        }
+        return i;
+    }
+
+    private static void compute(World w, int x, int z, Entry e, int i) {
+        int top = w.getHighestBlockYAt(x, z, HeightMap.WORLD_SURFACE);
+        int motion = w.getHighestBlockYAt(x, z, HeightMap.MOTION_BLOCKING);
+        int ground = w.getHighestBlockYAt(x, z, HeightMap.MOTION_BLOCKING_NO_LEAVES);
+
+        Material g = w.getType(x, ground, z);
+        Material above = w.getType(x, ground + 1, z);
+
+        int f = 0;
+        if (g == Material.WATER) f |= WATER;
+        if (g == Material.GRASS_BLOCK || g == Material.PODZOL || g == Material.MYCELIUM) f |= GRASS;
+        if (motion > ground) f |= CANOPY;
+        if (g == Material.SNOW || g == Material.SNOW_BLOCK || above == Material.SNOW) f |= SNOW;
+        if ((f & (WATER | CANOPY)) == 0) f |= EXPOSED;
+
+        e.top[i] = (short) top;
+        e.motion[i] = (short) motion;
+        e.ground[i] = (short) ground;
+        e.groundType[i] = g;
+        e.flags[i] = (byte) f;
+    }
+
+    /* ====================== INVALIDACIÓN ====================== */
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlace(BlockPlaceEvent e) {
+        touch(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBreak(BlockBreakEvent e) {
+        touch(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onForm(BlockFormEvent e) {
+        touch(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSpread(BlockSpreadEvent e) {
+        touch(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onGrow(BlockGrowEvent e) {
+        touch(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFade(BlockFadeEvent e) {
+        touch(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDecay(LeavesDecayEvent e) {
+        touch(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBurn(BlockBurnEvent e) {
+        touch(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFlow(BlockFromToEvent e) {
+        touch(e.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChange(EntityChangeBlockEvent e) {
+        touch(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent e) {
+        for (Block b : e.blockList()) touch(b);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent e) {
+        for (Block b : e.blockList()) touch(b);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent e) {
+        for (BlockState s : e.getBlocks()) touch(s.getWorld(), s.getX(), s.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent e) {
+        Chunk ch = e.getChunk();
+        LongMap<Entry> map = cache.peek(ch.getWorld());
+        if (map != null) map.remove(BlockKeys.chunk(ch.getX(), ch.getZ()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent e) {
+        cache.drop(e.getWorld());
+    }
+}
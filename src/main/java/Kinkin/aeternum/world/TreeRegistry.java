@@ -0,0 +1,392 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.LongMap;
+import Kinkin.aeternum.util.LongSet;
+import Kinkin.aeternum.util.PerWorld;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.Tag;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Registro de árboles por chunk, compartido por los painters de hojas y el decay.
+ *
+ * Antes cada uno miraba el mundo por su cuenta: AutumnSoilPainter escaneaba
+ * columnas buscando hojas y 13³ bloques por hoja para adivinar la especie,
+ * WinterWorldPainter hacía su propio BFS de hojas y FastLeafDecayService otros
+ * 11³ bloques por hoja buscando troncos. Ahora un chunk se analiza UNA vez (al
+ * primer uso) y se guarda:
+ * - árbol = componente conexa de hojas (BFS, puede cruzar a chunks cargados)
+ *   + los troncos que la tocan + especie (hojas de su madera; null si se mezclan),
+ * - índice hoja → árbol de las hojas de ESTE chunk (pos empaquetada ordenada,
+ *   igual que {@link SeasonOverlay}: (y << 8) | (lx << 4) | lz).
+ *
+ * Se mantiene con los eventos: romper un tronco lo quita de sus árboles (y se avisa
+ * a {@link #watchFellings} para el decay); romper/deshacer
+ * hojas las quita del índice; colocar troncos u hojas invalida los chunks de
+ * alrededor (se vuelven a analizar al siguiente uso). Se suelta al descargar.
+ *
+ * Solo hilo principal.
+ */
+public final class TreeRegistry implements Listener {
+
+    // hojas por BFS: por encima, el árbol se corta (lo que falte sale en otro análisis)
+    private static final int MAX_LEAVES = 2048;
+    // banda de búsqueda de hojas alrededor de la superficie (como los painters)
+    private static final int BAND_BELOW = 12, BAND_ABOVE = 8;
+
+    private static final int[] DX = {1, -1, 0, 0, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1, 0, 0};
+    private static final int[] DZ = {0, 0, 0, 0, 1, -1};
+
+    private static final class Tree {
+        long[] logs = new long[4];   // BlockKeys.block
+        int logCount;
+        Material species;            // hojas de su madera (null = mezcla / sin troncos)
+        boolean mixed;
+
+        void addLog(long k, Material log) {
+            for (int i = 0; i < logCount; i++) if (logs[i] == k) return;
+            if (logCount == logs.length) logs = Arrays.copyOf(logs, logCount << 1);
+            logs[logCount++] = k;
+
+            Material leaves = leavesOf(log);
+            if (mixed || leaves == null) return;
+            if (species == null) {
+                species = leaves;
+            } else if (species != leaves) {
+                species = null;
+                mixed = true;
+            }
+        }
+
+        boolean removeLog(long k) {
+            for (int i = 0; i < logCount; i++) {
+                if (logs[i] != k) continue;
+                logs[i] = logs[--logCount];
+                return true;
+            }
+            return false;
+        }
+    }
+
+    static final class ChunkTrees {
+        final int cx, cz;
+        int size;
+        int[] pos;
+        short[] tree;
+        final List<Tree> trees = new ArrayList<>();
+
+        ChunkTrees(int cx, int cz) {
+            this.cx = cx;
+            this.cz = cz;
+        }
+
+        int find(int p) {
+            return Arrays.binarySearch(pos, 0, size, p);
+        }
+
+        void removeAt(int i) {
+            System.arraycopy(pos, i + 1, pos, i, size - i - 1);
+            System.arraycopy(tree, i + 1, tree, i, size - i - 1);
+            size--;
+        }
+    }
+
+    private final AeternumSeasonsPlugin plugin;
+    private final LifecycleScope life;
+    private final PerWorld<LongMap<ChunkTrees>> built = new PerWorld<>(w -> new LongMap<>(64));
+    private Consumer<Block> fellingHandler;
+
+    public TreeRegistry(AeternumSeasonsPlugin plugin) {
+        this.plugin = plugin;
+        this.life = plugin.lifecycle.scope("TreeRegistry");
+    }
+
+    public void register() {
+        life.listen(this);
+    }
+
+    public void unregister() {
+        life.close();
+        built.clear();
+        fellingHandler = null;
+    }
+
+    /** Recibe cada tronco roto que sostenía algún árbol registrado (aún es tronco en el mundo). */
+    public void watchFellings(Consumer<Block> handler) {
+        this.fellingHandler = handler;
+    }
+
+    public void unwatchFellings() {
+        this.fellingHandler = null;
+    }
+
+    /** Hoja quitada por nosotros sin evento (breakNaturally, setType...). */
+    public void forget(Block leaf) {
+        forgetLeaf(leaf);
+    }
+
+    /* ========================= CONSULTA ========================= */
+
+    /**
+     * Hojas originales del árbol al que pertenece esta hoja (p.ej. SPRUCE_LEAVES para
+     * una hoja pintada de acacia en un pino), o null si no hay árbol o mezcla especies.
+     */
+    public Material species(Block leaf) {
+        Tree t = treeOf(leaf);
+        return t == null ? null : t.species;
+    }
+
+    /** Hojas del chunk (cargado) registradas en algún árbol. */
+    public void forEachLeaf(World w, int cx, int cz, Consumer<Block> action) {
+        ChunkTrees ct = get(w, cx, cz);
+        if (ct == null) return;
+        int bx = cx << 4, bz = cz << 4;
+        for (int i = 0; i < ct.size; i++) {
+            int p = ct.pos[i];
+            action.accept(w.getBlockAt(bx + ((p >> 4) & 15), p >> 8, bz + (p & 15)));
+        }
+    }
+
+    /** Hasta max hojas (de este chunk) del mismo árbol que leaf, empezando por ella. */
+    public void forEachLeafOfTree(Block leaf, int max, Consumer<Block> action) {
+        World w = leaf.getWorld();
+        ChunkTrees ct = get(w, leaf.getX() >> 4, leaf.getZ() >> 4);
+        if (ct == null) return;
+        int i = ct.find(pos(leaf.getX(), leaf.getY(), leaf.getZ()));
+        if (i < 0) return;
+
+        action.accept(leaf);
+        short id = ct.tree[i];
+        int bx = ct.cx << 4, bz = ct.cz << 4;
+        for (int j = 0, n = 1; j < ct.size && n < max; j++) {
+            if (j == i || ct.tree[j] != id) continue;
+            int p = ct.pos[j];
+            action.accept(w.getBlockAt(bx + ((p >> 4) & 15), p >> 8, bz + (p & 15)));
+            n++;
+        }
+    }
+
+    private Tree treeOf(Block leaf) {
+        ChunkTrees ct = get(leaf.getWorld(), leaf.getX() >> 4, leaf.getZ() >> 4);
+        if (ct == null) return null;
+        int i = ct.find(pos(leaf.getX(), leaf.getY(), leaf.getZ()));
+        return i < 0 ? null : ct.trees.get(ct.tree[i]);
+    }
+
+    /** Índice del chunk, analizándolo si aún no lo está. null si no está cargado. */
+    private ChunkTrees get(World w, int cx, int cz) {
+        LongMap<ChunkTrees> map = built.get(w);
+        long k = BlockKeys.chunk(cx, cz);
+        ChunkTrees ct = map.get(k);
+        if (ct == null) {
+            if (!w.isChunkLoaded(cx, cz)) return null;
+            ct = scan(w, cx, cz);
+            map.put(k, ct);
+        }
+        return ct;
+    }
+
+    /* ========================= ANÁLISIS ========================= */
+
+    private ChunkTrees scan(World w, int cx, int cz) {
+        SurfaceCatalog surface = plugin.getSurfaceCatalog();
+        return scan(w, cx, cz, (x, z) -> surface.motionY(w, x, z));
+    }
+
+    /** Análisis de un chunk; surfaceY(x, z) = superficie de la columna (SurfaceCatalog.motionY). */
+    static ChunkTrees scan(World w, int cx, int cz, IntBinaryOperator surfaceY) {
+        ChunkTrees ct = new ChunkTrees(cx, cz);
+        int minY = w.getMinHeight(), maxY = w.getMaxHeight() - 1;
+        int bx = cx << 4, bz = cz << 4;
+
+        LongSet assigned = new LongSet(256);
+        Entries entries = new Entries();
+        for (int i = 0; i < 256; i++) {
+            int x = bx + (i & 15), z = bz + (i >> 4);
+            int top = surfaceY.applyAsInt(x, z);
+            if (top == SurfaceCatalog.NONE) continue;
+            int from = Math.max(minY, top - 1 - BAND_BELOW), to = Math.min(maxY, top - 1 + BAND_ABOVE);
+            for (int y = from; y <= to; y++) {
+                long k = BlockKeys.block(x, y, z);
+                if (assigned.contains(k)) continue;
+                if (!Tag.LEAVES.isTagged(w.getBlockAt(x, y, z).getType())) continue;
+                ct.trees.add(flood(w, x, y, z, ct, (short) ct.trees.size(), assigned, entries));
+                if (ct.trees.size() >= Short.MAX_VALUE) break;
+            }
+        }
+
+        // (pos << 16) | árbol: ordenar los longs ordena por pos
+        Arrays.sort(entries.v, 0, entries.n);
+        ct.size = entries.n;
+        ct.pos = new int[ct.size];
+        ct.tree = new short[ct.size];
+        for (int i = 0; i < ct.size; i++) {
+            ct.pos[i] = (int) (entries.v[i] >> 16);
+            ct.tree[i] = (short) (entries.v[i] & 0xFFFF);
+        }
+        return ct;
+    }
+
+    /** Hojas de este chunk encontradas en el análisis: (pos << 16) | árbol. */
+    private static final class Entries {
+        long[] v = new long[64];
+        int n;
+
+        void add(int pos, short tree) {
+            if (n == v.length) v = Arrays.copyOf(v, n << 1);
+            v[n++] = ((long) pos << 16) | tree;
+        }
+    }
+
+    /**
+     * BFS por hojas desde (x, y, z): troncos que las tocan y hojas de este chunk.
+     * No pasa por hojas ya asignadas a otro árbol (lo que sobró de un BFS cortado
+     * en MAX_LEAVES): cada hoja del chunk sale una sola vez en el índice.
+     */
+    private static Tree flood(World w, int x, int y, int z, ChunkTrees ct, short id, LongSet assigned, Entries entries) {
+        Tree t = new Tree();
+        int minY = w.getMinHeight(), maxY = w.getMaxHeight() - 1;
+        LongSet seen = new LongSet(128);
+        long[] queue = new long[64];
+        int head = 0, tail = 0;
+
+        long start = BlockKeys.block(x, y, z);
+        seen.add(start);
+        queue[tail++] = start;
+
+        while (head < tail) {
+            long k = queue[head++];
+            int kx = BlockKeys.blockX(k), ky = BlockKeys.blockY(k), kz = BlockKeys.blockZ(k);
+            if ((kx >> 4) == ct.cx && (kz >> 4) == ct.cz) {
+                assigned.add(k);
+                entries.add(pos(kx, ky, kz), id);
+            }
+
+            for (int d = 0; d < 6; d++) {
+                int nx = kx + DX[d], ny = ky + DY[d], nz = kz + DZ[d];
+                if (ny < minY || ny > maxY) continue;
+                if (!w.isChunkLoaded(nx >> 4, nz >> 4)) continue; // no cargar chunks por mirar
+                long nk = BlockKeys.block(nx, ny, nz);
+                if (!seen.add(nk)) continue;
+
+                Material m = w.getBlockAt(nx, ny, nz).getType();
+                if (Tag.LEAVES.isTagged(m)) {
+                    if (tail >= MAX_LEAVES || assigned.contains(nk)) continue;
+                    if (tail == queue.length) queue = Arrays.copyOf(queue, tail << 1);
+                    queue[tail++] = nk;
+                } else if (Tag.LOGS.isTagged(m)) {
+                    t.addLog(nk, m);
+                }
+            }
+        }
+        return t;
+    }
+
+    /** SPRUCE_LOG / STRIPPED_SPRUCE_WOOD → SPRUCE_LEAVES (null si no hay hojas de esa madera). */
+    static Material leavesOf(Material log) {
+        String name = log.name();
+        if (name.startsWith("STRIPPED_")) name = name.substring("STRIPPED_".length());
+        int cut = name.lastIndexOf('_');
+        if (cut < 0) return null;
+        return Material.getMaterial(name.substring(0, cut) + "_LEAVES");
+    }
+
+    private static int pos(int x, int y, int z) {
+        return (y << 8) | ((x & 15) << 4) | (z & 15);
+    }
+
+    /* ========================= EVENTOS ========================= */
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBreak(BlockBreakEvent e) {
+        Block b = e.getBlock();
+        Material m = b.getType();
+        if (Tag.LEAVES.isTagged(m)) {
+            forgetLeaf(b);
+        } else if (Tag.LOGS.isTagged(m)) {
+            // el chunk del tronco se analiza ya (el tronco aún está), para poder avisar del decay
+            get(b.getWorld(), b.getX() >> 4, b.getZ() >> 4);
+            removeLog(b);
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onDecay(LeavesDecayEvent e) {
+        forgetLeaf(e.getBlock());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onPlace(BlockPlaceEvent e) {
+        Material m = e.getBlockPlaced().getType();
+        if (!Tag.LEAVES.isTagged(m) && !Tag.LOGS.isTagged(m)) return;
+        // puede unir o crear árboles: los chunks de alrededor se reanalizan al usarse
+        Block b = e.getBlockPlaced();
+        LongMap<ChunkTrees> map = built.peek(b.getWorld());
+        if (map == null) return;
+        int cx = b.getX() >> 4, cz = b.getZ() >> 4;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) map.remove(BlockKeys.chunk(cx + dx, cz + dz));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent e) {
+        Chunk ch = e.getChunk();
+        LongMap<ChunkTrees> map = built.peek(ch.getWorld());
+        if (map != null) map.remove(BlockKeys.chunk(ch.getX(), ch.getZ()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent e) {
+        built.drop(e.getWorld());
+    }
+
+    private void forgetLeaf(Block b) {
+        LongMap<ChunkTrees> map = built.peek(b.getWorld());
+        ChunkTrees ct = map == null ? null : map.get(BlockKeys.chunk(b.getX() >> 4, b.getZ() >> 4));
+        if (ct == null) return;
+        int i = ct.find(pos(b.getX(), b.getY(), b.getZ()));
+        if (i >= 0) ct.removeAt(i);
+    }
+
+    /** Quita el tronco de los árboles que lo tocan (chunks ya analizados a un chunk de distancia). */
+    private void removeLog(Block log) {
+        World w = log.getWorld();
+        LongMap<ChunkTrees> map = built.peek(w);
+        if (map == null) return;
+
+        long k = BlockKeys.block(log.getX(), log.getY(), log.getZ());
+        int cx = log.getX() >> 4, cz = log.getZ() >> 4;
+        boolean touched = false;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                ChunkTrees ct = map.get(BlockKeys.chunk(cx + dx, cz + dz));
+                if (ct == null) continue;
+                for (Tree t : ct.trees) {
+                    if (t.removeLog(k)) touched = true;
+                }
+            }
+        }
+        if (touched && fellingHandler != null) fellingHandler.accept(log);
+    }
+}
@@ -4,7 +4,9 @@ import Kinkin.aeternum.AeternumSeasonsPlugin;
 import Kinkin.aeternum.calendar.CalendarState;
 import Kinkin.aeternum.calendar.SeasonUpdateEvent;
 import Kinkin.aeternum.lang.LanguageManager;
-import org.bukkit.Chunk;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.PlayerSnapshotService.PlayerView;
+import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -30,6 +32,7 @@ public final class VillagerTypeOverrides implements Listener {
 
     private final AeternumSeasonsPlugin plugin;
     private final LanguageManager langManager;
+    private final LifecycleScope life;
 
     private boolean enabled;
     private double overrideChance;
@@ -51,6 +54,7 @@ public final class VillagerTypeOverrides implements Listener {
     public VillagerTypeOverrides(AeternumSeasonsPlugin plugin, LanguageManager langManager) {
         this.plugin = plugin;
         this.langManager = langManager;
+        this.life = plugin.lifecycle.scope("VillagerTypes");
         loadState();
         reloadFromConfig();
     }
@@ -79,6 +83,14 @@ public final class VillagerTypeOverrides implements Listener {
         }
     }
 
+    public void register() {
+        life.listen(this);
+    }
+
+    public void unregister() {
+        life.close();
+    }
+
     public void reloadFromConfig() {
         ConfigurationSection sec = plugin.cfg.climate.getConfigurationSection("villager_type_overrides");
         if (sec == null) {
@@ -192,9 +204,11 @@ public final class VillagerTypeOverrides implements Listener {
         if (e.getTo() == null) return;
 
         // Sólo nos importa cuando cambia de chunk para no spamear
-        Chunk from = e.getFrom().getChunk();
-        Chunk to = e.getTo().getChunk();
-        if (from.getX() == to.getX() && from.getZ() == to.getZ()) {
+        // (coordenadas de bloque >> 4: no hace falta cargar/tocar el Chunk)
+        Location from = e.getFrom();
+        Location to = e.getTo();
+        if ((from.getBlockX() >> 4) == (to.getBlockX() >> 4)
+                && (from.getBlockZ() >> 4) == (to.getBlockZ() >> 4)) {
             return;
         }
 
@@ -206,7 +220,7 @@ public final class VillagerTypeOverrides implements Listener {
         if (!enabled) return;
 
         // Un pequeño delay para que el jugador cargue chunks
-        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+        life.later(() -> {
             if (e.getPlayer().isOnline()) {
                 maybeUpdateVillagersIfPeriodPassed();
             }
@@ -224,8 +238,8 @@ public final class VillagerTypeOverrides implements Listener {
 
         // ¿Hay al menos un jugador en un mundo configurado?
         boolean anyPlayerInConfiguredWorld = false;
-        for (Player p : plugin.getServer().getOnlinePlayers()) {
-            if (worlds.contains(p.getWorld().getName())) {
+        for (World w : plugin.players.frame().worlds()) {
+            if (worlds.contains(w.getName()) && plugin.players.frame().inWorld(w).length > 0) {
                 anyPlayerInConfiguredWorld = true;
                 break;
             }
@@ -253,7 +267,7 @@ public final class VillagerTypeOverrides implements Listener {
         plugin.getLogger().info("[VillagerTypes] Have approved at least " + UPDATE_PERIOD
                 + " days since the last rotation (" + previousDay + " -> " + currentCalendarDay + "). Updating villagers close to players.");
 
-        plugin.getServer().getScheduler().runTask(plugin, () -> {
+        life.now(() -> {
             performVillageUpdate();
             lastUpdateDay = currentCalendarDay;
             saveState();
@@ -269,18 +283,18 @@ public final class VillagerTypeOverrides implements Listener {
 
         ThreadLocalRandom rnd = ThreadLocalRandom.current();
 
-        for (Player p : plugin.getServer().getOnlinePlayers()) {
-            World w = p.getWorld();
+        for (PlayerView pv : plugin.players.frame().players()) {
+            Player p = pv.player;
+            World w = pv.world;
             if (!worlds.contains(w.getName())) continue;
 
-            Chunk pChunk = p.getLocation().getChunk();
             int r = VILLAGE_RANGE_CHUNKS;
 
             List<Villager> candidates = new ArrayList<>();
 
             // 1) Juntar TODOS los aldeanos candidatos (sin trade hecho)
-            for (int x = pChunk.getX() - r; x <= pChunk.getX() + r; x++) {
-                for (int z = pChunk.getZ() - r; z <= pChunk.getZ() + r; z++) {
+            for (int x = pv.chunkX - r; x <= pv.chunkX + r; x++) {
+                for (int z = pv.chunkZ - r; z <= pv.chunkZ + r; z++) {
                     if (!w.isChunkLoaded(x, z)) continue;
 
                     for (Entity entity : w.getChunkAt(x, z).getEntities()) {
@@ -414,11 +428,13 @@ public final class VillagerTypeOverrides implements Listener {
         World w = p.getWorld();
         if (!worlds.contains(w.getName())) return;
 
-        Chunk pChunk = p.getLocation().getChunk();
+        Location loc = p.getLocation();
+        int pcx = loc.getBlockX() >> 4;
+        int pcz = loc.getBlockZ() >> 4;
 
         int r = VILLAGE_RANGE_CHUNKS;
-        for (int x = pChunk.getX() - r; x <= pChunk.getX() + r; x++) {
-            for (int z = pChunk.getZ() - r; z <= pChunk.getZ() + r; z++) {
+        for (int x = pcx - r; x <= pcx + r; x++) {
+            for (int z = pcz - r; z <= pcz + r; z++) {
                 if (!w.isChunkLoaded(x, z)) continue;
 
                 for (Entity entity : w.getChunkAt(x, z).getEntities()) {
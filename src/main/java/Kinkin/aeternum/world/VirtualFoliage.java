@@ -0,0 +1,263 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.AeternumSeasonsPlugin;
+import Kinkin.aeternum.calendar.Season;
+import Kinkin.aeternum.calendar.SeasonService;
+import Kinkin.aeternum.calendar.SeasonUpdateEvent;
+import Kinkin.aeternum.config.AutumnFoliageSettings;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.LongSet;
+import Kinkin.aeternum.util.PlayerSnapshotService.PlayerView;
+import io.papermc.paper.event.packet.PlayerChunkLoadEvent;
+import io.papermc.paper.event.packet.PlayerChunkUnloadEvent;
+import io.papermc.paper.math.Position;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.Leaves;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Follaje otoñal SOLO en cliente (autumn_foliage.mode: client).
+ *
+ * En vez de cambiar las hojas del mundo (overlay + revertir después), a cada jugador
+ * se le mandan las hojas de los chunks que recibe ya pintadas (ACACIA_LEAVES) con un
+ * multi-block-change. El mundo no se toca nunca: nada que guardar, nada que revertir
+ * chunk a chunk. Al acabar el otoño basta con reenviar el estado real de los chunks
+ * que cada jugador tiene pintados.
+ *
+ * Por jugador solo se guarda el conjunto de chunks pintados en su cliente; se vacía
+ * al descargarlos el cliente o al salir. Las hojas salen del {@link TreeRegistry}.
+ *
+ * Sin interceptar paquetes: si el servidor reenvía un chunk, llega un
+ * PlayerChunkLoadEvent y se vuelve a pintar; una hoja suelta que el servidor
+ * actualiza (decay, distancia) se ve con su color real hasta ese reenvío.
+ */
+public final class VirtualFoliage implements Listener, Runnable {
+
+    private record Job(UUID player, UUID world, long chunk, boolean paint) {}
+
+    private static final class Viewer {
+        UUID world;
+        final LongSet painted = new LongSet(64);
+    }
+
+    private final AeternumSeasonsPlugin plugin;
+    private final SeasonService seasons;
+    private final LifecycleScope life;
+    private BukkitTask task;
+
+    // tipos de hojas que pintamos (los mismos que AutumnSoilPainter)
+    private final Set<Material> leafTypes = EnumSet.of(
+            Material.SPRUCE_LEAVES,
+            Material.BIRCH_LEAVES,
+            Material.CHERRY_LEAVES
+    );
+
+    private boolean clientMode;
+    private int chunksPerTick;
+
+    // ¿estamos pintando ahora? (otoño)
+    private boolean active;
+
+    private final Map<UUID, Viewer> viewers = new HashMap<>();
+    private final Deque<Job> queue = new ArrayDeque<>();
+
+    public VirtualFoliage(AeternumSeasonsPlugin plugin, SeasonService seasons) {
+        this.plugin = plugin;
+        this.seasons = seasons;
+        this.life = plugin.lifecycle.scope("VirtualFoliage");
+        copySettings(plugin.cfg.snapshot().autumnFoliage());
+    }
+
+    private void copySettings(AutumnFoliageSettings fs) {
+        this.clientMode = fs.clientMode();
+        this.chunksPerTick = fs.clientChunksPerTick();
+    }
+
+    public void register() {
+        task = life.cancel(task);
+        if (!clientMode) return;
+        life.listen(this);
+        this.task = life.timer(this, 20L, 2L);
+        checkSeason();
+    }
+
+    /** Devuelve a cada cliente el estado real de lo que tenía pintado (al instante). */
+    public void unregister() {
+        life.close();
+        task = null;
+        queue.clear();
+        for (Map.Entry<UUID, Viewer> en : viewers.entrySet()) {
+            Player p = Bukkit.getPlayer(en.getKey());
+            Viewer v = en.getValue();
+            if (p == null || !p.getWorld().getUID().equals(v.world)) continue;
+            World w = p.getWorld();
+            v.painted.forEach(k -> {
+                int cx = BlockKeys.chunkX(k), cz = BlockKeys.chunkZ(k);
+                if (w.isChunkLoaded(cx, cz)) send(p, w, cx, cz, false);
+            });
+        }
+        viewers.clear();
+        active = false;
+    }
+
+    /** Hot-reload: al pasar a modo mundo, lo pintado en clientes se reenvía real. */
+    public void applySettings(AutumnFoliageSettings next) {
+        boolean wasClient = clientMode;
+        copySettings(next);
+        if (wasClient == clientMode) return;
+
+        unregister();
+        register();
+    }
+
+    /* ========================= TICK ========================= */
+
+    @Override
+    public void run() {
+        checkSeason();
+
+        int budget = chunksPerTick;
+        while (budget > 0 && !queue.isEmpty()) {
+            Job job = queue.poll();
+            Player p = Bukkit.getPlayer(job.player());
+            if (p == null) continue;
+            World w = p.getWorld();
+            if (!w.getUID().equals(job.world())) continue; // cambió de mundo
+            Viewer v = viewer(p);
+
+            long k = job.chunk();
+            if (job.paint()) {
+                if (!active || v.painted.contains(k)) continue;
+            } else if (!v.painted.remove(k)) {
+                continue;
+            }
+
+            int cx = BlockKeys.chunkX(k), cz = BlockKeys.chunkZ(k);
+            if (!w.isChunkLoaded(cx, cz)) continue; // el cliente tampoco lo tiene
+            send(p, w, cx, cz, job.paint());
+            if (job.paint()) v.painted.add(k);
+            budget--;
+        }
+    }
+
+    /** Arranca o apaga el pintado al entrar/salir del otoño. */
+    private void checkSeason() {
+        boolean want = seasons.getStateCopy().season == Season.AUTUMN;
+        if (want == active) return;
+        active = want;
+        queue.clear();
+
+        if (want) {
+            // lo que ya tienen los clientes: del chunk del jugador hacia fuera
+            for (PlayerView pv : plugin.players.frame().players()) {
+                Player p = pv.player;
+                World w = pv.world;
+                if (!paints(w)) continue;
+                int pcx = pv.chunkX;
+                int pcz = pv.chunkZ;
+                int r = p.getViewDistance();
+                for (int d = 0; d <= r; d++) {
+                    for (int dx = -d; dx <= d; dx++) {
+                        for (int dz = -d; dz <= d; dz++) {
+                            if (Math.max(Math.abs(dx), Math.abs(dz)) != d) continue;
+                            if (!w.isChunkLoaded(pcx + dx, pcz + dz)) continue;
+                            queue.add(new Job(p.getUniqueId(), w.getUID(), BlockKeys.chunk(pcx + dx, pcz + dz), true));
+                        }
+                    }
+                }
+            }
+        } else {
+            // fin del otoño: solo un reenvío de lo pintado
+            for (Map.Entry<UUID, Viewer> en : viewers.entrySet()) {
+                Viewer v = en.getValue();
+                v.painted.forEach(k -> queue.add(new Job(en.getKey(), v.world, k, false)));
+            }
+        }
+    }
+
+    /* ========================= ENVÍO ========================= */
+
+    private void send(Player p, World w, int cx, int cz, boolean paint) {
+        Map<Position, BlockData> changes = new HashMap<>();
+        plugin.getTrees().forEachLeaf(w, cx, cz, b -> {
+            if (!leafTypes.contains(b.getType())) return;
+            BlockData real = b.getBlockData();
+            changes.put(Position.block(b.getX(), b.getY(), b.getZ()), paint ? autumnOf(real) : real);
+        });
+        if (!changes.isEmpty()) p.sendMultiBlockChange(changes);
+    }
+
+    /** Misma hoja en ACACIA_LEAVES (distancia y persistencia intactas). */
+    private static BlockData autumnOf(BlockData real) {
+        Leaves acacia = (Leaves) Material.ACACIA_LEAVES.createBlockData();
+        if (real instanceof Leaves l) {
+            acacia.setDistance(l.getDistance());
+            acacia.setPersistent(l.isPersistent());
+            acacia.setWaterlogged(l.isWaterlogged());
+        }
+        return acacia;
+    }
+
+    private boolean paints(World w) {
+        return w.getEnvironment() == World.Environment.NORMAL && !plugin.isWorldDisabled(w);
+    }
+
+    private Viewer viewer(Player p) {
+        Viewer v = viewers.computeIfAbsent(p.getUniqueId(), id -> new Viewer());
+        UUID world = p.getWorld().getUID();
+        if (!world.equals(v.world)) {
+            // otro mundo: el cliente ya soltó todos los chunks del anterior
+            v.world = world;
+            v.painted.clear();
+        }
+        return v;
+    }
+
+    /* ========================= EVENTOS ========================= */
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChunkLoad(PlayerChunkLoadEvent e) {
+        Player p = e.getPlayer();
+        Chunk ch = e.getChunk();
+        long k = BlockKeys.chunk(ch.getX(), ch.getZ());
+        // chunk (re)enviado: el cliente tiene ahora el estado real
+        viewer(p).painted.remove(k);
+        if (active && paints(ch.getWorld())) {
+            queue.add(new Job(p.getUniqueId(), ch.getWorld().getUID(), k, true));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChunkUnload(PlayerChunkUnloadEvent e) {
+        Viewer v = viewers.get(e.getPlayer().getUniqueId());
+        if (v != null) v.painted.remove(BlockKeys.chunk(e.getChunk().getX(), e.getChunk().getZ()));
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent e) {
+        viewers.remove(e.getPlayer().getUniqueId());
+    }
+
+    @EventHandler
+    public void onSeasonUpdate(SeasonUpdateEvent e) {
+        checkSeason();
+    }
+}
@@ -5,15 +5,19 @@ import Kinkin.aeternum.calendar.CalendarState;
 import Kinkin.aeternum.calendar.Season;
 import Kinkin.aeternum.calendar.SeasonService;
 import Kinkin.aeternum.calendar.SeasonUpdateEvent;
+import Kinkin.aeternum.config.AutumnFoliageSettings;
+import Kinkin.aeternum.config.ConfigSnapshot;
+import Kinkin.aeternum.config.RealSnowSettings;
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.LifecycleScope;
+import Kinkin.aeternum.util.PlayerSnapshotService;
+import Kinkin.aeternum.util.PlayerSnapshotService.PlayerView;
 import org.bukkit.*;
 import org.bukkit.block.Biome;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
-import org.bukkit.block.data.Levelled;
 import org.bukkit.block.data.type.Snow;
-import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockFormEvent;
 import org.bukkit.event.block.EntityBlockFormEvent;
@@ -23,6 +27,8 @@ import org.bukkit.block.data.Snowable;
 import org.bukkit.Chunk;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 
 
 import java.util.*;
@@ -30,10 +36,12 @@ import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Nieve/hielo:
- * - En WINTER: pinta nieve y congela agua alrededor de los jugadores.
+ * - En WINTER: pinta nieve y congela agua (desde la orilla) alrededor de los jugadores.
  * - Fuera de WINTER:
  * * bloquea la creación vanilla de nieve/hielo (lluvia, congelación, golems, etc.)
- * * derrite TODA la nieve/hielo alrededor de los jugadores, sin mirar bioma.
+ * * derrite lo pintado chunk a chunk (overlay), los chunks más cercanos a jugadores primero;
+ *   el hielo nuestro se deshiela desde la orilla
+ * * con el presupuesto que sobre, derrite la demás nieve/hielo alrededor de los jugadores.
  *
  * Hojas:
  * - En AUTUMN: pinta hojas spruce/birch como ACACIA_LEAVES en biomas taiga/birch.
@@ -43,14 +51,15 @@ public final class WinterWorldPainter implements Listener, Runnable {
 
     private final AeternumSeasonsPlugin plugin;
     private final SeasonService seasons;
+    private final LifecycleScope life;
     private BukkitTask task;
 
-    // tracking para revertir al apagar
-    private final Set<String> paintedSnow = Collections.synchronizedSet(new HashSet<>());
-    private final Set<String> paintedIce  = Collections.synchronizedSet(new HashSet<>());
-
-    private final Set<String> protectedSnow = Collections.synchronizedSet(new HashSet<>());
-    private final Set<String> protectedIce  = Collections.synchronizedSet(new HashSet<>());
+    /*
+     * Tracking por chunk:
+     * - lo pintado (nieve, hielo, hojas) vive en el {@link SeasonOverlay},
+     * - lo colocado por jugadores (no se toca) en {@link BlockMarks}
+     *   (PLAYER_SNOW / PLAYER_ICE).
+     */
 
     // ===== startup catch-up melt =====
     private boolean startupMeltEnabled;
@@ -58,24 +67,35 @@ public final class WinterWorldPainter implements Listener, Runnable {
     private final Deque<Chunk> startupQueue = new ArrayDeque<>();
     private boolean startupRunning = false;
 
-    // tracking de hojas pintadas (key -> material original)
-    private final Map<String, Material> paintedLeaves =
-            Collections.synchronizedMap(new HashMap<>());
+    // ===== derretido de lo pintado: barrido por chunks del overlay =====
+    // chunks cargados con nieve/hielo nuestro, los más cercanos a jugadores primero;
+    // el orden se rehace cada SWEEP_REBUILD_RUNS pasadas (los jugadores se mueven)
+    private static final int SWEEP_REBUILD_RUNS = 20;
+    private record SweepChunk(World world, int cx, int cz, int distance) {}
+    private final List<SweepChunk> sweep = new ArrayList<>();
+    private int sweepCursor;
+    private int sweepAge;
+
+    // ===== acumulación en invierno: espesor objetivo por columna =====
+    private final SnowDepthModel snowDepth = new SnowDepthModel();
+
+    // ===== hielo: frente desde la orilla (congelar en invierno, deshelar fuera) =====
+    private final IceFrontier ice;
 
     // ===== config cache =====
+    private RealSnowSettings snowSettings;
     private boolean enabled;
     private long   period;
-    private int    budget;            // columnas por tick (nieve/hielo en invierno)
+    private int    budget;            // columnas escritas por tick (nieve/hielo en invierno)
     private int    radius;            // radio en bloques
-    private double placeChance;
-    private double addLayerChance;
+    private int    maxSnowLayers;     // capas objetivo al final del invierno (frío máximo)
     private boolean freezeWater;
+    private double iceSpreadChance;   // avance del frente por pasada con frío/calor máximo
+    private int    iceBudget;         // bloques de hielo por tick (congelar/deshelar)
 
     // boost durante tormenta real (storm + temp fría)
     private boolean stormBoostEnabled;
     private double  stormBudgetMultiplier;
-    private double  stormPlaceMultiplier;
-    private double  stormLayerMultiplier;
     private int     stormRadiusBonus;
 
     // melt fuera de invierno
@@ -86,6 +106,7 @@ public final class WinterWorldPainter implements Listener, Runnable {
 
     // Autumn foliage
     private boolean autumnFoliageEnabled;
+    private boolean autumnClientOnly; // autumn_foliage.mode = client (VirtualFoliage)
     private int     autumnRadiusBlocks;
     private int     autumnPaintBudgetPerTick;
     private int     autumnRevertBudgetPerTick;
@@ -97,76 +118,106 @@ public final class WinterWorldPainter implements Listener, Runnable {
     public WinterWorldPainter(AeternumSeasonsPlugin plugin, SeasonService seasons) {
         this.plugin = plugin;
         this.seasons = seasons;
-        this.startupMeltEnabled       = plugin.cfg.climate.getBoolean("real_snow.startup_melt.enabled", true);
-        this.startupMeltChunksPerTick = Math.max(1, plugin.cfg.climate.getInt("real_snow.startup_melt.chunks_per_tick", 2));
-
-        reloadFromConfig();
+        this.life = plugin.lifecycle.scope("WinterWorldPainter");
+        this.ice = new IceFrontier(plugin);
+        ConfigSnapshot snap = plugin.cfg.snapshot();
+        copySettings(snap.realSnow(), snap.autumnFoliage(), snap.disabledWorlds());
     }
 
     public void register() {
         WinterWorldGuardHelper.init(plugin);
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        life.listen(this);
         schedule();
+        // chunks desfasados (cargados o que carguen después) → cola de derretido
+        plugin.getSeasonStamp().watch(ChunkSeasonStamp.MELT,
+                s -> s != Season.WINTER && startupMeltEnabled,
+                ch -> {
+                    startupQueue.add(ch);
+                    startupRunning = true;
+                });
         prepareStartupMelt();
     }
 
+    /**
+     * Lo pintado no se revierte al parar: está anotado en el overlay de cada chunk
+     * y sobrevive al reinicio; el derretido lo quita cuando toca.
+     */
     public void unregister() {
-        if (task != null) task.cancel();
-        HandlerList.unregisterAll(this);
-        clearAllPainted();
+        life.close();
+        task = null;
+        snowDepth.clear();
+        ice.clear();
+    }
+
+    /** Mundo descargado (p.ej. mundos de minijuego): fuera de la cola de derretido y del modelo. */
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent e) {
+        snowDepth.dropWorld(e.getWorld());
+        ice.dropWorld(e.getWorld());
+        startupQueue.removeIf(ch -> ch.getWorld().equals(e.getWorld()));
+    }
+
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent e) {
+        snowDepth.drop(e.getWorld(), e.getChunk().getX(), e.getChunk().getZ());
+        ice.drop(e.getWorld(), e.getChunk().getX(), e.getChunk().getZ());
     }
 
     private void schedule() {
-        if (task != null) task.cancel();
+        task = life.cancel(task);
         if (!enabled) return;
 
         long periodTicks = Math.max(1L, period);
-        this.task = Bukkit.getScheduler().runTaskTimer(plugin, this, 40L, periodTicks);
-    }
-
-    public void reloadFromConfig() {
-        this.enabled          = plugin.cfg.climate.getBoolean("real_snow.enabled", true);
-        this.period           = plugin.cfg.climate.getLong("real_snow.tick_period_ticks", 10L);
-        this.budget           = plugin.cfg.climate.getInt("real_snow.max_columns_per_tick", 24);
-        this.radius           = plugin.cfg.climate.getInt("real_snow.radius_blocks", 40);
-        this.placeChance      = plugin.cfg.climate.getDouble("real_snow.place_chance", 0.20);
-        this.addLayerChance   = plugin.cfg.climate.getDouble("real_snow.add_layer_chance", 0.30);
-        this.freezeWater      = plugin.cfg.climate.getBoolean("real_snow.freeze_water", true);
-
-        this.stormBoostEnabled    = plugin.cfg.climate.getBoolean("real_snow.storm_boost.enabled", true);
-        this.stormBudgetMultiplier= clamp(plugin.cfg.climate.getDouble("real_snow.storm_boost.budget_multiplier", 2.0), 1.0, 20.0);
-        this.stormPlaceMultiplier = clamp(plugin.cfg.climate.getDouble("real_snow.storm_boost.place_multiplier", 1.5), 1.0, 10.0);
-        this.stormLayerMultiplier = clamp(plugin.cfg.climate.getDouble("real_snow.storm_boost.layer_multiplier", 1.5), 1.0, 10.0);
-        this.stormRadiusBonus     = Math.max(0, plugin.cfg.climate.getInt("real_snow.storm_boost.radius_bonus_blocks", 8));
-
-        this.meltWhenNotWinter = plugin.cfg.climate.getBoolean("real_snow.melt.enabled", true);
-        this.meltPeriod        = plugin.cfg.climate.getLong("real_snow.melt.tick_period_ticks", 0L); // 0 = usar period
-        this.meltBudgetPerTick = plugin.cfg.climate.getInt("real_snow.melt.budget_blocks_per_tick", 300);
-        this.meltAlsoIce       = plugin.cfg.climate.getBoolean("real_snow.melt.also_ice", true);
-
-        this.autumnFoliageEnabled      = plugin.cfg.climate.getBoolean("autumn_foliage.enabled", true);
-        this.autumnRadiusBlocks        = plugin.cfg.climate.getInt("autumn_foliage.radius_blocks", 48);
-        this.autumnPaintBudgetPerTick  = plugin.cfg.climate.getInt("autumn_foliage.paint_budget_per_tick", 220);
-        this.autumnRevertBudgetPerTick = plugin.cfg.climate.getInt("autumn_foliage.revert_budget_per_tick", 400);
-        this.revertLeavesOnNonAutumn   = plugin.cfg.climate.getBoolean("autumn_foliage.revert_on_non_autumn", true);
-
-        // límites duros
-        this.budget = Math.min(this.budget, 40);
-        this.meltBudgetPerTick = Math.min(this.meltBudgetPerTick, 400);
-        this.autumnPaintBudgetPerTick = Math.min(this.autumnPaintBudgetPerTick, 40);
-        this.autumnRevertBudgetPerTick = Math.min(this.autumnRevertBudgetPerTick, 80);
+        this.task = life.timer(this, 40L, periodTicks);
+    }
 
-        schedule();
+    private void copySettings(RealSnowSettings snow, AutumnFoliageSettings autumn, List<String> disabledWorlds) {
+        this.snowSettings     = snow;
+        this.enabled          = snow.enabled();
+        this.period           = snow.periodTicks();
+        this.budget           = snow.columnsPerTick();
+        this.radius           = snow.radiusBlocks();
+        this.maxSnowLayers    = snow.maxSnowLayers();
+        this.freezeWater      = snow.freezeWater();
+        this.iceSpreadChance  = snow.iceSpreadChance();
+        this.iceBudget        = snow.iceBlocksPerTick();
+
+        this.stormBoostEnabled    = snow.stormBoostEnabled();
+        this.stormBudgetMultiplier= snow.stormBudgetMultiplier();
+        this.stormRadiusBonus     = snow.stormRadiusBonus();
+
+        this.meltWhenNotWinter = snow.meltEnabled();
+        this.meltPeriod        = snow.meltPeriodTicks(); // 0 = usar period
+        this.meltBudgetPerTick = snow.meltBudgetPerTick();
+        this.meltAlsoIce       = snow.meltAlsoIce();
+
+        this.startupMeltEnabled       = snow.startupMeltEnabled();
+        this.startupMeltChunksPerTick = snow.startupMeltChunksPerTick();
+
+        this.autumnFoliageEnabled      = autumn.enabled();
+        this.autumnRadiusBlocks        = autumn.radiusBlocks();
+        this.autumnPaintBudgetPerTick  = autumn.paintBudgetPerTick();
+        this.autumnRevertBudgetPerTick = autumn.revertBudgetPerTick();
+        this.revertLeavesOnNonAutumn   = autumn.revertOnNonAutumn();
+        this.autumnClientOnly          = autumn.clientMode();
 
-        List<String> list = plugin.getConfig().getStringList("worlds.disabled_season_fx");
         Set<String> s = new HashSet<>();
-        for (String w : list) {
+        for (String w : disabledWorlds) {
             if (w == null) continue;
             String name = w.trim();
             if (!name.isEmpty()) s.add(name.toLowerCase(Locale.ROOT));
         }
         this.disabledFxWorlds = s;
+    }
 
+    /**
+     * Hot-reload: aplica real_snow.* / autumn_foliage.* / mundos sin FX.
+     * La tarea solo se reprograma si cambió enabled o el periodo.
+     */
+    public void applySettings(RealSnowSettings snow, AutumnFoliageSettings autumn, List<String> disabledWorlds) {
+        RealSnowSettings prev = this.snowSettings;
+        copySettings(snow, autumn, disabledWorlds);
+        if (snow.scheduleDiffers(prev)) schedule();
     }
 
     private static double clamp(double v, double lo, double hi) {
@@ -216,7 +267,7 @@ public final class WinterWorldPainter implements Listener, Runnable {
         int cz = b.getZ() >> 4;
 
         // Si el chunk era NEVADO originalmente, NO cancelamos:
-        if (BiomeSpoofAdapter.isChunkNaturallySnowy(w, cx, cz)) {
+        if (plugin.getClimateField().isNaturallySnowy(w, cx, cz)) {
             return; // dejar que se forme la nieve/hielo vanilla
         }
 
@@ -257,7 +308,7 @@ public final class WinterWorldPainter implements Listener, Runnable {
         int cz = b.getZ() >> 4;
 
         // En chunks originalmente nevados dejamos que el golem/etc. ponga nieve
-        if (BiomeSpoofAdapter.isChunkNaturallySnowy(w, cx, cz)) {
+        if (plugin.getClimateField().isNaturallySnowy(w, cx, cz)) {
             return;
         }
 
@@ -279,9 +330,10 @@ public final class WinterWorldPainter implements Listener, Runnable {
 
         // ===== HOJAS OTOÑO =====
         if (autumnFoliageEnabled) {
-            if (isAutumn) {
+            if (isAutumn && !autumnClientOnly) {
                 paintAutumnLeavesStep();
-            } else if (revertLeavesOnNonAutumn) {
+            } else if (revertLeavesOnNonAutumn || autumnClientOnly) {
+                // en modo cliente, lo pintado en el mundo por el modo anterior se deshace
                 revertLeavesStep();
             }
         }
@@ -295,17 +347,24 @@ public final class WinterWorldPainter implements Listener, Runnable {
         // ===== NIEVE/HIELO =====
         if (!isWinter) {
             if (meltWhenNotWinter) {
-                meltAllStep();
+                // el hielo nuestro se abre desde la orilla (IceFrontier)
+                if (meltAlsoIce) thawIceStep();
+                // primero lo pintado (cada unidad de presupuesto quita un bloque real);
+                // el sondeo aleatorio solo se lleva lo que sobre (nieve vanilla, etc.)
+                int left = overlayMeltStep(meltBudgetPerTick);
+                if (left > 0) meltAllStep(left);
             }
             return;
         }
 
-        // En invierno: pintamos nieve/hielo
+        // En invierno: el agua se cierra desde la orilla (con o sin tormenta) y nieva
+        if (freezeWater) freezeIceStep();
         spawnWinterSnowAndIce();
     }
 
     private void startupMeltStep() {
         int chunks = startupMeltChunksPerTick;
+        ChunkSeasonStamp stamp = plugin.getSeasonStamp();
 
         while (chunks-- > 0 && !startupQueue.isEmpty()) {
             Chunk ch = startupQueue.poll();
@@ -314,33 +373,66 @@ public final class WinterWorldPainter implements Listener, Runnable {
             World w = ch.getWorld();
             if (w.getEnvironment() != World.Environment.NORMAL) continue;
 
-            boolean naturallySnowy = BiomeSpoofAdapter.isChunkNaturallySnowy(w, ch.getX(), ch.getZ());
+            // ✅ ya derretido esta estación (sello en el chunk) → ni se mira
+            if (stamp.isDone(ch, ChunkSeasonStamp.MELT)) {
+                chunks++; // no gasta presupuesto
+                continue;
+            }
 
-            if (naturallySnowy) continue; // nunca tocar nieve natural
+            boolean naturallySnowy = plugin.getClimateField().isNaturallySnowy(w, ch.getX(), ch.getZ());
+
+            if (naturallySnowy) { // nunca tocar nieve natural
+                stamp.markDone(ch, ChunkSeasonStamp.MELT);
+                continue;
+            }
+
+            // ✅ lo que pintamos nosotros: una pasada exacta sobre el overlay del chunk
+            plugin.getOverlay().revert(ch, SeasonOverlay.SNOW | (meltAlsoIce ? SeasonOverlay.ICE : 0));
 
             int minY = w.getMinHeight();
             int maxY = w.getMaxHeight();
 
+            // ✅ solo secciones que pueden tener nieve/hielo/snowy
+            int want = SectionProbe.SNOW | SectionProbe.SNOWY | (meltAlsoIce ? SectionProbe.ICE : 0);
+            byte[] masks = plugin.getSectionProbe().sections(w, ch.getX(), ch.getZ());
+            if (masks == null) { // sonda aún escaneando: a la cola otra vez
+                startupQueue.add(ch);
+                continue;
+            }
+            if (!SectionProbe.any(masks, want)) {
+                stamp.markDone(ch, ChunkSeasonStamp.MELT);
+                continue;
+            }
+
             int baseX = ch.getX() << 4;
             int baseZ = ch.getZ() << 4;
 
+            // ✅ nieve/hielo de jugadores: nunca se derrite (igual que meltAllStep)
+            BlockMarks marks = plugin.getBlockMarks();
+            boolean marked = marks.any(w, ch.getX(), ch.getZ(), BlockMarks.PLAYER_SNOW | BlockMarks.PLAYER_ICE);
+
             for (int x = 0; x < 16; x++) {
                 for (int z = 0; z < 16; z++) {
                     for (int y = maxY - 1; y >= minY; y--) {
+                        if (!SectionProbe.at(masks, minY, y, want)) {
+                            y = minY + (((y - minY) >> 4) << 4); // salta al fondo de la sección
+                            continue;
+                        }
                         Block b = w.getBlockAt(baseX + x, y, baseZ + z);
                         Material t = b.getType();
 
                         if (t == Material.SNOW || t == Material.SNOW_BLOCK) {
+                            if (marked && marks.has(b, BlockMarks.PLAYER_SNOW)) continue;
                             if (!WinterWorldGuardHelper.canIceMelt(b)) {
                                 continue;
                             }
-                            b.setType(Material.AIR, false);
-                            clearSnowyBelow(b);
+                            melt(b, Material.AIR);
                         } else if (meltAlsoIce && (t == Material.ICE || t == Material.FROSTED_ICE)) {
+                            if (marked && marks.has(b, BlockMarks.PLAYER_ICE)) continue;
                             if (!WinterWorldGuardHelper.canIceMelt(b)) {
                                 continue;
                             }
-                            b.setType(Material.WATER, false);
+                            melt(b, Material.WATER);
                         } else {
                             // quita snowy de bloques sin nieve arriba
                             BlockData data = b.getBlockData();
@@ -352,13 +444,14 @@ public final class WinterWorldPainter implements Listener, Runnable {
                                         continue;
                                     }
                                     snowData.setSnowy(false);
-                                    b.setBlockData(snowData, false);
+                                    plugin.getMutations().set(b, snowData);
                                 }
                             }
                         }
                     }
                 }
             }
+            stamp.markDone(ch, ChunkSeasonStamp.MELT);
         }
 
 //        if (startupQueue.isEmpty()) {
@@ -377,7 +470,11 @@ public final class WinterWorldPainter implements Listener, Runnable {
      * bloques no completos como escaleras/losas, o si ya es nieve).
      */
     private boolean shouldBlockSnow(Block ground) {
-        Material type = ground.getType();
+        return blocksSnow(ground.getType());
+    }
+
+    // solo mira el material: también lo usa SeasonalPopulator desde el hilo de generación
+    static boolean blocksSnow(Material type) {
         if (type == Material.SNOW) return false;
 
         String name = type.name();
@@ -419,19 +516,21 @@ public final class WinterWorldPainter implements Listener, Runnable {
     // *** FIN DE LA NUEVA LÓGICA ***
 
     private void spawnWinterSnowAndIce() {
-        final ThreadLocalRandom r = ThreadLocalRandom.current();
-
         int remainingGlobal = budget;
         if (remainingGlobal <= 0) return;
 
-        List<Player> players = new ArrayList<>(Bukkit.getOnlinePlayers());
+        List<PlayerView> players = new ArrayList<>(Arrays.asList(plugin.players.frame().players()));
         if (players.isEmpty()) return;
         Collections.shuffle(players, ThreadLocalRandom.current());
 
-        for (Player p : players) {
+        // objetivo de espesor: cambia con el día (epoch del ClimateField) y el progreso del invierno
+        long epoch = plugin.getClimateField().epoch();
+        double progress = clamp(seasons.getStateCopy().day / (double) seasons.getDaysPerSeason(), 0.0, 1.0);
+
+        for (PlayerView p : players) {
             if (remainingGlobal <= 0) break;
 
-            World w = p.getWorld();
+            World w = p.world;
             if (w.getEnvironment() != World.Environment.NORMAL) continue;
             if (isFxDisabled(w)) continue;
 
@@ -439,80 +538,153 @@ public final class WinterWorldPainter implements Listener, Runnable {
             // Si el mundo no tiene tormenta activa, no procesamos nieve para este jugador.
             if (!w.hasStorm()) continue;
 
-            boolean anyCold = isColdAround(w, p.getLocation(), Math.min(24, radius));
-
-            // Si quieres ser aún más estricto y que solo caiga en biomas fríos:
-            // if (!anyCold) continue;
-
-            int    thisBudget    = remainingGlobal;
-            int    thisRadius    = radius;
-            double thisPlace      = placeChance;
-            double thisAddLayer   = addLayerChance;
+            int thisBudget = remainingGlobal;
+            int thisRadius = radius;
 
             // Aplicar multiplicadores de tormenta (ahora que sabemos que SI hay tormenta)
             if (stormBoostEnabled) {
-                thisBudget    = (int) Math.ceil(thisBudget * stormBudgetMultiplier);
-                thisRadius    = thisRadius + stormRadiusBonus;
-                thisPlace     = clamp(thisPlace * stormPlaceMultiplier, 0.0, 1.0);
-                thisAddLayer  = clamp(thisAddLayer * stormLayerMultiplier, 0.0, 1.0);
+                thisBudget = (int) Math.ceil(thisBudget * stormBudgetMultiplier);
+                thisRadius = thisRadius + stormRadiusBonus;
             }
 
             thisBudget = Math.min(thisBudget, remainingGlobal);
 
-            for (int i = 0; i < thisBudget && remainingGlobal > 0; i++) {
-                int dx = r.nextInt(-thisRadius, thisRadius + 1);
-                int dz = r.nextInt(-thisRadius, thisRadius + 1);
-                int x = p.getLocation().getBlockX() + dx;
-                int z = p.getLocation().getBlockZ() + dz;
-
-                int y = w.getHighestBlockYAt(x, z, HeightMap.MOTION_BLOCKING_NO_LEAVES);
-                Block highest = w.getBlockAt(x, y, z);
-
-                // Congelar agua
-                if (freezeWater && highest.getType() == Material.WATER) {
-                    if (highest.getBlockData() instanceof Levelled lvl && lvl.getLevel() == 0) {
-                        if (!WinterWorldGuardHelper.canModify(highest)) continue;
-                        remainingGlobal--;
-                        highest.setType(Material.ICE, false);
-                        markIce(highest);
-
-                        Block aboveIce = highest.getRelative(BlockFace.UP);
-                        if (aboveIce.getType().isAir()) {
-                            if (r.nextDouble() < thisPlace && WinterWorldGuardHelper.canSnowFall(aboveIce)) {
-                                aboveIce.setType(Material.SNOW, false);
-                                markSnow(aboveIce);
-                            }
-                        }
+            // anillos de chunks desde el jugador hacia fuera: primero lo que tiene delante
+            int pcx = p.chunkX;
+            int pcz = p.chunkZ;
+            int rc = (thisRadius + 15) >> 4;
+            for (int ring = 0; ring <= rc && thisBudget > 0; ring++) {
+                for (int dx = -ring; dx <= ring && thisBudget > 0; dx++) {
+                    for (int dz = -ring; dz <= ring && thisBudget > 0; dz++) {
+                        if (Math.max(Math.abs(dx), Math.abs(dz)) != ring) continue;
+                        int writes = convergeChunk(w, pcx + dx, pcz + dz, epoch, progress, thisBudget);
+                        thisBudget -= writes;
+                        remainingGlobal -= writes;
                     }
-                    continue;
                 }
+            }
+        }
+    }
 
-                Block ground = highest;
-                Block air = ground.getRelative(BlockFace.UP);
-
-                if (!air.getType().isAir()) continue;
-                if (shouldBlockSnow(ground)) continue;
-                if (!WinterWorldGuardHelper.canModify(ground) || !WinterWorldGuardHelper.canModify(air)) continue;
+    /** Congela agua en los chunks alrededor de los jugadores, avanzando desde la orilla. */
+    private void freezeIceStep() {
+        int remaining = iceBudget;
+        if (remaining <= 0) return;
 
-                remainingGlobal--;
+        long epoch = plugin.getClimateField().epoch();
+        List<PlayerView> players = new ArrayList<>(Arrays.asList(plugin.players.frame().players()));
+        Collections.shuffle(players, ThreadLocalRandom.current());
 
-                if (r.nextDouble() < thisPlace) {
-                    if (ground.getType() == Material.SNOW) {
-                        Snow data = (Snow) ground.getBlockData();
-                        if (r.nextDouble() < thisAddLayer && data.getLayers() < data.getMaximumLayers()) {
-                            data.setLayers(data.getLayers() + 1);
-                            ground.setBlockData(data, false);
-                            markSnow(ground);
-                        }
-                    } else {
-                        air.setType(Material.SNOW, false);
-                        markSnow(air);
-                    }
+        for (PlayerView p : players) {
+            if (remaining <= 0) break;
+            World w = p.world;
+            if (w.getEnvironment() != World.Environment.NORMAL || isFxDisabled(w)) continue;
+
+            int pcx = p.chunkX;
+            int pcz = p.chunkZ;
+            int rc = (radius + 15) >> 4;
+            for (int dx = -rc; dx <= rc && remaining > 0; dx++) {
+                for (int dz = -rc; dz <= rc && remaining > 0; dz++) {
+                    int cx = pcx + dx, cz = pcz + dz;
+                    remaining -= ice.step(w, cx, cz, true, epoch, iceSpreadChance, remaining);
                 }
             }
         }
     }
 
+    /** Deshiela nuestro hielo en los chunks cargados que lo tienen, desde la orilla. */
+    private void thawIceStep() {
+        int remaining = iceBudget;
+        if (remaining <= 0) return;
+
+        long epoch = plugin.getClimateField().epoch();
+        for (World w : Bukkit.getWorlds()) {
+            if (remaining <= 0) break;
+            if (w.getEnvironment() != World.Environment.NORMAL || isFxDisabled(w)) continue;
+
+            List<Long> withIce = new ArrayList<>();
+            plugin.getOverlay().forEachChunk(w, SeasonOverlay.ICE, withIce::add);
+            for (long k : withIce) {
+                if (remaining <= 0) break;
+                int cx = BlockKeys.chunkX(k), cz = BlockKeys.chunkZ(k);
+                if (plugin.getClimateField().isNaturallySnowy(w, cx, cz)) continue;
+                remaining -= ice.step(w, cx, cz, false, epoch, iceSpreadChance, remaining);
+            }
+        }
+    }
+
+    /**
+     * Lleva el chunk hacia su espesor objetivo ({@link SnowDepthModel}): solo se
+     * leen/escriben las columnas por debajo del objetivo, una escritura por columna.
+     * Si se acaba el presupuesto a medias, el chunk sigue sin convergir y se retoma.
+     * @return escrituras hechas
+     */
+    private int convergeChunk(World w, int cx, int cz, long epoch, double progress, int maxWrites) {
+        if (!w.isChunkLoaded(cx, cz)) return 0;
+        SnowDepthModel.SnowChunk st = snowDepth.get(w, cx, cz);
+        if (st.convergedEpoch == epoch) return 0;
+        // los chunks que nacen nevados (SeasonalPopulator) traen ya el objetivo del día:
+        // la pasada no escribe nada ese día y los días siguientes se hacen como los vecinos
+
+        ClimateFieldService climate = plugin.getClimateField();
+        SurfaceCatalog surface = plugin.getSurfaceCatalog();
+        int bx = cx << 4, bz = cz << 4;
+        int writes = 0;
+
+        for (int i = 0; i < 256; i++) {
+            int x = bx + (i & 15), z = bz + (i >> 4);
+            // ✅ suelo sin copas desde el catálogo
+            int y = surface.groundY(w, x, z);
+            if (y == SurfaceCatalog.NONE) continue;
+
+            int target = SnowDepthModel.target(x, z, climate.temperature(w, x, y + 1, z), progress, maxSnowLayers);
+            if (st.depth[i] >= target) continue;
+            if (writes >= maxWrites) return writes;
+
+            if (growColumn(w.getBlockAt(x, y, z), target)) writes++;
+            // escrita o imposible (bloqueada, WorldGuard...): no se mira hasta que suba el objetivo
+            st.depth[i] = (byte) target;
+        }
+
+        st.convergedEpoch = epoch;
+        return writes;
+    }
+
+    /** Una escritura: sube la columna a target capas (o congela el agua). @return true si escribió */
+    private boolean growColumn(Block ground, int target) {
+        SeasonOverlay overlay = plugin.getOverlay();
+
+        // El agua la congela el frente (freezeIceStep); sobre el hielo sí nieva
+        if (ground.getType() == Material.WATER) return false;
+
+        // Ya hay capas: se suben de golpe al objetivo
+        if (ground.getType() == Material.SNOW) {
+            Snow data = (Snow) ground.getBlockData();
+            int want = Math.min(target, data.getMaximumLayers());
+            if (data.getLayers() >= want) return false;
+            if (!WinterWorldGuardHelper.canModify(ground)) return false;
+            data.setLayers(want);
+            overlay.set(ground, data, SeasonOverlay.SNOW);
+            markSnow(ground);
+            return true;
+        }
+
+        Block air = ground.getRelative(BlockFace.UP);
+        if (!air.getType().isAir()) return false;
+        if (shouldBlockSnow(ground)) return false;
+        if (!WinterWorldGuardHelper.canModify(ground) || !WinterWorldGuardHelper.canModify(air)) return false;
+
+        overlay.set(air, snowLayers(target), SeasonOverlay.SNOW);
+        markSnow(air);
+        return true;
+    }
+
+    private static Snow snowLayers(int layers) {
+        Snow data = (Snow) Material.SNOW.createBlockData();
+        data.setLayers(Math.max(data.getMinimumLayers(), Math.min(layers, data.getMaximumLayers())));
+        return data;
+    }
+
 
     private void prepareStartupMelt() {
         if (!startupMeltEnabled) return;
@@ -521,11 +693,14 @@ public final class WinterWorldPainter implements Listener, Runnable {
         if (st.season == Season.WINTER) return; // en invierno no hacemos catch-up
 
         startupQueue.clear();
+        ChunkSeasonStamp stamp = plugin.getSeasonStamp();
 
         for (World w : Bukkit.getWorlds()) {
             if (w.getEnvironment() != World.Environment.NORMAL) continue;
-            // solo chunks cargados para no forzar carga
-            startupQueue.addAll(Arrays.asList(w.getLoadedChunks()));
+            // solo chunks cargados para no forzar carga, y solo los que no tienen el sello de esta estación
+            for (Chunk ch : w.getLoadedChunks()) {
+                if (!stamp.isDone(ch, ChunkSeasonStamp.MELT)) startupQueue.add(ch);
+            }
         }
 
         startupRunning = !startupQueue.isEmpty();
@@ -543,25 +718,27 @@ public final class WinterWorldPainter implements Listener, Runnable {
         int remaining = autumnPaintBudgetPerTick;
         if (remaining <= 0) return;
 
-        List<Player> players = new ArrayList<>(Bukkit.getOnlinePlayers());
+        List<PlayerView> players = new ArrayList<>(Arrays.asList(plugin.players.frame().players()));
         if (players.isEmpty()) return;
         Collections.shuffle(players, rnd);
 
-        for (Player p : players) {
+        for (PlayerView p : players) {
             if (remaining <= 0) break;
-            World w = p.getWorld();
+            World w = p.world;
             if (w.getEnvironment() != World.Environment.NORMAL) continue;
             if (isFxDisabled(w)) continue;
 
-            int baseX = p.getLocation().getBlockX();
-            int baseZ = p.getLocation().getBlockZ();
+            int baseX = p.blockX;
+            int baseZ = p.blockZ;
 
             int perPlayer = Math.min(remaining, 10);
             for (int i = 0; i < perPlayer && remaining > 0; i++) {
                 int x = baseX + rnd.nextInt(-autumnRadiusBlocks, autumnRadiusBlocks + 1);
                 int z = baseZ + rnd.nextInt(-autumnRadiusBlocks, autumnRadiusBlocks + 1);
 
-                int topY = w.getHighestBlockYAt(x, z);
+                int topY = plugin.getSurfaceCatalog().motionY(w, x, z);
+                if (topY == SurfaceCatalog.NONE) continue;
+                if (plugin.getSeasonStamp().isDone(w, x >> 4, z >> 4, ChunkSeasonStamp.GENERATED)) continue;
                 int minY = Math.max(w.getMinHeight(), topY - 32);
 
                 Block found = null;
@@ -586,47 +763,13 @@ public final class WinterWorldPainter implements Listener, Runnable {
     }
 
     private void paintLeafCluster(Block start) {
-        World w = start.getWorld();
-        Queue<Block> queue = new ArrayDeque<>();
-        Set<String> visited = new HashSet<>();
-
-        queue.add(start);
-        visited.add(key(start));
-
-        int maxNodes = 64;
-
-        while (!queue.isEmpty() && maxNodes-- > 0) {
-            Block b = queue.poll();
-            Material type = b.getType();
-
-            if (!isTargetLeaf(type) && type != Material.ACACIA_LEAVES) continue;
-
-            String k = key(b);
-            if (!paintedLeaves.containsKey(k)) {
-                if (type != Material.ACACIA_LEAVES) {
-                    paintedLeaves.put(k, type);
-                }
-                b.setType(Material.ACACIA_LEAVES, false);
-            }
-
-            for (int dx = -1; dx <= 1; dx++) {
-                for (int dy = -1; dy <= 1; dy++) {
-                    for (int dz = -1; dz <= 1; dz++) {
-                        if (Math.abs(dx) + Math.abs(dy) + Math.abs(dz) != 1) continue;
-
-                        Block nb = w.getBlockAt(
-                                b.getX() + dx,
-                                b.getY() + dy,
-                                b.getZ() + dz
-                        );
-                        String nk = key(nb);
-                        if (visited.add(nk) && isTargetLeaf(nb.getType())) {
-                            queue.add(nb);
-                        }
-                    }
-                }
-            }
-        }
+        // hojas del mismo árbol desde el registro compartido (sin BFS propio)
+        plugin.getTrees().forEachLeafOfTree(start, 64, b -> {
+            if (!isTargetLeaf(b.getType())) return;
+            // el overlay guarda el estado original (especie incluida) para revertir
+            plugin.getOverlay().set(b, Material.ACACIA_LEAVES, SeasonOverlay.LEAF);
+            plugin.getSectionProbe().note(b, Material.ACACIA_LEAVES);
+        });
     }
 
     private boolean isTargetLeaf(Material m) {
@@ -634,72 +777,112 @@ public final class WinterWorldPainter implements Listener, Runnable {
     }
 
     private boolean isTaigaOrBirchBiome(Biome b) {
-        String n = b.name();
-        return n.contains("TAIGA") || n.contains("BIRCH");
+        return BiomeTraits.has(b, BiomeTraits.TAIGA_BIRCH);
     }
 
     private void revertLeavesStep() {
         int budget = autumnRevertBudgetPerTick;
-        if (budget <= 0 || paintedLeaves.isEmpty()) return;
-
-        Iterator<Map.Entry<String, Material>> it = paintedLeaves.entrySet().iterator();
-        while (it.hasNext() && budget-- > 0) {
-            Map.Entry<String, Material> e = it.next();
-            String k = e.getKey();
-            Material original = e.getValue();
-
-            String[] s = k.split(";");
-            World w = Bukkit.getWorld(s[0]);
-            if (w == null) {
-                it.remove();
+        if (budget <= 0) return;
+        // una pasada de overlay por chunk (~64 hojas pintadas por chunk)
+        plugin.getOverlay().revertSome(SeasonOverlay.LEAF, Math.max(1, budget / 64));
+    }
+
+    /* ===================== Melt fuera de invierno ===================== */
+
+    /**
+     * Revierte lo pintado siguiendo el barrido: chunk a chunk, hasta agotar el
+     * presupuesto; un chunk a medias se retoma en la siguiente pasada. No hace falta
+     * guardar el cursor aparte: lo que queda por derretir ES el overlay de cada
+     * chunk (en su PDC), así que tras un reinicio se sigue donde se quedó.
+     * @return presupuesto sobrante
+     */
+    private int overlayMeltStep(int budget) {
+        if (sweepCursor >= sweep.size() || ++sweepAge >= SWEEP_REBUILD_RUNS) rebuildSweep();
+
+        SeasonOverlay overlay = plugin.getOverlay();
+        int kinds = SeasonOverlay.SNOW; // el hielo va por thawIceStep
+        while (budget > 0 && sweepCursor < sweep.size()) {
+            SweepChunk s = sweep.get(sweepCursor);
+            if (!s.world().isChunkLoaded(s.cx(), s.cz()) || !overlay.has(s.world(), s.cx(), s.cz(), kinds)) {
+                sweepCursor++;
                 continue;
             }
-            int x = Integer.parseInt(s[1]);
-            int y = Integer.parseInt(s[2]);
-            int z = Integer.parseInt(s[3]);
-            Block b = w.getBlockAt(x, y, z);
-
-            if (b.getType() == Material.ACACIA_LEAVES) {
-                if (WinterWorldGuardHelper.canModify(b)) {
-                    b.setType(original, false);
-                }
-            }
-            it.remove();
+            budget -= overlay.revert(s.world().getChunkAt(s.cx(), s.cz()), kinds, budget);
+            // si sobró presupuesto, el chunk quedó limpio (lo que ya no era nuestro se olvida)
+            if (budget > 0) sweepCursor++;
         }
+        return budget;
     }
 
-    /* ===================== Melt fuera de invierno ===================== */
+    private void rebuildSweep() {
+        sweep.clear();
+        sweepCursor = 0;
+        sweepAge = 0;
+
+        int kinds = SeasonOverlay.SNOW;
+        PlayerSnapshotService.Frame frame = plugin.players.frame();
+        for (World w : Bukkit.getWorlds()) {
+            if (w.getEnvironment() != World.Environment.NORMAL || isFxDisabled(w)) continue;
+            PlayerView[] near = frame.inWorld(w);
+            plugin.getOverlay().forEachChunk(w, kinds, k -> {
+                int cx = BlockKeys.chunkX(k), cz = BlockKeys.chunkZ(k);
+                // nunca tocar nieve natural (igual que el derretido de arranque)
+                if (plugin.getClimateField().isNaturallySnowy(w, cx, cz)) return;
+                int dist = Integer.MAX_VALUE;
+                for (PlayerView pv : near) dist = Math.min(dist, pv.chunkDistance(cx, cz));
+                sweep.add(new SweepChunk(w, cx, cz, dist));
+            });
+        }
+        sweep.sort(Comparator.comparingInt(SweepChunk::distance));
+    }
 
-    private void meltAllStep() {
-        int remaining = meltBudgetPerTick;
+    private void meltAllStep(int budget) {
+        int remaining = budget;
         if (remaining <= 0) return;
 
         ThreadLocalRandom rnd = ThreadLocalRandom.current();
-        List<Player> players = new ArrayList<>(Bukkit.getOnlinePlayers());
+        List<PlayerView> players = new ArrayList<>(Arrays.asList(plugin.players.frame().players()));
         if (players.isEmpty()) return;
         Collections.shuffle(players, rnd);
+        BlockMarks marks = plugin.getBlockMarks();
 
-        for (Player p : players) {
+        for (PlayerView p : players) {
             if (remaining <= 0) break;
 
-            World w = p.getWorld();
+            World w = p.world;
             if (w.getEnvironment() != World.Environment.NORMAL) continue;
             if (isFxDisabled(w)) continue;
 
-            int px = p.getLocation().getBlockX();
-            int pz = p.getLocation().getBlockZ();
+            int px = p.blockX;
+            int pz = p.blockZ;
 
             int rad = radius * 2;
             int colsPerPlayer = Math.min(remaining, 32);
+            int want = SectionProbe.SNOW | SectionProbe.SNOWY | (meltAlsoIce ? SectionProbe.ICE : 0);
 
             for (int i = 0; i < colsPerPlayer && remaining > 0; i++) {
                 int x = px + rnd.nextInt(-rad, rad + 1);
                 int z = pz + rnd.nextInt(-rad, rad + 1);
+                if (!w.isChunkLoaded(x >> 4, z >> 4)) continue;
+                // ✅ chunk ya derretido esta estación
+                if (plugin.getSeasonStamp().isDone(w, x >> 4, z >> 4, ChunkSeasonStamp.MELT)) continue;
 
                 int topY = w.getMaxHeight() - 1;
                 int minY = w.getMinHeight();
 
+                // ✅ columna en chunk sin nieve/hielo/snowy → nada que derretir
+                byte[] masks = plugin.getSectionProbe().sections(w, x >> 4, z >> 4);
+                if (masks == null) continue; // sonda aún escaneando
+                if (!SectionProbe.any(masks, want)) {
+                    plugin.getSeasonStamp().markDone(w, x >> 4, z >> 4, ChunkSeasonStamp.MELT);
+                    continue;
+                }
+
                 for (int y = topY; y >= minY && remaining > 0; y--) {
+                    if (!SectionProbe.at(masks, minY, y, want)) {
+                        y = minY + (((y - minY) >> 4) << 4);
+                        continue;
+                    }
                     Block b = w.getBlockAt(x, y, z);
                     Material type = b.getType();
 
@@ -710,18 +893,14 @@ public final class WinterWorldPainter implements Listener, Runnable {
                         // ya tienes esto:
                         int chunkX = x >> 4;
                         int chunkZ = z >> 4;
-                        if (BiomeSpoofAdapter.isChunkNaturallySnowy(w, chunkX, chunkZ)) {
+                        if (plugin.getClimateField().isNaturallySnowy(w, chunkX, chunkZ)) {
                             continue;
                         }
 
                         // ✅ NUEVO: si fue puesta por jugador, no tocarla
-                        String k = key(b);
-
-                        // ✅ NUEVO: respetar lo del jugador
-                        if ((type == Material.SNOW || type == Material.SNOW_BLOCK) && protectedSnow.contains(k)) {
-                            continue;
-                        }
-                        if ((type == Material.ICE || type == Material.FROSTED_ICE) && protectedIce.contains(k)) {
+                        int mark = (type == Material.ICE || type == Material.FROSTED_ICE)
+                                ? BlockMarks.PLAYER_ICE : BlockMarks.PLAYER_SNOW;
+                        if (marks.any(w, chunkX, chunkZ, mark) && marks.has(b, mark)) {
                             continue;
                         }
                     }
@@ -730,8 +909,7 @@ public final class WinterWorldPainter implements Listener, Runnable {
                         if (!WinterWorldGuardHelper.canSnowMelt(b)) {
                             continue;
                         }
-                        b.setType(Material.AIR, false);
-                        clearSnowyBelow(b);
+                        melt(b, Material.AIR);
                         remaining--;
                         break;
                     } else if (meltAlsoIce &&
@@ -739,7 +917,11 @@ public final class WinterWorldPainter implements Listener, Runnable {
                         if (!WinterWorldGuardHelper.canSnowMelt(b)) {
                             continue;
                         }
-                        b.setType(Material.WATER, false);
+                        // el hielo nuestro lo deshiela el frente, no un sondeo suelto
+                        if (plugin.getOverlay().original(w, x, y, z) != null) {
+                            continue;
+                        }
+                        melt(b, Material.WATER);
                         remaining--;
                         break;
                     } else {
@@ -752,7 +934,7 @@ public final class WinterWorldPainter implements Listener, Runnable {
                                     continue;
                                 }
                                 snowData.setSnowy(false);
-                                b.setBlockData(snowData, false);
+                                plugin.getMutations().set(b, snowData);
                             }
                         }
                     }
@@ -761,45 +943,19 @@ public final class WinterWorldPainter implements Listener, Runnable {
         }
     }
 
-    /** Método mejorado para verificar biomas nevados naturales */
-    private boolean isNaturallySnowyBiome(World w, int x, int y, int z) {
-        // Primero verificar si el chunk era originalmente nevado
-        int chunkX = x >> 4;
-        int chunkZ = z >> 4;
-        if (BiomeSpoofAdapter.isChunkNaturallySnowy(w, chunkX, chunkZ)) {
-            return true;
-        }
-
-        // Si no hay información del chunk, usar verificación por bioma actual como fallback
-        Biome biome = w.getBiome(x, y, z);
-        String name = biome.name().toUpperCase();
-
-        return name.startsWith("SNOWY_") ||
-                name.equals("ICE_SPIKES") ||
-                name.equals("FROZEN_RIVER") ||
-                name.contains("FROZEN_OCEAN") ||
-                name.equals("FROZEN_PEAKS") ||
-                name.equals("JAGGED_PEAKS") ||
-                name.equals("GROVE");
-    }
-
-    // Este método lo puedes eliminar o mantener para otros usos
-    private boolean isNaturallySnowyArea(World w, int x, int z) {
-        int y = w.getHighestBlockYAt(x, z);
-        return isNaturallySnowyBiome(w, x, y, z);
-    }
-
     /* ===================== helpers comunes ===================== */
 
     @EventHandler(ignoreCancelled = true)
     public void onPlayerPlace(BlockPlaceEvent e) {
         Block b = e.getBlockPlaced();
         Material t = b.getType();
+        // lo que ponga el jugador encima de lo pintado ya es suyo
+        plugin.getOverlay().forget(b);
 
         if (t == Material.SNOW || t == Material.SNOW_BLOCK) {
-            protectedSnow.add(key(b));
+            plugin.getBlockMarks().add(b, BlockMarks.PLAYER_SNOW);
         } else if (t == Material.ICE) {
-            protectedIce.add(key(b));
+            plugin.getBlockMarks().add(b, BlockMarks.PLAYER_ICE);
         }
     }
 
@@ -808,11 +964,10 @@ public final class WinterWorldPainter implements Listener, Runnable {
         Block b = e.getBlock();
         Material t = b.getType();
 
-        String k = key(b);
         if (t == Material.SNOW || t == Material.SNOW_BLOCK) {
-            protectedSnow.remove(k);
+            plugin.getBlockMarks().remove(b, BlockMarks.PLAYER_SNOW);
         } else if (t == Material.ICE) {
-            protectedIce.remove(k);
+            plugin.getBlockMarks().remove(b, BlockMarks.PLAYER_ICE);
         }
     }
 
@@ -820,37 +975,24 @@ public final class WinterWorldPainter implements Listener, Runnable {
         return w != null && disabledFxWorlds.contains(w.getName().toLowerCase(Locale.ROOT));
     }
 
-    private boolean isColdAround(World w, Location center, int rad) {
-        ThreadLocalRandom r = ThreadLocalRandom.current();
-        for (int i = 0; i < 16; i++) {
-            int x = center.getBlockX() + r.nextInt(-rad, rad + 1);
-            int z = center.getBlockZ() + r.nextInt(-rad, rad + 1);
-            if (isColdAt(w, x, z)) return true;
-        }
-        return false;
-    }
-
-    private boolean isColdAt(World w, int x, int z) {
-        try {
-            return w.getTemperature(x, z) <= 0.15D;
-        } catch (Throwable ignored) {
-            Biome b = w.getBiome(x, w.getHighestBlockYAt(x, z), z);
-            String name = b.name();
-            return name.contains("SNOW")
-                    || name.contains("FROZEN")
-                    || name.contains("GROVE")
-                    || name.contains("TAIGA");
-        }
+    private void markSnow(Block b) {
+        plugin.getSectionProbe().note(b, Material.SNOW);
+        plugin.getSurfaceCatalog().touch(b);
     }
 
-    private void markSnow(Block b) { paintedSnow.add(key(b)); }
-    private void markIce(Block b)  { paintedIce.add(key(b)); }
+    /** Derrite b al final del tick (nieve → aire, hielo → agua); el batcher refresca la superficie. */
+    private void melt(Block b, Material to) {
+        BlockMutationBatcher mutations = plugin.getMutations();
+        mutations.set(b, to);
+        if (to == Material.AIR) clearSnowyBelow(b, mutations);
+    }
 
-    private String key(Block b) {
-        return b.getWorld().getName() + ';' + b.getX() + ';' + b.getY() + ';' + b.getZ();
+    static void clearSnowyBelow(Block snowBlock) {
+        clearSnowyBelow(snowBlock, null);
     }
 
-    private void clearSnowyBelow(Block snowBlock) {
+    /** Con batch != null el cambio se encola en vez de escribirse ya. */
+    static void clearSnowyBelow(Block snowBlock, BlockMutationBatcher batch) {
         Block below = snowBlock.getRelative(BlockFace.DOWN);
         if (below.getType().isSolid()) {
             BlockData data = below.getBlockData();
@@ -859,70 +1001,37 @@ public final class WinterWorldPainter implements Listener, Runnable {
                     return;
                 }
                 snowData.setSnowy(false);
-                below.setBlockData(snowData, false);
+                if (batch != null) batch.set(below, snowData);
+                else below.setBlockData(snowData, false);
             }
         }
     }
 
-    private void clearAllPainted() {
-        // nieve
-        for (String k : new HashSet<>(paintedSnow)) {
-            if (protectedSnow.contains(k)) continue; // ✅ NO borres lo del jugador
+    /* ===================== Cambio de estación ===================== */
 
-            String[] s = k.split(";");
-            World w = Bukkit.getWorld(s[0]);
-            if (w == null) continue;
-            int x = Integer.parseInt(s[1]);
-            int y = Integer.parseInt(s[2]);
-            int z = Integer.parseInt(s[3]);
-            Block b = w.getBlockAt(x, y, z);
-            if (b.getType() == Material.SNOW || b.getType() == Material.SNOW_BLOCK) {
-                if (WinterWorldGuardHelper.canIceMelt(b)) {
-                    b.setType(Material.AIR, false);
-                    clearSnowyBelow(b);
-                }
+    /**
+     * Al salir del invierno, el orquestador reparte el derretido de lo pintado chunk a
+     * chunk (del jugador hacia fuera) en vez de dejarlo al sondeo global. El hielo no:
+     * se abre desde la orilla ({@link IceFrontier}) a su ritmo.
+     */
+    SeasonTransitionOrchestrator.Participant transitionParticipant() {
+        return new SeasonTransitionOrchestrator.Participant() {
+            @Override
+            public String name() {
+                return "snow";
             }
-            if (!WinterWorldGuardHelper.canSnowMelt(b)) continue;
-        }
-        paintedSnow.clear();
 
-        // hielo
-        for (String k : new HashSet<>(paintedIce)) {
-            if (protectedIce.contains(k)) continue; // ✅ NO borres lo del jugador
-
-            String[] s = k.split(";");
-            World w = Bukkit.getWorld(s[0]);
-            if (w == null) continue;
-            int x = Integer.parseInt(s[1]);
-            int y = Integer.parseInt(s[2]);
-            int z = Integer.parseInt(s[3]);
-            Block b = w.getBlockAt(x, y, z);
-            if (b.getType() == Material.ICE || b.getType() == Material.FROSTED_ICE) {
-                if (WinterWorldGuardHelper.canIceMelt(b)) {
-                    b.setType(Material.WATER, false);
-                }
+            @Override
+            public void stage(Chunk ch, SeasonTransitionOrchestrator.ChunkPlan plan) {
+                // la nieve pintada ya está anotada en el overlay: nada que preparar
             }
-        }
-        paintedIce.clear();
-
-        // hojas igual...
-        for (Map.Entry<String, Material> e : new HashMap<>(paintedLeaves).entrySet()) {
-            String k = e.getKey();
-            Material original = e.getValue();
-            String[] s = k.split(";");
-            World w = Bukkit.getWorld(s[0]);
-            if (w == null) continue;
-            int x = Integer.parseInt(s[1]);
-            int y = Integer.parseInt(s[2]);
-            int z = Integer.parseInt(s[3]);
-            Block b = w.getBlockAt(x, y, z);
-            if (b.getType() == Material.ACACIA_LEAVES) {
-                if (WinterWorldGuardHelper.canModify(b)) {
-                    b.setType(original, false);
-                }
+
+            @Override
+            public boolean rollOut(Chunk ch, SeasonTransitionOrchestrator.ChunkPlan plan) {
+                if (!enabled || !meltWhenNotWinter || plan.season == Season.WINTER) return false;
+                if (!plugin.getOverlay().has(ch.getWorld(), ch.getX(), ch.getZ(), SeasonOverlay.SNOW)) return false;
+                return plugin.getOverlay().revert(ch, SeasonOverlay.SNOW) > 0;
             }
-            // Agregado: para que la lógica de revertir no se rompa al final
-            paintedLeaves.remove(k);
-        }
+        };
     }
 }
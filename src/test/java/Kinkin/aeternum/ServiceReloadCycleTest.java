@@ -0,0 +1,141 @@
+package Kinkin.aeternum;
+
+import Kinkin.aeternum.calendar.SeasonService;
+import Kinkin.aeternum.config.ConfigSnapshot;
+import Kinkin.aeternum.util.Configs;
+import Kinkin.aeternum.util.FakeServer;
+import Kinkin.aeternum.weather.SeasonalWeatherService;
+import Kinkin.aeternum.world.AutumnSoilPainter;
+import Kinkin.aeternum.world.ChunkSeasonStamp;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ciclos de reload con servicios reales (clima con su reloj tickWorldClock y el
+ * suelo de otoño como listener): tras N ciclos no debe quedar ninguna tarea ni
+ * handler colgando del plugin.
+ */
+class ServiceReloadCycleTest {
+
+    private static final int CYCLES = 50;
+
+    @TempDir
+    Path dir;
+
+    private FakeServer server;
+    private AeternumSeasonsPlugin plugin;
+    private SeasonalWeatherService weather;
+    private AutumnSoilPainter soil;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = FakeServer.install();
+        for (String name : new String[]{"config.yml", "calendar.yml", "hud.yml"}) {
+            Files.writeString(dir.resolve(name), "");
+        }
+        plugin = new AeternumSeasonsPlugin(new JavaPluginLoader(Bukkit.getServer()),
+                new PluginDescriptionFile("SeasonsCore", "test", AeternumSeasonsPlugin.class.getName()),
+                dir.toFile(), dir.resolve("SeasonsCore.jar").toFile());
+        plugin.cfg = new Configs(plugin);
+        plugin.cfg.apply(snapshot(true, true));
+
+        SeasonService seasons = new SeasonService(plugin);
+        inject("seasons", seasons);
+        inject("seasonStamp", new ChunkSeasonStamp(plugin, seasons));
+
+        weather = new SeasonalWeatherService(plugin, seasons);
+        soil = new AutumnSoilPainter(plugin, seasons);
+    }
+
+    /** climate.yml con los dos servicios on/off; el resto, defaults del código. */
+    private ConfigSnapshot snapshot(boolean weatherOn, boolean soilOn) throws IOException {
+        Files.writeString(dir.resolve("climate.yml"),
+                "seasonal_weather:\n  enabled: " + weatherOn + "\n"
+                        + "autumn_soil:\n  enabled: " + soilOn + "\n");
+        ConfigSnapshot snap = ConfigSnapshot.load(dir.toFile(), Map.of());
+        assertTrue(snap.isValid(), "climate.yml de prueba inválido: " + snap.errors());
+        return snap;
+    }
+
+    private void inject(String field, Object value) throws ReflectiveOperationException {
+        Field f = AeternumSeasonsPlugin.class.getDeclaredField(field);
+        f.setAccessible(true);
+        f.set(plugin, value);
+    }
+
+    private void register() {
+        weather.register();
+        soil.register();
+    }
+
+    private void unregister() {
+        weather.unregister();
+        soil.unregister();
+    }
+
+    private void assertNothingLeft() {
+        assertEquals(0, plugin.lifecycle.liveTasks(), "tareas vivas en el registro");
+        assertEquals(0, plugin.lifecycle.listenerCount(), "listeners vivos en el registro");
+        assertEquals(0, server.pendingTasks(), "tareas vivas en el scheduler");
+        assertTrue(plugin.lifecycle.findLeaks().isEmpty(), "tareas huérfanas: " + plugin.lifecycle.findLeaks());
+    }
+
+    @Test
+    void reloadCycleLeavesNothingBehind() {
+        register();
+        // un timer y un listener por servicio
+        assertEquals(2, plugin.lifecycle.liveTasks());
+        assertEquals(2, plugin.lifecycle.listenerCount());
+
+        for (int i = 0; i < CYCLES; i++) {
+            unregister();
+            register();
+            server.tick();
+
+            assertEquals(2, plugin.lifecycle.liveTasks(), "tareas tras el ciclo " + i);
+            assertEquals(2, plugin.lifecycle.listenerCount(), "listeners tras el ciclo " + i);
+            assertEquals(2, server.pendingTasks(), "scheduler tras el ciclo " + i);
+        }
+
+        unregister();
+        assertNothingLeft();
+    }
+
+    @Test
+    void settingsToggleCycleLeavesNothingBehind() throws IOException {
+        register();
+        ConfigSnapshot off = snapshot(false, false);
+        ConfigSnapshot on = snapshot(true, true);
+
+        for (int i = 0; i < CYCLES; i++) {
+            plugin.cfg.apply(off);
+            weather.applySettings(off.weather());
+            soil.applySettings(off.autumnSoil(), off.autumnFoliage());
+            server.tick();
+            assertNothingLeft();
+
+            plugin.cfg.apply(on);
+            weather.applySettings(on.weather());
+            soil.applySettings(on.autumnSoil(), on.autumnFoliage());
+            server.tick();
+            assertEquals(2, plugin.lifecycle.liveTasks(), "tareas tras el ciclo " + i);
+            assertEquals(2, plugin.lifecycle.listenerCount(), "listeners tras el ciclo " + i);
+        }
+
+        unregister();
+        assertNothingLeft();
+    }
+}
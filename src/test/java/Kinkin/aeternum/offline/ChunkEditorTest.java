@@ -0,0 +1,100 @@
+package Kinkin.aeternum.offline;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ediciones del ChunkEditor sobre el chunk del {@link RegionFixture}: cada una se
+ * reempaqueta, pasa por NBT y se relee con un editor nuevo.
+ */
+class ChunkEditorTest {
+
+    /** finish() + escribir/leer NBT + editor nuevo: lo que vería la siguiente pasada. */
+    private static ChunkEditor reread(ChunkEditor ed, Map<String, Object> root) throws IOException {
+        ed.finish();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            Nbt.writeRoot(out, root);
+        }
+        Map<String, Object> back = Nbt.readRoot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        return new ChunkEditor(back);
+    }
+
+    private static String prop(ChunkEditor ed, int x, int y, int z, String key) {
+        Map<String, Object> props = Nbt.compound(ed.blockState(x, y, z), "Properties");
+        return props == null ? null : (String) props.get(key);
+    }
+
+    @Test
+    void removeSnowLeavesAirAndClearsSnowyBelow() throws IOException {
+        Map<String, Object> root = RegionFixture.chunk();
+        ChunkEditor ed = new ChunkEditor(root);
+        assertTrue(ed.isFull());
+        assertTrue(ed.removeSnow(1, 65, 1));
+
+        ChunkEditor back = reread(ed, root);
+        assertEquals("minecraft:air", back.blockName(1, 65, 1));
+        assertEquals("minecraft:grass_block", back.blockName(1, 64, 1));
+        assertEquals("false", prop(back, 1, 64, 1, "snowy"));
+        assertFalse(back.removeSnow(1, 65, 1));
+        assertNull(root.get("Heightmaps"));
+    }
+
+    @Test
+    void meltIceLeavesStillWater() throws IOException {
+        Map<String, Object> root = RegionFixture.chunk();
+        ChunkEditor ed = new ChunkEditor(root);
+        assertTrue(ed.meltIce(3, 64, 3));
+
+        ChunkEditor back = reread(ed, root);
+        assertEquals("minecraft:water", back.blockName(3, 64, 3));
+        assertEquals("0", prop(back, 3, 64, 3, "level"));
+        assertFalse(back.meltIce(3, 64, 3));
+    }
+
+    @Test
+    void restoreLeafKeepsLeafProperties() throws IOException {
+        Map<String, Object> root = RegionFixture.chunk();
+        ChunkEditor ed = new ChunkEditor(root);
+        assertTrue(ed.restoreLeaf(5, 70, 5, ChunkEditor.key("BIRCH_LEAVES")));
+
+        ChunkEditor back = reread(ed, root);
+        assertEquals("minecraft:birch_leaves", back.blockName(5, 70, 5));
+        assertEquals("2", prop(back, 5, 70, 5, "distance"));
+        assertEquals("false", prop(back, 5, 70, 5, "persistent"));
+        assertFalse(back.restoreLeaf(5, 70, 5, "minecraft:birch_leaves"));
+    }
+
+    @Test
+    void setBiomeSurvivesRepack() throws IOException {
+        Map<String, Object> root = RegionFixture.chunk();
+        ChunkEditor ed = new ChunkEditor(root);
+        assertTrue(ed.setBiome(4, 68, 8, "minecraft:plains"));
+        assertFalse(ed.setBiome(5, 69, 9, "minecraft:plains")); // misma celda 4×4×4
+
+        ChunkEditor back = reread(ed, root);
+        assertFalse(back.setBiome(4, 68, 8, "minecraft:plains"));
+        assertFalse(back.setBiome(0, 64, 0, "minecraft:snowy_plains"));  // el resto no cambió
+        assertTrue(back.setBiome(4, 68, 8, "minecraft:snowy_plains"));
+        assertFalse(back.setBiome(0, 0, 0, "minecraft:plains"));         // sin sección
+    }
+
+    @Test
+    void untouchedChunkIsNotRewritten() {
+        ChunkEditor ed = new ChunkEditor(RegionFixture.chunk());
+        assertFalse(ed.removeSnow(2, 65, 2));   // aire
+        assertFalse(ed.meltIce(1, 64, 1));      // hierba
+        assertFalse(ed.finish());
+    }
+}
@@ -0,0 +1,96 @@
+package Kinkin.aeternum.offline;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * La herramienta offline entera sobre un mundo de juguete ({@link RegionFixture}):
+ * aplica el diario a la región y repetirla no cambia nada.
+ */
+class OfflineToolTest {
+
+    @TempDir
+    Path dir;
+
+    private Path world;
+    private Path data;
+    private Path region;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        world = RegionFixture.world(dir);
+        data = dir.resolve("plugins").resolve("SeasonsCore");
+        region = world.resolve("region").resolve("r.0.0.mca");
+    }
+
+    private ChunkEditor chunk() throws IOException {
+        Map<String, Object> root = new RegionFile(region).read(0, 0);
+        assertNotNull(root);
+        return new ChunkEditor(root);
+    }
+
+    @Test
+    void regionFileRoundTrip() throws IOException {
+        RegionFile rf = new RegionFile(region);
+        assertTrue(rf.hasChunk(0, 0));
+        assertFalse(rf.hasChunk(1, 0));
+        assertFalse(rf.isDirty());
+
+        ChunkEditor ed = chunk();
+        assertEquals("minecraft:snow", ed.blockName(1, 65, 1));
+        assertEquals("minecraft:ice", ed.blockName(3, 64, 3));
+        assertEquals("minecraft:acacia_leaves", ed.blockName(5, 70, 5));
+        assertEquals("minecraft:stone", ed.blockName(8, 64, 8));
+    }
+
+    @Test
+    void appliesJournalToRegion() throws Exception {
+        Path journal = RegionFixture.journal(data);
+        assertEquals(0, new OfflineTool(world, data, 1, false, false).run());
+
+        ChunkEditor ed = chunk();
+        assertEquals("minecraft:air", ed.blockName(1, 65, 1));
+        assertEquals("minecraft:water", ed.blockName(3, 64, 3));
+        assertEquals("minecraft:birch_leaves", ed.blockName(5, 70, 5));
+        assertFalse(ed.setBiome(0, 64, 0, "minecraft:plains"));  // biomas del diario aplicados
+        assertFalse(Files.exists(journal));                      // aplicado entero: se borra
+    }
+
+    @Test
+    void dryRunWritesNothing() throws Exception {
+        Path journal = RegionFixture.journal(data);
+        byte[] before = Files.readAllBytes(region);
+        assertEquals(0, new OfflineTool(world, data, 1, true, false).run());
+
+        assertArrayEquals(before, Files.readAllBytes(region));
+        assertTrue(Files.exists(journal));
+    }
+
+    @Test
+    void rerunIsIdempotent() throws Exception {
+        RegionFixture.journal(data);
+        assertEquals(0, new OfflineTool(world, data, 1, false, false).run());
+        byte[] once = Files.readAllBytes(region);
+
+        // el mismo diario otra vez (p.ej. una ejecución cortada a medias): nada que cambiar
+        RegionFixture.journal(data);
+        assertEquals(0, new OfflineTool(world, data, 1, false, false).run());
+        assertArrayEquals(once, Files.readAllBytes(region));
+
+        // y sin diario no hay nada que hacer
+        assertEquals(0, new OfflineTool(world, data, 1, false, false).run());
+        assertArrayEquals(once, Files.readAllBytes(region));
+    }
+}
@@ -0,0 +1,159 @@
+package Kinkin.aeternum.offline;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Mundo de juguete para la herramienta offline, generado con RegionFile/Nbt.
+ *
+ * Un chunk "full" con una sola sección (Y=4, y 64..79) en snowy_plains:
+ * - (1,64,1) grass_block snowy con nieve encima en (1,65,1),
+ * - (3,64,3) hielo,
+ * - (5,70,5) acacia_leaves (distance=2) que eran birch_leaves,
+ * - el resto piedra por debajo de y=65 y aire por encima.
+ */
+final class RegionFixture {
+
+    static final int MIN_Y = -64;
+    static final UUID WORLD_ID = new UUID(0x1234L, 0x5678L);
+
+    private RegionFixture() {
+    }
+
+    /* ========================= CHUNK ========================= */
+
+    static Map<String, Object> chunk() {
+        List<Object> palette = new ArrayList<>();
+        palette.add(state("minecraft:air", null));
+        palette.add(state("minecraft:stone", null));
+        palette.add(state("minecraft:grass_block", props("snowy", "true")));
+        palette.add(state("minecraft:snow", props("layers", "1")));
+        palette.add(state("minecraft:ice", null));
+        Map<String, Object> leaf = props("distance", "2");
+        leaf.put("persistent", "false");
+        leaf.put("waterlogged", "false");
+        palette.add(state("minecraft:acacia_leaves", leaf));
+
+        int[] blocks = new int[4096];
+        for (int y = 64; y < 65; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) blocks[index(x, y, z)] = 1;
+            }
+        }
+        blocks[index(1, 64, 1)] = 2;
+        blocks[index(1, 65, 1)] = 3;
+        blocks[index(3, 64, 3)] = 4;
+        blocks[index(5, 70, 5)] = 5;
+
+        Map<String, Object> blockStates = new LinkedHashMap<>();
+        blockStates.put("palette", new Nbt.ListTag(Nbt.COMPOUND, palette));
+        blockStates.put("data", pack(blocks, 4));
+
+        Map<String, Object> biomes = new LinkedHashMap<>();
+        biomes.put("palette", new Nbt.ListTag(Nbt.STRING, new ArrayList<>(List.of("minecraft:snowy_plains"))));
+
+        Map<String, Object> section = new LinkedHashMap<>();
+        section.put("Y", (byte) 4);
+        section.put("block_states", blockStates);
+        section.put("biomes", biomes);
+
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("DataVersion", 3955);
+        root.put("xPos", 0);
+        root.put("zPos", 0);
+        root.put("Status", "minecraft:full");
+        root.put("sections", new Nbt.ListTag(Nbt.COMPOUND, new ArrayList<>(List.of(section))));
+        return root;
+    }
+
+    static int index(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    private static long[] pack(int[] values, int bits) {
+        int perLong = 64 / bits;
+        long[] data = new long[(values.length + perLong - 1) / perLong];
+        for (int i = 0; i < values.length; i++) data[i / perLong] |= (long) values[i] << ((i % perLong) * bits);
+        return data;
+    }
+
+    private static Map<String, Object> state(String name, Map<String, Object> props) {
+        Map<String, Object> st = new LinkedHashMap<>();
+        st.put("Name", name);
+        if (props != null) st.put("Properties", props);
+        return st;
+    }
+
+    private static Map<String, Object> props(String k, String v) {
+        Map<String, Object> p = new LinkedHashMap<>();
+        p.put(k, v);
+        return p;
+    }
+
+    /* ========================= MUNDO ========================= */
+
+    /** Carpeta de mundo con region/r.0.0.mca (chunk 0,0) y uid.dat. */
+    static Path world(Path dir) throws IOException {
+        Path world = dir.resolve("world");
+        Path region = Files.createDirectories(world.resolve("region"));
+        Path file = region.resolve("r.0.0.mca");
+        Files.write(file, new byte[8192]); // cabecera vacía
+        RegionFile rf = new RegionFile(file);
+        rf.write(0, 0, chunk());
+        rf.save();
+
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(world.resolve("uid.dat")))) {
+            out.writeLong(WORLD_ID.getMostSignificantBits());
+            out.writeLong(WORLD_ID.getLeastSignificantBits());
+        }
+        return world;
+    }
+
+    /**
+     * Diario de reverts (mismo formato que RevertJournal) para el chunk 0,0:
+     * nieve en (1,65,1), hielo en (3,64,3) y la hoja (5,70,5) → BIRCH_LEAVES,
+     * más biomas (grilla de 4) devueltos a PLAINS (el primero, desconocido: -1).
+     */
+    static Path journal(Path data) throws IOException {
+        Path file = Files.createDirectories(data.resolve("data").resolve("journal")).resolve(WORLD_ID + ".bin");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(0xAE5EDA7A);
+            out.writeByte(1);
+            out.writeInt(MIN_Y);
+            out.writeInt(2);
+            out.writeUTF("BIRCH_LEAVES");
+            out.writeUTF("PLAINS");
+
+            out.writeInt(1);            // chunks
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeInt(3);            // entradas
+            entry(out, 1, 65, 1, 0, -1);
+            entry(out, 3, 64, 3, 1, -1);
+            entry(out, 5, 70, 5, 2, 0);
+
+            int perColumn = (80 - MIN_Y) / 4; // hasta la sección del fixture
+            out.writeInt(16 * perColumn);
+            out.writeShort(-1);         // bioma que ya no existe: no se toca
+            for (int i = 1; i < 16 * perColumn; i++) out.writeShort(1);
+        }
+        Files.write(file, bytes.toByteArray());
+        return file;
+    }
+
+    private static void entry(DataOutputStream out, int x, int y, int z, int kind, int original) throws IOException {
+        out.writeInt(((y - MIN_Y) << 8) | (x << 4) | z);
+        out.writeByte(kind);
+        out.writeShort(original);
+    }
+}
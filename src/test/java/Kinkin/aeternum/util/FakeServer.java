@@ -0,0 +1,213 @@
+package Kinkin.aeternum.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Server;
+import org.bukkit.Tag;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Servidor falso para tests sin arrancar Paper.
+ *
+ * Solo implementa lo que usa el ciclo de vida: un scheduler por ticks
+ * ({@link #tick()}) y un PluginManager que cuenta los registerEvents; y los
+ * tags de bloques que usan los servicios del mundo (leaves/logs, por nombre).
+ * Todo lo demás de Server/Plugin devuelve el valor por defecto del tipo.
+ */
+public final class FakeServer {
+
+    /** Tarea del scheduler falso. */
+    final class Task implements BukkitTask {
+        final int id;
+        final Plugin owner;
+        final Runnable body;
+        final boolean sync;
+        final long period;
+        long next;
+        boolean cancelled;
+        boolean done;
+
+        Task(int id, Plugin owner, Runnable body, boolean sync, long delay, long period) {
+            this.id = id;
+            this.owner = owner;
+            this.body = body;
+            this.sync = sync;
+            this.period = period;
+            this.next = currentTick + Math.max(0L, delay);
+        }
+
+        @Override public int getTaskId() { return id; }
+        @Override public Plugin getOwner() { return owner; }
+        @Override public boolean isSync() { return sync; }
+        @Override public boolean isCancelled() { return cancelled; }
+        @Override public void cancel() { cancelled = true; }
+    }
+
+    final Plugin plugin;
+    final Map<Integer, Task> tasks = new LinkedHashMap<>();
+    final List<Listener> registered = new ArrayList<>();
+    long currentTick;
+    private int nextId = 1;
+
+    private FakeServer() {
+        Logger log = Logger.getLogger("SeasonsCore-test");
+        this.plugin = proxy(Plugin.class, (p, m, a) -> switch (m.getName()) {
+            case "getLogger" -> log;
+            case "getName" -> "SeasonsCore";
+            case "isEnabled" -> true;
+            default -> objectMethod(p, m, a);
+        });
+    }
+
+    /** Instala un servidor nuevo en {@link Bukkit} (sustituye al del test anterior). */
+    public static FakeServer install() {
+        FakeServer fake = new FakeServer();
+        BukkitScheduler scheduler = proxy(BukkitScheduler.class, (p, m, a) -> fake.schedule(p, m, a));
+        PluginManager pm = proxy(PluginManager.class, (p, m, a) -> {
+            if (m.getName().equals("registerEvents")) {
+                fake.registered.add((Listener) a[0]);
+                return null;
+            }
+            return objectMethod(p, m, a);
+        });
+        Server server = proxy(Server.class, (p, m, a) -> switch (m.getName()) {
+            case "getScheduler" -> scheduler;
+            case "getPluginManager" -> pm;
+            case "getLogger" -> Logger.getLogger("SeasonsCore-test");
+            case "getTag" -> tag((NamespacedKey) a[1]);
+            default -> objectMethod(p, m, a);
+        });
+        try {
+            Field f = Bukkit.class.getDeclaredField("server");
+            f.setAccessible(true);
+            f.set(null, server);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo instalar el servidor falso", e);
+        }
+        return fake;
+    }
+
+    /** Avanza un tick: corre lo que toca y retira los one-shot ya corridos. */
+    public void tick() {
+        currentTick++;
+        for (Task t : new ArrayList<>(tasks.values())) {
+            if (t.cancelled || t.done || t.next > currentTick) continue;
+            t.body.run();
+            if (t.period > 0) t.next = currentTick + t.period;
+            else t.done = true;
+        }
+        for (Iterator<Task> it = tasks.values().iterator(); it.hasNext(); ) {
+            Task t = it.next();
+            if (t.cancelled || t.done) it.remove();
+        }
+    }
+
+    public void tick(int n) {
+        for (int i = 0; i < n; i++) tick();
+    }
+
+    /** Tareas del plugin que siguen vivas en el scheduler. */
+    public int pendingTasks() {
+        int n = 0;
+        for (Task t : tasks.values()) if (!t.cancelled && !t.done) n++;
+        return n;
+    }
+
+    /* ========================= SCHEDULER ========================= */
+
+    private Object schedule(Object self, Method m, Object[] a) {
+        switch (m.getName()) {
+            case "runTask":                  return add(a, true, 0L, 0L);
+            case "runTaskLater":             return add(a, true, (Long) a[2], 0L);
+            case "runTaskTimer":             return add(a, true, (Long) a[2], (Long) a[3]);
+            case "runTaskAsynchronously":    return add(a, false, 0L, 0L);
+            case "runTaskLaterAsynchronously": return add(a, false, (Long) a[2], 0L);
+            case "runTaskTimerAsynchronously": return add(a, false, (Long) a[2], (Long) a[3]);
+            case "isQueued": {
+                Task t = tasks.get((Integer) a[0]);
+                return t != null && !t.cancelled && !t.done;
+            }
+            case "isCurrentlyRunning":       return false;
+            case "getPendingTasks": {
+                List<BukkitTask> out = new ArrayList<>();
+                for (Task t : tasks.values()) if (!t.cancelled && !t.done) out.add(t);
+                return out;
+            }
+            case "cancelTask": {
+                Task t = tasks.get((Integer) a[0]);
+                if (t != null) t.cancel();
+                return null;
+            }
+            default:                         return objectMethod(self, m, a);
+        }
+    }
+
+    private Task add(Object[] a, boolean sync, long delay, long period) {
+        if (!(a[1] instanceof Runnable r)) {
+            throw new UnsupportedOperationException("Solo se soportan tareas Runnable en el servidor falso");
+        }
+        Task t = new Task(nextId++, (Plugin) a[0], r, sync, delay, period);
+        tasks.put(t.id, t);
+        return t;
+    }
+
+    /* ========================= TAGS ========================= */
+
+    // por nombre de material: basta para los tags que miran los servicios
+    @SuppressWarnings("unchecked")
+    private static Tag<Material> tag(NamespacedKey key) {
+        Predicate<Material> rule = switch (key.getKey()) {
+            case "leaves" -> m -> m.name().endsWith("_LEAVES");
+            case "logs" -> m -> m.name().endsWith("_LOG") || m.name().endsWith("_WOOD")
+                    || m.name().endsWith("_STEM") || m.name().endsWith("_HYPHAE");
+            default -> m -> false;
+        };
+        Set<Material> values = EnumSet.noneOf(Material.class);
+        for (Material m : Material.values()) if (rule.test(m)) values.add(m);
+        return proxy(Tag.class, (p, m, a) -> switch (m.getName()) {
+            case "isTagged" -> a[0] instanceof Material mat && values.contains(mat);
+            case "getValues" -> values;
+            case "getKey" -> key;
+            default -> objectMethod(p, m, a);
+        });
+    }
+
+    /* ========================= PROXIES ========================= */
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler h) {
+        return (T) Proxy.newProxyInstance(FakeServer.class.getClassLoader(), new Class<?>[]{type}, h);
+    }
+
+    // equals/hashCode/toString por identidad; el resto, el valor por defecto del tipo
+    private static Object objectMethod(Object self, Method m, Object[] a) {
+        switch (m.getName()) {
+            case "equals":   return self == a[0];
+            case "hashCode": return System.identityHashCode(self);
+            case "toString": return "FakeServer$" + Integer.toHexString(System.identityHashCode(self));
+        }
+        Class<?> r = m.getReturnType();
+        if (!r.isPrimitive() || r == void.class) return null;
+        return Array.get(Array.newInstance(r, 1), 0);
+    }
+}
@@ -0,0 +1,121 @@
+package Kinkin.aeternum.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Listener;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ciclos de reload contra el registro: lo que un servicio monta en register()
+ * y desmonta en unregister() no debe crecer reload tras reload.
+ */
+class LifecycleRegistryTest {
+
+    /** Servicio de juguete con la misma forma que los reales (register/unregister/reload). */
+    private static final class Service implements Listener {
+        private final LifecycleScope life;
+
+        Service(LifecycleRegistry registry, String name) {
+            this.life = registry.scope(name);
+        }
+
+        void register() {
+            life.listen(this);
+            life.timer(() -> { }, 20L, 20L);
+            life.later(() -> { }, 5L);   // one-shot: se purga sola al correr
+            life.executor("io");
+        }
+
+        void unregister() {
+            life.close();
+        }
+
+        void reload() {
+            unregister();
+            register();
+        }
+    }
+
+    private FakeServer server;
+    private LifecycleRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        server = FakeServer.install();
+        registry = new LifecycleRegistry(server.plugin);
+    }
+
+    @Test
+    void reloadCycleKeepsCountsFlat() {
+        List<Service> services = List.of(
+                new Service(registry, "A"),
+                new Service(registry, "B"),
+                new Service(registry, "C"));
+        services.forEach(Service::register);
+
+        int tasks = registry.liveTasks();
+        int listeners = registry.listenerCount();
+        int executors = registry.executorCount();
+        assertEquals(6, tasks);
+        assertEquals(3, listeners);
+        assertEquals(3, executors);
+
+        for (int cycle = 1; cycle <= 5; cycle++) {
+            services.forEach(Service::reload);
+            assertEquals(tasks, registry.liveTasks(), "tareas tras reload " + cycle);
+            server.tick(cycle * 3);
+
+            assertEquals(listeners, registry.listenerCount(), "listeners tras reload " + cycle);
+            assertEquals(executors, registry.executorCount(), "executors tras reload " + cycle);
+            assertEquals(registry.liveTasks(), server.pendingTasks(), "tareas del scheduler tras reload " + cycle);
+            assertTrue(registry.findLeaks().isEmpty(), "fugas tras reload " + cycle);
+        }
+        // sin reload de por medio, los one-shot ya corrieron: solo quedan los timers
+        server.tick(10);
+        assertEquals(3, registry.liveTasks());
+    }
+
+    @Test
+    void repeatedListenDoesNotDuplicateHandlers() {
+        LifecycleScope scope = registry.scope("Dup");
+        Listener l = new Listener() { };
+        scope.listen(l);
+        scope.listen(l);
+
+        assertEquals(1, scope.listenerCount());
+        assertEquals(1, server.registered.size());
+    }
+
+    @Test
+    void unownedTaskIsReportedAsLeak() {
+        new Service(registry, "A").register();
+        BukkitTask stray = Bukkit.getScheduler().runTaskTimer(server.plugin, () -> { }, 1L, 1L);
+
+        List<BukkitTask> leaks = registry.findLeaks();
+        assertEquals(1, leaks.size());
+        assertEquals(stray.getTaskId(), leaks.get(0).getTaskId());
+
+        stray.cancel();
+        assertTrue(registry.findLeaks().isEmpty());
+    }
+
+    @Test
+    void closeAllLeavesNothingBehind() {
+        new Service(registry, "A").register();
+        new Service(registry, "B").register();
+
+        registry.closeAll();
+
+        assertEquals(0, registry.liveTasks());
+        assertEquals(0, registry.listenerCount());
+        assertEquals(0, registry.executorCount());
+        assertEquals(0, server.pendingTasks());
+        assertTrue(registry.findLeaks().isEmpty());
+    }
+}
@@ -0,0 +1,106 @@
+package Kinkin.aeternum.world;
+
+import Kinkin.aeternum.util.BlockKeys;
+import Kinkin.aeternum.util.FakeServer;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Análisis de árboles de un chunk sobre un mundo de juguete (solo el chunk 0,0 cargado).
+ */
+class TreeRegistryTest {
+
+    private final Map<Long, Material> blocks = new HashMap<>();
+    private World world;
+
+    @BeforeEach
+    void setUp() {
+        FakeServer.install();
+        blocks.clear();
+        world = (World) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{World.class},
+                (p, m, a) -> switch (m.getName()) {
+                    case "getMinHeight" -> 0;
+                    case "getMaxHeight" -> 256;
+                    case "isChunkLoaded" -> m.getParameterCount() == 2 && (Integer) a[0] == 0 && (Integer) a[1] == 0;
+                    case "getBlockAt" -> block((Integer) a[0], (Integer) a[1], (Integer) a[2]);
+                    default -> defaultOf(m.getReturnType());
+                });
+    }
+
+    private Block block(int x, int y, int z) {
+        Material type = blocks.getOrDefault(BlockKeys.block(x, y, z), Material.AIR);
+        return (Block) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Block.class},
+                (p, m, a) -> switch (m.getName()) {
+                    case "getType" -> type;
+                    case "getX" -> x;
+                    case "getY" -> y;
+                    case "getZ" -> z;
+                    default -> defaultOf(m.getReturnType());
+                });
+    }
+
+    private static Object defaultOf(Class<?> r) {
+        if (!r.isPrimitive() || r == void.class) return null;
+        return Array.get(Array.newInstance(r, 1), 0);
+    }
+
+    private void fill(int y0, int y1, Material m) {
+        for (int y = y0; y <= y1; y++) {
+            for (int x = 0; x < 16; x++) {
+                for (int z = 0; z < 16; z++) blocks.put(BlockKeys.block(x, y, z), m);
+            }
+        }
+    }
+
+    private TreeRegistry.ChunkTrees scan() {
+        return TreeRegistry.scan(world, 0, 0, (x, z) -> 72);
+    }
+
+    /** Índice ordenado por pos y sin repetidos: cada hoja, en un solo árbol. */
+    private static void assertUnique(TreeRegistry.ChunkTrees ct) {
+        for (int i = 1; i < ct.size; i++) {
+            assertTrue(ct.pos[i] > ct.pos[i - 1], "hoja repetida en el índice: pos " + ct.pos[i]);
+        }
+    }
+
+    @Test
+    void smallCanopyIsOneTree() {
+        for (int x = 4; x < 8; x++) {
+            for (int z = 4; z < 8; z++) blocks.put(BlockKeys.block(x, 66, z), Material.OAK_LEAVES);
+        }
+        blocks.put(BlockKeys.block(5, 65, 5), Material.OAK_LOG);
+
+        TreeRegistry.ChunkTrees ct = scan();
+        assertEquals(16, ct.size);
+        assertEquals(1, ct.trees.size());
+        assertUnique(ct);
+    }
+
+    @Test
+    void truncatedCanopyIndexesEveryLeafOnce() {
+        // 16×16×10 = 2560 hojas conexas: más que MAX_LEAVES, el primer BFS se corta
+        fill(60, 69, Material.OAK_LEAVES);
+
+        TreeRegistry.ChunkTrees ct = scan();
+        assertUnique(ct);
+        assertEquals(2560, ct.size);
+        assertTrue(ct.trees.size() > 1, "el BFS debía cortarse");
+
+        Set<Integer> trees = new HashSet<>();
+        for (int i = 0; i < ct.size; i++) trees.add((int) ct.tree[i]);
+        assertEquals(ct.trees.size(), trees.size()); // ningún árbol vacío
+    }
+}